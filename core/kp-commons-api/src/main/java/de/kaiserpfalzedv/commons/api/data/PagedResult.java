@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.data;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * PagedResult -- A single page of a larger result set.
+ *
+ * @param <T> The elements of the result set.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface PagedResult<T extends Serializable> extends Serializable {
+    @Schema(description = "The page delivered (start, size, count) and the size of the total result set.", required = true)
+    @NotNull
+    Paging getPaging();
+
+    @Schema(description = "The elements of this page.", required = true)
+    @NotNull
+    List<T> getData();
+}
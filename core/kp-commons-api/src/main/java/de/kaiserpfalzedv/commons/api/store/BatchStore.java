@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.store;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+
+/**
+ * BatchStore -- A store that saves and removes many resources at once.
+ *
+ * @param <T> The resource type to be stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface BatchStore<T extends Resource<?>> extends StoreService<T> {
+    /**
+     * Persists all given Resources at once. The rules of {@link #save(Resource)} apply to every single object, but the
+     * batch is all-or-nothing: if any object fails the optimistic locking, nothing is saved. If an object is contained
+     * more than once (same nameSpace and name), the later one is checked against the earlier one.
+     *
+     * @param objects The data to store.
+     * @return The stored data in the order of the given objects.
+     * @throws OptimisticLockStoreException Thrown if any object is outdated. No object has been saved then.
+     * @throws DuplicateStoreException      If any object is considered a duplicate. No object has been saved then.
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    List<T> saveAll(final Collection<T> objects) throws OptimisticLockStoreException, DuplicateStoreException;
+
+    /**
+     * Removes all objects specified by their uids at once. Unknown uids are ignored.
+     *
+     * @param uids the uids of the objects to be removed.
+     */
+    void removeAll(final Collection<UUID> uids);
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.store;
+
+import java.time.OffsetDateTime;
+
+/**
+ * CompactableStore -- A store that keeps tombstones of removed resources until they are purged.
+ * <p>
+ * Removing a resource only marks it as deleted, the store hides it from all reads from then on. The physical cleanup
+ * is done later by calling {@link #compact(OffsetDateTime, int)}, usually from a background task.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface CompactableStore {
+    /**
+     * Purges the tombstones of resources removed before the given time.
+     *
+     * @param deletedBefore only resources removed before this time are purged.
+     * @param limit         the maximum number of tombstones to purge in this call.
+     * @return the number of tombstones purged. A value lower than limit means there is nothing left to purge.
+     */
+    int compact(final OffsetDateTime deletedBefore, final int limit);
+
+    /**
+     * @return the number of tombstones not purged yet.
+     */
+    long countTombstones();
+}
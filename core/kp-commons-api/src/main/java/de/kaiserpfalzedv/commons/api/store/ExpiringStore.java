@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.store;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * ExpiringStore -- A store removing resources when they expire.
+ * <p>
+ * The expiry of a resource is set by the annotation {@value #EXPIRES_ANNOTATION} (an ISO-8601 timestamp) or by
+ * {@link #expireAt(UUID, OffsetDateTime)}. Expired resources are removed by calling {@link #expire(OffsetDateTime, int)},
+ * usually from a background task. Until then they are still visible.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface ExpiringStore {
+    /** The annotation holding the time a resource expires (e.g. {@code 2026-10-18T12:00:00Z}). */
+    String EXPIRES_ANNOTATION = "kaiserpfalz-edv.de/expires";
+
+    /**
+     * Sets or clears the expiry of a resource. It replaces the expiry set by the annotation until the resource is
+     * saved again, every save takes the expiry from the annotation of the resource saved.
+     *
+     * @param uid     the uid of the resource.
+     * @param expires the time the resource expires ({@code null} to never expire).
+     * @return {@code true} if the resource exists.
+     */
+    boolean expireAt(final UUID uid, final OffsetDateTime expires);
+
+    /**
+     * Removes the resources expired until the given time as one batch.
+     *
+     * @param now   the current time.
+     * @param limit the maximum number of resources to remove in this call.
+     * @return the number of resources removed. A value lower than limit means there is nothing left to remove.
+     */
+    int expire(final OffsetDateTime now, final int limit);
+
+    /**
+     * @return the number of resources with an expiry.
+     */
+    long countExpiring();
+}
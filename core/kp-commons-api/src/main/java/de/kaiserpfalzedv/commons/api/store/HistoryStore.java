@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.store;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.data.Paging;
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+
+/**
+ * HistoryStore -- A store that keeps older generations of its resources.
+ * <p>
+ * Stores keep only a limited number of generations. Which ones are kept is up to the store.
+ *
+ * @param <T> The resource type to be stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface HistoryStore<T extends Resource<?>> extends StoreService<T> {
+    /**
+     * Loads an older generation of the object.
+     *
+     * @param uid        The uid of the data set to load.
+     * @param generation the generation to load.
+     * @return the object in this generation or an empty {@link Optional} if it is not kept (or the object has been
+     *         removed).
+     */
+    Optional<T> findByUidAndGeneration(final UUID uid, final long generation);
+
+    /**
+     * Lists the generations of the object kept by the store, newest first. The first one is the current object.
+     *
+     * @param uid    The uid of the object.
+     * @param paging the page to retrieve (only start and size are used).
+     * @return the requested page with count and total set according to the generations kept.
+     */
+    PagedResult<T> findHistoryByUid(final UUID uid, final Paging paging);
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.store;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * LabelSelector -- Selects resources by their labels.
+ * <p>
+ * The semantics follow the label selectors of kubernetes: all requirements have to be fulfilled. An empty selector
+ * matches every resource.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface LabelSelector extends Serializable {
+    /**
+     * @return the requirements of this selector.
+     */
+    @NotNull
+    List<? extends LabelSelectorRequirement> getRequirements();
+
+    /**
+     * @param labels the labels of the resource to check.
+     * @return {@code true} if the labels fulfill every requirement of this selector.
+     */
+    default boolean matches(final Map<String, String> labels) {
+        for (final LabelSelectorRequirement requirement : getRequirements()) {
+            if (!requirement.matches(labels)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.store;
+
+/**
+ * LabelSelectorOperator -- The operators of a label selector requirement.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public enum LabelSelectorOperator {
+    /** The label has to exist and its value has to be the single value given ({@code key=value}). */
+    EQUALS,
+    /** The label must not exist or has a value different from the single value given ({@code key!=value}). */
+    NOT_EQUALS,
+    /** The label has to exist and its value has to be one of the values given ({@code key in (a,b)}). */
+    IN,
+    /** The label must not exist or has a value not in the values given ({@code key notin (a,b)}). */
+    NOT_IN,
+    /** The label has to exist, the value does not matter ({@code key}). */
+    EXISTS,
+    /** The label must not exist ({@code !key}). */
+    DOES_NOT_EXIST
+}
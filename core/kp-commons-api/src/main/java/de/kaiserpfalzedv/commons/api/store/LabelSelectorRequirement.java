@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.store;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * LabelSelectorRequirement -- A single requirement of a {@link LabelSelector}.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface LabelSelectorRequirement extends Serializable {
+    /**
+     * @return the name of the label checked.
+     */
+    @NotNull
+    String getKey();
+
+    /**
+     * @return the check to be done.
+     */
+    @NotNull
+    LabelSelectorOperator getOperator();
+
+    /**
+     * @return the values to compare the label with. Empty for {@link LabelSelectorOperator#EXISTS} and
+     *         {@link LabelSelectorOperator#DOES_NOT_EXIST}.
+     */
+    @NotNull
+    Set<String> getValues();
+
+    /**
+     * @param labels the labels of the resource to check.
+     * @return {@code true} if the labels fulfill this requirement.
+     */
+    default boolean matches(final Map<String, String> labels) {
+        final String value = labels != null ? labels.get(getKey()) : null;
+
+        return switch (getOperator()) {
+            case EQUALS, IN -> value != null && getValues().contains(value);
+            case NOT_EQUALS, NOT_IN -> value == null || !getValues().contains(value);
+            case EXISTS -> value != null;
+            case DOES_NOT_EXIST -> value == null;
+        };
+    }
+}
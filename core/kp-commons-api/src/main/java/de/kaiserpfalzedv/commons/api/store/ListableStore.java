@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.store;
+
+import java.util.List;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.data.Paging;
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+
+/**
+ * ListableStore -- A store that lists its namespaces and the resources within them, sorted by name.
+ *
+ * @param <T> The resource type to be stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface ListableStore<T extends Resource<?>> extends StoreService<T> {
+    /**
+     * @return the namespaces containing objects, sorted by name.
+     */
+    List<String> findAllNameSpaces();
+
+    /**
+     * Lists the objects of a namespace sorted by their name.
+     *
+     * @param nameSpace the namespace to list.
+     * @param paging    the page to retrieve (only start and size are used).
+     * @return the requested page with count and total set according to the data in the store.
+     */
+    PagedResult<T> findAllByNameSpace(final String nameSpace, final Paging paging);
+
+    /**
+     * Lists the objects of a namespace whose name starts with the prefix (e.g. for autocompletion), sorted by name.
+     *
+     * @param nameSpace the namespace to search.
+     * @param prefix    the prefix of the names (the empty prefix matches all names).
+     * @param limit     the maximum number of objects to return.
+     * @return the first objects by name with this prefix.
+     */
+    List<T> findByNameSpaceAndNamePrefix(final String nameSpace, final String prefix, final int limit);
+
+    /**
+     * @param nameSpace the namespace to count the objects of.
+     * @return the number of objects in this namespace.
+     */
+    long countByNameSpace(final String nameSpace);
+}
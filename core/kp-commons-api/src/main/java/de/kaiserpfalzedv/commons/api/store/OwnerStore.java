@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.store;
+
+import java.util.List;
+import java.util.UUID;
+
+import de.kaiserpfalzedv.commons.api.resources.Pointer;
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+
+/**
+ * OwnerStore -- A store that knows the owners of its resources
+ * ({@link de.kaiserpfalzedv.commons.api.resources.Metadata#getOwningResource()}).
+ *
+ * @param <T> The resource type to be stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface OwnerStore<T extends Resource<?>> extends StoreService<T> {
+    /**
+     * Selects the objects owned by a resource. The owner is matched by kind, nameSpace and name.
+     *
+     * @param owner the owning resource.
+     * @return all objects owned directly by this resource (in no specific order).
+     */
+    List<T> findByOwner(final Pointer owner);
+
+    /**
+     * Removes the object and all objects owned by it, directly or indirectly (see {@link #findByOwner(Pointer)}), at
+     * once. Objects added to the subtree concurrently may be left over.
+     *
+     * @param uid the uid of the root object of the subtree to remove.
+     * @return the objects removed (empty if there is no object with this uid).
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    List<T> removeCascading(final UUID uid);
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.store;
+
+/**
+ * PersistenceStoreException -- The store could not read or write its persistent data.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public class PersistenceStoreException extends StoreException {
+    /**
+     * @param message the detail message.
+     * @param cause   the cause.
+     */
+    public PersistenceStoreException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * @param message the detail message.
+     */
+    public PersistenceStoreException(final String message) {
+        super(message);
+    }
+}
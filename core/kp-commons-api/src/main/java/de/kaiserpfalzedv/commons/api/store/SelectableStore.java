@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.store;
+
+import java.util.List;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+
+/**
+ * SelectableStore -- A store that selects its resources by their labels.
+ *
+ * @param <T> The resource type to be stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface SelectableStore<T extends Resource<?>> extends StoreService<T> {
+    /**
+     * Selects all objects by their labels.
+     *
+     * @param selector the label selector to match.
+     * @return all objects whose labels match the selector.
+     */
+    List<T> findBySelector(final LabelSelector selector);
+
+    /**
+     * Selects the objects of a namespace by their labels.
+     *
+     * @param nameSpace the namespace to search.
+     * @param selector  the label selector to match.
+     * @return all objects of the namespace whose labels match the selector.
+     */
+    List<T> findByNameSpaceAndSelector(final String nameSpace, final LabelSelector selector);
+}
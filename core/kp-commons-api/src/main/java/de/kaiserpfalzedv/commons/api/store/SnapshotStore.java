@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.store;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+
+/**
+ * SnapshotStore -- A store that opens read-only views pinned to a version.
+ *
+ * @param <T> The resource type to be stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface SnapshotStore<T extends Resource<?>> extends StoreService<T> {
+    /**
+     * Opens a read-only view of the store pinned to the current version. Writers are not blocked by open snapshots.
+     *
+     * @return the snapshot. It has to be closed.
+     */
+    StoreSnapshot<T> snapshot();
+}
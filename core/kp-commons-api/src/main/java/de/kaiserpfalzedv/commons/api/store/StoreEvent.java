@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.kaiserpfalzedv.commons.api.store;
+
+import java.io.Serial;
+import java.util.Locale;
+
+import de.kaiserpfalzedv.commons.api.events.BaseEvent;
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * StoreEvent -- A change of a resource within a store.
+ * <p>
+ * Every event carries the generation of the resource and the revision of the store. The revision is counted per store
+ * over all resources, so it orders all events of a store and is used to resume a watch after the last event received.
+ *
+ * @param <T> The resource changed.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@SuperBuilder(toBuilder = true)
+@Getter
+@ToString(callSuper = true, of = {"type", "revision"})
+@EqualsAndHashCode(callSuper = true, of = {"revision"})
+public class StoreEvent<T extends Resource<?>> extends BaseEvent {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** The kind of change. */
+    private final StoreEventType type;
+
+    /** The revision of the store after this change. */
+    private final long revision;
+
+    /** The resource saved or (for {@link StoreEventType#DELETED}) the last state of the removed resource. */
+    private final T resource;
+
+
+    /**
+     * @return the generation of the resource after this change.
+     */
+    public long getGeneration() {
+        return this.resource.getGeneration();
+    }
+
+    @Override
+    public String getI18nKey() {
+        return "store.event." + this.type.name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public Object[] getI18nData() {
+        return new Object[]{this.resource.getSelfLink(), this.resource.getGeneration(), this.revision};
+    }
+}
@@ -21,13 +21,23 @@ import de.kaiserpfalzedv.commons.api.resources.Resource;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.UnaryOperator;
 
 /**
  * StoreService -- A generic store service definition for persistent TOMB resources.
+ * <p>
+ * Stores offering more than loading, saving and removing single resources implement the capability interfaces
+ * {@link BatchStore}, {@link HistoryStore}, {@link ListableStore}, {@link SelectableStore}, {@link OwnerStore},
+ * {@link SnapshotStore} and {@link WatchableStore}. Callers check them with {@code instanceof}.
  *
  * @param <T> The resource type to be stored.
  */
 public interface StoreService<T extends Resource<?>> {
+    /**
+     * The number of attempts of {@link #compute(UUID, UnaryOperator)} before giving up on concurrent writers.
+     */
+    int COMPUTE_ATTEMPTS = 16;
+
     /**
      * @param nameSpace the namespace of the object to load.
      * @param name      the name of the object to load.
@@ -59,6 +69,89 @@ public interface StoreService<T extends Resource<?>> {
     @SuppressWarnings("UnusedReturnValue")
     T save(final T object) throws OptimisticLockStoreException, DuplicateStoreException;
 
+    /**
+     * Changes the object if it still has the expected generation (compare-and-set). The updater gets the stored object
+     * and returns the changed one, the store saves it with the generation incremented by 1. Stores holding the data
+     * themselves do this atomically while holding the write lock of the object, so the updater has to be fast and must
+     * not access the store. It may be called more than once.
+     * <p>
+     * The default implementation reads, changes and saves the object. So a concurrent writer between the read and the
+     * save leads to the {@link OptimisticLockStoreException}, too.
+     *
+     * @param uid                the uid of the object to change.
+     * @param expectedGeneration the generation the object has to have.
+     * @param updater            returns the changed object. It must not change uid, nameSpace or name.
+     * @return the stored object or an empty {@link Optional} if there is no object with this uid.
+     * @throws OptimisticLockStoreException if the stored object does not have the expected generation.
+     * @throws IllegalArgumentException     if the updater changed uid, nameSpace or name.
+     * @since 4.2.0
+     */
+    default Optional<T> update(final UUID uid, final long expectedGeneration, final UnaryOperator<T> updater)
+            throws OptimisticLockStoreException {
+        final Optional<T> current = this.findByUid(uid);
+
+        if (current.isEmpty()) {
+            return current;
+        }
+        if (current.get().getGeneration() != expectedGeneration) {
+            throw new OptimisticLockStoreException(current.get().getGeneration(), expectedGeneration);
+        }
+
+        return Optional.of(this.save(checkUpdate(current.get(), updater.apply(current.get()))));
+    }
+
+    /**
+     * Changes the object whatever its generation is. The updater gets the stored object and returns the changed one.
+     * If a concurrent writer changed the object in between, the updater is called again with the new version, up to
+     * {@value #COMPUTE_ATTEMPTS} times. The rules of {@link #update(UUID, long, UnaryOperator)} apply to the updater.
+     *
+     * @param uid     the uid of the object to change.
+     * @param updater returns the changed object. It must not change uid, nameSpace or name.
+     * @return the stored object or an empty {@link Optional} if there is no object with this uid.
+     * @throws OptimisticLockStoreException if the object has been changed concurrently on every attempt.
+     * @throws IllegalArgumentException     if the updater changed uid, nameSpace or name.
+     * @since 4.2.0
+     */
+    default Optional<T> compute(final UUID uid, final UnaryOperator<T> updater) throws OptimisticLockStoreException {
+        for (int attempt = 1; ; attempt++) {
+            final Optional<T> current = this.findByUid(uid);
+
+            if (current.isEmpty()) {
+                return current;
+            }
+
+            try {
+                return Optional.of(this.save(checkUpdate(current.get(), updater.apply(current.get()))));
+            } catch (final OptimisticLockStoreException e) {
+                if (attempt >= COMPUTE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks the result of an updater given to {@link #update(UUID, long, UnaryOperator)} or
+     * {@link #compute(UUID, UnaryOperator)}.
+     *
+     * @param stored  the object given to the updater.
+     * @param changed the object returned by the updater.
+     * @param <T>     The resource type stored.
+     * @return the changed object.
+     * @throws IllegalArgumentException if the updater changed uid, nameSpace or name or returned {@code null}.
+     * @since 4.2.0
+     */
+    static <T extends Resource<?>> T checkUpdate(final T stored, final T changed) {
+        if (changed == null
+                || !stored.getUid().equals(changed.getUid())
+                || !stored.getNameSpace().equals(changed.getNameSpace())
+                || !stored.getName().equals(changed.getName())) {
+            throw new IllegalArgumentException("The updater must not change uid, nameSpace or name of " + stored.getSelfLink());
+        }
+
+        return changed;
+    }
+
     /**
      * Remove the object.
      *
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.kaiserpfalzedv.commons.api.store;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+
+/**
+ * StoreSnapshot -- A read-only view of a store pinned to one version.
+ * <p>
+ * All reads of a snapshot return the data as it was when the snapshot has been taken, no matter what has been changed
+ * since. The store keeps the old versions needed until the snapshot is closed, so snapshots have to be closed.
+ *
+ * @param <T> The resource type stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface StoreSnapshot<T extends Resource<?>> extends AutoCloseable {
+    /**
+     * @return the version of the store this snapshot is pinned to.
+     */
+    long getVersion();
+
+    /**
+     * @param nameSpace the namespace of the object to load.
+     * @param name      the name of the object to load.
+     * @return the object at the version of the snapshot or an empty {@link Optional}.
+     */
+    Optional<T> findByNameSpaceAndName(final String nameSpace, final String name);
+
+    /**
+     * @param uid The uid of the data set to load.
+     * @return the object at the version of the snapshot or an empty {@link Optional}.
+     */
+    Optional<T> findByUid(final UUID uid);
+
+    /**
+     * Releases the snapshot. Old versions only referenced by this snapshot are dropped.
+     */
+    @Override
+    void close();
+}
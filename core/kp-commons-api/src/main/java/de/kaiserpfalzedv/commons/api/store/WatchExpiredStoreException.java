@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.kaiserpfalzedv.commons.api.store;
+
+import lombok.Getter;
+
+/**
+ * WatchExpiredStoreException -- The revision to resume a watch from is no longer kept by the store.
+ * <p>
+ * The watcher has to read the current state again and start a new watch without a revision.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Getter
+public class WatchExpiredStoreException extends StoreException {
+    /** The revision the watch should have been resumed after. */
+    private final long revision;
+
+    /**
+     * @param revision the revision the watch should have been resumed after.
+     */
+    public WatchExpiredStoreException(final long revision) {
+        super(String.format("Can't resume watch after revision '%d'. Revision is no longer available.", revision));
+
+        this.revision = revision;
+    }
+}
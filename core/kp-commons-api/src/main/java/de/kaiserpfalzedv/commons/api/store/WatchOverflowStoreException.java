@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.kaiserpfalzedv.commons.api.store;
+
+import lombok.Getter;
+
+/**
+ * WatchOverflowStoreException -- The subscriber did not keep up with the changes and its buffer is full.
+ * <p>
+ * All events up to {@link #getRevision()} have been delivered. The watcher may resume after that revision.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Getter
+public class WatchOverflowStoreException extends StoreException {
+    /** The revision of the last event delivered. */
+    private final long revision;
+
+    /**
+     * @param revision   the revision of the last event delivered.
+     * @param bufferSize the size of the buffer that overflowed.
+     */
+    public WatchOverflowStoreException(final long revision, final int bufferSize) {
+        super(String.format("Watch buffer of %d events overflowed. Last delivered revision is '%d'.", bufferSize, revision));
+
+        this.revision = revision;
+    }
+}
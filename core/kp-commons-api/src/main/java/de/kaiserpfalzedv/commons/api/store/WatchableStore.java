@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.store;
+
+import java.util.concurrent.Flow;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+
+/**
+ * WatchableStore -- A store that publishes its changes to watchers.
+ *
+ * @param <T> The resource type to be stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface WatchableStore<T extends Resource<?>> extends StoreService<T> {
+    /**
+     * Watches all changes of the store from now on.
+     *
+     * @return a publisher of the changes.
+     * @see #watch(String, long)
+     */
+    default Flow.Publisher<StoreEvent<T>> watch() {
+        return watch(null, -1L);
+    }
+
+    /**
+     * Watches the changes of a namespace from now on.
+     *
+     * @param nameSpace the namespace to watch.
+     * @return a publisher of the changes.
+     * @see #watch(String, long)
+     */
+    default Flow.Publisher<StoreEvent<T>> watch(final String nameSpace) {
+        return watch(nameSpace, -1L);
+    }
+
+    /**
+     * Watches the changes of the store. Every subscriber gets its own bounded buffer. If a subscriber can't keep up, it
+     * receives a {@link WatchOverflowStoreException} and may resume after the last revision it received. If the store
+     * does not keep that revision any longer, the subscriber receives a {@link WatchExpiredStoreException}.
+     *
+     * @param nameSpace   the namespace to watch ({@code null} watches all namespaces).
+     * @param resumeAfter the revision of the last event received. All later events are delivered first. A negative
+     *                    value starts with the next change.
+     * @return a publisher of the changes.
+     */
+    Flow.Publisher<StoreEvent<T>> watch(final String nameSpace, final long resumeAfter);
+}
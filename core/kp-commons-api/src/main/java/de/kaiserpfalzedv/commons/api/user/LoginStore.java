@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api.user;
+
+import java.util.Optional;
+
+import de.kaiserpfalzedv.commons.api.store.StoreService;
+
+/**
+ * LoginStore -- A user store that finds the users by their OIDC login.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface LoginStore extends StoreService<User> {
+    /**
+     * Looks up the user of an OIDC login by the properties {@link UserData#ISSUER} and {@link UserData#SUBJECT}.
+     *
+     * @param issuer  the issuer of the token.
+     * @param subject the subject of the token.
+     * @return the user or an empty {@link Optional}.
+     */
+    Optional<User> findByIssuerAndSubject(final String issuer, final String subject);
+}
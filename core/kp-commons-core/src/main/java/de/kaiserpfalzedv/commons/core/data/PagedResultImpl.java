@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.data;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * PagedResultImpl -- A single page of a larger result set.
+ *
+ * @param <T> The elements of the result set.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Schema(
+        description = "A single page of a larger result set including the paging data.",
+        title = "Paged result set"
+)
+@Jacksonized
+@JsonInclude(JsonInclude.Include.NON_ABSENT)
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode
+public class PagedResultImpl<T extends Serializable> implements PagedResult<T> {
+    private static final long serialVersionUID = 0L;
+
+    private final PagingImpl paging;
+
+    @SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"}, justification = "lombok provided @Getter are created")
+    @Builder.Default
+    private final List<T> data = List.of();
+}
@@ -26,6 +26,7 @@ import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 import de.kaiserpfalzedv.commons.api.resources.Metadata;
 import de.kaiserpfalzedv.commons.api.resources.Resource;
@@ -68,6 +69,7 @@ public class ResourceImpl<D extends Serializable> implements Resource<D> {
             description = "Technical data to the resource.",
             required = true
     )
+    @JsonDeserialize(as = MetadataImpl.class)
     @NotNull
     @ToString.Include
     @EqualsAndHashCode.Include
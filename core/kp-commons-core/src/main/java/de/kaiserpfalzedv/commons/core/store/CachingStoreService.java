@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.BatchStore;
+import de.kaiserpfalzedv.commons.api.store.DuplicateStoreException;
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.validation.constraints.NotNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * CachingStoreService -- a bounded cache in front of a slower store.
+ * <p>
+ * Single resource lookups ({@link #findByUid(UUID)} and {@link #findByNameSpaceAndName(String, String)}) are served
+ * from a size and time bounded cache (Caffeine, using W-TinyLFU for eviction). Queries over many resources are not
+ * cached, they are asked at the delegate directly. Saves and removals are done by the delegate first, so the
+ * optimistic locking stays with the delegate. Afterward the cache is updated. The cache never replaces an entry with
+ * an older generation, so concurrent writers can't leave a stale entry behind. Changes done at the delegate directly
+ * (e.g. cascading removals) are seen once the cached entries expire or after {@link #invalidateAll()}.
+ * <p>
+ * Hits, misses, evictions and sizes are published to micrometer as {@code cache.*} meters with the tags
+ * {@code cache=<name>} and {@code index=uid|name}.
+ *
+ * @param <T> The resource to be stored inside the data store.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@Slf4j
+public class CachingStoreService<T extends Resource<?>> implements BatchStore<T> {
+    /**
+     * The store the data is loaded from and written to.
+     */
+    @ToString.Include
+    private final BatchStore<T> delegate;
+
+    @ToString.Include
+    private final String cacheName;
+
+    private final Cache<UUID, T> byUid;
+    private final Cache<NameKey, T> byName;
+
+
+    /**
+     * @param delegate         the store to cache.
+     * @param name             the name of the cache (used for the metrics).
+     * @param maximumSize      the maximum number of resources kept per index.
+     * @param expireAfterWrite the time a cached resource is valid.
+     * @param registry         the registry to publish the cache metrics to (may be {@code null}).
+     */
+    public CachingStoreService(
+            @NotNull final BatchStore<T> delegate,
+            @NotNull final String name,
+            final long maximumSize,
+            @NotNull final Duration expireAfterWrite,
+            final MeterRegistry registry
+    ) {
+        this.delegate = delegate;
+        this.cacheName = name;
+
+        this.byUid = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.byName = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        if (registry != null) {
+            CaffeineCacheMetrics.monitor(registry, this.byUid, name, Tags.of("index", "uid"));
+            CaffeineCacheMetrics.monitor(registry, this.byName, name, Tags.of("index", "name"));
+        }
+    }
+
+
+    @Override
+    public Optional<T> findByNameSpaceAndName(final String nameSpace, final String name) {
+        return Optional.ofNullable(this.byName.get(
+                new NameKey(nameSpace, name),
+                k -> this.delegate.findByNameSpaceAndName(k.nameSpace(), k.name()).orElse(null)
+        ));
+    }
+
+    @Override
+    public Optional<T> findByUid(final UUID uid) {
+        return Optional.ofNullable(this.byUid.get(uid, k -> this.delegate.findByUid(k).orElse(null)));
+    }
+
+    @Override
+    public T save(final T object) throws OptimisticLockStoreException, DuplicateStoreException {
+        final T result;
+        try {
+            result = this.delegate.save(object);
+        } catch (final OptimisticLockStoreException e) {
+            // our cached version is outdated, the next read has to go to the delegate.
+            this.invalidate(object);
+            throw e;
+        }
+
+        this.cache(result);
+        return result;
+    }
+
+    @Override
+    public List<T> saveAll(final Collection<T> objects) throws OptimisticLockStoreException, DuplicateStoreException {
+        final List<T> result;
+        try {
+            result = this.delegate.saveAll(objects);
+        } catch (final OptimisticLockStoreException e) {
+            objects.forEach(this::invalidate);
+            throw e;
+        }
+
+        result.forEach(this::cache);
+        return result;
+    }
+
+    @Override
+    public Optional<T> update(final UUID uid, final long expectedGeneration, final UnaryOperator<T> updater)
+            throws OptimisticLockStoreException {
+        return this.cacheUpdate(uid, () -> this.delegate.update(uid, expectedGeneration, updater));
+    }
+
+    @Override
+    public Optional<T> compute(final UUID uid, final UnaryOperator<T> updater) throws OptimisticLockStoreException {
+        return this.cacheUpdate(uid, () -> this.delegate.compute(uid, updater));
+    }
+
+    /**
+     * Runs the update at the delegate and caches the result. If the update fails or the resource is gone, the cached
+     * version is outdated and dropped.
+     *
+     * @param uid    the uid of the resource changed.
+     * @param update the update to run at the delegate.
+     * @return the result of the update.
+     */
+    private Optional<T> cacheUpdate(final UUID uid, final Supplier<Optional<T>> update) {
+        final Optional<T> result;
+        try {
+            result = update.get();
+        } catch (final OptimisticLockStoreException e) {
+            this.invalidate(uid);
+            throw e;
+        }
+
+        result.ifPresentOrElse(this::cache, () -> this.invalidate(uid));
+        return result;
+    }
+
+    @Override
+    public void remove(final T object) {
+        this.delegate.remove(object);
+        this.invalidate(object);
+    }
+
+    @Override
+    public void remove(final String nameSpace, final String name) {
+        final NameKey key = new NameKey(nameSpace, name);
+        final T removed = Optional.ofNullable(this.byName.getIfPresent(key))
+                .or(() -> this.delegate.findByNameSpaceAndName(nameSpace, name))
+                .orElse(null);
+
+        this.delegate.remove(nameSpace, name);
+
+        this.byName.invalidate(key);
+        if (removed != null) {
+            this.invalidate(removed);
+        }
+    }
+
+    @Override
+    public void remove(final UUID uid) {
+        final T removed = Optional.ofNullable(this.byUid.getIfPresent(uid))
+                .or(() -> this.delegate.findByUid(uid))
+                .orElse(null);
+
+        this.delegate.remove(uid);
+
+        this.byUid.invalidate(uid);
+        if (removed != null) {
+            this.invalidate(removed);
+        }
+    }
+
+    @Override
+    public void removeAll(final Collection<UUID> uids) {
+        final Map<UUID, T> removed = new HashMap<>(this.byUid.getAllPresent(uids));
+        for (final UUID uid : uids) {
+            if (!removed.containsKey(uid)) {
+                this.delegate.findByUid(uid).ifPresent(r -> removed.put(uid, r));
+            }
+        }
+
+        this.delegate.removeAll(uids);
+
+        this.byUid.invalidateAll(uids);
+        removed.values().forEach(this::invalidate);
+    }
+
+    /**
+     * Drops all cached resources.
+     */
+    public void invalidateAll() {
+        this.byUid.invalidateAll();
+        this.byName.invalidateAll();
+    }
+
+    private void cache(final T resource) {
+        this.byUid.asMap().merge(resource.getUid(), resource, CachingStoreService::newerGeneration);
+        this.byName.asMap().merge(
+                new NameKey(resource.getNameSpace(), resource.getName()), resource, CachingStoreService::newerGeneration
+        );
+    }
+
+    private void invalidate(final UUID uid) {
+        final T cached = this.byUid.getIfPresent(uid);
+
+        this.byUid.invalidate(uid);
+        if (cached != null) {
+            this.invalidate(cached);
+        } else {
+            // only cached by name, if at all. This is the rare path after a failed update, so a scan is fine.
+            this.byName.asMap().values().removeIf(r -> uid.equals(r.getUid()));
+        }
+    }
+
+    private void invalidate(final T resource) {
+        this.byUid.invalidate(resource.getUid());
+        this.byName.invalidate(new NameKey(resource.getNameSpace(), resource.getName()));
+    }
+
+    private static <T extends Resource<?>> T newerGeneration(final T cached, final T saved) {
+        return saved.getGeneration() >= cached.getGeneration() ? saved : cached;
+    }
+
+
+    /**
+     * The cache key for the nameSpace/name index.
+     *
+     * @param nameSpace the namespace of the resource.
+     * @param name      the name of the resource.
+     */
+    private record NameKey(String nameSpace, String name) {}
+}
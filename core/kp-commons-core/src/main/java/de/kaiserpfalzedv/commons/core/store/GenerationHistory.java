@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.PersistenceStoreException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * GenerationHistory -- the last generations of every resource, kept as structural deltas.
+ * <p>
+ * Only the current generation of a resource is kept as an object. Every older generation is a reverse delta of the
+ * JSON tree of the next newer one: the fields that changed, were added or were removed. Objects are compared field by
+ * field, everything else (including arrays) is replaced as a whole. So the memory used grows with the size of the
+ * changes, not with the size of the resource.
+ * <p>
+ * The versions of a resource are replaced as a whole on every change, so readers need no lock. Changes have to be
+ * done while holding the store lock of the resource.
+ *
+ * @param <T> The resource stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+final class GenerationHistory<T extends Resource<?>> {
+    @ToString.Include
+    private final Class<? extends T> type;
+
+    /** The number of older generations kept per resource. */
+    @ToString.Include
+    private final int depth;
+
+    private final ObjectMapper mapper;
+
+    /** The resources with older generations by their uid. */
+    private final ConcurrentHashMap<UUID, Versions<T>> versions = new ConcurrentHashMap<>();
+
+
+    /**
+     * @param type   the concrete class of the resources (e.g. {@code UserImpl.class}).
+     * @param depth  the number of older generations to keep per resource.
+     * @param mapper the mapper converting the resources to JSON trees and back.
+     */
+    GenerationHistory(final Class<? extends T> type, final int depth, final ObjectMapper mapper) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("The history has to keep at least one generation: " + depth);
+        }
+
+        this.type = type;
+        this.depth = depth;
+        this.mapper = mapper;
+    }
+
+
+    /**
+     * Records the change of a resource. Must be called while holding the store lock.
+     *
+     * @param stored the resource replaced (may be {@code null}).
+     * @param saved  the resource now stored.
+     */
+    void record(final T stored, final T saved) {
+        if (stored == null || !stored.getUid().equals(saved.getUid())) {
+            if (stored != null) {
+                this.versions.remove(stored.getUid());
+            }
+            this.versions.remove(saved.getUid());
+            return;
+        }
+
+        final Change change = diff(this.mapper.valueToTree(saved), this.mapper.valueToTree(stored));
+        final Versions<T> previous = this.versions.get(saved.getUid());
+
+        final int kept = previous != null ? Math.min(previous.deltas().size(), this.depth - 1) : 0;
+        final ArrayList<Delta> deltas = new ArrayList<>(kept + 1);
+        deltas.add(new Delta(stored.getGeneration(), change));
+        if (kept > 0) {
+            deltas.addAll(previous.deltas().subList(0, kept));
+        }
+
+        this.versions.put(saved.getUid(), new Versions<>(saved, List.copyOf(deltas)));
+    }
+
+    /**
+     * Forgets all older generations of the resource. Must be called while holding the store lock.
+     *
+     * @param uid the uid of the resource removed.
+     */
+    void forget(final UUID uid) {
+        this.versions.remove(uid);
+    }
+
+    /**
+     * @param current    the current generation of the resource (may be {@code null}).
+     * @param generation the generation to read.
+     * @return the resource in this generation or {@code null} if it is not kept.
+     */
+    T read(final T current, final long generation) {
+        if (current == null || current.getGeneration() == generation) {
+            return current;
+        }
+
+        final Versions<T> kept = this.versions.get(current.getUid());
+        if (kept == null) {
+            return null;
+        }
+
+        final JsonNode tree = this.mapper.valueToTree(kept.current());
+        for (final Delta delta : kept.deltas()) {
+            if (delta.generation() < generation) {
+                return null;
+            }
+
+            final JsonNode older = apply(tree, delta.change());
+            if (delta.generation() == generation) {
+                return this.convert(older);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param current the current generation of the resource (may be {@code null}).
+     * @param start   the number of generations to skip (newest first).
+     * @param count   the maximum number of generations to return.
+     * @return the generations, newest first.
+     */
+    List<T> page(final T current, final long start, final int count) {
+        if (current == null) {
+            return List.of();
+        }
+
+        final Versions<T> kept = this.versions.get(current.getUid());
+        final Versions<T> all = kept != null ? kept : new Versions<>(current, List.of());
+
+        final ArrayList<T> result = new ArrayList<>(Math.min(count, all.deltas().size() + 1));
+        if (start == 0 && count > 0) {
+            result.add(all.current());
+        }
+
+        JsonNode tree = null;
+        for (int i = 0; i < all.deltas().size() && result.size() < count; i++) {
+            if (tree == null) {
+                tree = this.mapper.valueToTree(all.current());
+            }
+            tree = apply(tree, all.deltas().get(i).change());
+
+            if (i + 1 >= start) {
+                result.add(this.convert(tree));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param current the current generation of the resource (may be {@code null}).
+     * @return the number of generations kept including the current one.
+     */
+    long count(final T current) {
+        if (current == null) {
+            return 0;
+        }
+
+        final Versions<T> kept = this.versions.get(current.getUid());
+        return 1 + (kept != null ? kept.deltas().size() : 0);
+    }
+
+    /**
+     * @return the number of resources with older generations.
+     */
+    int size() {
+        return this.versions.size();
+    }
+
+    private T convert(final JsonNode tree) {
+        try {
+            return this.mapper.treeToValue(tree, this.type);
+        } catch (final JsonProcessingException e) {
+            throw new PersistenceStoreException("Can't restore older generation of type " + this.type.getName(), e);
+        }
+    }
+
+
+    /**
+     * @param from the newer JSON tree.
+     * @param to   the older JSON tree.
+     * @return the change converting from into to ({@code null} if they are equal).
+     */
+    static Change diff(final JsonNode from, final JsonNode to) {
+        if (from.equals(to)) {
+            return null;
+        }
+        if (!from.isObject() || !to.isObject()) {
+            return new Replace(to);
+        }
+
+        final HashMap<String, Change> fields = new HashMap<>();
+        for (final Map.Entry<String, JsonNode> field : to.properties()) {
+            final JsonNode previous = from.get(field.getKey());
+
+            final Change change = previous != null ? diff(previous, field.getValue()) : new Replace(field.getValue());
+            if (change != null) {
+                fields.put(field.getKey(), change);
+            }
+        }
+        for (final Iterator<String> i = from.fieldNames(); i.hasNext(); ) {
+            final String name = i.next();
+
+            if (!to.has(name)) {
+                fields.put(name, Remove.INSTANCE);
+            }
+        }
+
+        return new Fields(Map.copyOf(fields));
+    }
+
+    /**
+     * Applies the change. Changes the tree given if possible.
+     *
+     * @param tree   the JSON tree to change.
+     * @param change the change to apply.
+     * @return the changed tree.
+     */
+    static JsonNode apply(final JsonNode tree, final Change change) {
+        if (change instanceof Replace replace) {
+            // the tree may be changed by the next delta, the delta has to stay as it is.
+            return replace.value().deepCopy();
+        }
+
+        final ObjectNode result = (ObjectNode) tree;
+        for (final Map.Entry<String, Change> field : ((Fields) change).fields().entrySet()) {
+            if (field.getValue() instanceof Remove) {
+                result.remove(field.getKey());
+            } else {
+                final JsonNode current = result.get(field.getKey());
+                result.set(field.getKey(), apply(current, field.getValue()));
+            }
+        }
+
+        return result;
+    }
+
+
+    /**
+     * A structural change of a JSON tree.
+     */
+    interface Change {}
+
+    /**
+     * The value is replaced as a whole.
+     */
+    @ToString
+    @EqualsAndHashCode
+    static final class Replace implements Change {
+        private final JsonNode value;
+
+        Replace(final JsonNode value) {
+            this.value = value;
+        }
+
+        /**
+         * @return the new value.
+         */
+        JsonNode value() {
+            return this.value;
+        }
+    }
+
+    /**
+     * The field is removed.
+     */
+    enum Remove implements Change { INSTANCE }
+
+    /**
+     * The fields of an object are changed one by one.
+     */
+    @ToString
+    @EqualsAndHashCode
+    static final class Fields implements Change {
+        private final Map<String, Change> fields;
+
+        Fields(final Map<String, Change> fields) {
+            this.fields = fields;
+        }
+
+        /**
+         * @return the changes of the fields of an object.
+         */
+        Map<String, Change> fields() {
+            return this.fields;
+        }
+    }
+
+    /**
+     * @param generation the generation restored by the change.
+     * @param change     the change from the next newer generation to this one.
+     */
+    private record Delta(long generation, Change change) {}
+
+    /**
+     * @param current the current generation of the resource.
+     * @param deltas  the changes to the older generations, newest first.
+     */
+    private record Versions<T>(T current, List<Delta> deltas) {}
+}
@@ -17,13 +17,58 @@
 
 package de.kaiserpfalzedv.commons.core.store;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.data.Paging;
+import de.kaiserpfalzedv.commons.api.resources.Pointer;
 import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.BatchStore;
+import de.kaiserpfalzedv.commons.api.store.CompactableStore;
+import de.kaiserpfalzedv.commons.api.store.ExpiringStore;
+import de.kaiserpfalzedv.commons.api.store.HistoryStore;
+import de.kaiserpfalzedv.commons.api.store.LabelSelector;
+import de.kaiserpfalzedv.commons.api.store.ListableStore;
 import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.store.OwnerStore;
+import de.kaiserpfalzedv.commons.api.store.SelectableStore;
+import de.kaiserpfalzedv.commons.api.store.SnapshotStore;
+import de.kaiserpfalzedv.commons.api.store.StoreEvent;
+import de.kaiserpfalzedv.commons.api.store.StoreEventType;
 import de.kaiserpfalzedv.commons.api.store.StoreService;
+import de.kaiserpfalzedv.commons.api.store.StoreSnapshot;
+import de.kaiserpfalzedv.commons.api.store.WatchableStore;
+import de.kaiserpfalzedv.commons.core.data.PagedResultImpl;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -31,98 +76,1289 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * GenericStoreService -- an ephemeral store for Resources.
  * <p>
- * This is a memory alternative for a persistent data store.
+ * This is a memory alternative for a persistent data store. It is safe to be used by many threads at once: reads
+ * never take a lock, writes are serialized per nameSpace/name by a fixed set of striped locks. So two writes to
+ * different resources only contend if they happen to hash to the same stripe. Batches lock all their stripes at once
+ * (in ascending order) and are validated completely before the first resource is changed.
+ * <p>
+ * Besides the primary indexes (uid and nameSpace/name) the store keeps a name-sorted index per namespace for paging,
+ * an inverted index of the labels for label selector queries and one of the owners for {@link #findByOwner(Pointer)}.
+ * All of them are changed while holding the write lock.
+ * <p>
+ * Changes can be watched ({@link #watch(String, long)}). The events are delivered on the executor given to the
+ * constructor (the common fork join pool by default), with a buffer of {@value StoreChangeFeed#DEFAULT_BUFFER_SIZE}
+ * events per subscriber. The last {@value StoreChangeFeed#DEFAULT_HISTORY_SIZE} events are kept to resume watches
+ * while anybody watches.
+ * <p>
+ * Consistent reads of several resources are done via {@link #snapshot()}. Every write gets a version of the store.
+ * While snapshots are open, writes keep the previous values they replace, so snapshots never block writers.
+ * <p>
+ * Removing a resource only adds a tombstone to its namespace, the resource is hidden from all reads from then on but
+ * stays in the indexes. {@link #compact(OffsetDateTime, int)} purges the tombstones (see {@link StoreCompactor}), so
+ * the work of removing a resource from the indexes is done outside the hot path. The tombstones are kept ordered by
+ * their deletion time too, so compacting only visits the tombstones it purges.
+ * <p>
+ * Optionally the store keeps the last generations of every resource ({@link #findByUidAndGeneration(UUID, long)}).
+ * Older generations are kept as structural deltas, see {@link GenerationHistory}.
+ * <p>
+ * Resources may expire ({@link ExpiringStore}). The expiry times are kept in a {@link TimingWheel} with a resolution
+ * of one second, so {@link #expire(OffsetDateTime, int)} only touches the resources expired (see {@link StoreExpirer}).
  *
  * @param <T> The resource to be stored inside the data store.
  * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
  * @since 2.0.0  2021-05-24
  */
-@ToString
-@EqualsAndHashCode
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Slf4j
-public abstract class GenericStoreService<T extends Resource<?>> implements StoreService<T> {
+public abstract class GenericStoreService<T extends Resource<?>> implements BatchStore<T>, HistoryStore<T>,
+        ListableStore<T>, SelectableStore<T>, OwnerStore<T>, SnapshotStore<T>, WatchableStore<T>, CompactableStore,
+        ExpiringStore {
+    /**
+     * The default number of lock stripes (4 per available processor, rounded up to the next power of two).
+     */
+    protected static final int DEFAULT_CONCURRENCY_LEVEL = Runtime.getRuntime().availableProcessors() * 4;
+    /** The resolution of the expiry times. */
+    private static final Duration EXPIRY_TICK = Duration.ofSeconds(1);
+
+    /**
+     * The name based memory store: nameSpace first, then name within the nameSpace.
+     */
+    @ToString.Include
+    @EqualsAndHashCode.Include
+    private final ConcurrentHashMap<String, NameSpaceIndex<T>> namedStore = new ConcurrentHashMap<>(16);
+
+    /**
+     * The uid based memory store.
+     */
+    @ToString.Include
+    @EqualsAndHashCode.Include
+    private final ConcurrentHashMap<UUID, T> uidStore = new ConcurrentHashMap<>(16);
+
+    /**
+     * The inverted index of the resource labels.
+     */
+    private final LabelIndex labelIndex = new LabelIndex();
+
+    /**
+     * The inverted index of the resource owners.
+     */
+    private final OwnerIndex ownerIndex = new OwnerIndex();
+
+    /**
+     * The write locks. A resource is guarded by the stripe selected by the hash of its nameSpace and name.
+     */
+    private final ReentrantLock[] locks;
+
+    /**
+     * The versions kept for open snapshots.
+     */
+    private final VersionHistory<T> history;
+
+    /**
+     * The older generations of the resources ({@code null} if not kept).
+     */
+    private final GenerationHistory<T> generations;
+
+    /**
+     * The change events for watchers.
+     */
+    private final StoreChangeFeed<T> changes;
+
+    /**
+     * The expiry times of the resources by uid. Changed while holding the write lock of the resource.
+     */
+    private final TimingWheel<UUID> expiries = new TimingWheel<>(EXPIRY_TICK, System.currentTimeMillis());
+
+    /**
+     * The tombstones of all namespaces ordered by deletion time. Entries of tombstones replaced meanwhile are dropped
+     * when compacting reaches them.
+     */
+    private final ConcurrentSkipListSet<Grave<T>> graves = new ConcurrentSkipListSet<>(Grave.ORDER);
+
+    /**
+     * The number of tombstones added, orders the tombstones added at the same time.
+     */
+    private final AtomicLong burials = new AtomicLong();
+
+
+    protected GenericStoreService() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * @param concurrencyLevel the number of lock stripes. Will be rounded up to the next power of two.
+     */
+    protected GenericStoreService(final int concurrencyLevel) {
+        this(concurrencyLevel, null, 0);
+    }
+
     /**
-     * The name based memory store for guilds.
+     * @param concurrencyLevel the number of lock stripes. Will be rounded up to the next power of two.
+     * @param type             the concrete class of the resources (e.g. {@code UserImpl.class}), needed to restore
+     *                         older generations ({@code null} to keep no history).
+     * @param generations      the number of older generations to keep per resource.
+     * @since 4.2.0
      */
-    private final HashMap<String, T> namedStore = new HashMap<>(10);
+    protected GenericStoreService(final int concurrencyLevel, final Class<? extends T> type, final int generations) {
+        this(concurrencyLevel, type, generations, ForkJoinPool.commonPool());
+    }
 
     /**
-     * The uid based memory store for guilds.
+     * @param concurrencyLevel the number of lock stripes. Will be rounded up to the next power of two.
+     * @param type             the concrete class of the resources (e.g. {@code UserImpl.class}), needed to restore
+     *                         older generations ({@code null} to keep no history).
+     * @param generations      the number of older generations to keep per resource.
+     * @param watchExecutor    the executor delivering the change events to the watchers.
+     * @since 4.2.0
      */
-    private final HashMap<UUID, T> uidStore = new HashMap<>(10);
+    protected GenericStoreService(
+            final int concurrencyLevel,
+            final Class<? extends T> type,
+            final int generations,
+            final Executor watchExecutor
+    ) {
+        final int stripes = concurrencyLevel > 1 ? Integer.highestOneBit(concurrencyLevel - 1) << 1 : 1;
+
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+        this.history = new VersionHistory<>(stripes);
+        this.generations = type != null
+                ? new GenerationHistory<>(type, generations, JacksonResourceCodec.defaultMapper())
+                : null;
+        this.changes = new StoreChangeFeed<>(
+                watchExecutor, StoreChangeFeed.DEFAULT_BUFFER_SIZE, StoreChangeFeed.DEFAULT_HISTORY_SIZE
+        );
+    }
 
 
     @Override
     public Optional<T> findByNameSpaceAndName(final String nameSpace, final String name) {
-        final String key = this.generateStoreKey(nameSpace, name);
+        final NameSpaceIndex<T> index = this.namedStore.get(nameSpace);
 
-        return Optional.ofNullable(this.namedStore.get(key));
+        return Optional.ofNullable(index != null ? index.live(name) : null);
     }
 
     @Override
     public Optional<T> findByUid(final UUID uid) {
-        return Optional.ofNullable(this.uidStore.get(uid));
+        return Optional.ofNullable(this.visible(this.uidStore.get(uid)));
+    }
+
+    /**
+     * Older generations are only kept if the store has been created with a history. Without one only the current
+     * generation is found.
+     */
+    @Override
+    public Optional<T> findByUidAndGeneration(final UUID uid, final long generation) {
+        if (this.generations == null) {
+            return this.findByUid(uid).filter(r -> r.getGeneration() == generation);
+        }
+
+        return Optional.ofNullable(this.generations.read(this.visible(this.uidStore.get(uid)), generation));
+    }
+
+    @Override
+    public PagedResult<T> findHistoryByUid(final UUID uid, final Paging paging) {
+        final T current = this.visible(this.uidStore.get(uid));
+        final List<T> data;
+        final long total;
+        if (this.generations == null) {
+            total = current != null ? 1 : 0;
+            data = current != null && paging.getStart() == 0 && paging.getSize() > 0 ? List.of(current) : List.of();
+        } else {
+            data = this.generations.page(current, paging.getStart(), (int) Math.min(paging.getSize(), Integer.MAX_VALUE));
+            total = this.generations.count(current);
+        }
+
+        return PagedResultImpl.<T>builder()
+                .paging(PagingImpl.builder()
+                        .start(paging.getStart())
+                        .size(paging.getSize())
+                        .count(data.size())
+                        .total(total)
+                        .build())
+                .data(data)
+                .build();
+    }
+
+    @Override
+    public List<String> findAllNameSpaces() {
+        return this.namedStore.values().stream()
+                .filter(index -> index.size() > 0)
+                .map(NameSpaceIndex::getNameSpace)
+                .sorted()
+                .toList();
+    }
+
+    @Override
+    public PagedResult<T> findAllByNameSpace(final String nameSpace, final Paging paging) {
+        final NameSpaceIndex<T> index = this.namedStore.get(nameSpace);
+        final NameSpaceIndex.Contents<T> contents = index != null ? index.contents() : NameSpaceIndex.Contents.empty();
+
+        final List<T> data = contents.page(paging.getStart(), (int) Math.min(paging.getSize(), Integer.MAX_VALUE));
+
+        return PagedResultImpl.<T>builder()
+                .paging(PagingImpl.builder()
+                        .start(paging.getStart())
+                        .size(paging.getSize())
+                        .count(data.size())
+                        .total(contents.size())
+                        .build())
+                .data(data)
+                .build();
+    }
+
+    @Override
+    public List<T> findByNameSpaceAndNamePrefix(final String nameSpace, final String prefix, final int limit) {
+        final NameSpaceIndex<T> index = this.namedStore.get(nameSpace);
+
+        return index != null ? index.contents().withPrefix(prefix, limit) : List.of();
+    }
+
+    @Override
+    public long countByNameSpace(final String nameSpace) {
+        final NameSpaceIndex<T> index = this.namedStore.get(nameSpace);
+
+        return index != null ? index.size() : 0;
+    }
+
+    @Override
+    public List<T> findBySelector(final LabelSelector selector) {
+        return this.select(null, selector);
+    }
+
+    @Override
+    public List<T> findByNameSpaceAndSelector(final String nameSpace, final LabelSelector selector) {
+        return this.select(nameSpace, selector);
+    }
+
+    /**
+     * Narrows the search via the label index and checks the remaining candidates against the selector.
+     *
+     * @param nameSpace the namespace to restrict the result to ({@code null} for all namespaces).
+     * @param selector  the selector to match.
+     * @return all matching resources (in no specific order).
+     */
+    private List<T> select(final String nameSpace, final LabelSelector selector) {
+        final Collection<UUID> candidates = this.labelIndex.candidates(selector);
+        final ArrayList<T> result = new ArrayList<>();
+
+        if (candidates == null) {
+            final Collection<T> all;
+            if (nameSpace != null) {
+                final NameSpaceIndex<T> index = this.namedStore.get(nameSpace);
+                all = index != null ? index.values() : List.of();
+            } else {
+                all = this.values();
+            }
+
+            for (final T resource : all) {
+                if (selector.matches(labels(resource))) {
+                    result.add(resource);
+                }
+            }
+        } else {
+            for (final UUID uid : candidates) {
+                final T resource = this.visible(this.uidStore.get(uid));
+
+                if (
+                        resource != null
+                                && (nameSpace == null || nameSpace.equals(resource.getNameSpace()))
+                                && selector.matches(labels(resource))
+                ) {
+                    result.add(resource);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public List<T> findByOwner(final Pointer owner) {
+        final List<String> key = OwnerIndex.key(owner);
+        final ArrayList<T> result = new ArrayList<>();
+
+        for (final UUID uid : this.ownerIndex.children(key)) {
+            final T resource = this.visible(this.uidStore.get(uid));
+
+            if (resource != null && key.equals(OwnerIndex.owner(resource))) {
+                result.add(resource);
+            }
+        }
+
+        return result;
     }
 
-    private String generateStoreKey(final String nameSpace, final String name) {
-        return nameSpace + "-" + name;
+    @Override
+    public StoreSnapshot<T> snapshot() {
+        return new Snapshot(this.history.pin());
+    }
+
+    @Override
+    public Flow.Publisher<StoreEvent<T>> watch(final String nameSpace, final long resumeAfter) {
+        return this.changes.publisher(nameSpace, resumeAfter);
+    }
+
+    /**
+     * @return all resources currently stored (a copy, without the removed ones).
+     */
+    protected Collection<T> values() {
+        final ArrayList<T> result = new ArrayList<>(this.uidStore.size());
+
+        for (final T resource : this.uidStore.values()) {
+            if (this.visible(resource) != null) {
+                result.add(resource);
+            }
+        }
+
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @param resource the resource read from the uid index (may be {@code null}).
+     * @return the resource or {@code null} if it has been removed.
+     */
+    private T visible(final T resource) {
+        if (resource == null) {
+            return null;
+        }
+
+        final NameSpaceIndex<T> index = this.namedStore.get(resource.getNameSpace());
+        return index != null && !index.contents().isBuried(resource) ? resource : null;
+    }
+
+    /**
+     * @param nameSpace the namespace to retrieve the index for.
+     * @return the index for this namespace. It will be created if it does not exist yet.
+     */
+    private NameSpaceIndex<T> nameSpaceIndex(final String nameSpace) {
+        final NameSpaceIndex<T> result = this.namedStore.get(nameSpace);
+
+        return result != null ? result : this.namedStore.computeIfAbsent(nameSpace, NameSpaceIndex::new);
     }
 
     @Override
     public T save(final T object) throws OptimisticLockStoreException {
         log.trace("Saving: {}", object);
 
-        final String key = this.generateStoreKey(object.getNameSpace(), object.getName());
+        final NameSpaceIndex<T> index = this.nameSpaceIndex(object.getNameSpace());
+
+        final int stripe = this.stripe(object.getNameSpace(), object.getName());
+        final ReentrantLock lock = this.locks[stripe];
+        lock.lock();
+        try {
+            final T stored = index.live(object.getName());
 
-        @SuppressWarnings("unchecked")
-        final
-        T data = (!this.namedStore.containsKey(key))
-                ? object
-                : (T) object.increaseGeneration();
+            @SuppressWarnings("unchecked")
+            final
+            T data = (stored == null)
+                    ? object
+                    : (T) object.increaseGeneration();
 
+            this.checkOptimisticLocking(stored, data);
+
+            return this.commit(index, stripe, stored, data);
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        this.checkOptimisticLocking(key, data);
+    /**
+     * Calls {@link #beforeSave(Resource, Resource)}, stores the resource, calls {@link #afterSave(Resource, Resource)}
+     * and publishes the change. Must be called while holding the write lock.
+     *
+     * @param index  the namespace index of the resource.
+     * @param stripe the lock stripe held.
+     * @param stored the resource visible under this nameSpace and name (may be {@code null}).
+     * @param data   the resource to store.
+     * @return the resource stored.
+     */
+    private T commit(final NameSpaceIndex<T> index, final int stripe, final T stored, final T data) {
+        this.beforeSave(stored, data);
 
-        this.namedStore.put(key, data);
-        this.uidStore.put(object.getUid(), data);
+        final long commit = this.history.begin(stripe);
+        try {
+            this.put(index, stored, data, commit);
+        } finally {
+            this.history.end(stripe);
+        }
+        this.afterSave(stored, data);
+        this.changes.publish(stored == null ? StoreEventType.ADDED : StoreEventType.MODIFIED, data);
         return data;
     }
 
-    private void checkOptimisticLocking(final String key, final T object) {
-        if (
-                this.namedStore.containsKey(key)
-                        && (this.namedStore.get(key).getGeneration() >= object.getGeneration())
-        ) {
-            throw new OptimisticLockStoreException(this.namedStore.get(key).getGeneration(), object.getGeneration());
+    /**
+     * Changes the resource while holding its write lock, so the generation can't change between the check and the save.
+     * The updater is called exactly once.
+     */
+    @Override
+    public Optional<T> update(final UUID uid, final long expectedGeneration, final UnaryOperator<T> updater)
+            throws OptimisticLockStoreException {
+        return this.modify(uid, expectedGeneration, updater);
+    }
+
+    /**
+     * Changes the resource while holding its write lock. Since there is no other writer, the updater is called exactly
+     * once.
+     */
+    @Override
+    public Optional<T> compute(final UUID uid, final UnaryOperator<T> updater) throws OptimisticLockStoreException {
+        return this.modify(uid, null, updater);
+    }
+
+    /**
+     * @param uid                the uid of the resource to change.
+     * @param expectedGeneration the generation the resource has to have ({@code null} for any).
+     * @param updater            returns the changed resource.
+     * @return the resource stored or an empty {@link Optional} if there is none with this uid.
+     */
+    private Optional<T> modify(final UUID uid, final Long expectedGeneration, final UnaryOperator<T> updater) {
+        T data = this.visible(this.uidStore.get(uid));
+
+        for (int attempt = 1; data != null; attempt++) {
+            // the lock is selected by nameSpace/name, so we have to check again after acquiring it.
+            final int stripe = this.stripe(data.getNameSpace(), data.getName());
+            final ReentrantLock lock = this.locks[stripe];
+            lock.lock();
+            try {
+                final T current = this.visible(this.uidStore.get(uid));
+
+                if (current == data) {
+                    if (expectedGeneration != null && current.getGeneration() != expectedGeneration.longValue()) {
+                        throw new OptimisticLockStoreException(current.getGeneration(), expectedGeneration);
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    final T changed = (T) StoreService.checkUpdate(current, updater.apply(current)).increaseGeneration();
+                    this.checkOptimisticLocking(current, changed);
+
+                    return Optional.of(this.commit(this.namedStore.get(current.getNameSpace()), stripe, current, changed));
+                }
+                if (attempt >= COMPUTE_ATTEMPTS && current != null) {
+                    throw new OptimisticLockStoreException(current.getGeneration(), data.getGeneration());
+                }
+
+                data = current;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public List<T> saveAll(final Collection<T> objects) throws OptimisticLockStoreException {
+        if (objects.isEmpty()) {
+            return List.of();
         }
+
+        final List<T> input = List.copyOf(objects);
+        log.trace("Saving batch: size={}", input.size());
+
+        final ReentrantLock[] batchLocks = this.lockAll(input.stream().mapToInt(o -> this.stripe(o.getNameSpace(), o.getName())));
+        try {
+            final ArrayList<T> stored = new ArrayList<>(input.size());
+            final ArrayList<T> saved = new ArrayList<>(input.size());
+            final HashMap<List<String>, T> batch = new HashMap<>(input.size() * 2);
+
+            // validate everything first, so a failing object leaves the store untouched.
+            for (final T object : input) {
+                final List<String> key = List.of(object.getNameSpace(), object.getName());
+                final T planned = batch.get(key);
+                final T current = planned != null ? planned : this.stored(object.getNameSpace(), object.getName());
+
+                @SuppressWarnings("unchecked")
+                final
+                T data = (current == null)
+                        ? object
+                        : (T) object.increaseGeneration();
+
+                this.checkOptimisticLocking(current, data);
+
+                batch.put(key, data);
+                stored.add(current);
+                saved.add(data);
+            }
+
+            this.beforeSaveAll(stored, saved);
+
+            // one commit for the whole batch, so snapshots see all of it or nothing.
+            final int stripe = this.stripe(input.get(0).getNameSpace(), input.get(0).getName());
+            final long commit = this.history.begin(stripe);
+            try {
+                for (int i = 0; i < saved.size(); i++) {
+                    this.put(this.nameSpaceIndex(saved.get(i).getNameSpace()), stored.get(i), saved.get(i), commit);
+                }
+            } finally {
+                this.history.end(stripe);
+            }
+            this.afterSaveAll(stored, saved);
+            for (int i = 0; i < saved.size(); i++) {
+                this.changes.publish(stored.get(i) == null ? StoreEventType.ADDED : StoreEventType.MODIFIED, saved.get(i));
+            }
+
+            return Collections.unmodifiableList(saved);
+        } finally {
+            unlockAll(batchLocks);
+        }
+    }
+
+    private T stored(final String nameSpace, final String name) {
+        final NameSpaceIndex<T> index = this.namedStore.get(nameSpace);
+
+        return index != null ? index.live(name) : null;
+    }
+
+    /**
+     * Puts the resource into the store as it is: without optimistic locking and without calling
+     * {@link #afterSave(Resource, Resource)} (but {@link #afterLoad(Resource, Resource)}). This is meant for filling the
+     * store from a persistent source (e.g. when replaying a log or loading a snapshot).
+     *
+     * @param resource the resource to put into the store.
+     */
+    protected void load(final T resource) {
+        final NameSpaceIndex<T> index = this.nameSpaceIndex(resource.getNameSpace());
+
+        final int stripe = this.stripe(resource.getNameSpace(), resource.getName());
+        final ReentrantLock lock = this.locks[stripe];
+        lock.lock();
+        try {
+            final T stored = index.live(resource.getName());
+            final long commit = this.history.begin(stripe);
+            try {
+                this.put(index, stored, resource, commit);
+            } finally {
+                this.history.end(stripe);
+            }
+            this.afterLoad(stored, resource);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts the resource into the store like {@link #load(Resource)}, but only if neither a resource nor a tombstone with
+     * its nameSpace and name or its uid is stored. This is meant for filling the store from a slower tier on a miss
+     * (see {@link TieredStoreService}), so a resource removed or changed meanwhile is never replaced by an older copy.
+     *
+     * @param resource the resource to put into the store.
+     * @return {@code true} if the resource has been put into the store.
+     * @since 4.2.0
+     */
+    protected boolean loadIfAbsent(final T resource) {
+        final NameSpaceIndex<T> index = this.nameSpaceIndex(resource.getNameSpace());
+
+        final int stripe = this.stripe(resource.getNameSpace(), resource.getName());
+        final ReentrantLock lock = this.locks[stripe];
+        lock.lock();
+        try {
+            if (index.get(resource.getName()) != null || this.uidStore.containsKey(resource.getUid())) {
+                return false;
+            }
+
+            final long commit = this.history.begin(stripe);
+            try {
+                this.put(index, null, resource, commit);
+            } finally {
+                this.history.end(stripe);
+            }
+            this.afterLoad(null, resource);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts all resources into the store like {@link #load(Resource)}, as a single change. All stripes are locked while
+     * loading, so this is meant for filling the store at startup (e.g. by {@link StoreWarmStart}). The namespaces are
+     * indexed in parallel.
+     *
+     * @param resources the resources to put into the store.
+     * @since 4.2.0
+     */
+    protected void loadAll(final Collection<T> resources) {
+        if (resources.isEmpty()) {
+            return;
+        }
+
+        final Map<String, List<T>> byNameSpace = resources.stream().collect(Collectors.groupingBy(Resource::getNameSpace));
+
+        // all stripes are held by this thread, so the workers below are the only writers.
+        final ReentrantLock[] held = this.lockAll(IntStream.range(0, this.locks.length));
+        try {
+            final long commit = this.history.begin(0);
+            try {
+                byNameSpace.entrySet().parallelStream().forEach(e -> {
+                    final NameSpaceIndex<T> index = this.nameSpaceIndex(e.getKey());
+
+                    for (final T resource : e.getValue()) {
+                        final T stored = index.live(resource.getName());
+
+                        this.put(index, stored, resource, commit);
+                        this.afterLoad(stored, resource);
+                    }
+                });
+            } finally {
+                this.history.end(0);
+            }
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Removes the resource from the store without calling {@link #afterRemove(Resource)}. This is the counterpart of
+     * {@link #load(Resource)}.
+     *
+     * @param uid the uid of the resource to remove.
+     */
+    protected void unload(final UUID uid) {
+        this.removeByUid(uid, false);
     }
 
     @Override
-    public void remove(final T object) {
-        final String key = this.generateStoreKey(object.getNameSpace(), object.getName());
+    public int compact(final OffsetDateTime deletedBefore, final int limit) {
+        int result = 0;
+
+        // the oldest tombstones first, so the run ends at the first one not old enough.
+        final Iterator<Grave<T>> graves = this.graves.iterator();
+        while (result < limit && graves.hasNext()) {
+            final Grave<T> grave = graves.next();
+            if (!grave.deleted().isBefore(deletedBefore)) {
+                break;
+            }
 
-        this.namedStore.remove(key);
-        this.uidStore.remove(object.getUid());
+            graves.remove();
+            if (this.purge(grave.index(), grave.resource())) {
+                result++;
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean expireAt(final UUID uid, final OffsetDateTime expires) {
+        T data = this.visible(this.uidStore.get(uid));
+
+        while (data != null) {
+            // the lock is selected by nameSpace/name, so we have to check again after acquiring it.
+            final ReentrantLock lock = this.locks[this.stripe(data.getNameSpace(), data.getName())];
+            lock.lock();
+            try {
+                final T current = this.visible(this.uidStore.get(uid));
+
+                if (current == data) {
+                    if (expires != null) {
+                        this.expiries.schedule(uid, expires.toInstant().toEpochMilli());
+                    } else {
+                        this.expiries.cancel(uid);
+                    }
+                    return true;
+                }
+
+                data = current;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * The resources expired are removed as one batch like {@link #removeAll(Collection)}. A resource whose expiry has
+     * been changed meanwhile is kept.
+     */
+    @Override
+    public int expire(final OffsetDateTime now, final int limit) {
+        int result = 0;
+
+        while (result < limit) {
+            final List<UUID> expired = this.expiries.advance(now.toInstant().toEpochMilli(), limit - result);
+            if (expired.isEmpty()) {
+                break;
+            }
+
+            result += this.buryAll(expired, d -> !this.expiries.contains(d.getUid())).size();
+        }
+
+        return result;
+    }
+
+    @Override
+    public long countExpiring() {
+        return this.expiries.size();
+    }
+
+    @Override
+    public long countTombstones() {
+        long result = 0;
+
+        for (final NameSpaceIndex<T> index : this.namedStore.values()) {
+            result += index.contents().tombstones().size();
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes a buried resource from all indexes. The lock is only held for this single resource, so writers are
+     * never blocked for a whole compaction run.
+     *
+     * @param index the namespace index of the resource.
+     * @param data  the resource removed.
+     * @return {@code true} if the resource has been purged, {@code false} if it has been replaced meanwhile.
+     */
+    private boolean purge(final NameSpaceIndex<T> index, final T data) {
+        final ReentrantLock lock = this.locks[this.stripe(data.getNameSpace(), data.getName())];
+        lock.lock();
+        try {
+            if (!index.contents().isBuried(data)) {
+                return false;
+            }
+
+            // nothing visible changes, so there is nothing to keep for the snapshots.
+            index.remove(data.getName(), data);
+            if (this.uidStore.remove(data.getUid(), data)) {
+                this.updateIndexes(data, null);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Called before a resource is saved while holding its write lock, after all checks passed. The change is not
+     * visible yet, so an exception thrown here rejects the save and leaves the store unchanged.
+     *
+     * @param stored the resource stored before (may be {@code null}).
+     * @param saved  the resource to be stored.
+     * @since 4.2.0
+     * @see #afterSave(Resource, Resource)
+     */
+    protected void beforeSave(final T stored, final T saved) {
+        // default is to do nothing.
+    }
+
+    /**
+     * Called before a resource is removed while holding its write lock. An exception thrown here rejects the removal.
+     *
+     * @param removed the resource to be removed.
+     * @since 4.2.0
+     * @see #beforeSave(Resource, Resource)
+     */
+    protected void beforeRemove(final T removed) {
+        // default is to do nothing.
+    }
+
+    /**
+     * Called before a batch is saved while holding the write locks of all resources in the batch, after the whole
+     * batch has been checked. The default calls {@link #beforeSave(Resource, Resource)} for every resource.
+     *
+     * @param stored the resources stored before (elements may be {@code null}).
+     * @param saved  the resources to be stored (same order as stored).
+     * @since 4.2.0
+     */
+    protected void beforeSaveAll(final List<T> stored, final List<T> saved) {
+        for (int i = 0; i < saved.size(); i++) {
+            this.beforeSave(stored.get(i), saved.get(i));
+        }
+    }
+
+    /**
+     * Called before a batch is removed while holding the write locks of all resources in the batch. The default calls
+     * {@link #beforeRemove(Resource)} for every resource.
+     *
+     * @param removed the resources to be removed.
+     * @since 4.2.0
+     */
+    protected void beforeRemoveAll(final List<T> removed) {
+        removed.forEach(this::beforeRemove);
+    }
+
+    /**
+     * Called after a resource has been saved while still holding its write lock. So calls for the same resource are
+     * strictly ordered. Implementations have to be fast, they block other writers of this lock stripe.
+     *
+     * @param stored the resource stored before (may be {@code null}).
+     * @param saved  the resource now stored.
+     */
+    protected void afterSave(final T stored, final T saved) {
+        // default is to do nothing.
+    }
+
+    /**
+     * Called after a resource has been put into the store by {@link #load(Resource)} or {@link #loadAll(Collection)}.
+     * Subclasses keeping derived indexes update them here, but must not treat it as a change (e.g. by journaling it).
+     * {@link #loadAll(Collection)} calls it for different namespaces in parallel.
+     *
+     * @param stored the resource stored before (may be {@code null}).
+     * @param loaded the resource now stored.
+     * @since 4.2.0
+     */
+    protected void afterLoad(final T stored, final T loaded) {
+        // default is to do nothing.
+    }
+
+    /**
+     * Called after a resource has been removed while still holding its write lock.
+     *
+     * @param removed the resource removed.
+     * @see #afterSave(Resource, Resource)
+     */
+    protected void afterRemove(final T removed) {
+        // default is to do nothing.
+    }
+
+    /**
+     * Called after a batch has been saved while still holding the write locks of all resources in the batch. The
+     * default calls {@link #afterSave(Resource, Resource)} for every resource.
+     *
+     * @param stored the resources stored before (elements may be {@code null}).
+     * @param saved  the resources now stored (same order as stored).
+     */
+    protected void afterSaveAll(final List<T> stored, final List<T> saved) {
+        for (int i = 0; i < saved.size(); i++) {
+            this.afterSave(stored.get(i), saved.get(i));
+        }
+    }
+
+    /**
+     * Called after a batch has been removed while still holding the write locks of all resources in the batch. The
+     * default calls {@link #afterRemove(Resource)} for every resource.
+     *
+     * @param removed the resources removed.
+     */
+    protected void afterRemoveAll(final List<T> removed) {
+        removed.forEach(this::afterRemove);
+    }
+
+    private void checkOptimisticLocking(final T stored, final T object) {
+        if (stored != null && stored.getGeneration() >= object.getGeneration()) {
+            throw new OptimisticLockStoreException(stored.getGeneration(), object.getGeneration());
+        }
+    }
+
+    @Override
+    public void remove(final T object) {
+        this.remove(object.getNameSpace(), object.getName());
     }
 
     @Override
     public void remove(final String nameSpace, final String name) {
-        final String key = this.generateStoreKey(nameSpace, name);
+        final NameSpaceIndex<T> index = this.namedStore.get(nameSpace);
+        if (index == null) {
+            return;
+        }
 
-        if (this.namedStore.containsKey(key)) {
-            this.uidStore.remove(this.namedStore.get(key).getUid());
-            this.namedStore.remove(key);
+        final int stripe = this.stripe(nameSpace, name);
+        final ReentrantLock lock = this.locks[stripe];
+        lock.lock();
+        try {
+            final T data = index.live(name);
+
+            if (data != null) {
+                this.beforeRemove(data);
+
+                final long commit = this.history.begin(stripe);
+                try {
+                    this.bury(index, data, commit);
+                } finally {
+                    this.history.end(stripe);
+                }
+                this.afterRemove(data);
+                this.changes.publish(StoreEventType.DELETED, data);
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void remove(final UUID uid) {
-        if (this.uidStore.containsKey(uid)) {
-            final T data = this.uidStore.get(uid);
-            final String key = this.generateStoreKey(data.getNameSpace(), data.getName());
+        this.removeByUid(uid, true);
+    }
+
+    @Override
+    public void removeAll(final Collection<UUID> uids) {
+        this.buryAll(uids, d -> true);
+    }
+
+    /**
+     * Collects the subtree via the owner index and removes it as a single batch.
+     */
+    @Override
+    public List<T> removeCascading(final UUID uid) {
+        final T root = this.visible(this.uidStore.get(uid));
+        if (root == null) {
+            return List.of();
+        }
+
+        final LinkedHashSet<UUID> subtree = new LinkedHashSet<>();
+        final ArrayDeque<T> owners = new ArrayDeque<>();
+        subtree.add(root.getUid());
+        owners.add(root);
+
+        while (!owners.isEmpty()) {
+            for (final T child : this.findByOwner(owners.poll())) {
+                // ownership may be cyclic, every resource is visited once.
+                if (subtree.add(child.getUid())) {
+                    owners.add(child);
+                }
+            }
+        }
+
+        return this.buryAll(subtree, d -> true);
+    }
+
+    /**
+     * @param uids      the uids of the resources to remove.
+     * @param condition the resources not matching it are kept. Checked again while holding the write locks.
+     * @return the resources removed.
+     */
+    private List<T> buryAll(final Collection<UUID> uids, final Predicate<T> condition) {
+        while (true) {
+            final List<T> found = uids.stream()
+                    .distinct()
+                    .map(this.uidStore::get)
+                    .map(this::visible)
+                    .filter(Objects::nonNull)
+                    .filter(condition)
+                    .toList();
+            if (found.isEmpty()) {
+                return found;
+            }
+
+            // the locks are selected by nameSpace/name, so we have to check again after acquiring them.
+            final ReentrantLock[] batchLocks = this.lockAll(found.stream().mapToInt(d -> this.stripe(d.getNameSpace(), d.getName())));
+            try {
+                if (found.stream().allMatch(d -> this.uidStore.get(d.getUid()) == d && this.visible(d) != null && condition.test(d))) {
+                    this.beforeRemoveAll(found);
+
+                    final int stripe = this.stripe(found.get(0).getNameSpace(), found.get(0).getName());
+                    final long commit = this.history.begin(stripe);
+                    try {
+                        found.forEach(d -> this.bury(this.namedStore.get(d.getNameSpace()), d, commit));
+                    } finally {
+                        this.history.end(stripe);
+                    }
+                    this.afterRemoveAll(found);
+                    found.forEach(d -> this.changes.publish(StoreEventType.DELETED, d));
+                    return found;
+                }
+            } finally {
+                unlockAll(batchLocks);
+            }
+        }
+    }
+
+    /**
+     * @param uid    the uid of the resource to remove.
+     * @param notify {@code true} for removing via the API (tombstone, hooks and events), {@code false} for removing
+     *               it from the indexes right away without notifying anyone.
+     */
+    private void removeByUid(final UUID uid, final boolean notify) {
+        T data = notify ? this.visible(this.uidStore.get(uid)) : this.uidStore.get(uid);
+
+        while (data != null) {
+            // the lock is selected by nameSpace/name, so we have to check again after acquiring it.
+            final int stripe = this.stripe(data.getNameSpace(), data.getName());
+            final ReentrantLock lock = this.locks[stripe];
+            lock.lock();
+            try {
+                final T current = notify ? this.visible(this.uidStore.get(uid)) : this.uidStore.get(uid);
+
+                if (current == data) {
+                    if (notify) {
+                        this.beforeRemove(data);
+                    }
+
+                    final long commit = this.history.begin(stripe);
+                    try {
+                        if (notify) {
+                            this.bury(this.namedStore.get(data.getNameSpace()), data, commit);
+                        } else {
+                            this.delete(this.namedStore.get(data.getNameSpace()), data, commit);
+                        }
+                    } finally {
+                        this.history.end(stripe);
+                    }
+                    if (notify) {
+                        this.afterRemove(data);
+                        this.changes.publish(StoreEventType.DELETED, data);
+                    }
+                    return;
+                }
+
+                data = current;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Changes all indexes from the stored resource to the new one. Must be called while holding the write lock.
+     *
+     * @param index  the namespace index of the resource.
+     * @param stored the resource visible under this nameSpace and name (may be {@code null}).
+     * @param data   the resource to store.
+     * @param commit the version of the commit (see {@link VersionHistory#begin(int)}).
+     */
+    private void put(final NameSpaceIndex<T> index, final T stored, final T data, final long commit) {
+        if (commit != VersionHistory.UNTRACKED) {
+            this.history.record(List.of(data.getNameSpace(), data.getName()), commit, stored);
+            this.history.record(data.getUid(), commit, this.visible(this.uidStore.get(data.getUid())));
+            if (stored != null && !stored.getUid().equals(data.getUid())) {
+                this.history.record(stored.getUid(), commit, this.visible(this.uidStore.get(stored.getUid())));
+            }
+        }
+
+        // a buried resource is replaced right away instead of waiting for the compaction.
+        final T replaced = stored != null ? stored : index.get(data.getName());
+
+        index.put(data.getName(), data);
+        if (replaced != null && !replaced.getUid().equals(data.getUid())) {
+            this.uidStore.remove(replaced.getUid(), replaced);
+        }
+        this.uidStore.put(data.getUid(), data);
+        this.updateIndexes(replaced, data);
+        if (this.generations != null) {
+            this.generations.record(stored, data);
+        }
+        if (replaced != null && !replaced.getUid().equals(data.getUid())) {
+            this.expiries.cancel(replaced.getUid());
+        }
+        // the saved resource brings its own expiry, an annotation removed clears the former one.
+        this.expiries.cancel(data.getUid());
+        final OffsetDateTime expires = expires(data);
+        if (expires != null) {
+            this.expiries.schedule(data.getUid(), expires.toInstant().toEpochMilli());
+        }
+    }
+
+    /**
+     * Adds the tombstone of the resource. It stays in all indexes until purged by
+     * {@link #compact(OffsetDateTime, int)}. Must be called while holding the write lock.
+     *
+     * @param index  the namespace index of the resource.
+     * @param data   the resource to remove.
+     * @param commit the version of the commit (see {@link VersionHistory#begin(int)}).
+     */
+    private void bury(final NameSpaceIndex<T> index, final T data, final long commit) {
+        if (commit != VersionHistory.UNTRACKED) {
+            this.history.record(List.of(data.getNameSpace(), data.getName()), commit, data);
+            this.history.record(data.getUid(), commit, data);
+        }
+
+        final OffsetDateTime deleted = OffsetDateTime.now();
+        index.bury(data.getName(), data, deleted);
+        this.graves.add(new Grave<>(index, data, deleted, this.burials.incrementAndGet()));
+        if (this.generations != null) {
+            this.generations.forget(data.getUid());
+        }
+        this.expiries.cancel(data.getUid());
+    }
+
+    /**
+     * Removes the resource from all indexes. Must be called while holding the write lock.
+     *
+     * @param index  the namespace index of the resource.
+     * @param data   the resource to remove.
+     * @param commit the version of the commit (see {@link VersionHistory#begin(int)}).
+     */
+    private void delete(final NameSpaceIndex<T> index, final T data, final long commit) {
+        if (commit != VersionHistory.UNTRACKED) {
+            this.history.record(List.of(data.getNameSpace(), data.getName()), commit, data);
+            this.history.record(data.getUid(), commit, data);
+        }
+
+        index.remove(data.getName(), data);
+        this.uidStore.remove(data.getUid(), data);
+        this.updateIndexes(data, null);
+        if (this.generations != null) {
+            this.generations.forget(data.getUid());
+        }
+        this.expiries.cancel(data.getUid());
+    }
+
+    /**
+     * Updates the secondary indexes. Must be called while holding the write lock of the resource.
+     *
+     * @param removed the resource replaced or removed (may be {@code null}).
+     * @param added   the resource added (may be {@code null}).
+     */
+    private void updateIndexes(final T removed, final T added) {
+        if (removed != null && added != null && removed.getUid().equals(added.getUid())) {
+            this.labelIndex.update(added.getUid(), labels(removed), labels(added));
+            this.ownerIndex.update(added.getUid(), OwnerIndex.owner(removed), OwnerIndex.owner(added));
+            return;
+        }
+
+        if (removed != null) {
+            this.labelIndex.update(removed.getUid(), labels(removed), null);
+            this.ownerIndex.update(removed.getUid(), OwnerIndex.owner(removed), null);
+        }
+        if (added != null) {
+            this.labelIndex.update(added.getUid(), null, labels(added));
+            this.ownerIndex.update(added.getUid(), null, OwnerIndex.owner(added));
+        }
+    }
+
+    /**
+     * @param resource the resource to check.
+     * @return the time the resource expires by its annotation or {@code null} if it has none (or an invalid one).
+     */
+    private static OffsetDateTime expires(final Resource<?> resource) {
+        final String value = resource.getMetadata() != null
+                ? resource.getMetadata().getAnnotation(EXPIRES_ANNOTATION).orElse(null)
+                : null;
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return OffsetDateTime.parse(value);
+        } catch (final DateTimeParseException e) {
+            log.warn("Ignoring invalid expiry. resource={}, expires='{}'", resource.getUid(), value);
+            return null;
+        }
+    }
+
+    private static Map<String, String> labels(final Resource<?> resource) {
+        return resource.getMetadata() != null ? resource.getMetadata().getLabels() : null;
+    }
+
+    /**
+     * Selects the lock stripe guarding the resource with this nameSpace and name.
+     *
+     * @param nameSpace the namespace of the resource.
+     * @param name      the name of the resource.
+     * @return the lock to hold while changing the resource.
+     */
+    protected ReentrantLock lockFor(final String nameSpace, final String name) {
+        return this.locks[this.stripe(nameSpace, name)];
+    }
+
+    /**
+     * Runs the action while holding all write locks, so no change is in progress while it runs. Readers are not
+     * blocked.
+     *
+     * @param action the action to run.
+     * @param <R>    The result of the action.
+     * @return the result of the action.
+     * @since 4.2.0
+     */
+    protected <R> R exclusively(final Supplier<R> action) {
+        final ReentrantLock[] held = this.lockAll(IntStream.range(0, this.locks.length));
+        try {
+            return action.get();
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    private int stripe(final String nameSpace, final String name) {
+        int hash = 31 * nameSpace.hashCode() + name.hashCode();
+        hash ^= (hash >>> 16);
+
+        return hash & (this.locks.length - 1);
+    }
+
+    /**
+     * Locks all given stripes in ascending order. Single writers hold only one stripe, so the fixed order rules out
+     * deadlocks between batches.
+     *
+     * @param stripes the stripes to lock (may contain duplicates).
+     * @return the locks held, to be released by {@link #unlockAll(ReentrantLock[])}.
+     */
+    private ReentrantLock[] lockAll(final IntStream stripes) {
+        final BitSet used = new BitSet(this.locks.length);
+        stripes.forEach(used::set);
+
+        final ReentrantLock[] result = new ReentrantLock[used.cardinality()];
+        for (int i = 0, stripe = used.nextSetBit(0); stripe >= 0; i++, stripe = used.nextSetBit(stripe + 1)) {
+            result[i] = this.locks[stripe];
+            result[i].lock();
+        }
+
+        return result;
+    }
+
+    private static void unlockAll(final ReentrantLock[] held) {
+        for (int i = held.length - 1; i >= 0; i--) {
+            held[i].unlock();
+        }
+    }
+
+
+    /**
+     * The entry of a tombstone in the deletion time order.
+     *
+     * @param index    the namespace index of the resource removed.
+     * @param resource the resource removed.
+     * @param deleted  the time of the removal.
+     * @param sequence the number of the removal, orders removals at the same time.
+     * @param <T>      The resource stored.
+     */
+    private record Grave<T extends Resource<?>>(NameSpaceIndex<T> index, T resource, OffsetDateTime deleted, long sequence) {
+        @SuppressWarnings("rawtypes")
+        private static final Comparator<Grave> ORDER = Comparator.<Grave, OffsetDateTime>comparing(Grave::deleted)
+                .thenComparingLong(Grave::sequence);
+    }
+
+    /**
+     * A read-only view pinned to a version of this store.
+     */
+    @ToString(onlyExplicitlyIncluded = true)
+    private final class Snapshot implements StoreSnapshot<T> {
+        @ToString.Include
+        private final VersionHistory.Pin pin;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Snapshot(final VersionHistory.Pin pin) {
+            this.pin = pin;
+        }
+
+        @Override
+        public long getVersion() {
+            return this.pin.version();
+        }
+
+        @Override
+        public Optional<T> findByNameSpaceAndName(final String nameSpace, final String name) {
+            this.checkOpen();
+
+            final T current = GenericStoreService.this.stored(nameSpace, name);
+            return Optional.ofNullable(GenericStoreService.this.history.read(List.of(nameSpace, name), current, this.pin.version()));
+        }
+
+        @Override
+        public Optional<T> findByUid(final UUID uid) {
+            this.checkOpen();
+
+            final T current = GenericStoreService.this.visible(GenericStoreService.this.uidStore.get(uid));
+            return Optional.ofNullable(GenericStoreService.this.history.read(uid, current, this.pin.version()));
+        }
+
+        @Override
+        public void close() {
+            if (this.closed.compareAndSet(false, true)) {
+                GenericStoreService.this.history.release(this.pin);
+            }
+        }
 
-            this.namedStore.remove(key);
-            this.uidStore.remove(uid);
+        private void checkOpen() {
+            if (this.closed.get()) {
+                throw new IllegalStateException("Snapshot has already been closed: " + this);
+            }
         }
     }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.PersistenceStoreException;
+import jakarta.validation.constraints.NotNull;
+import lombok.ToString;
+
+/**
+ * JacksonResourceCodec -- encodes resources as JSON.
+ *
+ * @param <T> The resource to be converted.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public class JacksonResourceCodec<T extends Resource<?>> implements ResourceCodec<T> {
+    @ToString.Include
+    private final Class<? extends T> type;
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+
+    /**
+     * @param type the concrete class of the resources (e.g. {@code UserImpl.class}).
+     */
+    public JacksonResourceCodec(@NotNull final Class<? extends T> type) {
+        this(type, defaultMapper());
+    }
+
+    /**
+     * @param type   the concrete class of the resources (e.g. {@code UserImpl.class}).
+     * @param mapper the mapper to use.
+     */
+    public JacksonResourceCodec(@NotNull final Class<? extends T> type, @NotNull final ObjectMapper mapper) {
+        this.type = type;
+        this.reader = mapper.readerFor(type);
+        this.writer = mapper.writerFor(type);
+    }
+
+    /**
+     * @return a mapper that can handle the resources of kp-commons (java time and read only properties like the
+     *         selfLink).
+     */
+    public static ObjectMapper defaultMapper() {
+        return JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+
+    @Override
+    public byte[] encode(final T resource) {
+        try {
+            return this.writer.writeValueAsBytes(resource);
+        } catch (final IOException e) {
+            throw new PersistenceStoreException("Can't encode resource: " + resource.getSelfLink(), e);
+        }
+    }
+
+    @Override
+    public T decode(final byte[] data, final int offset, final int length) {
+        try {
+            return this.reader.readValue(data, offset, length);
+        } catch (final IOException e) {
+            throw new PersistenceStoreException("Can't decode resource of type " + this.type.getName(), e);
+        }
+    }
+}
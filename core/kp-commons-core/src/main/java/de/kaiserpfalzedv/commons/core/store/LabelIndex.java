@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.kaiserpfalzedv.commons.api.store.LabelSelector;
+import de.kaiserpfalzedv.commons.api.store.LabelSelectorRequirement;
+
+/**
+ * LabelIndex -- an inverted index from labels to the uids of the resources carrying them.
+ * <p>
+ * There are two kinds of posting lists: one per label name and value (for equality and set membership) and one per
+ * label name (for existence). Updates of a single resource have to be serialized by the caller (the store does this
+ * with its write lock), updates of different resources may run in parallel.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+final class LabelIndex {
+    /**
+     * label name -> label value -> uids.
+     */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Set<UUID>>> byValue = new ConcurrentHashMap<>();
+
+    /**
+     * label name -> uids.
+     */
+    private final ConcurrentHashMap<String, Set<UUID>> byKey = new ConcurrentHashMap<>();
+
+
+    /**
+     * Changes the postings of a resource from the old labels to the new ones.
+     *
+     * @param uid       the uid of the resource.
+     * @param oldLabels the labels currently indexed for this uid (may be {@code null}).
+     * @param newLabels the labels to index for this uid (may be {@code null}).
+     */
+    void update(final UUID uid, final Map<String, String> oldLabels, final Map<String, String> newLabels) {
+        if (oldLabels != null) {
+            oldLabels.forEach((key, value) -> {
+                final String newValue = newLabels != null ? newLabels.get(key) : null;
+
+                if (value != null && !value.equals(newValue)) {
+                    this.removePosting(key, value, uid);
+                    if (newValue == null) {
+                        removeFrom(this.byKey, key, uid);
+                    }
+                }
+            });
+        }
+
+        if (newLabels != null) {
+            newLabels.forEach((key, value) -> {
+                final String oldValue = oldLabels != null ? oldLabels.get(key) : null;
+
+                if (value != null && !value.equals(oldValue)) {
+                    this.byValue.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).compute(value, (v, uids) -> add(uids, uid));
+                    if (oldValue == null) {
+                        this.byKey.compute(key, (k, uids) -> add(uids, uid));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Intersects the posting lists of all requirements that restrict the result to resources carrying a label
+     * ({@code =}, {@code in} and existence). Negative requirements can't be answered by the index and have to be checked
+     * by the caller on the resources themselves.
+     *
+     * @param selector the selector to find candidates for.
+     * @return the uids of all candidates or {@code null} if the selector has no requirement the index can narrow the
+     *         search with.
+     */
+    Collection<UUID> candidates(final LabelSelector selector) {
+        final ArrayList<List<Set<UUID>>> postings = new ArrayList<>();
+
+        for (final LabelSelectorRequirement requirement : selector.getRequirements()) {
+            final List<Set<UUID>> posting = this.postings(requirement);
+
+            if (posting != null) {
+                if (posting.isEmpty()) {
+                    return Collections.emptyList();
+                }
+
+                postings.add(posting);
+            }
+        }
+
+        if (postings.isEmpty()) {
+            return null;
+        }
+
+        // drive the intersection with the smallest posting list.
+        List<Set<UUID>> smallest = postings.get(0);
+        for (final List<Set<UUID>> posting : postings) {
+            if (estimatedSize(posting) < estimatedSize(smallest)) {
+                smallest = posting;
+            }
+        }
+        postings.remove(smallest);
+
+        final ArrayList<UUID> result = new ArrayList<>(estimatedSize(smallest));
+        for (final Set<UUID> uids : smallest) {
+            for (final UUID uid : uids) {
+                if (containedInAll(postings, uid)) {
+                    result.add(uid);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param requirement the requirement to retrieve the postings for.
+     * @return the posting lists to unite or {@code null} if the requirement can't be answered from the index.
+     */
+    private List<Set<UUID>> postings(final LabelSelectorRequirement requirement) {
+        return switch (requirement.getOperator()) {
+            case EQUALS, IN -> {
+                final Map<String, Set<UUID>> values = this.byValue.get(requirement.getKey());
+                if (values == null) {
+                    yield List.of();
+                }
+
+                final ArrayList<Set<UUID>> result = new ArrayList<>(requirement.getValues().size());
+                for (final String value : requirement.getValues()) {
+                    final Set<UUID> uids = values.get(value);
+                    if (uids != null) {
+                        result.add(uids);
+                    }
+                }
+                yield result;
+            }
+            case EXISTS -> {
+                final Set<UUID> uids = this.byKey.get(requirement.getKey());
+                yield uids != null ? List.of(uids) : List.of();
+            }
+            default -> null;
+        };
+    }
+
+    private void removePosting(final String key, final String value, final UUID uid) {
+        final ConcurrentHashMap<String, Set<UUID>> values = this.byValue.get(key);
+
+        if (values != null) {
+            removeFrom(values, value, uid);
+        }
+    }
+
+    private static void removeFrom(final ConcurrentHashMap<String, Set<UUID>> postings, final String key, final UUID uid) {
+        postings.computeIfPresent(key, (k, uids) -> {
+            uids.remove(uid);
+            return uids.isEmpty() ? null : uids;
+        });
+    }
+
+    private static Set<UUID> add(final Set<UUID> uids, final UUID uid) {
+        final Set<UUID> result = uids != null ? uids : ConcurrentHashMap.newKeySet();
+        result.add(uid);
+        return result;
+    }
+
+    private static int estimatedSize(final List<Set<UUID>> posting) {
+        int result = 0;
+        for (final Set<UUID> uids : posting) {
+            result += uids.size();
+        }
+        return result;
+    }
+
+    private static boolean containedInAll(final List<List<Set<UUID>>> postings, final UUID uid) {
+        for (final List<Set<UUID>> posting : postings) {
+            boolean found = false;
+            for (final Set<UUID> uids : posting) {
+                if (uids.contains(uid)) {
+                    found = true;
+                    break;
+                }
+            }
+
+            if (!found) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
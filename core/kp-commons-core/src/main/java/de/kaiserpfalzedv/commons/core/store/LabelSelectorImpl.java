@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import de.kaiserpfalzedv.commons.api.store.LabelSelector;
+import de.kaiserpfalzedv.commons.api.store.LabelSelectorOperator;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Singular;
+import lombok.ToString;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * LabelSelectorImpl -- Selects resources by their labels.
+ * <p>
+ * Can be built via the builder or parsed from the kubernetes selector syntax, e.g.
+ * {@code tier=backend,env in (prod,test),!legacy}.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Jacksonized
+@JsonInclude(JsonInclude.Include.NON_ABSENT)
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode
+public class LabelSelectorImpl implements LabelSelector {
+    private static final long serialVersionUID = 0L;
+
+    private static final Pattern SET_REQUIREMENT = Pattern.compile("^(\\S+)\\s+(in|notin)\\s*\\((.*)\\)$");
+
+    @SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"}, justification = "lombok provided @Getter are created")
+    @Singular
+    @NotNull
+    private final List<LabelSelectorRequirementImpl> requirements;
+
+
+    /**
+     * Parses the kubernetes label selector syntax.
+     *
+     * @param selector the selector to parse. An empty or {@code null} selector matches everything.
+     * @return the parsed selector.
+     * @throws IllegalArgumentException if the selector can't be parsed.
+     */
+    public static LabelSelectorImpl parse(final String selector) {
+        final LabelSelectorImplBuilder result = LabelSelectorImpl.builder();
+
+        if (selector != null) {
+            for (final String term : splitTerms(selector)) {
+                result.requirement(parseRequirement(term));
+            }
+        }
+
+        return result.build();
+    }
+
+    private static List<String> splitTerms(final String selector) {
+        final ArrayList<String> result = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+
+        for (int i = 0; i < selector.length(); i++) {
+            final char c = selector.charAt(i);
+
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                result.add(selector.substring(start, i));
+                start = i + 1;
+            }
+        }
+        result.add(selector.substring(start));
+
+        return result.stream().map(String::trim).filter(t -> !t.isEmpty()).toList();
+    }
+
+    private static LabelSelectorRequirementImpl parseRequirement(final String term) {
+        final Matcher set = SET_REQUIREMENT.matcher(term);
+        if (set.matches()) {
+            final String[] values = set.group(3).split(",");
+            for (int i = 0; i < values.length; i++) {
+                values[i] = checkNotEmpty(values[i].trim(), term);
+            }
+
+            return new LabelSelectorRequirementImpl(
+                    set.group(1),
+                    "in".equals(set.group(2)) ? LabelSelectorOperator.IN : LabelSelectorOperator.NOT_IN,
+                    Set.of(values)
+            );
+        }
+
+        if (term.startsWith("!")) {
+            return LabelSelectorRequirementImpl.doesNotExist(checkNotEmpty(term.substring(1).trim(), term));
+        }
+
+        int index = term.indexOf("!=");
+        if (index >= 0) {
+            return LabelSelectorRequirementImpl.notEqual(
+                    checkNotEmpty(term.substring(0, index).trim(), term), term.substring(index + 2).trim()
+            );
+        }
+
+        index = term.indexOf('=');
+        if (index >= 0) {
+            final int valueStart = term.startsWith("=", index + 1) ? index + 2 : index + 1;
+
+            return LabelSelectorRequirementImpl.equal(
+                    checkNotEmpty(term.substring(0, index).trim(), term), term.substring(valueStart).trim()
+            );
+        }
+
+        return LabelSelectorRequirementImpl.exists(term);
+    }
+
+    private static String checkNotEmpty(final String part, final String term) {
+        if (part.isEmpty()) {
+            throw new IllegalArgumentException("Invalid label selector requirement: " + term);
+        }
+
+        return part;
+    }
+}
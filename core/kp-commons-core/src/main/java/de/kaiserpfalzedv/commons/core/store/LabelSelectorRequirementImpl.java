@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import de.kaiserpfalzedv.commons.api.store.LabelSelectorOperator;
+import de.kaiserpfalzedv.commons.api.store.LabelSelectorRequirement;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * LabelSelectorRequirementImpl -- A single requirement of a label selector.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Jacksonized
+@JsonInclude(JsonInclude.Include.NON_ABSENT)
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode
+public class LabelSelectorRequirementImpl implements LabelSelectorRequirement {
+    private static final long serialVersionUID = 0L;
+
+    @NotNull
+    private final String key;
+
+    @NotNull
+    private final LabelSelectorOperator operator;
+
+    @SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"}, justification = "lombok provided @Getter are created")
+    @Builder.Default
+    @NotNull
+    private final Set<String> values = Set.of();
+
+
+    /**
+     * @param key   the label name.
+     * @param value the value the label must have.
+     * @return the requirement {@code key=value}.
+     */
+    public static LabelSelectorRequirementImpl equal(@NotNull final String key, @NotNull final String value) {
+        return new LabelSelectorRequirementImpl(key, LabelSelectorOperator.EQUALS, Set.of(value));
+    }
+
+    /**
+     * @param key   the label name.
+     * @param value the value the label must not have.
+     * @return the requirement {@code key!=value}.
+     */
+    public static LabelSelectorRequirementImpl notEqual(@NotNull final String key, @NotNull final String value) {
+        return new LabelSelectorRequirementImpl(key, LabelSelectorOperator.NOT_EQUALS, Set.of(value));
+    }
+
+    /**
+     * @param key    the label name.
+     * @param values the values allowed for the label.
+     * @return the requirement {@code key in (values)}.
+     */
+    public static LabelSelectorRequirementImpl in(@NotNull final String key, @NotNull final String... values) {
+        return new LabelSelectorRequirementImpl(key, LabelSelectorOperator.IN, Set.of(values));
+    }
+
+    /**
+     * @param key    the label name.
+     * @param values the values not allowed for the label.
+     * @return the requirement {@code key notin (values)}.
+     */
+    public static LabelSelectorRequirementImpl notIn(@NotNull final String key, @NotNull final String... values) {
+        return new LabelSelectorRequirementImpl(key, LabelSelectorOperator.NOT_IN, Set.of(values));
+    }
+
+    /**
+     * @param key the label name.
+     * @return the requirement {@code key}.
+     */
+    public static LabelSelectorRequirementImpl exists(@NotNull final String key) {
+        return new LabelSelectorRequirementImpl(key, LabelSelectorOperator.EXISTS, Set.of());
+    }
+
+    /**
+     * @param key the label name.
+     * @return the requirement {@code !key}.
+     */
+    public static LabelSelectorRequirementImpl doesNotExist(@NotNull final String key) {
+        return new LabelSelectorRequirementImpl(key, LabelSelectorOperator.DOES_NOT_EXIST, Set.of());
+    }
+}
@@ -0,0 +1,450 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.PersistenceStoreException;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * LogStoreService -- a durable store keeping all data in memory and every change in a write-ahead log.
+ * <p>
+ * Every {@link #save(Resource)} and {@link #remove(UUID)} is appended to the log while holding the write lock of the
+ * resource and forced to disk before the change becomes visible, so readers never see a change that could be lost.
+ * Concurrent writers of other lock stripes share the fsync (group commit), so throughput grows with the number of
+ * writers instead of being bound by the disk latency. Batches ({@link #saveAll(Collection)},
+ * {@link #removeAll(Collection)}) are written as a single record, so they are recovered completely or not at all.
+ * Expired resources are journaled like removals. Only expiry times set by annotation survive a restart, the ones set
+ * by {@link #expireAt(UUID, OffsetDateTime)} are not journaled.
+ * <p>
+ * To keep the recovery time bounded a snapshot of the whole store is written every {@code snapshotInterval} records
+ * (and whenever {@link #checkpoint()} is called). The snapshot is fuzzy: the log is rolled to a new segment while no
+ * change is in progress, then the store is written without stopping the writers. Changes made while writing the
+ * snapshot are in the new segment and are replayed on top of it. After the snapshot has been atomically renamed into
+ * place, the older segments and snapshots are deleted.
+ * <p>
+ * The store has to be opened via {@link #open()} before use. Opening decodes the latest snapshot in parallel and replays
+ * the remaining log segments via memory mapping. A torn record at the end of the log (crash while writing) is
+ * truncated. Recovery is not done in the constructor, so subclasses overriding {@link #afterLoad(Resource, Resource)}
+ * are completely initialized when it is called.
+ * <p>
+ * If the log can't be written anymore, the store rejects all further changes with a {@link PersistenceStoreException}.
+ *
+ * @param <T> The resource to be stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@Slf4j
+public class LogStoreService<T extends Resource<?>> extends GenericStoreService<T> implements Closeable {
+    /** Default number of log records between two snapshots. */
+    public static final long DEFAULT_SNAPSHOT_INTERVAL = 100_000L;
+
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /** Number of records decoded in parallel during recovery. */
+    private static final int RECOVERY_BATCH = 4096;
+
+    @ToString.Include
+    private final Path directory;
+    private final ResourceCodec<T> codec;
+    @ToString.Include
+    private final long snapshotInterval;
+
+    /** Set by {@link #open()}. */
+    private volatile WriteAheadLog journal;
+
+    private final Object snapshotLock = new Object();
+    private final AtomicLong recordsSinceSnapshot = new AtomicLong();
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    private final ExecutorService snapshotExecutor;
+
+
+    /**
+     * Creates the store with the {@link #DEFAULT_SNAPSHOT_INTERVAL}. It has to be opened before use.
+     *
+     * @param directory the directory to keep the log and snapshots in. It will be created if missing.
+     * @param codec     the codec to convert the resources.
+     */
+    public LogStoreService(final Path directory, final ResourceCodec<T> codec) {
+        this(directory, codec, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Creates the store. It has to be opened before use.
+     *
+     * @param directory        the directory to keep the log and snapshots in. It will be created if missing.
+     * @param codec            the codec to convert the resources.
+     * @param snapshotInterval number of log records after which a snapshot is written in the background. A value of 0
+     *                         or less disables automatic snapshots.
+     */
+    public LogStoreService(final Path directory, final ResourceCodec<T> codec, final long snapshotInterval) {
+        this.directory = directory;
+        this.codec = codec;
+        this.snapshotInterval = snapshotInterval;
+
+        this.snapshotExecutor = Executors.newSingleThreadExecutor(r -> {
+            final Thread result = new Thread(r, "log-store-snapshot-" + directory.getFileName());
+            result.setDaemon(true);
+            return result;
+        });
+    }
+
+
+    /**
+     * Recovers the data from the directory and opens the log for writing.
+     *
+     * @return this store.
+     * @throws PersistenceStoreException if the data can't be recovered.
+     * @throws IllegalStateException     if the store has been opened already.
+     */
+    public LogStoreService<T> open() {
+        synchronized (this.snapshotLock) {
+            if (this.journal != null) {
+                throw new IllegalStateException("Store has been opened already: " + this.directory);
+            }
+
+            final long nextSequence;
+            try {
+                Files.createDirectories(this.directory);
+                nextSequence = this.recover();
+            } catch (final IOException e) {
+                throw new PersistenceStoreException("Can't recover store from " + this.directory, e);
+            }
+
+            this.journal = new WriteAheadLog(this.directory, nextSequence);
+        }
+
+        return this;
+    }
+
+    /**
+     * @return the log to write the changes to.
+     * @throws IllegalStateException     if the store has not been opened.
+     * @throws PersistenceStoreException if the log can't be written anymore.
+     */
+    private WriteAheadLog journal() {
+        final WriteAheadLog result = this.journal;
+        if (result == null) {
+            throw new IllegalStateException("Store has not been opened: " + this.directory);
+        }
+
+        result.checkWritable();
+        return result;
+    }
+
+
+    @Override
+    protected void beforeSave(final T stored, final T saved) {
+        this.journal(WriteAheadLog.SAVE, this.codec.encode(saved), 1);
+    }
+
+    @Override
+    protected void beforeRemove(final T removed) {
+        this.journal(WriteAheadLog.REMOVE, WriteAheadLog.toBytes(removed.getUid()), 1);
+    }
+
+    @Override
+    protected void beforeSaveAll(final List<T> stored, final List<T> saved) {
+        this.journal(WriteAheadLog.BATCH, encodeBatch(WriteAheadLog.SAVE, saved.stream().map(this.codec::encode).toList()), saved.size());
+    }
+
+    @Override
+    protected void beforeRemoveAll(final List<T> removed) {
+        this.journal(WriteAheadLog.BATCH, encodeBatch(WriteAheadLog.REMOVE, removed.stream().map(r -> WriteAheadLog.toBytes(r.getUid())).toList()), removed.size());
+    }
+
+    /**
+     * Appends the record and waits until it has been forced to disk. Called while holding the write locks before the
+     * change is visible, so readers never see a change that could be lost. Writers holding other locks share the
+     * fsync.
+     *
+     * @param type    the record type.
+     * @param payload the payload of the record.
+     * @param records the number of changes in the record.
+     */
+    private void journal(final byte type, final byte[] payload, final int records) {
+        final WriteAheadLog journal = this.journal();
+
+        journal.sync(journal.append(type, payload));
+        this.countRecords(records);
+    }
+
+    private static byte[] encodeBatch(final byte type, final List<byte[]> payloads) {
+        final ByteBuffer result = ByteBuffer.allocate(payloads.stream().mapToInt(p -> 1 + 4 + p.length).sum());
+
+        for (final byte[] payload : payloads) {
+            result.put(type).putInt(payload.length).put(payload);
+        }
+
+        return result.array();
+    }
+
+    private void countRecords(final int records) {
+        if (this.snapshotInterval > 0
+                && this.recordsSinceSnapshot.addAndGet(records) >= this.snapshotInterval
+                && this.snapshotScheduled.compareAndSet(false, true)) {
+            this.snapshotExecutor.execute(() -> {
+                try {
+                    this.checkpoint();
+                } catch (final RuntimeException e) {
+                    log.error("Snapshot of store failed. directory={}", this.directory, e);
+                } finally {
+                    this.snapshotScheduled.set(false);
+                }
+            });
+        }
+    }
+
+
+    /**
+     * Writes a checkpoint (a snapshot file of the whole store) and deletes the log segments covered by it. Writers are
+     * only blocked while the log is rolled.
+     *
+     * @throws PersistenceStoreException if the snapshot can't be written.
+     */
+    public void checkpoint() {
+        synchronized (this.snapshotLock) {
+            // changes are journaled before they are visible, so the log is rolled while none is in progress.
+            final long sequence = this.exclusively(() -> this.journal().roll());
+            this.recordsSinceSnapshot.set(0);
+
+            final Path target = snapshotPath(this.directory, sequence);
+            final Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+
+            try {
+                this.writeSnapshot(temp, sequence);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+
+                this.deleteOlderThan(sequence);
+            } catch (final IOException e) {
+                throw new PersistenceStoreException("Can't write snapshot " + target, e);
+            }
+
+            log.debug("Wrote snapshot. directory={}, sequence={}", this.directory, sequence);
+        }
+    }
+
+    private void writeSnapshot(final Path file, final long sequence) throws IOException {
+        final CRC32 checksum = new CRC32();
+        byte[] buffer = new byte[64 << 10];
+        int size = 0;
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (final T resource : this.values()) {
+                final byte[] payload = this.codec.encode(resource);
+                final int recordSize = WriteAheadLog.HEADER_SIZE + payload.length + WriteAheadLog.TRAILER_SIZE;
+
+                if (size + recordSize > buffer.length) {
+                    writeFully(channel, buffer, size);
+                    size = 0;
+
+                    if (recordSize > buffer.length) {
+                        buffer = new byte[recordSize];
+                    }
+                }
+
+                size = WriteAheadLog.writeRecord(buffer, size, sequence, WriteAheadLog.SAVE, payload, checksum);
+            }
+
+            writeFully(channel, buffer, size);
+            channel.force(true);
+        }
+    }
+
+    private static void writeFully(final FileChannel channel, final byte[] buffer, final int size) throws IOException {
+        final ByteBuffer data = ByteBuffer.wrap(buffer, 0, size);
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    private void deleteOlderThan(final long sequence) throws IOException {
+        for (final long segment : WriteAheadLog.listSegments(this.directory)) {
+            if (segment < sequence) {
+                Files.deleteIfExists(WriteAheadLog.segmentPath(this.directory, segment));
+            }
+        }
+
+        for (final long snapshot : WriteAheadLog.listSequences(this.directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (snapshot < sequence) {
+                Files.deleteIfExists(snapshotPath(this.directory, snapshot));
+            }
+        }
+    }
+
+
+    /**
+     * Loads the latest snapshot and replays the log segments written after it.
+     *
+     * @return the sequence to continue the log with.
+     * @throws IOException if the files can't be read.
+     */
+    private long recover() throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (final Path file : files.filter(f -> f.getFileName().toString().endsWith(TEMP_SUFFIX)).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        final List<Long> snapshots = WriteAheadLog.listSequences(this.directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        final long snapshot = snapshots.isEmpty() ? 0L : snapshots.get(snapshots.size() - 1);
+        long last = Math.max(snapshot - 1, 0L);
+
+        if (!snapshots.isEmpty()) {
+            final Path file = snapshotPath(this.directory, snapshot);
+            final RecoveryBatch batch = new RecoveryBatch();
+
+            final long end = WriteAheadLog.readRecords(file, batch);
+            batch.apply();
+
+            if (end != Files.size(file)) {
+                throw new PersistenceStoreException("Snapshot is corrupt: " + file);
+            }
+        }
+
+        final List<Long> segments = WriteAheadLog.listSegments(this.directory).stream()
+                .filter(s -> s >= snapshot)
+                .toList();
+        for (int i = 0; i < segments.size(); i++) {
+            final Path file = WriteAheadLog.segmentPath(this.directory, segments.get(i));
+            final RecoveryBatch batch = new RecoveryBatch();
+
+            final long end = WriteAheadLog.readRecords(file, batch);
+            batch.apply();
+            last = Math.max(last, batch.lastSequence);
+
+            if (end != Files.size(file)) {
+                if (i != segments.size() - 1) {
+                    throw new PersistenceStoreException("Log segment is corrupt: " + file);
+                }
+
+                log.warn("Truncating torn log record. file={}, position={}", file, end);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(end);
+                    channel.force(true);
+                }
+            }
+        }
+
+        log.info("Recovered store. directory={}, snapshot={}, segments={}, sequence={}",
+                this.directory, snapshot, segments.size(), last);
+        return last + 1;
+    }
+
+
+    @Override
+    public void close() {
+        this.snapshotExecutor.shutdown();
+        try {
+            if (!this.snapshotExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("Snapshot did not finish in time. directory={}", this.directory);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (this.journal != null) {
+            this.journal.close();
+        }
+    }
+
+
+    static Path snapshotPath(final Path directory, final long sequence) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+    }
+
+
+    /**
+     * Collects records read during recovery, decodes them in parallel and applies them in log order.
+     */
+    private class RecoveryBatch implements WriteAheadLog.RecordHandler {
+        private final List<byte[]> payloads = new ArrayList<>(RECOVERY_BATCH);
+        private final List<Byte> types = new ArrayList<>(RECOVERY_BATCH);
+        private long lastSequence = -1;
+
+        @Override
+        public void handle(final long sequence, final byte type, final byte[] payload) {
+            if (type == WriteAheadLog.BATCH) {
+                final ByteBuffer batch = ByteBuffer.wrap(payload);
+
+                while (batch.hasRemaining()) {
+                    final byte entryType = batch.get();
+                    final byte[] entry = new byte[batch.getInt()];
+                    batch.get(entry);
+
+                    this.handle(sequence, entryType, entry);
+                }
+                return;
+            }
+
+            this.payloads.add(payload);
+            this.types.add(type);
+            this.lastSequence = sequence;
+
+            if (this.payloads.size() >= RECOVERY_BATCH) {
+                this.apply();
+            }
+        }
+
+        void apply() {
+            @SuppressWarnings("unchecked")
+            final T[] decoded = (T[]) new Resource<?>[this.payloads.size()];
+            IntStream.range(0, decoded.length).parallel()
+                    .filter(i -> this.types.get(i) == WriteAheadLog.SAVE)
+                    .forEach(i -> decoded[i] = LogStoreService.this.codec.decode(this.payloads.get(i)));
+
+            for (int i = 0; i < decoded.length; i++) {
+                switch (this.types.get(i)) {
+                    case WriteAheadLog.SAVE -> LogStoreService.this.load(decoded[i]);
+                    case WriteAheadLog.REMOVE -> LogStoreService.this.unload(WriteAheadLog.toUuid(this.payloads.get(i)));
+                    default -> throw new PersistenceStoreException("Unknown log record type: " + this.types.get(i));
+                }
+            }
+
+            this.payloads.clear();
+            this.types.clear();
+        }
+    }
+}
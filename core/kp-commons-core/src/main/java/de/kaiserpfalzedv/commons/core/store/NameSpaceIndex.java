@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * NameSpaceIndex -- the resources of a single namespace, indexed by name.
+ * <p>
+ * The {@link GenericStoreService} keeps one of these per namespace, so a lookup by nameSpace and name is two hash
+ * lookups and does not need to build a composite key. Instances are never removed from the store once created, so
+ * writers holding a reference can't put into an index that is no longer reachable.
+ * <p>
+ * Next to the hash index there is a sorted index ({@link RankedTreeMap}) for listing the namespace page by page. It is
+ * replaced as a whole on every change, so a reader always gets a consistent view of the namespace.
+ * <p>
+ * Removed resources stay in all indexes until they are purged, only a tombstone is added. The tombstones are kept in a
+ * second sorted index published together with the first one, so paging can skip them by rank.
+ *
+ * @param <T> The resource stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+final class NameSpaceIndex<T extends Resource<?>> {
+    @ToString.Include
+    @EqualsAndHashCode.Include
+    private final String nameSpace;
+
+    @ToString.Include
+    @EqualsAndHashCode.Include
+    private final ConcurrentHashMap<String, T> byName = new ConcurrentHashMap<>(16);
+
+    /**
+     * The resources and tombstones sorted by name. Only replaced while holding {@link #publishing}.
+     */
+    private volatile Contents<T> contents = Contents.empty();
+
+    /**
+     * Writers of different names in this namespace may hold different store locks, so publishing a new version of
+     * the {@link #contents} is serialized by this lock. It is held only for the update of the sorted indexes.
+     */
+    private final ReentrantLock publishing = new ReentrantLock();
+
+
+    NameSpaceIndex(final String nameSpace) {
+        this.nameSpace = nameSpace;
+    }
+
+
+    String getNameSpace() {
+        return this.nameSpace;
+    }
+
+    /**
+     * @param name the name of the resource.
+     * @return the resource stored under this name, even if it has been removed already.
+     */
+    T get(final String name) {
+        return this.byName.get(name);
+    }
+
+    /**
+     * @param name the name of the resource.
+     * @return the resource stored under this name or {@code null} if there is none or it has been removed.
+     */
+    T live(final String name) {
+        // read the tombstones first: a writer replacing a tombstone changes byName before it drops the tombstone.
+        final Contents<T> current = this.contents;
+        final T result = this.byName.get(name);
+
+        return result != null && !current.isBuried(result) ? result : null;
+    }
+
+    /**
+     * Must only be called while holding the store lock for this nameSpace and name.
+     *
+     * @param name     the name of the resource.
+     * @param resource the resource to store.
+     * @return the resource stored before or {@code null}.
+     */
+    T put(final String name, final T resource) {
+        final T result = this.byName.put(name, resource);
+        this.publish(c -> new Contents<>(c.sorted().put(name, resource), c.tombstones().remove(name)));
+        return result;
+    }
+
+    /**
+     * Adds the tombstone for the resource. It stays in the index until {@link #remove(String, Resource)} is called.
+     * Must only be called while holding the store lock for this nameSpace and name.
+     *
+     * @param name     the name of the resource removed.
+     * @param resource the resource removed.
+     * @param deleted  the time of the removal.
+     */
+    void bury(final String name, final T resource, final OffsetDateTime deleted) {
+        this.publish(c -> new Contents<>(c.sorted(), c.tombstones().put(name, new Tombstone<>(resource, deleted))));
+    }
+
+    /**
+     * Must only be called while holding the store lock for this nameSpace and name.
+     *
+     * @param name     the name of the resource to remove.
+     * @param resource the resource expected to be stored.
+     * @return {@code true} if the resource has been removed.
+     */
+    boolean remove(final String name, final T resource) {
+        final boolean result = this.byName.remove(name, resource);
+        if (result) {
+            this.publish(c -> new Contents<>(c.sorted().remove(name), c.tombstones().remove(name)));
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of resources not removed.
+     */
+    int size() {
+        return this.contents.size();
+    }
+
+    /**
+     * @return the current version of the resources and tombstones sorted by name. It won't change anymore.
+     */
+    Contents<T> contents() {
+        return this.contents;
+    }
+
+    /**
+     * @return the resources not removed (a copy).
+     */
+    Collection<T> values() {
+        final Contents<T> current = this.contents;
+        final ArrayList<T> result = new ArrayList<>(this.byName.size());
+
+        for (final T resource : this.byName.values()) {
+            if (!current.isBuried(resource)) {
+                result.add(resource);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Publishes the next version of the sorted indexes.
+     *
+     * @param change the change of the current version.
+     */
+    private void publish(final UnaryOperator<Contents<T>> change) {
+        this.publishing.lock();
+        try {
+            this.contents = change.apply(this.contents);
+        } finally {
+            this.publishing.unlock();
+        }
+    }
+
+
+    /**
+     * The marker of a removed resource.
+     *
+     * @param resource the resource removed.
+     * @param deleted  the time of the removal.
+     * @param <T>      The resource stored.
+     */
+    record Tombstone<T>(T resource, OffsetDateTime deleted) {}
+
+    /**
+     * A version of the sorted indexes of the namespace.
+     *
+     * @param sorted     all resources stored, including the removed ones not purged yet.
+     * @param tombstones the tombstones of the removed resources.
+     * @param <T>        The resource stored.
+     */
+    record Contents<T extends Resource<?>>(RankedTreeMap<String, T> sorted, RankedTreeMap<String, Tombstone<T>> tombstones) {
+        @SuppressWarnings("rawtypes")
+        private static final Contents EMPTY = new Contents<>(RankedTreeMap.empty(), RankedTreeMap.empty());
+
+        @SuppressWarnings("unchecked")
+        static <T extends Resource<?>> Contents<T> empty() {
+            return (Contents<T>) EMPTY;
+        }
+
+        /**
+         * @return the number of resources not removed.
+         */
+        int size() {
+            return this.sorted.size() - this.tombstones.size();
+        }
+
+        /**
+         * @param resource the resource to check.
+         * @return {@code true} if this very resource has been removed.
+         */
+        boolean isBuried(final T resource) {
+            final Tombstone<T> tombstone = this.tombstones.get(resource.getName());
+
+            return tombstone != null && tombstone.resource() == resource;
+        }
+
+        /**
+         * Returns the resources not removed in name order, starting with the one at position {@code start}. Costs
+         * O(log n + count) without tombstones. With tombstones every run of resources not removed in the page costs
+         * O(log t * log n) to locate, the tombstones before or between them are skipped by rank and never read.
+         *
+         * @param start the position of the first resource to return, not counting removed ones.
+         * @param count the maximum number of resources to return.
+         * @return the resources.
+         */
+        List<T> page(final long start, final int count) {
+            if (this.tombstones.isEmpty()) {
+                return this.sorted.slice(start, count);
+            }
+            if (start < 0 || start >= this.size() || count <= 0) {
+                return List.of();
+            }
+
+            final ArrayList<T> result = new ArrayList<>(Math.min(count, this.size()));
+            long live = start;
+            while (result.size() < count && live < this.size()) {
+                final long position = this.positionOf(live);
+
+                // the run of resources not removed ends at the next tombstone.
+                final String name = this.sorted.slice(position, 1).get(0).getName();
+                final int next = this.tombstones.rank(name);
+                final long end = next < this.tombstones.size()
+                        ? this.sorted.rank(this.tombstones.slice(next, 1).get(0).resource().getName())
+                        : this.sorted.size();
+
+                final List<T> run = this.sorted.slice(position, (int) Math.min(end - position, count - result.size()));
+                result.addAll(run);
+                live += run.size();
+            }
+
+            return result;
+        }
+
+        /**
+         * Returns the resources not removed whose name starts with the prefix, in name order. The names sharing a
+         * prefix are a contiguous range of the sorted index, so this costs O(log n + limit + t) with t tombstones in
+         * the range.
+         *
+         * @param prefix the prefix of the names.
+         * @param limit  the maximum number of resources to return.
+         * @return the resources.
+         */
+        List<T> withPrefix(final String prefix, final int limit) {
+            final ArrayList<T> result = new ArrayList<>(Math.min(Math.max(limit, 0), 64));
+            final int chunk = Math.max(limit, 16);
+
+            long position = this.sorted.rank(prefix);
+            while (result.size() < limit) {
+                final List<T> candidates = this.sorted.slice(position, chunk);
+                if (candidates.isEmpty()) {
+                    break;
+                }
+
+                for (final T resource : candidates) {
+                    if (!resource.getName().startsWith(prefix) || result.size() >= limit) {
+                        return result;
+                    }
+                    if (this.tombstones.get(resource.getName()) == null) {
+                        result.add(resource);
+                    }
+                }
+
+                position += candidates.size();
+            }
+
+            return result;
+        }
+
+        /**
+         * @param live the position of a resource not removed, not counting removed ones.
+         * @return the position of this resource in the sorted index (including removed resources).
+         */
+        private long positionOf(final long live) {
+            // the live rank grows by at most one per position, so the lowest position passing live is the resource.
+            long low = live;
+            long high = Math.min(live + this.tombstones.size(), this.sorted.size() - 1L);
+            while (low < high) {
+                final long middle = (low + high) >>> 1;
+
+                if (this.liveBefore(middle + 1) > live) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * @param position the position in the sorted index (including removed resources).
+         * @return the number of resources not removed before this position.
+         */
+        private long liveBefore(final long position) {
+            if (position >= this.sorted.size()) {
+                return this.size();
+            }
+
+            final String name = this.sorted.slice(position, 1).get(0).getName();
+            return position - this.tombstones.rank(name);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+import lombok.ToString;
+
+/**
+ * OffHeapArena -- byte records kept in direct buffers outside the java heap.
+ * <p>
+ * The memory is allocated in slabs of {@code slabSize} bytes. Records are appended to the current slab and addressed
+ * by slab number and offset. Every slab counts its live bytes; when all records of a slab have been freed, the slab is
+ * recycled as a whole. So there is no fragmentation within a slab to manage, at the price of slabs kept alive by a few
+ * long-living records. Records larger than a slab get a slab of their own, which is released instead of recycled.
+ * <p>
+ * Writers are serialized by the monitor of the arena. Readers never block: they copy the record optimistically and
+ * only fall back to a read lock if a slab has been recycled meanwhile (see {@link #tryOptimisticRead()}).
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+final class OffHeapArena {
+    /** Default size of a slab (16 MiB). */
+    static final int DEFAULT_SLAB_SIZE = 16 << 20;
+
+    private static final int LENGTH_SIZE = Integer.BYTES;
+
+    @ToString.Include
+    private final int slabSize;
+
+    /** Held exclusively while a slab is recycled, so optimistic readers notice the reuse. */
+    private final StampedLock recycling = new StampedLock();
+
+    /** The buffers of all slabs, replaced as a whole when growing. Readers only use this array. */
+    private volatile ByteBuffer[] buffers = new ByteBuffer[16];
+
+    // guarded by this
+    private int[] used = new int[16];
+    private int[] live = new int[16];
+    private int slabs;
+    private int current = -1;
+    private final ArrayDeque<Integer> recycled = new ArrayDeque<>();
+    private final ArrayDeque<Integer> released = new ArrayDeque<>();
+    @ToString.Include
+    private long allocated;
+    @ToString.Include
+    private long liveBytes;
+
+
+    /**
+     * @param slabSize the size of a single slab in bytes.
+     */
+    OffHeapArena(final int slabSize) {
+        if (slabSize <= LENGTH_SIZE) {
+            throw new IllegalArgumentException("The slab size has to be larger than " + LENGTH_SIZE + ": " + slabSize);
+        }
+
+        this.slabSize = slabSize;
+    }
+
+
+    /**
+     * @param data the record to store.
+     * @return the address of the record.
+     */
+    synchronized long write(final byte[] data) {
+        final int size = LENGTH_SIZE + data.length;
+
+        if (this.current < 0 || this.buffers[this.current].capacity() - this.used[this.current] < size) {
+            this.switchSlab(size);
+        }
+
+        final ByteBuffer buffer = this.buffers[this.current];
+        final int offset = this.used[this.current];
+        buffer.putInt(offset, data.length);
+        buffer.put(offset + LENGTH_SIZE, data);
+
+        this.used[this.current] += size;
+        this.live[this.current] += size;
+        this.liveBytes += size;
+
+        return ((long) this.current << 32) | offset;
+    }
+
+    /**
+     * Frees the record. The address must not be used afterward.
+     *
+     * @param address the address of the record.
+     */
+    synchronized void free(final long address) {
+        final int slab = (int) (address >>> 32);
+        final int size = LENGTH_SIZE + this.buffers[slab].getInt((int) address);
+
+        this.live[slab] -= size;
+        this.liveBytes -= size;
+
+        if (this.live[slab] == 0 && slab != this.current) {
+            this.recycle(slab);
+        }
+    }
+
+    /**
+     * Copies the record. If called within an optimistic read, the result has to be dropped when
+     * {@link #validate(long)} fails, since the memory may have been reused.
+     *
+     * @param address the address of the record.
+     * @return the record or {@code null} if the address does not point to a valid record (anymore).
+     */
+    byte[] copy(final long address) {
+        final ByteBuffer[] current = this.buffers;
+        final int slab = (int) (address >>> 32);
+        final int offset = (int) address;
+
+        final ByteBuffer buffer = slab >= 0 && slab < current.length ? current[slab] : null;
+        if (buffer == null || offset < 0 || offset > buffer.capacity() - LENGTH_SIZE) {
+            return null;
+        }
+
+        final int length = buffer.getInt(offset);
+        if (length < 0 || length > buffer.capacity() - offset - LENGTH_SIZE) {
+            return null;
+        }
+
+        final byte[] result = new byte[length];
+        buffer.get(offset + LENGTH_SIZE, result);
+        return result;
+    }
+
+    /**
+     * Starts an optimistic read. The address has to be looked up after this call, so a record freed and recycled in
+     * between is detected by {@link #validate(long)}.
+     *
+     * @return the stamp to validate.
+     */
+    long tryOptimisticRead() {
+        return this.recycling.tryOptimisticRead();
+    }
+
+    /**
+     * @param stamp the stamp returned by {@link #tryOptimisticRead()}.
+     * @return {@code true} if no slab has been recycled since the stamp has been taken.
+     */
+    boolean validate(final long stamp) {
+        return this.recycling.validate(stamp);
+    }
+
+    /**
+     * @return the stamp of the read lock. No slab is recycled while it is held.
+     */
+    long readLock() {
+        return this.recycling.readLock();
+    }
+
+    /**
+     * @param stamp the stamp returned by {@link #readLock()}.
+     */
+    void unlockRead(final long stamp) {
+        this.recycling.unlockRead(stamp);
+    }
+
+    /**
+     * @return the number of bytes allocated outside the heap.
+     */
+    synchronized long getAllocatedBytes() {
+        return this.allocated;
+    }
+
+    /**
+     * @return the number of bytes used by records not freed yet (including their length prefix).
+     */
+    synchronized long getLiveBytes() {
+        return this.liveBytes;
+    }
+
+
+    private void switchSlab(final int size) {
+        final int previous = this.current;
+
+        if (size > this.slabSize) {
+            this.current = this.newSlab(size);
+        } else if (!this.recycled.isEmpty()) {
+            this.current = this.recycled.pop();
+        } else {
+            this.current = this.newSlab(this.slabSize);
+        }
+
+        if (previous >= 0 && this.live[previous] == 0) {
+            this.recycle(previous);
+        }
+    }
+
+    private int newSlab(final int capacity) {
+        final int result = !this.released.isEmpty() ? this.released.pop() : this.slabs++;
+
+        if (result == this.used.length) {
+            final int grown = this.used.length * 2;
+
+            this.used = Arrays.copyOf(this.used, grown);
+            this.live = Arrays.copyOf(this.live, grown);
+            this.buffers = Arrays.copyOf(this.buffers, grown);
+        }
+
+        final ByteBuffer[] current = this.buffers.clone();
+        current[result] = ByteBuffer.allocateDirect(capacity);
+        this.buffers = current;
+        this.allocated += capacity;
+
+        return result;
+    }
+
+    private void recycle(final int slab) {
+        final long stamp = this.recycling.writeLock();
+        try {
+            this.used[slab] = 0;
+
+            if (this.buffers[slab].capacity() == this.slabSize) {
+                this.recycled.push(slab);
+                return;
+            }
+
+            // oversized slabs are released, their number is reused by the next new slab.
+            this.allocated -= this.buffers[slab].capacity();
+
+            final ByteBuffer[] current = this.buffers.clone();
+            current[slab] = null;
+            this.buffers = current;
+            this.released.push(slab);
+        } finally {
+            this.recycling.unlockWrite(stamp);
+        }
+    }
+}
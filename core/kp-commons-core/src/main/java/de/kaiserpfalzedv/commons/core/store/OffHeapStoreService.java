@@ -0,0 +1,578 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.data.Paging;
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.BatchStore;
+import de.kaiserpfalzedv.commons.api.store.ListableStore;
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.store.StoreService;
+import de.kaiserpfalzedv.commons.core.data.PagedResultImpl;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * OffHeapStoreService -- an ephemeral store keeping the resources serialized outside the java heap.
+ * <p>
+ * This is the variant of {@link GenericStoreService} for very large data sets. The resources are encoded by a
+ * {@link ResourceCodec} and kept in an {@link OffHeapArena}. On the heap there are only the indexes: one small entry
+ * per resource (uid, generation and address) referenced by the uid index and by a name-sorted index per namespace.
+ * So the garbage collector neither has to trace nor to copy the resources themselves.
+ * <p>
+ * Every read decodes the resource again. The most recently read resources can be kept in a small on-heap cache
+ * ({@code hotCacheSize}), which is keyed by the index entry: a new version always gets a new entry, so the cache can't
+ * return an outdated version.
+ * <p>
+ * Writes are serialized per nameSpace/name by striped locks, reads never take a lock. Optimistic locking works like in
+ * {@link GenericStoreService}. Besides batches and namespace listings no other capability is offered. Label selectors,
+ * owners, snapshots, watches and older generations would have to decode the whole store or keep old versions on the
+ * heap.
+ *
+ * @param <T> The resource to be stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@Slf4j
+public class OffHeapStoreService<T extends Resource<?>> implements BatchStore<T>, ListableStore<T> {
+    /** Default size of a memory slab (16 MiB). */
+    public static final int DEFAULT_SLAB_SIZE = OffHeapArena.DEFAULT_SLAB_SIZE;
+
+    private static final int STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+
+    private final ResourceCodec<T> codec;
+
+    @ToString.Include
+    private final OffHeapArena arena;
+
+    private final ConcurrentHashMap<UUID, Entry> byUid = new ConcurrentHashMap<>(16);
+    private final ConcurrentHashMap<String, AtomicReference<RankedTreeMap<String, Entry>>> byName = new ConcurrentHashMap<>(16);
+
+    /** The decoded resources recently read ({@code null} if disabled). */
+    private final Cache<Entry, T> hotCache;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+
+    /**
+     * Creates the store with slabs of {@link #DEFAULT_SLAB_SIZE} and without hot cache.
+     *
+     * @param codec the codec to convert the resources.
+     */
+    public OffHeapStoreService(final ResourceCodec<T> codec) {
+        this(codec, DEFAULT_SLAB_SIZE, 0);
+    }
+
+    /**
+     * @param codec        the codec to convert the resources.
+     * @param slabSize     the size of the memory slabs allocated outside the heap.
+     * @param hotCacheSize the number of decoded resources to keep on the heap. 0 disables the cache.
+     */
+    public OffHeapStoreService(final ResourceCodec<T> codec, final int slabSize, final long hotCacheSize) {
+        this.codec = codec;
+        this.arena = new OffHeapArena(slabSize);
+        this.hotCache = hotCacheSize > 0 ? Caffeine.newBuilder().maximumSize(hotCacheSize).build() : null;
+
+        for (int i = 0; i < this.locks.length; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+    }
+
+
+    @Override
+    public Optional<T> findByNameSpaceAndName(final String nameSpace, final String name) {
+        return Optional.ofNullable(this.read(() -> this.entry(nameSpace, name)));
+    }
+
+    @Override
+    public Optional<T> findByUid(final UUID uid) {
+        return Optional.ofNullable(this.read(() -> this.byUid.get(uid)));
+    }
+
+    @Override
+    public List<String> findAllNameSpaces() {
+        return this.byName.entrySet().stream()
+                .filter(e -> e.getValue().get().size() > 0)
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+    }
+
+    @Override
+    public PagedResult<T> findAllByNameSpace(final String nameSpace, final Paging paging) {
+        final AtomicReference<RankedTreeMap<String, Entry>> index = this.byName.get(nameSpace);
+        final RankedTreeMap<String, Entry> sorted = index != null ? index.get() : RankedTreeMap.empty();
+
+        final List<Entry> entries = sorted.slice(paging.getStart(), (int) Math.min(paging.getSize(), Integer.MAX_VALUE));
+        final ArrayList<T> data = new ArrayList<>(entries.size());
+        for (final Entry entry : entries) {
+            final T resource = this.read(() -> this.entry(nameSpace, entry.name));
+
+            if (resource != null) {
+                data.add(resource);
+            }
+        }
+
+        return PagedResultImpl.<T>builder()
+                .paging(PagingImpl.builder()
+                        .start(paging.getStart())
+                        .size(paging.getSize())
+                        .count(data.size())
+                        .total(sorted.size())
+                        .build())
+                .data(data)
+                .build();
+    }
+
+    @Override
+    public List<T> findByNameSpaceAndNamePrefix(final String nameSpace, final String prefix, final int limit) {
+        final AtomicReference<RankedTreeMap<String, Entry>> index = this.byName.get(nameSpace);
+        final RankedTreeMap<String, Entry> sorted = index != null ? index.get() : RankedTreeMap.empty();
+
+        final ArrayList<T> result = new ArrayList<>(Math.min(Math.max(limit, 0), 64));
+        for (final Entry entry : sorted.slice(sorted.rank(prefix), limit)) {
+            if (!entry.name.startsWith(prefix)) {
+                break;
+            }
+
+            final T resource = this.read(() -> this.entry(nameSpace, entry.name));
+            if (resource != null) {
+                result.add(resource);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public long countByNameSpace(final String nameSpace) {
+        final AtomicReference<RankedTreeMap<String, Entry>> index = this.byName.get(nameSpace);
+
+        return index != null ? index.get().size() : 0;
+    }
+
+    /**
+     * @return the number of bytes allocated outside the heap.
+     */
+    public long getOffHeapBytes() {
+        return this.arena.getAllocatedBytes();
+    }
+
+    /**
+     * @return the number of bytes of the resources currently stored outside the heap.
+     */
+    public long getLiveBytes() {
+        return this.arena.getLiveBytes();
+    }
+
+    @Override
+    public T save(final T object) throws OptimisticLockStoreException {
+        log.trace("Saving: {}", object);
+
+        final ReentrantLock lock = this.locks[stripe(object.getNameSpace(), object.getName())];
+        lock.lock();
+        try {
+            final Entry stored = this.entry(object.getNameSpace(), object.getName());
+            final T result = this.prepare(stored, object);
+
+            this.write(stored, result);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<T> saveAll(final Collection<T> objects) throws OptimisticLockStoreException {
+        if (objects.isEmpty()) {
+            return List.of();
+        }
+
+        final List<T> input = List.copyOf(objects);
+        log.trace("Saving batch: size={}", input.size());
+
+        final ReentrantLock[] batchLocks = this.lockAll(input.stream().mapToInt(o -> stripe(o.getNameSpace(), o.getName())));
+        try {
+            final ArrayList<T> saved = new ArrayList<>(input.size());
+            final HashMap<List<String>, T> batch = new HashMap<>(input.size() * 2);
+
+            // validate everything first, so a failing object leaves the store untouched.
+            for (final T object : input) {
+                final List<String> key = List.of(object.getNameSpace(), object.getName());
+                final T planned = batch.get(key);
+
+                final T data;
+                if (planned != null) {
+                    data = this.prepare(planned.getGeneration(), object);
+                } else {
+                    data = this.prepare(this.entry(object.getNameSpace(), object.getName()), object);
+                }
+
+                batch.put(key, data);
+                saved.add(data);
+            }
+
+            for (final T data : saved) {
+                this.write(this.entry(data.getNameSpace(), data.getName()), data);
+            }
+
+            return Collections.unmodifiableList(saved);
+        } finally {
+            unlockAll(batchLocks);
+        }
+    }
+
+    /**
+     * Changes the resource while holding its write lock. The updater is called exactly once.
+     */
+    @Override
+    public Optional<T> update(final UUID uid, final long expectedGeneration, final UnaryOperator<T> updater)
+            throws OptimisticLockStoreException {
+        return this.modify(uid, expectedGeneration, updater);
+    }
+
+    /**
+     * Changes the resource while holding its write lock. The updater is called exactly once.
+     */
+    @Override
+    public Optional<T> compute(final UUID uid, final UnaryOperator<T> updater) throws OptimisticLockStoreException {
+        return this.modify(uid, null, updater);
+    }
+
+    /**
+     * @param uid                the uid of the resource to change.
+     * @param expectedGeneration the generation the resource has to have ({@code null} for any).
+     * @param updater            returns the changed resource.
+     * @return the resource stored or an empty {@link Optional} if there is none with this uid.
+     */
+    private Optional<T> modify(final UUID uid, final Long expectedGeneration, final UnaryOperator<T> updater) {
+        Entry entry = this.byUid.get(uid);
+
+        for (int attempt = 1; entry != null; attempt++) {
+            // the lock is selected by nameSpace/name, so we have to check again after acquiring it.
+            final ReentrantLock lock = this.locks[stripe(entry.nameSpace, entry.name)];
+            lock.lock();
+            try {
+                final Entry current = this.byUid.get(uid);
+
+                if (current == entry) {
+                    if (expectedGeneration != null && current.generation != expectedGeneration) {
+                        throw new OptimisticLockStoreException(current.generation, expectedGeneration);
+                    }
+
+                    final T stored = this.read(() -> current);
+                    final T result = this.prepare(current, StoreService.checkUpdate(stored, updater.apply(stored)));
+
+                    this.write(current, result);
+                    return Optional.of(result);
+                }
+                if (attempt >= COMPUTE_ATTEMPTS && current != null) {
+                    throw new OptimisticLockStoreException(current.generation, entry.generation);
+                }
+
+                entry = current;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public void remove(final T object) {
+        this.remove(object.getNameSpace(), object.getName());
+    }
+
+    @Override
+    public void remove(final String nameSpace, final String name) {
+        final ReentrantLock lock = this.locks[stripe(nameSpace, name)];
+        lock.lock();
+        try {
+            final Entry entry = this.entry(nameSpace, name);
+
+            if (entry != null) {
+                this.delete(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(final UUID uid) {
+        Entry entry = this.byUid.get(uid);
+
+        while (entry != null) {
+            // the lock is selected by nameSpace/name, so we have to check again after acquiring it.
+            final ReentrantLock lock = this.locks[stripe(entry.nameSpace, entry.name)];
+            lock.lock();
+            try {
+                final Entry current = this.byUid.get(uid);
+
+                if (current == entry) {
+                    this.delete(entry);
+                    return;
+                }
+
+                entry = current;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void removeAll(final Collection<UUID> uids) {
+        while (true) {
+            final List<Entry> found = uids.stream()
+                    .distinct()
+                    .map(this.byUid::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            if (found.isEmpty()) {
+                return;
+            }
+
+            // the locks are selected by nameSpace/name, so we have to check again after acquiring them.
+            final ReentrantLock[] batchLocks = this.lockAll(found.stream().mapToInt(e -> stripe(e.nameSpace, e.name)));
+            try {
+                if (found.stream().allMatch(e -> this.byUid.get(e.uid) == e)) {
+                    found.forEach(this::delete);
+                    return;
+                }
+            } finally {
+                unlockAll(batchLocks);
+            }
+        }
+    }
+
+
+    /**
+     * Called after a resource has been saved while still holding its write lock. So calls for the same resource are
+     * strictly ordered. Implementations have to be fast, they block other writers of this lock stripe.
+     *
+     * @param saved the resource now stored.
+     */
+    protected void afterSave(final T saved) {
+        // default is to do nothing.
+    }
+
+    /**
+     * Called after a resource has been removed (or replaced by one with another uid) while still holding its write
+     * lock. Only the uid is given, the resource is not decoded again.
+     *
+     * @param uid the uid of the resource removed.
+     * @see #afterSave(Resource)
+     */
+    protected void afterRemove(final UUID uid) {
+        // default is to do nothing.
+    }
+
+
+    /**
+     * Reads the resource from the arena. The entry is looked up within the optimistic read, so a record freed and
+     * recycled meanwhile is detected.
+     *
+     * @param lookup returns the entry of the resource to read (may return {@code null}).
+     * @return the decoded resource or {@code null} if there is none.
+     */
+    private T read(final Supplier<Entry> lookup) {
+        final long stamp = this.arena.tryOptimisticRead();
+
+        Entry entry = lookup.get();
+        if (entry == null) {
+            return null;
+        }
+
+        final T cached = this.hotCache != null ? this.hotCache.getIfPresent(entry) : null;
+        if (cached != null) {
+            return cached;
+        }
+
+        byte[] data = this.arena.copy(entry.address);
+        if (data == null || !this.arena.validate(stamp)) {
+            final long lock = this.arena.readLock();
+            try {
+                entry = lookup.get();
+                if (entry == null) {
+                    return null;
+                }
+
+                data = this.arena.copy(entry.address);
+            } finally {
+                this.arena.unlockRead(lock);
+            }
+        }
+
+        final T result = this.codec.decode(data);
+        if (this.hotCache != null) {
+            this.hotCache.put(entry, result);
+        }
+        return result;
+    }
+
+    private Entry entry(final String nameSpace, final String name) {
+        final AtomicReference<RankedTreeMap<String, Entry>> index = this.byName.get(nameSpace);
+
+        return index != null ? index.get().get(name) : null;
+    }
+
+    private T prepare(final Entry stored, final T object) {
+        return stored == null ? object : this.prepare(stored.generation, object);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T prepare(final long storedGeneration, final T object) {
+        final T result = (T) object.increaseGeneration();
+
+        if (storedGeneration >= result.getGeneration()) {
+            throw new OptimisticLockStoreException(storedGeneration, result.getGeneration());
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes the resource and changes all indexes. Must be called while holding the write lock.
+     *
+     * @param stored the entry stored under this nameSpace and name (may be {@code null}).
+     * @param data   the resource to store.
+     */
+    private void write(final Entry stored, final T data) {
+        final Entry entry = new Entry(
+                data.getNameSpace(), data.getName(), data.getUid(), data.getGeneration(),
+                this.arena.write(this.codec.encode(data))
+        );
+
+        this.byName.computeIfAbsent(data.getNameSpace(), k -> new AtomicReference<>(RankedTreeMap.empty()))
+                .updateAndGet(m -> m.put(entry.name, entry));
+        if (stored != null && !stored.uid.equals(entry.uid)) {
+            this.byUid.remove(stored.uid, stored);
+        }
+        this.byUid.put(entry.uid, entry);
+
+        if (this.hotCache != null) {
+            this.hotCache.put(entry, data);
+        }
+        if (stored != null) {
+            this.release(stored);
+
+            if (!stored.uid.equals(entry.uid)) {
+                this.afterRemove(stored.uid);
+            }
+        }
+        this.afterSave(data);
+    }
+
+    /**
+     * Removes the resource from all indexes. Must be called while holding the write lock.
+     *
+     * @param entry the entry of the resource to remove.
+     */
+    private void delete(final Entry entry) {
+        this.byName.get(entry.nameSpace).updateAndGet(m -> m.remove(entry.name));
+        this.byUid.remove(entry.uid, entry);
+
+        this.release(entry);
+        this.afterRemove(entry.uid);
+    }
+
+    private void release(final Entry entry) {
+        if (this.hotCache != null) {
+            this.hotCache.invalidate(entry);
+        }
+
+        this.arena.free(entry.address);
+    }
+
+    private static int stripe(final String nameSpace, final String name) {
+        int hash = 31 * nameSpace.hashCode() + name.hashCode();
+        hash ^= (hash >>> 16);
+
+        return hash & (STRIPES - 1);
+    }
+
+    /**
+     * Locks all given stripes in ascending order, see {@link GenericStoreService}.
+     *
+     * @param stripes the stripes to lock (may contain duplicates).
+     * @return the locks held, to be released by {@link #unlockAll(ReentrantLock[])}.
+     */
+    private ReentrantLock[] lockAll(final IntStream stripes) {
+        final BitSet used = new BitSet(this.locks.length);
+        stripes.forEach(used::set);
+
+        final ReentrantLock[] result = new ReentrantLock[used.cardinality()];
+        for (int i = 0, stripe = used.nextSetBit(0); stripe >= 0; i++, stripe = used.nextSetBit(stripe + 1)) {
+            result[i] = this.locks[stripe];
+            result[i].lock();
+        }
+
+        return result;
+    }
+
+    private static void unlockAll(final ReentrantLock[] held) {
+        for (int i = held.length - 1; i >= 0; i--) {
+            held[i].unlock();
+        }
+    }
+
+
+    /**
+     * The heap part of a stored resource. Every version gets a new entry, so entries are compared by identity.
+     */
+    private static final class Entry {
+        private final String nameSpace;
+        private final String name;
+        private final UUID uid;
+        private final long generation;
+        private final long address;
+
+        private Entry(final String nameSpace, final String name, final UUID uid, final long generation, final long address) {
+            this.nameSpace = nameSpace;
+            this.name = name;
+            this.uid = uid;
+            this.generation = generation;
+            this.address = address;
+        }
+    }
+}
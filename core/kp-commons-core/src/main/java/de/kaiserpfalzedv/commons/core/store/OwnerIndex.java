@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.kaiserpfalzedv.commons.api.resources.Pointer;
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+
+/**
+ * OwnerIndex -- an inverted index from the owners of resources ({@link de.kaiserpfalzedv.commons.api.resources.Metadata#getOwningResource()})
+ * to the uids of the resources they own.
+ * <p>
+ * Owners are identified by kind, nameSpace and name, so pointers of any implementation match. Updates of a single
+ * resource have to be serialized by the caller (the store does this with its write lock), updates of different
+ * resources may run in parallel.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+final class OwnerIndex {
+    /**
+     * owner (kind, nameSpace, name) -> uids.
+     */
+    private final ConcurrentHashMap<List<String>, Set<UUID>> children = new ConcurrentHashMap<>();
+
+
+    /**
+     * Changes the posting of a resource from the old owner to the new one.
+     *
+     * @param uid      the uid of the resource.
+     * @param oldOwner the owner currently indexed for this uid (may be {@code null}).
+     * @param newOwner the owner to index for this uid (may be {@code null}).
+     */
+    void update(final UUID uid, final List<String> oldOwner, final List<String> newOwner) {
+        if (Objects.equals(oldOwner, newOwner)) {
+            return;
+        }
+
+        if (oldOwner != null) {
+            this.children.computeIfPresent(oldOwner, (k, uids) -> {
+                uids.remove(uid);
+                return uids.isEmpty() ? null : uids;
+            });
+        }
+        if (newOwner != null) {
+            this.children.compute(newOwner, (k, uids) -> {
+                final Set<UUID> result = uids != null ? uids : ConcurrentHashMap.newKeySet();
+                result.add(uid);
+                return result;
+            });
+        }
+    }
+
+    /**
+     * @param owner the owner (kind, nameSpace and name, see {@link #key(Pointer)}).
+     * @return the uids of the resources owned (may contain resources changed concurrently).
+     */
+    Set<UUID> children(final List<String> owner) {
+        final Set<UUID> result = this.children.get(owner);
+
+        return result != null ? Set.copyOf(result) : Set.of();
+    }
+
+    /**
+     * @param pointer the pointer to a resource.
+     * @return the key of the resource in this index ({@code null} if the pointer is {@code null}).
+     */
+    static List<String> key(final Pointer pointer) {
+        return pointer != null ? Arrays.asList(pointer.getKind(), pointer.getNameSpace(), pointer.getName()) : null;
+    }
+
+    /**
+     * @param resource the resource owned (may be {@code null}).
+     * @return the key of the owner of the resource or {@code null} if it has none.
+     */
+    static List<String> owner(final Resource<?> resource) {
+        if (resource == null || resource.getMetadata() == null) {
+            return null;
+        }
+
+        return resource.getMetadata().getOwningResource().map(OwnerIndex::key).orElse(null);
+    }
+}
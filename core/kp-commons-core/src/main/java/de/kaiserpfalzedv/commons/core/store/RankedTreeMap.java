@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RankedTreeMap -- an immutable sorted map that knows the rank of every entry.
+ * <p>
+ * This is a weight-balanced binary tree (Adams' tree with delta 3 and ratio 2). Every change copies the path from the
+ * root to the changed node and returns a new map, the old one stays valid. So readers can work on a map without any
+ * locking while writers publish new versions. Since every node knows the size of its subtree, finding the n-th entry
+ * costs O(log n).
+ *
+ * @param <K> The key of the map.
+ * @param <V> The values stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+final class RankedTreeMap<K extends Comparable<? super K>, V> {
+    private static final int DELTA = 3;
+    private static final int RATIO = 2;
+
+    @SuppressWarnings("rawtypes")
+    private static final RankedTreeMap EMPTY = new RankedTreeMap<>(null);
+
+    private final Node<K, V> root;
+
+
+    private RankedTreeMap(final Node<K, V> root) {
+        this.root = root;
+    }
+
+    /**
+     * @param <K> The key of the map.
+     * @param <V> The values stored.
+     * @return the empty map.
+     */
+    @SuppressWarnings("unchecked")
+    static <K extends Comparable<? super K>, V> RankedTreeMap<K, V> empty() {
+        return (RankedTreeMap<K, V>) EMPTY;
+    }
+
+
+    int size() {
+        return size(this.root);
+    }
+
+    boolean isEmpty() {
+        return this.root == null;
+    }
+
+    V get(final K key) {
+        Node<K, V> node = this.root;
+
+        while (node != null) {
+            final int cmp = key.compareTo(node.key);
+
+            if (cmp == 0) {
+                return node.value;
+            }
+
+            node = cmp < 0 ? node.left : node.right;
+        }
+
+        return null;
+    }
+
+    /**
+     * @param key   the key to store the value for.
+     * @param value the value to store.
+     * @return the new map containing the value.
+     */
+    RankedTreeMap<K, V> put(final K key, final V value) {
+        final Node<K, V> result = insert(this.root, key, value);
+
+        return result == this.root ? this : new RankedTreeMap<>(result);
+    }
+
+    /**
+     * @param key the key to remove.
+     * @return the new map without the key.
+     */
+    RankedTreeMap<K, V> remove(final K key) {
+        final Node<K, V> result = delete(this.root, key);
+
+        return result == this.root ? this : new RankedTreeMap<>(result);
+    }
+
+    /**
+     * @param key the key to check.
+     * @return the number of keys in the map lower than the given key.
+     */
+    int rank(final K key) {
+        Node<K, V> node = this.root;
+        int result = 0;
+
+        while (node != null) {
+            final int cmp = key.compareTo(node.key);
+
+            if (cmp <= 0) {
+                node = node.left;
+            } else {
+                result += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the values in key order, starting with the value at position {@code start}.
+     *
+     * @param start the rank of the first value to return.
+     * @param count the maximum number of values to return.
+     * @return the values. Costs O(log n + count).
+     */
+    List<V> slice(final long start, final int count) {
+        if (start < 0 || start >= size(this.root) || count <= 0) {
+            return Collections.emptyList();
+        }
+
+        final ArrayList<V> result = new ArrayList<>((int) Math.min(count, size(this.root) - start));
+        final ArrayDeque<Node<K, V>> path = new ArrayDeque<>();
+
+        // descend to the start node and remember every node we still have to visit afterward.
+        Node<K, V> node = this.root;
+        long skip = start;
+        while (node != null) {
+            final int leftSize = size(node.left);
+
+            if (skip < leftSize) {
+                path.push(node);
+                node = node.left;
+            } else if (skip == leftSize) {
+                path.push(node);
+                break;
+            } else {
+                skip -= leftSize + 1;
+                node = node.right;
+            }
+        }
+
+        while (!path.isEmpty() && result.size() < count) {
+            node = path.pop();
+            result.add(node.value);
+
+            for (Node<K, V> next = node.right; next != null; next = next.left) {
+                path.push(next);
+            }
+        }
+
+        return result;
+    }
+
+
+    private static int size(final Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static <K extends Comparable<? super K>, V> Node<K, V> insert(final Node<K, V> node, final K key, final V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null);
+        }
+
+        final int cmp = key.compareTo(node.key);
+        if (cmp < 0) {
+            return balance(node.key, node.value, insert(node.left, key, value), node.right);
+        } else if (cmp > 0) {
+            return balance(node.key, node.value, node.left, insert(node.right, key, value));
+        }
+
+        return node.value == value ? node : new Node<>(key, value, node.left, node.right);
+    }
+
+    private static <K extends Comparable<? super K>, V> Node<K, V> delete(final Node<K, V> node, final K key) {
+        if (node == null) {
+            return null;
+        }
+
+        final int cmp = key.compareTo(node.key);
+        if (cmp < 0) {
+            final Node<K, V> left = delete(node.left, key);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        } else if (cmp > 0) {
+            final Node<K, V> right = delete(node.right, key);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+
+        return glue(node.left, node.right);
+    }
+
+    private static <K, V> Node<K, V> glue(final Node<K, V> left, final Node<K, V> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+
+        if (left.size > right.size) {
+            Node<K, V> max = left;
+            while (max.right != null) {
+                max = max.right;
+            }
+            return balance(max.key, max.value, deleteMax(left), right);
+        }
+
+        Node<K, V> min = right;
+        while (min.left != null) {
+            min = min.left;
+        }
+        return balance(min.key, min.value, left, deleteMin(right));
+    }
+
+    private static <K, V> Node<K, V> deleteMin(final Node<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+
+        return balance(node.key, node.value, deleteMin(node.left), node.right);
+    }
+
+    private static <K, V> Node<K, V> deleteMax(final Node<K, V> node) {
+        if (node.right == null) {
+            return node.left;
+        }
+
+        return balance(node.key, node.value, node.left, deleteMax(node.right));
+    }
+
+    private static <K, V> Node<K, V> balance(final K key, final V value, final Node<K, V> left, final Node<K, V> right) {
+        final int sizeLeft = size(left);
+        final int sizeRight = size(right);
+
+        if (sizeLeft + sizeRight <= 1) {
+            return new Node<>(key, value, left, right);
+        }
+
+        if (sizeRight > DELTA * sizeLeft) {
+            return size(right.left) < RATIO * size(right.right)
+                    ? rotateLeft(key, value, left, right)
+                    : rotateLeft(key, value, left, rotateRight(right.key, right.value, right.left, right.right));
+        }
+
+        if (sizeLeft > DELTA * sizeRight) {
+            return size(left.right) < RATIO * size(left.left)
+                    ? rotateRight(key, value, left, right)
+                    : rotateRight(key, value, rotateLeft(left.key, left.value, left.left, left.right), right);
+        }
+
+        return new Node<>(key, value, left, right);
+    }
+
+    private static <K, V> Node<K, V> rotateLeft(final K key, final V value, final Node<K, V> left, final Node<K, V> right) {
+        return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+    }
+
+    private static <K, V> Node<K, V> rotateRight(final K key, final V value, final Node<K, V> left, final Node<K, V> right) {
+        return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+    }
+
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final Node<K, V> left;
+        private final Node<K, V> right;
+        private final int size;
+
+        private Node(final K key, final V value, final Node<K, V> left, final Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * ResourceCodec -- converts resources to bytes and back for stores keeping their data outside the heap.
+ *
+ * @param <T> The resource to be converted.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface ResourceCodec<T extends Resource<?>> {
+    /**
+     * @param resource the resource to encode.
+     * @return the binary representation of the resource.
+     * @throws de.kaiserpfalzedv.commons.api.store.PersistenceStoreException if the resource can't be encoded.
+     */
+    @NotNull
+    byte[] encode(@NotNull T resource);
+
+    /**
+     * @param data   the buffer containing the binary representation.
+     * @param offset the start of the representation within the buffer.
+     * @param length the length of the representation.
+     * @return the decoded resource.
+     * @throws de.kaiserpfalzedv.commons.api.store.PersistenceStoreException if the data can't be decoded.
+     */
+    @NotNull
+    T decode(@NotNull byte[] data, int offset, int length);
+
+    /**
+     * @param data the binary representation.
+     * @return the decoded resource.
+     * @throws de.kaiserpfalzedv.commons.api.store.PersistenceStoreException if the data can't be decoded.
+     */
+    @NotNull
+    default T decode(@NotNull final byte[] data) {
+        return decode(data, 0, data.length);
+    }
+}
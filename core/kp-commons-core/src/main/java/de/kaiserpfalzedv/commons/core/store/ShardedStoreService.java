@@ -0,0 +1,547 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.data.Paging;
+import de.kaiserpfalzedv.commons.api.resources.Pointer;
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.DuplicateStoreException;
+import de.kaiserpfalzedv.commons.api.store.HistoryStore;
+import de.kaiserpfalzedv.commons.api.store.LabelSelector;
+import de.kaiserpfalzedv.commons.api.store.ListableStore;
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.store.OwnerStore;
+import de.kaiserpfalzedv.commons.api.store.PersistenceStoreException;
+import de.kaiserpfalzedv.commons.api.store.SelectableStore;
+import de.kaiserpfalzedv.commons.core.data.PagedResultImpl;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
+import jakarta.validation.constraints.NotNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ShardedStoreService -- a store partitioned by nameSpace and name into shards with a single writer each.
+ * <p>
+ * Every shard is a {@link GenericStoreService} of its own (usually with a concurrency level of 1) and a single writer
+ * thread. All changes of a shard are run on its writer thread, the caller waits for the result. So the locks
+ * within a shard are never contended and the written cache lines stay with one core. Reads don't go through the
+ * writer: they run concurrently on the caller thread against the lock-free indexes of the shard.
+ * <p>
+ * A lookup by nameSpace and name only touches its shard. Lookups by uid use an index of the shard holding every uid,
+ * kept up to date by the writes of this store (resources removed by a shard on its own, e.g. when expired, are dropped
+ * from it on the next lookup). Queries over many resources ask all shards and merge the results, paging merges the
+ * name-sorted shards. Batches are split by shard: every shard saves or removes its part atomically, but the shards
+ * commit independently. So this is no {@link de.kaiserpfalzedv.commons.api.store.BatchStore}. Snapshots and watches
+ * are not supported, the shards have no common version.
+ *
+ * @param <T> The resource to be stored inside the data store.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@Slf4j
+public class ShardedStoreService<T extends Resource<?>> implements HistoryStore<T>, ListableStore<T>,
+        SelectableStore<T>, OwnerStore<T>, Closeable {
+    /** Default number of shards: one per core. */
+    public static final int DEFAULT_SHARDS = Runtime.getRuntime().availableProcessors();
+
+    private static final Comparator<Resource<?>> BY_NAME = Comparator.comparing(Resource::getName);
+
+    @ToString.Include
+    private final List<Shard<T>> shards;
+
+    /** The shard holding each uid. Changed by the writer thread of the shard only. */
+    private final ConcurrentHashMap<UUID, Shard<T>> uids = new ConcurrentHashMap<>(16);
+
+
+    /**
+     * Creates a store with {@link #DEFAULT_SHARDS} shards.
+     *
+     * @param shardFactory creates the store of a shard.
+     */
+    public ShardedStoreService(@NotNull final Supplier<? extends GenericStoreService<T>> shardFactory) {
+        this(DEFAULT_SHARDS, shardFactory);
+    }
+
+    /**
+     * @param shards       the number of shards.
+     * @param shardFactory creates the store of a shard.
+     */
+    public ShardedStoreService(final int shards, @NotNull final Supplier<? extends GenericStoreService<T>> shardFactory) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("The number of shards has to be positive: " + shards);
+        }
+
+        final ArrayList<Shard<T>> result = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            result.add(new Shard<>(i, shardFactory.get()));
+        }
+        this.shards = List.copyOf(result);
+
+        // the factory may return stores already filled (e.g. restored from their journal).
+        this.shards.forEach(s -> s.store().values().forEach(r -> this.uids.put(r.getUid(), s)));
+    }
+
+
+    /**
+     * @return the number of shards.
+     */
+    public int getShardCount() {
+        return this.shards.size();
+    }
+
+    private Shard<T> shard(final String nameSpace, final String name) {
+        // mix the bits, Strings of similar names tend to share the low bits of their hashes.
+        final int hash = 31 * nameSpace.hashCode() + name.hashCode();
+        return this.shards.get(Math.floorMod(hash ^ (hash >>> 16), this.shards.size()));
+    }
+
+    private Shard<T> shard(final Resource<?> resource) {
+        return this.shard(resource.getNameSpace(), resource.getName());
+    }
+
+    /**
+     * @param uid the uid of the resource.
+     * @return the shard holding the resource or {@code null} if no shard does.
+     */
+    private Shard<T> shard(final UUID uid) {
+        return this.uids.get(uid);
+    }
+
+    /**
+     * Adds the saved resources to the uid index. Must be called on the writer thread of the shard.
+     */
+    private List<T> indexed(final Shard<T> shard, final List<T> saved) {
+        saved.forEach(r -> this.uids.put(r.getUid(), shard));
+        return saved;
+    }
+
+    /**
+     * Drops the uid from the index unless the shard still holds it. Must be called on the writer thread of the shard.
+     */
+    private void unindex(final Shard<T> shard, final UUID uid) {
+        if (shard.store().findByUid(uid).isEmpty()) {
+            this.uids.remove(uid, shard);
+        }
+    }
+
+
+    @Override
+    public Optional<T> findByNameSpaceAndName(final String nameSpace, final String name) {
+        return this.shard(nameSpace, name).store().findByNameSpaceAndName(nameSpace, name);
+    }
+
+    @Override
+    public Optional<T> findByUid(final UUID uid) {
+        final Shard<T> shard = this.shard(uid);
+        if (shard == null) {
+            return Optional.empty();
+        }
+
+        final Optional<T> result = shard.store().findByUid(uid);
+        if (result.isEmpty()) {
+            try {
+                // dropped on the writer thread, a save running there may add the uid again.
+                shard.writer().execute(() -> this.unindex(shard, uid));
+            } catch (final RejectedExecutionException e) {
+                // the store has been closed, nothing changes anymore.
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<T> findByUidAndGeneration(final UUID uid, final long generation) {
+        final Shard<T> shard = this.shard(uid);
+
+        return shard != null ? shard.store().findByUidAndGeneration(uid, generation) : Optional.empty();
+    }
+
+    @Override
+    public PagedResult<T> findHistoryByUid(final UUID uid, final Paging paging) {
+        final Shard<T> shard = this.shard(uid);
+
+        return shard != null
+                ? shard.store().findHistoryByUid(uid, paging)
+                : this.shards.get(0).store().findHistoryByUid(uid, paging);
+    }
+
+    @Override
+    public List<String> findAllNameSpaces() {
+        final TreeSet<String> result = new TreeSet<>();
+        this.shards.forEach(s -> result.addAll(s.store().findAllNameSpaces()));
+
+        return List.copyOf(result);
+    }
+
+    /**
+     * Every shard returns its first {@code start + size} resources, so deep pages get expensive.
+     */
+    @Override
+    public PagedResult<T> findAllByNameSpace(final String nameSpace, final Paging paging) {
+        final long start = paging.getStart();
+        final int size = (int) Math.min(paging.getSize(), Integer.MAX_VALUE);
+        final Paging head = PagingImpl.builder().start(0).size(Math.min(start + size, Integer.MAX_VALUE)).build();
+
+        long total = 0;
+        final ArrayList<List<T>> sorted = new ArrayList<>(this.shards.size());
+        for (final Shard<T> shard : this.shards) {
+            final PagedResult<T> page = shard.store().findAllByNameSpace(nameSpace, head);
+
+            total += page.getPaging().getTotal();
+            sorted.add(page.getData());
+        }
+
+        final List<T> merged = merge(sorted, start + size);
+        final List<T> data = start < merged.size() ? merged.subList((int) start, merged.size()) : List.of();
+
+        return PagedResultImpl.<T>builder()
+                .paging(PagingImpl.builder()
+                        .start(start)
+                        .size(paging.getSize())
+                        .count(data.size())
+                        .total(total)
+                        .build())
+                .data(List.copyOf(data))
+                .build();
+    }
+
+    @Override
+    public List<T> findByNameSpaceAndNamePrefix(final String nameSpace, final String prefix, final int limit) {
+        return merge(this.collect(s -> s.findByNameSpaceAndNamePrefix(nameSpace, prefix, limit)), limit);
+    }
+
+    @Override
+    public long countByNameSpace(final String nameSpace) {
+        return this.shards.stream().mapToLong(s -> s.store().countByNameSpace(nameSpace)).sum();
+    }
+
+    @Override
+    public List<T> findBySelector(final LabelSelector selector) {
+        return concat(this.collect(s -> s.findBySelector(selector)));
+    }
+
+    @Override
+    public List<T> findByNameSpaceAndSelector(final String nameSpace, final LabelSelector selector) {
+        return concat(this.collect(s -> s.findByNameSpaceAndSelector(nameSpace, selector)));
+    }
+
+    @Override
+    public List<T> findByOwner(final Pointer owner) {
+        return concat(this.collect(s -> s.findByOwner(owner)));
+    }
+
+    private List<List<T>> collect(final Function<GenericStoreService<T>, List<T>> query) {
+        return this.shards.stream().map(s -> query.apply(s.store())).toList();
+    }
+
+    private static <T> List<T> concat(final List<List<T>> parts) {
+        return parts.stream().flatMap(List::stream).toList();
+    }
+
+    /**
+     * Merges the name-sorted results of the shards.
+     *
+     * @param sorted the results of the shards, each sorted by name.
+     * @param limit  the maximum number of resources to return.
+     * @return the first resources of all shards sorted by name.
+     */
+    private static <T extends Resource<?>> List<T> merge(final List<List<T>> sorted, final long limit) {
+        final PriorityQueue<Cursor<T>> heads = new PriorityQueue<>(Math.max(sorted.size(), 1),
+                Comparator.comparing(Cursor::head, BY_NAME));
+        sorted.stream().filter(l -> !l.isEmpty()).forEach(l -> heads.add(new Cursor<>(l, 0)));
+
+        final ArrayList<T> result = new ArrayList<>();
+        while (result.size() < limit && !heads.isEmpty()) {
+            final Cursor<T> cursor = heads.poll();
+
+            result.add(cursor.head());
+            if (cursor.position() + 1 < cursor.data().size()) {
+                heads.add(new Cursor<>(cursor.data(), cursor.position() + 1));
+            }
+        }
+
+        return result;
+    }
+
+
+    @Override
+    public T save(final T object) throws OptimisticLockStoreException, DuplicateStoreException {
+        final Shard<T> shard = this.shard(object);
+
+        return shard.write(s -> this.indexed(shard, List.of(s.save(object))).get(0));
+    }
+
+    /**
+     * The batch is split by shard. Every shard saves its part atomically, but a failing shard does not undo the
+     * others.
+     *
+     * @param objects the objects to save.
+     * @return the objects saved, in the order given.
+     * @throws OptimisticLockStoreException if a shard failed the optimistic locking check.
+     * @throws DuplicateStoreException      if a shard holds another resource with the same nameSpace and name.
+     */
+    public List<T> saveAll(final Collection<T> objects) throws OptimisticLockStoreException, DuplicateStoreException {
+        final List<T> input = List.copyOf(objects);
+        final Map<Shard<T>, List<T>> byShard = input.stream()
+                .collect(Collectors.groupingBy(this::shard, Collectors.toList()));
+
+        if (byShard.size() == 1) {
+            final Map.Entry<Shard<T>, List<T>> only = byShard.entrySet().iterator().next();
+            return only.getKey().write(s -> this.indexed(only.getKey(), s.saveAll(only.getValue())));
+        }
+
+        final Map<Shard<T>, CompletableFuture<List<T>>> pending = byShard.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getKey().submit(s -> this.indexed(e.getKey(), s.saveAll(e.getValue())))));
+
+        // the resources of a shard keep their order, so the results are taken in input order per shard.
+        final Map<Shard<T>, ArrayDeque<T>> saved = pending.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> new ArrayDeque<>(join(e.getValue()))));
+
+        return input.stream().map(o -> saved.get(this.shard(o)).poll()).toList();
+    }
+
+    @Override
+    public Optional<T> update(final UUID uid, final long expectedGeneration, final UnaryOperator<T> updater)
+            throws OptimisticLockStoreException {
+        final Shard<T> shard = this.shard(uid);
+
+        return shard != null ? shard.write(s -> s.update(uid, expectedGeneration, updater)) : Optional.empty();
+    }
+
+    @Override
+    public Optional<T> compute(final UUID uid, final UnaryOperator<T> updater) throws OptimisticLockStoreException {
+        final Shard<T> shard = this.shard(uid);
+
+        return shard != null ? shard.write(s -> s.compute(uid, updater)) : Optional.empty();
+    }
+
+    @Override
+    public void remove(final T object) {
+        final Shard<T> shard = this.shard(object);
+
+        shard.write(s -> {
+            s.remove(object);
+            this.unindex(shard, object.getUid());
+            return null;
+        });
+    }
+
+    @Override
+    public void remove(final String nameSpace, final String name) {
+        final Shard<T> shard = this.shard(nameSpace, name);
+
+        shard.write(s -> {
+            final Optional<T> removed = s.findByNameSpaceAndName(nameSpace, name);
+            s.remove(nameSpace, name);
+            removed.ifPresent(r -> this.unindex(shard, r.getUid()));
+            return null;
+        });
+    }
+
+    @Override
+    public void remove(final UUID uid) {
+        final Shard<T> shard = this.shard(uid);
+
+        if (shard != null) {
+            shard.write(s -> {
+                s.remove(uid);
+                this.unindex(shard, uid);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * The batch is split by shard. Every shard removes its part atomically, but the shards commit independently.
+     *
+     * @param uids the uids of the objects to remove.
+     */
+    public void removeAll(final Collection<UUID> uids) {
+        final Map<Shard<T>, List<UUID>> byShard = uids.stream()
+                .distinct()
+                .map(u -> Map.entry(u, Optional.ofNullable(this.shard(u))))
+                .filter(e -> e.getValue().isPresent())
+                .collect(Collectors.groupingBy(e -> e.getValue().get(), Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+
+        byShard.entrySet().stream()
+                .map(e -> e.getKey().submit(s -> {
+                    s.removeAll(e.getValue());
+                    e.getValue().forEach(u -> this.unindex(e.getKey(), u));
+                    return null;
+                }))
+                .toList()
+                .forEach(ShardedStoreService::join);
+    }
+
+    /**
+     * Collects the subtree over all shards and removes it via {@link #removeAll(Collection)}.
+     */
+    @Override
+    public List<T> removeCascading(final UUID uid) {
+        final T root = this.findByUid(uid).orElse(null);
+        if (root == null) {
+            return List.of();
+        }
+
+        final LinkedHashSet<UUID> subtree = new LinkedHashSet<>();
+        final ArrayDeque<T> owners = new ArrayDeque<>();
+        final ArrayList<T> result = new ArrayList<>();
+        subtree.add(root.getUid());
+        owners.add(root);
+        result.add(root);
+
+        while (!owners.isEmpty()) {
+            for (final T child : this.findByOwner(owners.poll())) {
+                // ownership may be cyclic, every resource is visited once.
+                if (subtree.add(child.getUid())) {
+                    owners.add(child);
+                    result.add(child);
+                }
+            }
+        }
+
+        this.removeAll(subtree);
+        return result;
+    }
+
+    /**
+     * Stops the writer threads after the changes already submitted.
+     */
+    @Override
+    public void close() {
+        this.shards.forEach(s -> s.writer().shutdown());
+
+        for (final Shard<T> shard : this.shards) {
+            try {
+                if (!shard.writer().awaitTermination(10, TimeUnit.SECONDS)) {
+                    log.warn("Shard writer did not stop in time. shard={}", shard.index());
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static <R> R join(final CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new PersistenceStoreException("Shard write failed", e.getCause());
+        }
+    }
+
+
+    /**
+     * A shard: the store and its writer thread.
+     *
+     * @param <T> The resource stored.
+     */
+    private static final class Shard<T extends Resource<?>> {
+        private final int index;
+        private final GenericStoreService<T> store;
+        private final ExecutorService writer;
+        /** The current writer thread (replaced by the executor if it dies). */
+        private volatile Thread thread;
+
+        private Shard(final int index, final GenericStoreService<T> store) {
+            this.index = index;
+            this.store = store;
+            this.writer = Executors.newSingleThreadExecutor(r -> {
+                final Thread result = new Thread(r, "store-shard-" + index);
+                result.setDaemon(true);
+                this.thread = result;
+                return result;
+            });
+        }
+
+        int index() {
+            return this.index;
+        }
+
+        GenericStoreService<T> store() {
+            return this.store;
+        }
+
+        ExecutorService writer() {
+            return this.writer;
+        }
+
+        /**
+         * Runs the change on the writer thread and waits for it. A change made from the writer thread itself (e.g. by a
+         * hook of the store) is run right away.
+         */
+        <R> R write(final Function<GenericStoreService<T>, R> change) {
+            if (Thread.currentThread() == this.thread) {
+                return change.apply(this.store);
+            }
+
+            return join(this.submit(change));
+        }
+
+        <R> CompletableFuture<R> submit(final Function<GenericStoreService<T>, R> change) {
+            return CompletableFuture.supplyAsync(() -> change.apply(this.store), this.writer);
+        }
+
+        @Override
+        public String toString() {
+            return "Shard[" + this.index + "]";
+        }
+    }
+
+    /**
+     * A position within the result of a shard while merging.
+     */
+    private record Cursor<T>(List<T> data, int position) {
+        T head() {
+            return this.data.get(this.position);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.StoreEvent;
+import de.kaiserpfalzedv.commons.api.store.StoreEventType;
+import de.kaiserpfalzedv.commons.api.store.WatchExpiredStoreException;
+import de.kaiserpfalzedv.commons.api.store.WatchOverflowStoreException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * StoreChangeFeed -- numbers the changes of a store and delivers them to the watchers.
+ * <p>
+ * Events are published while the writer holds the lock of the resource, so the events of a resource are in the order
+ * of its generations. Publishing takes no lock: the revision is drawn from a counter and the event is put into a ring
+ * buffer at this revision. The ring keeps the last events to resume watches.
+ * <p>
+ * Every watcher has its own position in the ring and is served on the executor, honoring the demand of the
+ * subscriber. It delivers the events strictly by revision, waiting for a revision drawn but not put into the ring yet.
+ * A watcher falling more than the buffer size behind gets no further events; it receives a
+ * {@link WatchOverflowStoreException} after the events it had buffered. Nothing is recorded while nobody watches, so
+ * stores nobody watches pay nothing. Resuming a watch from before the time nobody watched fails.
+ *
+ * @param <T> The resource of the store.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+final class StoreChangeFeed<T extends Resource<?>> {
+    static final int DEFAULT_BUFFER_SIZE = 1024;
+    static final int DEFAULT_HISTORY_SIZE = 4096;
+
+    private final Executor executor;
+    private final int bufferSize;
+    private final int historySize;
+
+    /** Used for the event ids: {@code <feed, revision>}. */
+    private final long feedId = UUID.randomUUID().getMostSignificantBits();
+
+    /** The last revision drawn. */
+    private final AtomicLong revision = new AtomicLong();
+    /** The events by revision. Twice the size needed, so slow watchers find their buffered events. */
+    private final AtomicReferenceArray<StoreEvent<T>> ring;
+
+    private final CopyOnWriteArrayList<Watch> watches = new CopyOnWriteArrayList<>();
+    /** Serializes starting and stopping watches. */
+    private final Object subscriptions = new Object();
+    /** The first revision recorded since the feed has been activated. Guarded by subscriptions. */
+    private long recordedFrom = 1;
+
+    private volatile boolean active;
+
+
+    /**
+     * @param executor    the executor delivering the events to the subscribers.
+     * @param bufferSize  the maximum number of events buffered per subscriber.
+     * @param historySize the number of events kept for resuming watches.
+     */
+    StoreChangeFeed(final Executor executor, final int bufferSize, final int historySize) {
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+
+        this.ring = new AtomicReferenceArray<>(Integer.highestOneBit(Math.max(bufferSize, historySize) * 2 - 1) << 1);
+    }
+
+
+    /**
+     * Publishes a change. Has to be called while holding the write lock of the resource.
+     *
+     * @param type     the kind of change.
+     * @param resource the resource changed.
+     */
+    void publish(final StoreEventType type, final T resource) {
+        if (!this.active) {
+            return;
+        }
+
+        final long next = this.revision.incrementAndGet();
+        this.ring.set(this.slot(next), StoreEvent.<T>builder()
+                .id(new UUID(this.feedId, next))
+                .type(type)
+                .revision(next)
+                .resource(resource)
+                .build());
+
+        for (final Watch watch : this.watches) {
+            watch.schedule();
+        }
+    }
+
+    /**
+     * @param nameSpace   the namespace to watch ({@code null} for all).
+     * @param resumeAfter the revision to resume after (negative to start with the next change).
+     * @return a publisher starting a new watch for every subscriber.
+     */
+    Flow.Publisher<StoreEvent<T>> publisher(final String nameSpace, final long resumeAfter) {
+        return subscriber -> this.subscribe(subscriber, nameSpace, resumeAfter);
+    }
+
+    private void subscribe(
+            final Flow.Subscriber<? super StoreEvent<T>> subscriber,
+            final String nameSpace,
+            final long resumeAfter
+    ) {
+        Objects.requireNonNull(subscriber, "subscriber");
+
+        final Watch watch = new Watch(subscriber, nameSpace);
+        subscriber.onSubscribe(watch);
+
+        synchronized (this.subscriptions) {
+            if (!this.active && this.revision.get() > 0) {
+                // the changes while nobody watched are not recorded, so the revisions skip one to expire older ones.
+                this.recordedFrom = this.revision.incrementAndGet() + 1;
+            }
+
+            final long current = this.revision.get();
+            if (resumeAfter >= 0) {
+                final long oldest = Math.max(this.recordedFrom, current - this.historySize + 1);
+
+                if (resumeAfter < oldest - 1 || resumeAfter > current) {
+                    watch.fail(new WatchExpiredStoreException(resumeAfter));
+                } else {
+                    watch.delivered = resumeAfter;
+                }
+            } else {
+                watch.delivered = current;
+            }
+
+            if (watch.failure == null && !watch.terminated) {
+                this.watches.add(watch);
+                this.active = true;
+            }
+        }
+
+        watch.start();
+    }
+
+    /**
+     * Drops the watch. The feed stops recording with the last one and drops the events kept.
+     *
+     * @param watch the watch to drop.
+     */
+    private void unsubscribe(final Watch watch) {
+        synchronized (this.subscriptions) {
+            if (this.watches.remove(watch) && this.watches.isEmpty()) {
+                this.active = false;
+
+                for (int i = 0; i < this.ring.length(); i++) {
+                    this.ring.set(i, null);
+                }
+            }
+        }
+    }
+
+    private int slot(final long revision) {
+        return (int) (revision & (this.ring.length() - 1));
+    }
+
+
+    /**
+     * The subscription of a single subscriber with its position in the ring.
+     */
+    private final class Watch implements Flow.Subscription {
+        private final Flow.Subscriber<? super StoreEvent<T>> subscriber;
+        private final String nameSpace;
+
+        private final AtomicLong demand = new AtomicLong();
+        /** Starts with one, so nothing is delivered before {@link #start()}. */
+        private final AtomicInteger work = new AtomicInteger(1);
+        private volatile boolean terminated;
+        private volatile Throwable failure;
+
+        /**
+         * The revision of the last event delivered or skipped. Only changed before registration and by the drain loop.
+         */
+        private volatile long delivered;
+        /** The last revision to deliver after the watch fell behind. Only used by the drain loop. */
+        private long overflowAt = Long.MAX_VALUE;
+
+        Watch(final Flow.Subscriber<? super StoreEvent<T>> subscriber, final String nameSpace) {
+            this.subscriber = subscriber;
+            this.nameSpace = nameSpace;
+        }
+
+        void fail(final Throwable cause) {
+            this.failure = cause;
+            this.schedule();
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                this.fail(new IllegalArgumentException("Demand has to be positive (reactive streams rule 3.9): " + n));
+                return;
+            }
+
+            this.demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            this.schedule();
+        }
+
+        /**
+         * Stops the delivery and drops the watch from the feed (this may be called by the subscriber while the feed
+         * is publishing).
+         */
+        @Override
+        public void cancel() {
+            this.terminated = true;
+            StoreChangeFeed.this.unsubscribe(this);
+        }
+
+        /**
+         * Starts delivering after the watch has been registered (or has failed).
+         */
+        void start() {
+            try {
+                StoreChangeFeed.this.executor.execute(this::drain);
+            } catch (final RejectedExecutionException e) {
+                log.warn("Can't deliver store events, executor rejected the watch. watch={}", this, e);
+                this.cancel();
+            }
+        }
+
+        private void schedule() {
+            if (this.work.getAndIncrement() == 0) {
+                this.start();
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+
+            do {
+                while (!this.terminated) {
+                    final Throwable error = this.next();
+
+                    if (error != null) {
+                        this.cancel();
+                        this.subscriber.onError(error);
+                    } else if (!this.advance()) {
+                        break;
+                    }
+                }
+
+                missed = this.work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * @return the error to end the watch with or {@code null} to go on.
+         */
+        private Throwable next() {
+            if (this.failure != null) {
+                return this.failure;
+            }
+
+            if (this.overflowAt == Long.MAX_VALUE
+                    && StoreChangeFeed.this.revision.get() - this.delivered > StoreChangeFeed.this.bufferSize) {
+                this.overflowAt = this.delivered + StoreChangeFeed.this.bufferSize;
+            }
+            if (this.delivered >= this.overflowAt) {
+                return new WatchOverflowStoreException(this.delivered, StoreChangeFeed.this.bufferSize);
+            }
+
+            final StoreEvent<T> event = StoreChangeFeed.this.ring.get(StoreChangeFeed.this.slot(this.delivered + 1));
+            if (event != null && event.getRevision() > this.delivered + 1) {
+                // the ring has been overwritten, the watch is too slow.
+                return this.overflowAt != Long.MAX_VALUE
+                        ? new WatchOverflowStoreException(this.delivered, StoreChangeFeed.this.bufferSize)
+                        : new WatchExpiredStoreException(this.delivered);
+            }
+
+            return null;
+        }
+
+        /**
+         * @return {@code true} if the next event has been delivered or skipped.
+         */
+        private boolean advance() {
+            final long next = this.delivered + 1;
+            final StoreEvent<T> event = StoreChangeFeed.this.ring.get(StoreChangeFeed.this.slot(next));
+
+            // not published yet, the publisher schedules the watch again.
+            if (event == null || event.getRevision() != next) {
+                return false;
+            }
+
+            if (this.nameSpace != null && !this.nameSpace.equals(event.getResource().getNameSpace())) {
+                this.delivered = next;
+                return true;
+            }
+            if (this.demand.get() <= 0) {
+                return false;
+            }
+
+            this.demand.getAndUpdate(d -> d == Long.MAX_VALUE ? d : d - 1);
+            this.delivered = next;
+            this.deliver(event);
+            return true;
+        }
+
+        private void deliver(final StoreEvent<T> event) {
+            try {
+                this.subscriber.onNext(event);
+            } catch (final RuntimeException e) {
+                // the subscriber violated rule 2.13, so we treat the subscription as cancelled.
+                log.error("Subscriber failed on store event, cancelling watch. subscriber={}", this.subscriber, e);
+                this.cancel();
+            }
+        }
+    }
+}
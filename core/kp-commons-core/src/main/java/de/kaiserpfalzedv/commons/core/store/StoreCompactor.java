@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import de.kaiserpfalzedv.commons.api.store.CompactableStore;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * StoreCompactor -- purges the tombstones of a {@link CompactableStore} in the background.
+ * <p>
+ * Every {@code interval} the tombstones older than {@code retention} are purged in chunks of {@code chunkSize}. The
+ * run ends as soon as a chunk is not filled anymore, so the store is never scanned twice in one run. The store only
+ * locks a single resource at a time while purging, so requests are never blocked by a whole chunk.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@Slf4j
+public class StoreCompactor implements Closeable {
+    /** Default time between two runs. */
+    public static final Duration DEFAULT_INTERVAL = Duration.ofMinutes(1);
+    /** Default time a tombstone is kept before it is purged. */
+    public static final Duration DEFAULT_RETENTION = Duration.ofMinutes(5);
+    /** Default number of tombstones purged per chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = 1_000;
+
+    @ToString.Include
+    private final CompactableStore store;
+    @ToString.Include
+    private final Duration interval;
+    @ToString.Include
+    private final Duration retention;
+    @ToString.Include
+    private final int chunkSize;
+
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownScheduler;
+    private ScheduledFuture<?> task;
+
+
+    /**
+     * Creates a compactor with {@link #DEFAULT_INTERVAL}, {@link #DEFAULT_RETENTION} and {@link #DEFAULT_CHUNK_SIZE}.
+     *
+     * @param store the store to compact.
+     */
+    public StoreCompactor(final CompactableStore store) {
+        this(store, DEFAULT_INTERVAL, DEFAULT_RETENTION, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a compactor running on its own daemon thread.
+     *
+     * @param store     the store to compact.
+     * @param interval  the time between two runs.
+     * @param retention the time a tombstone is kept before it is purged.
+     * @param chunkSize the number of tombstones purged per chunk.
+     */
+    public StoreCompactor(final CompactableStore store, final Duration interval, final Duration retention, final int chunkSize) {
+        this(store, interval, retention, chunkSize, Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread result = new Thread(r, "store-compactor");
+            result.setDaemon(true);
+            return result;
+        }), true);
+    }
+
+    /**
+     * Creates a compactor running on the given scheduler. The scheduler is not shut down by {@link #close()}.
+     *
+     * @param store     the store to compact.
+     * @param interval  the time between two runs.
+     * @param retention the time a tombstone is kept before it is purged.
+     * @param chunkSize the number of tombstones purged per chunk.
+     * @param scheduler the scheduler to run the compaction on.
+     */
+    public StoreCompactor(
+            final CompactableStore store, final Duration interval, final Duration retention, final int chunkSize,
+            final ScheduledExecutorService scheduler
+    ) {
+        this(store, interval, retention, chunkSize, scheduler, false);
+    }
+
+    private StoreCompactor(
+            final CompactableStore store, final Duration interval, final Duration retention, final int chunkSize,
+            final ScheduledExecutorService scheduler, final boolean ownScheduler
+    ) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("The interval has to be positive: " + interval);
+        }
+        if (retention.isNegative()) {
+            throw new IllegalArgumentException("The retention must not be negative: " + retention);
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size has to be positive: " + chunkSize);
+        }
+
+        this.store = store;
+        this.interval = interval;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+        this.scheduler = scheduler;
+        this.ownScheduler = ownScheduler;
+    }
+
+
+    /**
+     * Schedules the compaction. The first run starts after one interval.
+     *
+     * @return this compactor.
+     */
+    public synchronized StoreCompactor start() {
+        if (this.task == null) {
+            final long millis = this.interval.toMillis();
+            this.task = this.scheduler.scheduleWithFixedDelay(this::run, millis, millis, TimeUnit.MILLISECONDS);
+        }
+
+        return this;
+    }
+
+    /**
+     * Purges all tombstones older than the retention right now.
+     *
+     * @return the number of tombstones purged.
+     */
+    public long compact() {
+        final OffsetDateTime deletedBefore = OffsetDateTime.now().minus(this.retention);
+        long result = 0;
+
+        int purged;
+        do {
+            purged = this.store.compact(deletedBefore, this.chunkSize);
+            result += purged;
+        } while (purged >= this.chunkSize && !Thread.currentThread().isInterrupted());
+
+        return result;
+    }
+
+    private void run() {
+        try {
+            final long purged = this.compact();
+
+            log.debug("Compacted store. purged={}, left={}, store={}", purged, this.store.countTombstones(), this.store);
+        } catch (final RuntimeException e) {
+            // an exception would cancel all further runs.
+            log.error("Compaction failed. store={}, error={}", this.store, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.task != null) {
+            this.task.cancel(false);
+            this.task = null;
+        }
+
+        if (this.ownScheduler) {
+            this.scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.io.Closeable;
+import java.util.concurrent.Flow;
+
+import de.kaiserpfalzedv.commons.api.events.EventBus;
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.StoreEvent;
+import de.kaiserpfalzedv.commons.api.store.WatchExpiredStoreException;
+import de.kaiserpfalzedv.commons.api.store.WatchOverflowStoreException;
+import de.kaiserpfalzedv.commons.api.store.WatchableStore;
+import jakarta.validation.constraints.NotNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * StoreEventBusBridge -- posts the changes of a store to an {@link EventBus}.
+ * <p>
+ * The bridge watches the store and posts every {@link StoreEvent} to the bus. If the bus does not keep up and the
+ * watch overflows, the bridge resumes after the last event posted, so no event is lost. Only if the store does not
+ * keep the events any longer, the bridge logs the gap and continues with the current changes.
+ *
+ * @param <T> The resource of the store.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@Slf4j
+public class StoreEventBusBridge<T extends Resource<?>> implements Flow.Subscriber<StoreEvent<T>>, Closeable {
+    private final WatchableStore<T> store;
+    @ToString.Include
+    private final String nameSpace;
+    private final EventBus bus;
+
+    private volatile Flow.Subscription subscription;
+    @ToString.Include
+    private volatile long revision = -1L;
+    private volatile boolean closed;
+
+
+    /**
+     * Starts posting the changes of the store.
+     *
+     * @param store     the store to watch.
+     * @param nameSpace the namespace to watch ({@code null} for all).
+     * @param bus       the bus to post the events to.
+     */
+    public StoreEventBusBridge(@NotNull final WatchableStore<T> store, final String nameSpace, @NotNull final EventBus bus) {
+        this.store = store;
+        this.nameSpace = nameSpace;
+        this.bus = bus;
+
+        store.watch(nameSpace).subscribe(this);
+    }
+
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        this.subscription = subscription;
+
+        if (this.closed) {
+            subscription.cancel();
+        } else {
+            subscription.request(Long.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public void onNext(final StoreEvent<T> event) {
+        this.revision = event.getRevision();
+        this.bus.post(event);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        if (this.closed) {
+            return;
+        }
+
+        if (throwable instanceof WatchOverflowStoreException overflow) {
+            log.warn("Event bus is too slow for store changes, resuming. bridge={}, revision={}", this, overflow.getRevision());
+            this.store.watch(this.nameSpace, overflow.getRevision()).subscribe(this);
+        } else if (throwable instanceof WatchExpiredStoreException) {
+            log.error("Store changes have been lost, continuing with current changes. bridge={}", this);
+            this.store.watch(this.nameSpace).subscribe(this);
+        } else {
+            log.error("Watching the store failed. bridge={}", this, throwable);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        log.info("Store closed the watch. bridge={}", this);
+    }
+
+    /**
+     * Stops posting events.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+
+        final Flow.Subscription current = this.subscription;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+}
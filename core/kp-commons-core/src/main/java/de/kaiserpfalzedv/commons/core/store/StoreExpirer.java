@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import de.kaiserpfalzedv.commons.api.store.ExpiringStore;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * StoreExpirer -- removes the expired resources of an {@link ExpiringStore} in the background.
+ * <p>
+ * Every {@code interval} the resources expired are removed in batches of {@code batchSize}. The store only looks at
+ * the resources expired, so a run costs nothing if none did.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@Slf4j
+public class StoreExpirer implements Closeable {
+    /** Default time between two runs. */
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(1);
+    /** Default number of resources removed per batch. */
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+
+    @ToString.Include
+    private final ExpiringStore store;
+    @ToString.Include
+    private final Duration interval;
+    @ToString.Include
+    private final int batchSize;
+
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownScheduler;
+    private ScheduledFuture<?> task;
+
+
+    /**
+     * Creates an expirer with {@link #DEFAULT_INTERVAL} and {@link #DEFAULT_BATCH_SIZE}.
+     *
+     * @param store the store to remove the expired resources from.
+     */
+    public StoreExpirer(final ExpiringStore store) {
+        this(store, DEFAULT_INTERVAL, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates an expirer running on its own daemon thread.
+     *
+     * @param store     the store to remove the expired resources from.
+     * @param interval  the time between two runs.
+     * @param batchSize the number of resources removed per batch.
+     */
+    public StoreExpirer(final ExpiringStore store, final Duration interval, final int batchSize) {
+        this(store, interval, batchSize, Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread result = new Thread(r, "store-expirer");
+            result.setDaemon(true);
+            return result;
+        }), true);
+    }
+
+    /**
+     * Creates an expirer running on the given scheduler. The scheduler is not shut down by {@link #close()}.
+     *
+     * @param store     the store to remove the expired resources from.
+     * @param interval  the time between two runs.
+     * @param batchSize the number of resources removed per batch.
+     * @param scheduler the scheduler to run the expiry on.
+     */
+    public StoreExpirer(
+            final ExpiringStore store, final Duration interval, final int batchSize,
+            final ScheduledExecutorService scheduler
+    ) {
+        this(store, interval, batchSize, scheduler, false);
+    }
+
+    private StoreExpirer(
+            final ExpiringStore store, final Duration interval, final int batchSize,
+            final ScheduledExecutorService scheduler, final boolean ownScheduler
+    ) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("The interval has to be positive: " + interval);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size has to be positive: " + batchSize);
+        }
+
+        this.store = store;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.scheduler = scheduler;
+        this.ownScheduler = ownScheduler;
+    }
+
+
+    /**
+     * Schedules the expiry. The first run starts after one interval.
+     *
+     * @return this expirer.
+     */
+    public synchronized StoreExpirer start() {
+        if (this.task == null) {
+            final long millis = this.interval.toMillis();
+            this.task = this.scheduler.scheduleWithFixedDelay(this::run, millis, millis, TimeUnit.MILLISECONDS);
+        }
+
+        return this;
+    }
+
+    /**
+     * Removes all resources expired until now.
+     *
+     * @return the number of resources removed.
+     */
+    public long expire() {
+        final OffsetDateTime now = OffsetDateTime.now();
+        long result = 0;
+
+        int removed;
+        do {
+            removed = this.store.expire(now, this.batchSize);
+            result += removed;
+        } while (removed >= this.batchSize && !Thread.currentThread().isInterrupted());
+
+        return result;
+    }
+
+    private void run() {
+        try {
+            final long removed = this.expire();
+
+            if (removed > 0) {
+                log.debug("Expired resources. removed={}, left={}, store={}", removed, this.store.countExpiring(), this.store);
+            }
+        } catch (final RuntimeException e) {
+            // an exception would cancel all further runs.
+            log.error("Expiry failed. store={}, error={}", this.store, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.task != null) {
+            this.task.cancel(false);
+            this.task = null;
+        }
+
+        if (this.ownScheduler) {
+            this.scheduler.shutdown();
+        }
+    }
+}
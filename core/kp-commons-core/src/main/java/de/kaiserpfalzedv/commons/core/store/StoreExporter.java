@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.ListableStore;
+import de.kaiserpfalzedv.commons.api.store.PersistenceStoreException;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * StoreExporter -- writes all resources of a store as NDJSON (one encoded resource per line).
+ * <p>
+ * The namespaces are read page by page via {@link ListableStore#findAllByNameSpace(String, de.kaiserpfalzedv.commons.api.data.Paging)}
+ * and written through a fixed buffer, so the memory used does not depend on the size of the store. The export is not
+ * a consistent snapshot: resources changed while exporting may be missed or exported in an older generation. The
+ * output can be read by {@link StoreImporter}.
+ *
+ * @param <T> The resource to be exported.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@Slf4j
+public class StoreExporter<T extends Resource<?>> {
+    /** Default number of resources read per page. */
+    public static final int DEFAULT_PAGE_SIZE = 1_000;
+    /** Size of the write buffer. */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte NEWLINE = '\n';
+
+    @ToString.Include
+    private final ListableStore<T> store;
+    @ToString.Include
+    private final ResourceCodec<T> codec;
+    @ToString.Include
+    private final int pageSize;
+
+
+    /**
+     * @param store the store to export.
+     * @param codec the codec for the lines. It must not write line breaks (like {@link JacksonResourceCodec}).
+     */
+    public StoreExporter(final ListableStore<T> store, final ResourceCodec<T> codec) {
+        this(store, codec, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param store    the store to export.
+     * @param codec    the codec for the lines. It must not write line breaks (like {@link JacksonResourceCodec}).
+     * @param pageSize the number of resources read from the store at once.
+     */
+    public StoreExporter(final ListableStore<T> store, final ResourceCodec<T> codec, final int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size has to be positive: " + pageSize);
+        }
+
+        this.store = store;
+        this.codec = codec;
+        this.pageSize = pageSize;
+    }
+
+
+    /**
+     * Exports all namespaces of the store.
+     *
+     * @param channel the channel to write to. It is not closed.
+     * @return the number of resources exported.
+     * @throws IOException                   if the channel can't be written.
+     */
+    public long exportTo(final WritableByteChannel channel) throws IOException {
+        return this.exportTo(channel, this.store.findAllNameSpaces());
+    }
+
+    /**
+     * @param channel    the channel to write to. It is not closed.
+     * @param nameSpaces the namespaces to export.
+     * @return the number of resources exported.
+     * @throws IOException if the channel can't be written.
+     */
+    public long exportTo(final WritableByteChannel channel, final Collection<String> nameSpaces) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long result = 0;
+
+        for (final String nameSpace : nameSpaces) {
+            long start = 0;
+            PagedResult<T> page;
+            do {
+                page = this.store.findAllByNameSpace(nameSpace, PagingImpl.builder().start(start).size(this.pageSize).build());
+
+                for (final T resource : page.getData()) {
+                    this.write(channel, buffer, resource);
+                }
+
+                result += page.getData().size();
+                start += this.pageSize;
+            } while (start < page.getPaging().getTotal());
+
+            log.debug("Exported namespace. nameSpace='{}', total={}", nameSpace, result);
+        }
+
+        flush(channel, buffer);
+        return result;
+    }
+
+    private void write(final WritableByteChannel channel, final ByteBuffer buffer, final T resource) throws IOException {
+        final byte[] line = this.codec.encode(resource);
+        for (final byte b : line) {
+            if (b == NEWLINE) {
+                throw new PersistenceStoreException("Encoded resource contains a line break: " + resource.getSelfLink());
+            }
+        }
+
+        if (buffer.remaining() < line.length + 1) {
+            flush(channel, buffer);
+        }
+
+        if (buffer.remaining() < line.length + 1) {
+            // larger than the buffer, written directly.
+            writeFully(channel, ByteBuffer.wrap(line));
+        } else {
+            buffer.put(line);
+        }
+        buffer.put(NEWLINE);
+    }
+
+    private static void flush(final WritableByteChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        writeFully(channel, buffer);
+        buffer.clear();
+    }
+
+    private static void writeFully(final WritableByteChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
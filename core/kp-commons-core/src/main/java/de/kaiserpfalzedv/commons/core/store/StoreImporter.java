@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.BatchStore;
+import de.kaiserpfalzedv.commons.api.store.PersistenceStoreException;
+import de.kaiserpfalzedv.commons.api.store.StoreService;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * StoreImporter -- reads NDJSON (one encoded resource per line) into a store, as written by {@link StoreExporter}.
+ * <p>
+ * The channel is read through a fixed buffer and split into batches of lines. The batches are decoded and validated
+ * in parallel by a worker pool, at most two batches per worker are in flight. The batches are saved in the order of
+ * the input via {@link BatchStore#saveAll(java.util.Collection)} (or one by one if the store is no
+ * {@link BatchStore}), so the memory used does not depend on the size of the input. Empty lines are skipped.
+ * <p>
+ * The resources are saved with the rules of {@link StoreService#save(Resource)}, so importing into a store already
+ * containing them fails with the optimistic locking. The import stops at the first invalid line; the batches saved
+ * before stay in the store.
+ *
+ * @param <T> The resource to be imported.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@Slf4j
+public class StoreImporter<T extends Resource<?>> implements Closeable {
+    /** Default number of resources saved at once. */
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    /** Default number of workers decoding the lines. */
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    /** Size of the read buffer. */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte NEWLINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    @ToString.Include
+    private final StoreService<T> store;
+    @ToString.Include
+    private final ResourceCodec<T> codec;
+    @ToString.Include
+    private final int batchSize;
+    @ToString.Include
+    private final int parallelism;
+
+    private final ExecutorService workers;
+    private final boolean ownWorkers;
+
+
+    /**
+     * Creates an importer with {@link #DEFAULT_BATCH_SIZE} and {@link #DEFAULT_PARALLELISM} workers of its own.
+     *
+     * @param store the store to import into.
+     * @param codec the codec of the lines.
+     */
+    public StoreImporter(final StoreService<T> store, final ResourceCodec<T> codec) {
+        this(store, codec, DEFAULT_BATCH_SIZE, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Creates an importer with a pool of daemon threads of its own.
+     *
+     * @param store       the store to import into.
+     * @param codec       the codec of the lines.
+     * @param batchSize   the number of resources saved at once.
+     * @param parallelism the number of workers decoding the lines.
+     */
+    public StoreImporter(final StoreService<T> store, final ResourceCodec<T> codec, final int batchSize, final int parallelism) {
+        this(store, codec, batchSize, parallelism, Executors.newFixedThreadPool(Math.max(1, parallelism), new WorkerFactory()), true);
+    }
+
+    /**
+     * Creates an importer decoding on the given executor. The executor is not shut down by {@link #close()}.
+     *
+     * @param store       the store to import into.
+     * @param codec       the codec of the lines.
+     * @param batchSize   the number of resources saved at once.
+     * @param parallelism the number of batches decoded at once.
+     * @param workers     the executor to decode the lines on.
+     */
+    public StoreImporter(
+            final StoreService<T> store, final ResourceCodec<T> codec, final int batchSize, final int parallelism,
+            final ExecutorService workers
+    ) {
+        this(store, codec, batchSize, parallelism, workers, false);
+    }
+
+    private StoreImporter(
+            final StoreService<T> store, final ResourceCodec<T> codec, final int batchSize, final int parallelism,
+            final ExecutorService workers, final boolean ownWorkers
+    ) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size has to be positive: " + batchSize);
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The parallelism has to be positive: " + parallelism);
+        }
+
+        this.store = store;
+        this.codec = codec;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.workers = workers;
+        this.ownWorkers = ownWorkers;
+    }
+
+
+    /**
+     * @param channel the channel to read from. It is not closed.
+     * @return the number of resources imported.
+     * @throws IOException                  if the channel can't be read.
+     * @throws PersistenceStoreException    if a line can't be decoded or is no valid resource.
+     * @throws de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException if a resource is already stored.
+     */
+    public long importFrom(final ReadableByteChannel channel) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        final ArrayDeque<Future<List<T>>> inFlight = new ArrayDeque<>(2 * this.parallelism);
+        final Batch batch = new Batch();
+        long result = 0;
+
+        try {
+            byte[] pending = new byte[0];
+            long lineNumber = 0;
+
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                final byte[] data = buffer.array();
+                int start = 0;
+
+                for (int i = 0; i < buffer.limit(); i++) {
+                    if (data[i] != NEWLINE) {
+                        continue;
+                    }
+
+                    lineNumber++;
+                    final byte[] line = stripCarriageReturn(concat(pending, data, start, i));
+                    pending = new byte[0];
+                    start = i + 1;
+
+                    if (batch.add(line, lineNumber) >= this.batchSize) {
+                        result += this.submit(batch, inFlight);
+                    }
+                }
+
+                pending = concat(pending, data, start, buffer.limit());
+                buffer.clear();
+            }
+
+            if (pending.length > 0) {
+                batch.add(stripCarriageReturn(pending), ++lineNumber);
+            }
+            if (!batch.lines.isEmpty()) {
+                result += this.submit(batch, inFlight);
+            }
+            while (!inFlight.isEmpty()) {
+                result += this.save(inFlight.poll());
+            }
+        } finally {
+            inFlight.forEach(f -> f.cancel(true));
+        }
+
+        log.debug("Imported resources. count={}, store={}", result, this.store);
+        return result;
+    }
+
+    /**
+     * Hands the batch to the workers. If too many batches are in flight, the oldest one is saved first.
+     *
+     * @return the number of resources saved.
+     */
+    private long submit(final Batch batch, final ArrayDeque<Future<List<T>>> inFlight)
+            throws InterruptedIOException {
+        final List<byte[]> lines = List.copyOf(batch.lines);
+        final long first = batch.first;
+        batch.clear();
+
+        long result = 0;
+        if (inFlight.size() >= 2 * this.parallelism) {
+            result = this.save(inFlight.poll());
+        }
+
+        inFlight.add(this.workers.submit(() -> this.decode(lines, first)));
+        return result;
+    }
+
+    private List<T> decode(final List<byte[]> lines, final long first) {
+        final ArrayList<T> result = new ArrayList<>(lines.size());
+
+        for (int i = 0; i < lines.size(); i++) {
+            final byte[] line = lines.get(i);
+            if (line.length == 0) {
+                continue;
+            }
+
+            final T resource;
+            try {
+                resource = this.codec.decode(line);
+            } catch (final RuntimeException e) {
+                throw new PersistenceStoreException("Can't decode resource in line " + (first + i) + ": " + e.getMessage(), e);
+            }
+
+            if (resource.getUid() == null || isBlank(resource.getNameSpace()) || isBlank(resource.getName())) {
+                throw new PersistenceStoreException("Resource in line " + (first + i) + " needs uid, nameSpace and name.");
+            }
+
+            result.add(resource);
+        }
+
+        return result;
+    }
+
+    /**
+     * @param batch the decoded batch.
+     * @return the number of resources saved.
+     */
+    private long save(final Future<List<T>> batch) throws InterruptedIOException {
+        final List<T> resources;
+        try {
+            resources = batch.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import has been interrupted.");
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new PersistenceStoreException("Import failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        if (resources.isEmpty()) {
+            return 0;
+        }
+
+        if (this.store instanceof BatchStore<T> batches) {
+            batches.saveAll(resources);
+        } else {
+            resources.forEach(this.store::save);
+        }
+        return resources.size();
+    }
+
+    private static byte[] concat(final byte[] pending, final byte[] data, final int start, final int end) {
+        if (pending.length == 0) {
+            return Arrays.copyOfRange(data, start, end);
+        }
+
+        final byte[] result = Arrays.copyOf(pending, pending.length + end - start);
+        System.arraycopy(data, start, result, pending.length, end - start);
+        return result;
+    }
+
+    private static byte[] stripCarriageReturn(final byte[] line) {
+        return line.length > 0 && line[line.length - 1] == CARRIAGE_RETURN
+                ? Arrays.copyOf(line, line.length - 1)
+                : line;
+    }
+
+    private static boolean isBlank(final String value) {
+        return value == null || value.isBlank();
+    }
+
+    @Override
+    public void close() {
+        if (this.ownWorkers) {
+            this.workers.shutdown();
+        }
+    }
+
+
+    /**
+     * The lines collected for the next batch.
+     */
+    private static final class Batch {
+        private final ArrayList<byte[]> lines = new ArrayList<>();
+        private long first;
+
+        int add(final byte[] line, final long lineNumber) {
+            if (this.lines.isEmpty()) {
+                this.first = lineNumber;
+            }
+            this.lines.add(line);
+            return this.lines.size();
+        }
+
+        void clear() {
+            this.lines.clear();
+        }
+    }
+
+    /**
+     * Creates the daemon threads of the own worker pool.
+     */
+    private static final class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread result = new Thread(r, "store-importer-" + this.count.incrementAndGet());
+            result.setDaemon(true);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.PersistenceStoreException;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * StoreWarmStart -- keeps the content of a {@link GenericStoreService} in a file to fill it right away after a restart.
+ * <p>
+ * The file is written on {@link #close()} (on shutdown) and every {@code interval} after {@link #start()}. It uses the
+ * record format of the {@link WriteAheadLog}: a header with the time of writing and the number of resources, then
+ * one record per resource. It is written to a temporary file first and renamed into place, so there is always a
+ * complete file. Writing does not block the writers of the store, so the file is fuzzy: changes done while writing
+ * may be missing.
+ * <p>
+ * {@link #load()} reads the file via memory mapping, decodes the resources in parallel and rebuilds the indexes of the
+ * store in one go (see {@link GenericStoreService#loadAll(Collection)}). A missing or damaged file is no error, the
+ * store just starts empty. Afterward the caller has to {@link #catchUp(Collection, Collection)} with the changes of the
+ * source of truth since the time returned by {@link #load()} (minus some safety margin for the fuzziness).
+ *
+ * @param <T> The resource stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@Slf4j
+public class StoreWarmStart<T extends Resource<?>> implements Closeable {
+    /** Default time between two writes. */
+    public static final Duration DEFAULT_INTERVAL = Duration.ofMinutes(5);
+
+    /** The first record: {@code [long count]}, the sequence of every record is the time of writing. */
+    static final byte HEADER = 0;
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    /** Number of records decoded in parallel. */
+    private static final int DECODE_BATCH = 4096;
+
+    @ToString.Include
+    private final GenericStoreService<T> store;
+    @ToString.Include
+    private final Path file;
+    private final ResourceCodec<T> codec;
+    @ToString.Include
+    private final Duration interval;
+
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownScheduler;
+    private ScheduledFuture<?> task;
+
+    /** Set by {@link #load()} or {@link #write()}, so {@link #close()} never replaces a file not loaded yet. */
+    private final AtomicBoolean active = new AtomicBoolean();
+
+
+    /**
+     * Creates a warm start writing every {@link #DEFAULT_INTERVAL} after {@link #start()}.
+     *
+     * @param store the store to keep.
+     * @param file  the file to keep the store in.
+     * @param codec the codec to convert the resources.
+     */
+    public StoreWarmStart(final GenericStoreService<T> store, final Path file, final ResourceCodec<T> codec) {
+        this(store, file, codec, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Creates a warm start writing on its own daemon thread.
+     *
+     * @param store    the store to keep.
+     * @param file     the file to keep the store in.
+     * @param codec    the codec to convert the resources.
+     * @param interval the time between two writes after {@link #start()}.
+     */
+    public StoreWarmStart(final GenericStoreService<T> store, final Path file, final ResourceCodec<T> codec, final Duration interval) {
+        this(store, file, codec, interval, Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread result = new Thread(r, "store-warm-start");
+            result.setDaemon(true);
+            return result;
+        }), true);
+    }
+
+    /**
+     * Creates a warm start writing on the given scheduler. The scheduler is not shut down by {@link #close()}.
+     *
+     * @param store     the store to keep.
+     * @param file      the file to keep the store in.
+     * @param codec     the codec to convert the resources.
+     * @param interval  the time between two writes after {@link #start()}.
+     * @param scheduler the scheduler to write on.
+     */
+    public StoreWarmStart(
+            final GenericStoreService<T> store, final Path file, final ResourceCodec<T> codec, final Duration interval,
+            final ScheduledExecutorService scheduler
+    ) {
+        this(store, file, codec, interval, scheduler, false);
+    }
+
+    private StoreWarmStart(
+            final GenericStoreService<T> store, final Path file, final ResourceCodec<T> codec, final Duration interval,
+            final ScheduledExecutorService scheduler, final boolean ownScheduler
+    ) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("The interval has to be positive: " + interval);
+        }
+
+        this.store = store;
+        this.file = file;
+        this.codec = codec;
+        this.interval = interval;
+        this.scheduler = scheduler;
+        this.ownScheduler = ownScheduler;
+    }
+
+
+    /**
+     * Fills the store from the file.
+     *
+     * @return the time the file has been written or an empty {@link Optional} if there is no valid file.
+     */
+    public Optional<OffsetDateTime> load() {
+        this.active.set(true);
+
+        if (!Files.isRegularFile(this.file)) {
+            log.info("No warm start file, starting empty. file={}", this.file);
+            return Optional.empty();
+        }
+
+        final Loader loader = new Loader();
+        try {
+            final long end = WriteAheadLog.readRecords(this.file, loader);
+            loader.decode();
+
+            if (end != Files.size(this.file) || loader.written == null || loader.resources.size() != loader.expected) {
+                log.warn("Warm start file is damaged, starting empty. file={}, position={}", this.file, end);
+                return Optional.empty();
+            }
+        } catch (final IOException | RuntimeException e) {
+            log.warn("Can't read warm start file, starting empty. file={}, error={}", this.file, e.getMessage(), e);
+            return Optional.empty();
+        }
+
+        this.store.loadAll(loader.resources);
+
+        log.info("Loaded warm start file. file={}, resources={}, written={}", this.file, loader.resources.size(), loader.written);
+        return Optional.of(loader.written);
+    }
+
+    /**
+     * Applies the changes of the source of truth made since the file has been written. The resources are put into the
+     * store as they are (without optimistic locking).
+     *
+     * @param changed the resources changed.
+     * @param removed the uids of the resources removed.
+     */
+    public void catchUp(final Collection<T> changed, final Collection<UUID> removed) {
+        this.store.loadAll(changed);
+        removed.forEach(this.store::unload);
+
+        log.debug("Caught up store. changed={}, removed={}, store={}", changed.size(), removed.size(), this.store);
+    }
+
+    /**
+     * Schedules writing the file. The first write happens after one interval.
+     *
+     * @return this warm start.
+     */
+    public synchronized StoreWarmStart<T> start() {
+        this.active.set(true);
+
+        if (this.task == null) {
+            final long millis = this.interval.toMillis();
+            this.task = this.scheduler.scheduleWithFixedDelay(this::run, millis, millis, TimeUnit.MILLISECONDS);
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes the file right now.
+     *
+     * @return the number of resources written.
+     * @throws PersistenceStoreException if the file can't be written.
+     */
+    public synchronized long write() {
+        this.active.set(true);
+
+        final Collection<T> resources = this.store.values();
+        final long written = System.currentTimeMillis();
+        final Path temp = this.file.resolveSibling(this.file.getFileName() + TEMP_SUFFIX);
+
+        try {
+            if (this.file.getParent() != null) {
+                Files.createDirectories(this.file.getParent());
+            }
+
+            this.write(temp, written, resources);
+            Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            throw new PersistenceStoreException("Can't write warm start file " + this.file, e);
+        }
+
+        log.debug("Wrote warm start file. file={}, resources={}", this.file, resources.size());
+        return resources.size();
+    }
+
+    private void write(final Path target, final long written, final Collection<T> resources) throws IOException {
+        final CRC32 checksum = new CRC32();
+        byte[] buffer = new byte[64 << 10];
+
+        try (FileChannel channel = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final byte[] header = ByteBuffer.allocate(Long.BYTES).putLong(resources.size()).array();
+            int size = WriteAheadLog.writeRecord(buffer, 0, written, HEADER, header, checksum);
+
+            for (final T resource : resources) {
+                final byte[] payload = this.codec.encode(resource);
+                final int recordSize = WriteAheadLog.HEADER_SIZE + payload.length + WriteAheadLog.TRAILER_SIZE;
+
+                if (size + recordSize > buffer.length) {
+                    writeFully(channel, buffer, size);
+                    size = 0;
+
+                    if (recordSize > buffer.length) {
+                        buffer = new byte[recordSize];
+                    }
+                }
+
+                size = WriteAheadLog.writeRecord(buffer, size, written, WriteAheadLog.SAVE, payload, checksum);
+            }
+
+            writeFully(channel, buffer, size);
+            channel.force(true);
+        }
+    }
+
+    private static void writeFully(final FileChannel channel, final byte[] buffer, final int size) throws IOException {
+        final ByteBuffer data = ByteBuffer.wrap(buffer, 0, size);
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    private void run() {
+        try {
+            this.write();
+        } catch (final RuntimeException e) {
+            // an exception would cancel all further runs.
+            log.error("Writing warm start file failed. file={}, error={}", this.file, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stops the scheduled writes and writes the file a last time (if the store has been loaded or written before).
+     */
+    @Override
+    public synchronized void close() {
+        if (this.task != null) {
+            this.task.cancel(false);
+            this.task = null;
+        }
+
+        if (this.active.get()) {
+            this.run();
+        }
+
+        if (this.ownScheduler) {
+            this.scheduler.shutdown();
+        }
+    }
+
+
+    /**
+     * Collects the records of the file and decodes them in parallel.
+     */
+    private class Loader implements WriteAheadLog.RecordHandler {
+        private final ArrayList<T> resources = new ArrayList<>();
+        private final List<byte[]> payloads = new ArrayList<>(DECODE_BATCH);
+        private OffsetDateTime written;
+        private long expected = -1;
+
+        @Override
+        public void handle(final long sequence, final byte type, final byte[] payload) {
+            if (type == HEADER && this.written == null) {
+                this.written = OffsetDateTime.ofInstant(Instant.ofEpochMilli(sequence), ZoneOffset.UTC);
+                this.expected = ByteBuffer.wrap(payload).getLong();
+                return;
+            }
+            if (type != WriteAheadLog.SAVE || this.written == null) {
+                throw new PersistenceStoreException("Unexpected record in warm start file: type=" + type);
+            }
+
+            this.payloads.add(payload);
+            if (this.payloads.size() >= DECODE_BATCH) {
+                this.decode();
+            }
+        }
+
+        void decode() {
+            @SuppressWarnings("unchecked")
+            final T[] decoded = (T[]) new Resource<?>[this.payloads.size()];
+            IntStream.range(0, decoded.length).parallel()
+                    .forEach(i -> decoded[i] = StoreWarmStart.this.codec.decode(this.payloads.get(i)));
+
+            this.resources.addAll(Arrays.asList(decoded));
+            this.payloads.clear();
+        }
+    }
+}
@@ -0,0 +1,847 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.data.Paging;
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.BatchStore;
+import de.kaiserpfalzedv.commons.api.store.DuplicateStoreException;
+import de.kaiserpfalzedv.commons.api.store.HistoryStore;
+import de.kaiserpfalzedv.commons.api.store.ListableStore;
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.store.PersistenceStoreException;
+import de.kaiserpfalzedv.commons.api.store.StoreEvent;
+import de.kaiserpfalzedv.commons.api.store.WatchableStore;
+import de.kaiserpfalzedv.commons.core.data.PagedResultImpl;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
+import jakarta.validation.constraints.NotNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TieredStoreService -- a memory store in front of a blocking persistent store (e.g. JPA), with read-through and
+ * write-behind.
+ * <p>
+ * Single resource lookups are served by the memory store. On a miss the resource is read from the backend and put
+ * into the memory store. Writes go to the memory store only (including the optimistic locking) and are acknowledged
+ * right away. A queue keyed by uid collects the changes, so only the latest state of a resource is written. A
+ * background task writes the queue to the backend in batches: removals via {@link BatchStore#removeAll(Collection)},
+ * saves via {@link BatchStore#saveAll(Collection)}, each batch a single call (one by one if the backend is no
+ * {@link BatchStore}). Namespace listings are answered by the backend after the queue has been written. Label
+ * selectors and owners are not offered: the backend is not expected to index them.
+ * <p>
+ * The memory store owns the generations. The backend may count its generations differently (only the latest of many
+ * changes is written), so the resources are written with the generation the backend expects.
+ * <p>
+ * If the queue holds {@code capacity} resources, all further changes are appended to an overflow journal in the
+ * {@code overflowDirectory} and forced to disk before they are acknowledged. They are written to the backend after
+ * the queue, in the order they were made. Overflow left by a crash is written to the backend when the store is
+ * created. The queue itself is not durable: changes not written to the backend yet are lost on a crash.
+ *
+ * @param <T> The resource to be stored inside the data store.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@Slf4j
+public class TieredStoreService<T extends Resource<?>> implements BatchStore<T>, HistoryStore<T>, ListableStore<T>,
+        WatchableStore<T>, Closeable {
+    /** Default number of resources queued before the changes overflow to disk. */
+    public static final int DEFAULT_CAPACITY = 100_000;
+    /** Default number of changes written to the backend per batch. */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    /** Default time between two writes to the backend. */
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(200);
+
+    @ToString.Include
+    private final GenericStoreService<T> memory;
+    @ToString.Include
+    private final ListableStore<T> backend;
+
+    private final Class<? extends T> type;
+    private final ObjectMapper mapper;
+    private final ResourceCodec<T> codec;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+
+    @ToString.Include
+    private final Path overflowDirectory;
+    private final WriteAheadLog overflow;
+
+    private final ReentrantLock queueLock = new ReentrantLock();
+    /** The latest change per uid, oldest first. Guarded by queueLock. */
+    private final LinkedHashMap<UUID, Change<T>> queue = new LinkedHashMap<>(16, 0.75f);
+    /** {@code true} while changes are appended to the overflow journal. Guarded by queueLock. */
+    private boolean overflowing;
+
+    /** The removals not written to the backend yet, so they are not read through again. */
+    private final Set<UUID> removals = ConcurrentHashMap.newKeySet();
+    /** The generations of the resources as stored in the backend. */
+    private final ConcurrentHashMap<UUID, Integer> persisted = new ConcurrentHashMap<>(16);
+
+    /** Serializes the writes to the backend. */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownScheduler;
+    private volatile ScheduledFuture<?> task;
+
+
+    /**
+     * Creates a store with {@link #DEFAULT_CAPACITY}, {@link #DEFAULT_BATCH_SIZE} and {@link #DEFAULT_FLUSH_INTERVAL}.
+     *
+     * @param memory            the memory store.
+     * @param backend           the persistent store.
+     * @param type              the concrete class of the resources (e.g. {@code UserImpl.class}).
+     * @param overflowDirectory the directory of the overflow journal.
+     */
+    public TieredStoreService(
+            @NotNull final GenericStoreService<T> memory,
+            @NotNull final ListableStore<T> backend,
+            @NotNull final Class<? extends T> type,
+            @NotNull final Path overflowDirectory
+    ) {
+        this(memory, backend, type, overflowDirectory, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Creates a store writing to the backend on its own daemon thread.
+     *
+     * @param memory            the memory store.
+     * @param backend           the persistent store.
+     * @param type              the concrete class of the resources (e.g. {@code UserImpl.class}).
+     * @param overflowDirectory the directory of the overflow journal.
+     * @param capacity          the number of resources queued before the changes overflow to disk.
+     * @param batchSize         the number of changes written to the backend per batch.
+     * @param flushInterval     the time between two writes to the backend.
+     */
+    public TieredStoreService(
+            @NotNull final GenericStoreService<T> memory,
+            @NotNull final ListableStore<T> backend,
+            @NotNull final Class<? extends T> type,
+            @NotNull final Path overflowDirectory,
+            final int capacity,
+            final int batchSize,
+            @NotNull final Duration flushInterval
+    ) {
+        this(memory, backend, type, overflowDirectory, capacity, batchSize, flushInterval,
+                Executors.newSingleThreadScheduledExecutor(r -> {
+                    final Thread result = new Thread(r, "store-write-behind");
+                    result.setDaemon(true);
+                    return result;
+                }), true);
+    }
+
+    /**
+     * Creates a store writing to the backend on the given scheduler. The scheduler is not shut down by
+     * {@link #close()}.
+     *
+     * @param memory            the memory store.
+     * @param backend           the persistent store.
+     * @param type              the concrete class of the resources (e.g. {@code UserImpl.class}).
+     * @param overflowDirectory the directory of the overflow journal.
+     * @param capacity          the number of resources queued before the changes overflow to disk.
+     * @param batchSize         the number of changes written to the backend per batch.
+     * @param flushInterval     the time between two writes to the backend.
+     * @param scheduler         the scheduler to write to the backend on.
+     */
+    public TieredStoreService(
+            @NotNull final GenericStoreService<T> memory,
+            @NotNull final ListableStore<T> backend,
+            @NotNull final Class<? extends T> type,
+            @NotNull final Path overflowDirectory,
+            final int capacity,
+            final int batchSize,
+            @NotNull final Duration flushInterval,
+            @NotNull final ScheduledExecutorService scheduler
+    ) {
+        this(memory, backend, type, overflowDirectory, capacity, batchSize, flushInterval, scheduler, false);
+    }
+
+    private TieredStoreService(
+            final GenericStoreService<T> memory, final ListableStore<T> backend, final Class<? extends T> type,
+            final Path overflowDirectory, final int capacity, final int batchSize, final Duration flushInterval,
+            final ScheduledExecutorService scheduler, final boolean ownScheduler
+    ) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity has to be positive: " + capacity);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size has to be positive: " + batchSize);
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("The flush interval has to be positive: " + flushInterval);
+        }
+
+        this.memory = memory;
+        this.backend = backend;
+        this.type = type;
+        this.mapper = JacksonResourceCodec.defaultMapper();
+        this.codec = new JacksonResourceCodec<>(type, this.mapper);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.overflowDirectory = overflowDirectory;
+        this.scheduler = scheduler;
+        this.ownScheduler = ownScheduler;
+
+        try {
+            Files.createDirectories(overflowDirectory);
+
+            // the overflow of a crash is newer than anything in the backend, so it has to be written before serving.
+            for (final long segment : WriteAheadLog.listSegments(overflowDirectory)) {
+                if (!this.replay(WriteAheadLog.segmentPath(overflowDirectory, segment))) {
+                    throw new PersistenceStoreException("Can't write the overflow left to the backend. directory=" + overflowDirectory);
+                }
+            }
+        } catch (final IOException | RuntimeException e) {
+            if (ownScheduler) {
+                scheduler.shutdown();
+            }
+            throw e instanceof RuntimeException r
+                    ? r
+                    : new PersistenceStoreException("Can't read the overflow directory " + overflowDirectory, e);
+        }
+
+        this.overflow = new WriteAheadLog(overflowDirectory, 1);
+    }
+
+
+    /**
+     * Schedules the writes to the backend. They also start as soon as a batch is queued.
+     *
+     * @return this store.
+     */
+    public synchronized TieredStoreService<T> start() {
+        if (this.task == null) {
+            final long millis = this.flushInterval.toMillis();
+            this.task = this.scheduler.scheduleWithFixedDelay(this::run, millis, millis, TimeUnit.MILLISECONDS);
+        }
+
+        return this;
+    }
+
+
+    @Override
+    public Optional<T> findByNameSpaceAndName(final String nameSpace, final String name) {
+        final Optional<T> result = this.memory.findByNameSpaceAndName(nameSpace, name);
+        if (result.isPresent()) {
+            return result;
+        }
+
+        this.backend.findByNameSpaceAndName(nameSpace, name).ifPresent(this::load);
+        return this.memory.findByNameSpaceAndName(nameSpace, name);
+    }
+
+    @Override
+    public Optional<T> findByUid(final UUID uid) {
+        final Optional<T> result = this.memory.findByUid(uid);
+        if (result.isPresent() || this.removals.contains(uid)) {
+            return result;
+        }
+
+        this.backend.findByUid(uid).ifPresent(this::load);
+        return this.memory.findByUid(uid);
+    }
+
+    /**
+     * Only the generations saved since the resource has been read into memory are kept.
+     */
+    @Override
+    public Optional<T> findByUidAndGeneration(final UUID uid, final long generation) {
+        return this.memory.findByUidAndGeneration(uid, generation);
+    }
+
+    /**
+     * Only the generations saved since the resource has been read into memory are kept.
+     */
+    @Override
+    public PagedResult<T> findHistoryByUid(final UUID uid, final Paging paging) {
+        return this.memory.findHistoryByUid(uid, paging);
+    }
+
+    @Override
+    public List<String> findAllNameSpaces() {
+        this.flush();
+        return this.backend.findAllNameSpaces();
+    }
+
+    @Override
+    public PagedResult<T> findAllByNameSpace(final String nameSpace, final Paging paging) {
+        this.flush();
+        final PagedResult<T> result = this.backend.findAllByNameSpace(nameSpace, paging);
+
+        return PagedResultImpl.<T>builder()
+                .paging(PagingImpl.builder()
+                        .start(result.getPaging().getStart())
+                        .size(result.getPaging().getSize())
+                        .count(result.getPaging().getCount())
+                        .total(result.getPaging().getTotal())
+                        .build())
+                .data(this.resolve(result.getData()))
+                .build();
+    }
+
+    @Override
+    public List<T> findByNameSpaceAndNamePrefix(final String nameSpace, final String prefix, final int limit) {
+        this.flush();
+        return this.resolve(this.backend.findByNameSpaceAndNamePrefix(nameSpace, prefix, limit));
+    }
+
+    @Override
+    public long countByNameSpace(final String nameSpace) {
+        this.flush();
+        return this.backend.countByNameSpace(nameSpace);
+    }
+
+    /**
+     * Watches the changes made via this store.
+     */
+    @Override
+    public Flow.Publisher<StoreEvent<T>> watch(final String nameSpace, final long resumeAfter) {
+        return this.memory.watch(nameSpace, resumeAfter);
+    }
+
+    /**
+     * Puts the resource read from the backend into the memory store, unless it has been changed or removed there.
+     *
+     * @param resource the resource read from the backend.
+     */
+    private void load(final T resource) {
+        this.persisted.merge(resource.getUid(), resource.getGeneration(), Math::max);
+
+        if (!this.removals.contains(resource.getUid())) {
+            this.memory.loadIfAbsent(resource);
+        }
+    }
+
+    /**
+     * Replaces the resources read from the backend by the ones in memory. The memory store owns the generations, so a
+     * resource returned always has the generation to save it with.
+     *
+     * @param resources the resources read from the backend.
+     * @return the resources in memory (the ones removed meanwhile are left out).
+     */
+    private List<T> resolve(final List<T> resources) {
+        final ArrayList<T> result = new ArrayList<>(resources.size());
+
+        for (final T resource : resources) {
+            this.load(resource);
+            this.memory.findByUid(resource.getUid()).ifPresent(result::add);
+        }
+
+        return result;
+    }
+
+
+    @Override
+    public T save(final T object) throws OptimisticLockStoreException, DuplicateStoreException {
+        this.findByNameSpaceAndName(object.getNameSpace(), object.getName());
+
+        final T result = this.memory.save(object);
+        this.sync(this.enqueue(result.getUid(), result.getNameSpace(), result.getName()));
+        return result;
+    }
+
+    @Override
+    public List<T> saveAll(final Collection<T> objects) throws OptimisticLockStoreException, DuplicateStoreException {
+        objects.forEach(o -> this.findByNameSpaceAndName(o.getNameSpace(), o.getName()));
+
+        final List<T> result = this.memory.saveAll(objects);
+
+        long sequence = 0;
+        for (final T saved : result) {
+            sequence = Math.max(sequence, this.enqueue(saved.getUid(), saved.getNameSpace(), saved.getName()));
+        }
+        this.sync(sequence);
+
+        return result;
+    }
+
+    @Override
+    public Optional<T> update(final UUID uid, final long expectedGeneration, final UnaryOperator<T> updater)
+            throws OptimisticLockStoreException {
+        this.findByUid(uid);
+
+        return this.enqueued(this.memory.update(uid, expectedGeneration, updater));
+    }
+
+    @Override
+    public Optional<T> compute(final UUID uid, final UnaryOperator<T> updater) throws OptimisticLockStoreException {
+        this.findByUid(uid);
+
+        return this.enqueued(this.memory.compute(uid, updater));
+    }
+
+    private Optional<T> enqueued(final Optional<T> result) {
+        result.ifPresent(r -> this.sync(this.enqueue(r.getUid(), r.getNameSpace(), r.getName())));
+        return result;
+    }
+
+    @Override
+    public void remove(final T object) {
+        this.findByUid(object.getUid());
+
+        this.memory.remove(object);
+        this.sync(this.enqueue(object.getUid(), object.getNameSpace(), object.getName()));
+    }
+
+    @Override
+    public void remove(final String nameSpace, final String name) {
+        this.findByNameSpaceAndName(nameSpace, name).ifPresent(d -> this.remove(d.getUid()));
+    }
+
+    @Override
+    public void remove(final UUID uid) {
+        this.removeAll(List.of(uid));
+    }
+
+    @Override
+    public void removeAll(final Collection<UUID> uids) {
+        final List<T> found = uids.stream().distinct().map(this::findByUid).flatMap(Optional::stream).toList();
+        if (found.isEmpty()) {
+            return;
+        }
+
+        this.memory.removeAll(found.stream().map(Resource::getUid).toList());
+
+        long sequence = 0;
+        for (final T removed : found) {
+            sequence = Math.max(sequence, this.enqueue(removed.getUid(), removed.getNameSpace(), removed.getName()));
+        }
+        this.sync(sequence);
+    }
+
+
+    /**
+     * Queues the current state of the resource in memory: the resource if it is stored, its removal otherwise. The
+     * write lock of the resource is held, so the changes of a resource are queued in the order they were made.
+     *
+     * @param uid       the uid of the resource changed.
+     * @param nameSpace the namespace of the resource changed.
+     * @param name      the name of the resource changed.
+     * @return the sequence of the record in the overflow journal or 0 if the change has been queued in memory.
+     */
+    private long enqueue(final UUID uid, final String nameSpace, final String name) {
+        final ReentrantLock lock = this.memory.lockFor(nameSpace, name);
+        lock.lock();
+        try {
+            final Change<T> change = new Change<>(uid, this.memory.findByUid(uid).orElse(null));
+            if (change.resource() == null) {
+                this.removals.add(uid);
+            } else {
+                this.removals.remove(uid);
+            }
+
+            this.queueLock.lock();
+            try {
+                if (!this.overflowing && (this.queue.size() < this.capacity || this.queue.containsKey(uid))) {
+                    this.queue.put(uid, change);
+
+                    if (this.queue.size() >= this.batchSize) {
+                        this.requestFlush();
+                    }
+                    return 0;
+                }
+
+                // once overflowing everything goes to the journal, it is written after the queue.
+                if (!this.overflowing) {
+                    log.warn("Write-behind queue is full, overflowing to disk. capacity={}, directory={}", this.capacity, this.overflowDirectory);
+                    this.overflowing = true;
+                    this.requestFlush();
+                }
+                return change.resource() != null
+                        ? this.overflow.append(WriteAheadLog.SAVE, this.codec.encode(change.resource()))
+                        : this.overflow.append(WriteAheadLog.REMOVE, WriteAheadLog.toBytes(uid));
+            } finally {
+                this.queueLock.unlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param sequence the sequence of the last record written to the overflow journal (0 if none).
+     */
+    private void sync(final long sequence) {
+        if (sequence > 0) {
+            this.overflow.sync(sequence);
+        }
+    }
+
+    private void requestFlush() {
+        if (this.task != null && this.flushRequested.compareAndSet(false, true)) {
+            this.scheduler.execute(this::run);
+        }
+    }
+
+    /**
+     * @return the number of changes queued in memory (without the overflow).
+     */
+    public int countQueued() {
+        this.queueLock.lock();
+        try {
+            return this.queue.size();
+        } finally {
+            this.queueLock.unlock();
+        }
+    }
+
+    /**
+     * Writes all changes queued and overflown to the backend.
+     *
+     * @return {@code true} if everything has been written, {@code false} if the backend failed (the changes stay
+     * queued and are written later).
+     */
+    public boolean flush() {
+        this.flushLock.lock();
+        try {
+            return this.flushQueue() && this.flushOverflow();
+        } finally {
+            this.flushLock.unlock();
+        }
+    }
+
+    private void run() {
+        this.flushRequested.set(false);
+
+        try {
+            this.flush();
+        } catch (final RuntimeException e) {
+            // an exception would cancel all further runs.
+            log.error("Write-behind failed. directory={}, error={}", this.overflowDirectory, e.getMessage(), e);
+        }
+    }
+
+    private boolean flushQueue() {
+        while (true) {
+            final ArrayList<Change<T>> batch = new ArrayList<>(this.batchSize);
+
+            this.queueLock.lock();
+            try {
+                final Iterator<Change<T>> changes = this.queue.values().iterator();
+                while (batch.size() < this.batchSize && changes.hasNext()) {
+                    batch.add(changes.next());
+                    changes.remove();
+                }
+            } finally {
+                this.queueLock.unlock();
+            }
+
+            if (batch.isEmpty()) {
+                return true;
+            }
+
+            if (!this.write(batch)) {
+                this.queueLock.lock();
+                try {
+                    // a newer change queued meanwhile wins. The overflow is always newer than the queue.
+                    batch.forEach(c -> this.queue.putIfAbsent(c.uid(), c));
+                } finally {
+                    this.queueLock.unlock();
+                }
+                return false;
+            }
+        }
+    }
+
+    private boolean flushOverflow() {
+        while (true) {
+            final long next;
+
+            this.queueLock.lock();
+            try {
+                if (!this.overflowing) {
+                    return true;
+                }
+
+                next = this.overflow.roll();
+            } finally {
+                this.queueLock.unlock();
+            }
+
+            try {
+                for (final long segment : WriteAheadLog.listSegments(this.overflowDirectory)) {
+                    if (segment < next && !this.replay(WriteAheadLog.segmentPath(this.overflowDirectory, segment))) {
+                        return false;
+                    }
+                }
+            } catch (final IOException e) {
+                throw new PersistenceStoreException("Can't read the overflow directory " + this.overflowDirectory, e);
+            }
+
+            this.queueLock.lock();
+            try {
+                if (this.overflow.lastSequence() < next) {
+                    log.info("Write-behind overflow written. directory={}", this.overflowDirectory);
+                    this.overflowing = false;
+                    return true;
+                }
+            } finally {
+                this.queueLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes the changes of an overflow segment to the backend in batches and deletes it afterward.
+     *
+     * @param segment the segment to write.
+     * @return {@code true} if the whole segment has been written.
+     */
+    private boolean replay(final Path segment) throws IOException {
+        final LinkedHashMap<UUID, Change<T>> batch = new LinkedHashMap<>(16, 0.75f);
+        final boolean[] failed = {false};
+
+        WriteAheadLog.readRecords(segment, (sequence, recordType, payload) -> {
+            if (failed[0]) {
+                return;
+            }
+
+            final Change<T> change = recordType == WriteAheadLog.SAVE
+                    ? this.change(this.codec.decode(payload))
+                    : new Change<>(WriteAheadLog.toUuid(payload), null);
+            batch.remove(change.uid());
+            batch.put(change.uid(), change);
+
+            if (batch.size() >= this.batchSize) {
+                failed[0] = !this.write(new ArrayList<>(batch.values()));
+                batch.clear();
+            }
+        });
+
+        if (failed[0] || (!batch.isEmpty() && !this.write(new ArrayList<>(batch.values())))) {
+            // the segment is written again from its start later, the last change of every resource still wins.
+            return false;
+        }
+
+        Files.delete(segment);
+        return true;
+    }
+
+    private Change<T> change(final T resource) {
+        return new Change<>(resource.getUid(), resource);
+    }
+
+    /**
+     * Writes a batch of changes (at most one per uid) to the backend: first the removals, then the saves. A failing
+     * batch of saves is retried one by one to find the culprit. If the generations of the backend are outdated (e.g.
+     * after a restart nothing is known about them), they are read again and the batch is retried once.
+     *
+     * @param batch the changes to write.
+     * @return {@code true} if the batch has been written (or dropped because it can never be written).
+     */
+    private boolean write(final List<Change<T>> batch) {
+        return this.write(batch, true);
+    }
+
+    private boolean write(final List<Change<T>> batch, final boolean retry) {
+        final List<UUID> removed = batch.stream().filter(c -> c.resource() == null).map(Change::uid).toList();
+        final List<T> saved = batch.stream().map(Change::resource).filter(r -> r != null).toList();
+
+        try {
+            if (!removed.isEmpty()) {
+                if (this.backend instanceof BatchStore<T> batches) {
+                    batches.removeAll(removed);
+                } else {
+                    removed.forEach(this.backend::remove);
+                }
+                removed.forEach(this::removed);
+            }
+            if (!saved.isEmpty()) {
+                this.saveAll(saved);
+            }
+            return true;
+        } catch (final OptimisticLockStoreException e) {
+            // the backend has been changed by someone else, the memory store still wins.
+            log.warn("Backend generations outdated, reading them again. directory={}, error={}", this.overflowDirectory, e.getMessage());
+            saved.forEach(r -> this.backend.findByUid(r.getUid()).ifPresentOrElse(
+                    s -> this.persisted.put(s.getUid(), s.getGeneration()),
+                    () -> this.persisted.remove(r.getUid())
+            ));
+            return retry && this.write(batch.stream().filter(c -> c.resource() != null).toList(), false);
+        } catch (final DuplicateStoreException e) {
+            if (saved.size() > 1) {
+                return saved.stream().allMatch(r -> this.write(List.of(this.change(r))));
+            }
+
+            log.error("Dropping change the backend can't save. resource={}, error={}", saved.get(0).getSelfLink(), e.getMessage());
+            return true;
+        } catch (final RuntimeException e) {
+            log.warn("Backend failed, keeping the changes queued. directory={}, error={}", this.overflowDirectory, e.getMessage());
+            return false;
+        }
+    }
+
+    private void saveAll(final List<T> resources) {
+        final List<T> prepared = resources.stream().map(this::withPersistedGeneration).toList();
+
+        final List<T> result;
+        if (this.backend instanceof BatchStore<T> batches && prepared.size() > 1) {
+            result = batches.saveAll(prepared);
+        } else {
+            result = prepared.stream().map(this.backend::save).toList();
+        }
+
+        result.forEach(r -> this.persisted.put(r.getUid(), r.getGeneration()));
+    }
+
+    private void removed(final UUID uid) {
+        this.persisted.remove(uid);
+
+        this.queueLock.lock();
+        try {
+            // removed again later on, keep it until that removal has been written.
+            final Change<T> queued = this.queue.get(uid);
+            if (queued == null || queued.resource() != null) {
+                this.removals.remove(uid);
+            }
+        } finally {
+            this.queueLock.unlock();
+        }
+    }
+
+    /**
+     * @param resource the resource as stored in memory.
+     * @return the resource with the generation stored in the backend.
+     */
+    @SuppressWarnings("unchecked")
+    private T withPersistedGeneration(final T resource) {
+        final Integer generation = this.persisted.get(resource.getUid());
+        if (generation == null || generation.equals(resource.getGeneration())) {
+            return resource;
+        }
+
+        try {
+            final ObjectNode tree = this.mapper.valueToTree(resource);
+            ((ObjectNode) tree.get("metadata")).put("generation", generation);
+
+            return (T) this.mapper.treeToValue(tree, this.type);
+        } catch (final JsonProcessingException | IllegalArgumentException e) {
+            throw new PersistenceStoreException("Can't set the generation of " + resource.getSelfLink(), e);
+        }
+    }
+
+    /**
+     * Stops the background writes, writes everything queued to the backend and closes the overflow journal. Changes
+     * the backend did not accept stay in the overflow journal and are written when the store is created again.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.task != null) {
+            this.task.cancel(false);
+            this.task = null;
+        }
+
+        this.flushLock.lock();
+        try {
+            if (!this.flush()) {
+                this.spill();
+            }
+            this.overflow.close();
+        } finally {
+            this.flushLock.unlock();
+        }
+
+        if (this.ownScheduler) {
+            this.scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Moves the queue into the overflow journal, so it survives the shutdown. The overflow is newer than the queue, so
+     * the changes of resources already in the overflow are dropped.
+     */
+    private void spill() {
+        this.queueLock.lock();
+        try {
+            log.warn("Backend failed on shutdown, keeping the changes on disk. changes={}, directory={}", this.queue.size(), this.overflowDirectory);
+
+            final Set<UUID> newer = new HashSet<>();
+            if (this.overflowing) {
+                this.overflow.sync(this.overflow.lastSequence());
+
+                for (final long segment : WriteAheadLog.listSegments(this.overflowDirectory)) {
+                    WriteAheadLog.readRecords(WriteAheadLog.segmentPath(this.overflowDirectory, segment), (sequence, recordType, payload) ->
+                            newer.add(recordType == WriteAheadLog.SAVE ? this.codec.decode(payload).getUid() : WriteAheadLog.toUuid(payload))
+                    );
+                }
+            }
+
+            for (final Change<T> change : this.queue.values()) {
+                if (newer.contains(change.uid())) {
+                    continue;
+                }
+
+                if (change.resource() != null) {
+                    this.overflow.append(WriteAheadLog.SAVE, this.codec.encode(change.resource()));
+                } else {
+                    this.overflow.append(WriteAheadLog.REMOVE, WriteAheadLog.toBytes(change.uid()));
+                }
+            }
+            this.queue.clear();
+            this.overflow.sync(this.overflow.lastSequence());
+        } catch (final IOException e) {
+            throw new PersistenceStoreException("Can't read the overflow directory " + this.overflowDirectory, e);
+        } finally {
+            this.queueLock.unlock();
+        }
+    }
+
+
+    /**
+     * A queued change.
+     *
+     * @param uid      the uid of the resource changed.
+     * @param resource the resource saved or {@code null} if it has been removed.
+     * @param <T>      The resource stored.
+     */
+    private record Change<T>(UUID uid, T resource) {}
+}
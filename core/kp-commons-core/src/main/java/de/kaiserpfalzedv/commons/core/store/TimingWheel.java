@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import lombok.ToString;
+
+/**
+ * TimingWheel -- a hierarchical timing wheel of expiry times.
+ * <p>
+ * The wheel has {@value #LEVELS} levels of {@value #SLOTS} slots each. A slot of level {@code l} spans
+ * {@code 64^l} ticks, so an entry is put into the level of the highest tick digit (base 64) it differs from the
+ * current tick in. Scheduling and cancelling an entry is O(1): the slots are doubly linked lists and every level keeps
+ * a bitmap of its non-empty slots. Advancing the wheel jumps to the next non-empty slot via the bitmaps, the entries of
+ * a slot in a higher level are moved down (cascaded) when their slot is reached. Nothing ever scans all entries.
+ * <p>
+ * The expiry times are rounded up to whole ticks, so an entry expires at most one tick late. All methods are
+ * synchronized, the work done while holding the lock is O(1) per entry.
+ *
+ * @param <K> the key of the entries.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+final class TimingWheel<K> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    /** Enough levels to cover every positive tick. */
+    private static final int LEVELS = (Long.SIZE + BITS - 1) / BITS;
+
+    @ToString.Include
+    private final long tickMillis;
+
+    private final Node<K>[][] slots;
+    private final long[] occupied = new long[LEVELS];
+    /** The entries already expired but not returned yet by {@link #advance(long, int)}. */
+    private final Node<K> due = Node.sentinel();
+    private final HashMap<K, Node<K>> entries = new HashMap<>(16);
+
+    @ToString.Include
+    private long current;
+
+
+    /**
+     * @param tick  the resolution of the wheel.
+     * @param start the current time (epoch millis).
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(final Duration tick, final long start) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("The tick has to be positive: " + tick);
+        }
+
+        this.tickMillis = tick.toMillis();
+        this.current = Math.floorDiv(start, this.tickMillis);
+
+        this.slots = new Node[LEVELS][SLOTS];
+        for (final Node<K>[] level : this.slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = Node.sentinel();
+            }
+        }
+    }
+
+
+    /**
+     * Schedules the entry, replacing its former expiry.
+     *
+     * @param key     the key of the entry.
+     * @param expires the time the entry expires (epoch millis).
+     */
+    synchronized void schedule(final K key, final long expires) {
+        Node<K> node = this.entries.get(key);
+        if (node != null) {
+            this.unlink(node);
+        } else {
+            node = new Node<>(key);
+            this.entries.put(key, node);
+        }
+
+        // round up, an entry must never expire early.
+        node.deadline = Math.max(-Math.floorDiv(-expires, this.tickMillis), this.current + 1);
+        this.insert(node);
+    }
+
+    /**
+     * @param key the key of the entry.
+     * @return {@code true} if the entry had been scheduled.
+     */
+    synchronized boolean cancel(final K key) {
+        final Node<K> node = this.entries.remove(key);
+        if (node == null) {
+            return false;
+        }
+
+        this.unlink(node);
+        return true;
+    }
+
+    /**
+     * @param key the key of the entry.
+     * @return {@code true} if the entry is scheduled (or expired but not returned yet).
+     */
+    synchronized boolean contains(final K key) {
+        return this.entries.containsKey(key);
+    }
+
+    /**
+     * @return the number of entries scheduled (or expired but not returned yet).
+     */
+    synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Advances the wheel to the given time and returns the entries expired. They are removed from the wheel. If more
+     * than {@code limit} entries expired, the rest is returned by the next calls.
+     *
+     * @param now   the current time (epoch millis).
+     * @param limit the maximum number of entries to return.
+     * @return the keys of the entries expired.
+     */
+    synchronized List<K> advance(final long now, final int limit) {
+        final long target = Math.floorDiv(now, this.tickMillis);
+
+        while (true) {
+            final int level = this.nextLevel();
+            if (level < 0) {
+                break;
+            }
+
+            final int slot = Long.numberOfTrailingZeros(this.occupied[level]);
+            final long start = (this.current & ~spanMask(level + 1)) | ((long) slot << (level * BITS));
+            if (start > target) {
+                break;
+            }
+
+            this.current = Math.max(this.current, start);
+            this.cascade(level, slot);
+        }
+        this.current = Math.max(this.current, target);
+
+        final ArrayList<K> result = new ArrayList<>(Math.min(Math.max(limit, 0), this.entries.size()));
+        while (result.size() < limit && this.due.next != this.due) {
+            final Node<K> node = this.due.next;
+
+            this.unlink(node);
+            this.entries.remove(node.key);
+            result.add(node.key);
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the lowest level with a non-empty slot or -1 if the wheel is empty. The non-empty slots of a level are
+     * always ahead of the current tick, and all of them expire before the slots of any higher level.
+     */
+    private int nextLevel() {
+        for (int level = 0; level < LEVELS; level++) {
+            if (this.occupied[level] != 0) {
+                return level;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Moves the entries of the slot into the due list or a lower level.
+     */
+    private void cascade(final int level, final int slot) {
+        final Node<K> head = this.slots[level][slot];
+
+        Node<K> node = head.next;
+        head.next = head;
+        head.prev = head;
+        this.occupied[level] &= ~(1L << slot);
+
+        while (node != head) {
+            final Node<K> next = node.next;
+
+            node.prev = null;
+            node.next = null;
+            this.insert(node);
+
+            node = next;
+        }
+    }
+
+    private void insert(final Node<K> node) {
+        if (node.deadline <= this.current) {
+            node.level = -1;
+            link(this.due, node);
+            return;
+        }
+
+        final int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(node.deadline ^ this.current)) / BITS;
+        final int slot = (int) (node.deadline >>> (level * BITS)) & MASK;
+
+        node.level = level;
+        node.slot = slot;
+        link(this.slots[level][slot], node);
+        this.occupied[level] |= 1L << slot;
+    }
+
+    private void unlink(final Node<K> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+
+        if (node.level >= 0 && this.slots[node.level][node.slot].next == this.slots[node.level][node.slot]) {
+            this.occupied[node.level] &= ~(1L << node.slot);
+        }
+
+        node.prev = null;
+        node.next = null;
+    }
+
+    private static <K> void link(final Node<K> head, final Node<K> node) {
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+    }
+
+    /**
+     * @param levels the number of levels.
+     * @return the mask of the tick digits of these levels.
+     */
+    private static long spanMask(final int levels) {
+        return levels * BITS >= Long.SIZE ? -1L : (1L << (levels * BITS)) - 1;
+    }
+
+
+    /**
+     * An entry of the wheel and a link of the slot lists. The heads of the lists are sentinels without key.
+     */
+    private static final class Node<K> {
+        private final K key;
+        private long deadline;
+        private int level;
+        private int slot;
+        private Node<K> prev;
+        private Node<K> next;
+
+        private Node(final K key) {
+            this.key = key;
+        }
+
+        private static <K> Node<K> sentinel() {
+            final Node<K> result = new Node<>(null);
+            result.prev = result;
+            result.next = result;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * VersionHistory -- the versions of a store needed by open snapshots (multi version concurrency control).
+ * <p>
+ * Every commit (a save, a removal or a whole batch) gets the next version of the store. While snapshots are open the
+ * commits record the previous value of every key they change, before changing it. A snapshot pinned to version
+ * {@code s} sees the current value of a key unless there is a record newer than {@code s}; then it sees the value
+ * before the oldest of these records.
+ * <p>
+ * Writers never wait for snapshots. Opening a snapshot waits until the commits with a version up to its own have
+ * been applied, tracked per lock stripe. Records no snapshot needs any longer are dropped when a snapshot is closed.
+ *
+ * @param <T> The resource of the store.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+final class VersionHistory<T> {
+    /** Returned by {@link #begin(int)} if no snapshot needs the previous values. */
+    static final long UNTRACKED = -1L;
+
+    private static final long IDLE = 0L;
+    private static final long ACQUIRING = -1L;
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong pinIds = new AtomicLong();
+
+    /** The version currently committed per lock stripe ({@link #IDLE} or {@link #ACQUIRING} else). */
+    private final AtomicLongArray committing;
+
+    /** The versions of the open snapshots by their pin id. {@link Long#MIN_VALUE} while the snapshot is opened. */
+    private final ConcurrentHashMap<Long, Long> pins = new ConcurrentHashMap<>();
+
+    /** The previous values per key, newest first. */
+    private final ConcurrentHashMap<Object, Node<T>> chains = new ConcurrentHashMap<>();
+
+
+    /**
+     * @param stripes the number of lock stripes of the store.
+     */
+    VersionHistory(final int stripes) {
+        this.committing = new AtomicLongArray(stripes);
+    }
+
+
+    /**
+     * Starts a commit. Has to be called while holding the lock of the stripe, and has to be matched by
+     * {@link #end(int)}.
+     *
+     * @param stripe the lock stripe held by the writer.
+     * @return the version of the commit, or {@link #UNTRACKED} if no snapshot needs the previous values.
+     */
+    long begin(final int stripe) {
+        this.committing.set(stripe, ACQUIRING);
+        final long commit = this.version.incrementAndGet();
+        this.committing.set(stripe, commit);
+
+        // a snapshot pinned after this check reads a version not older than this commit.
+        return this.pins.isEmpty() ? UNTRACKED : commit;
+    }
+
+    /**
+     * Ends the commit started with {@link #begin(int)} once all changes are visible.
+     *
+     * @param stripe the lock stripe held by the writer.
+     */
+    void end(final int stripe) {
+        this.committing.set(stripe, IDLE);
+    }
+
+    /**
+     * Records the value a key had before the commit. Has to be called before the key is changed.
+     *
+     * @param key      the key ({@code UUID} or nameSpace/name).
+     * @param commit   the version returned by {@link #begin(int)}.
+     * @param previous the value before the commit ({@code null} if the key did not exist).
+     */
+    void record(final Object key, final long commit, final T previous) {
+        if (commit != UNTRACKED) {
+            this.chains.compute(key, (k, chain) -> new Node<>(commit, previous, chain));
+        }
+    }
+
+    /**
+     * Pins a new snapshot to the current version. Waits until all commits up to this version have been applied.
+     *
+     * @return the pin of the snapshot.
+     */
+    Pin pin() {
+        final long id = this.pinIds.incrementAndGet();
+        this.pins.put(id, Long.MIN_VALUE);
+
+        final long pinned = this.version.get();
+        this.pins.put(id, pinned);
+
+        for (int i = 0; i < this.committing.length(); i++) {
+            long current = this.committing.get(i);
+            while (current == ACQUIRING || (current != IDLE && current <= pinned)) {
+                Thread.onSpinWait();
+                current = this.committing.get(i);
+            }
+        }
+
+        return new Pin(id, pinned);
+    }
+
+    /**
+     * Releases the snapshot and drops the records no other snapshot needs.
+     *
+     * @param pin the pin of the snapshot.
+     */
+    void release(final Pin pin) {
+        if (this.pins.remove(pin.id()) == null) {
+            return;
+        }
+
+        // read the version first: a snapshot pinned after the scan below has a version not older than this.
+        long bound = this.version.get();
+        for (final long pinned : this.pins.values()) {
+            bound = Math.min(bound, pinned);
+        }
+
+        final long keep = bound;
+        for (final Object key : this.chains.keySet()) {
+            this.chains.computeIfPresent(key, (k, chain) -> chain.newerThan(keep));
+        }
+    }
+
+    /**
+     * @param key     the key to read.
+     * @param current the current value of the key. It has to be read before calling this method.
+     * @param pinned  the version of the snapshot.
+     * @return the value of the key at the version.
+     */
+    T read(final Object key, final T current, final long pinned) {
+        T result = current;
+
+        for (Node<T> node = this.chains.get(key); node != null && node.version > pinned; node = node.older) {
+            result = node.previous;
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the number of keys with recorded previous values.
+     */
+    int size() {
+        return this.chains.size();
+    }
+
+
+    /**
+     * The pin of an open snapshot.
+     *
+     * @param id      the id of the pin.
+     * @param version the version of the snapshot.
+     */
+    record Pin(long id, long version) {}
+
+    /**
+     * A previous value of a key, linked to the older ones.
+     */
+    private record Node<T>(long version, T previous, Node<T> older) {
+        /**
+         * @param bound the version no snapshot is older than.
+         * @return the chain without the records older than or equal to bound ({@code null} if none is left).
+         */
+        Node<T> newerThan(final long bound) {
+            int kept = 0;
+            Node<T> node = this;
+            while (node != null && node.version > bound) {
+                kept++;
+                node = node.older;
+            }
+
+            if (node == null) {
+                return this;
+            }
+            if (kept == 0) {
+                return null;
+            }
+
+            // copy the newer records (iteratively, the chains of hot keys may be long).
+            final Object[] newer = new Object[kept];
+            node = this;
+            for (int i = 0; i < kept; i++) {
+                newer[i] = node;
+                node = node.older;
+            }
+
+            Node<T> result = null;
+            for (int i = kept - 1; i >= 0; i--) {
+                @SuppressWarnings("unchecked")
+                final Node<T> copy = (Node<T>) newer[i];
+                result = new Node<>(copy.version, copy.previous, result);
+            }
+            return result;
+        }
+    }
+}
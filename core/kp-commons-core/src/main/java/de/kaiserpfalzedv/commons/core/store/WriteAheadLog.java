@@ -0,0 +1,432 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import de.kaiserpfalzedv.commons.api.store.PersistenceStoreException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * WriteAheadLog -- an append-only journal of store changes with group commit.
+ * <p>
+ * Appending only copies the record into an in-memory buffer. Durability is requested via {@link #sync(long)}: the
+ * first caller becomes the leader, writes everything buffered so far and forces it to disk. Every caller waiting in
+ * the meantime finds its record already durable afterward. So many concurrent writers share a single fsync.
+ * <p>
+ * The journal is split into segments named {@code wal-<first sequence>.log}. Every record is written as
+ * {@code [int length][long sequence][byte type][payload][int crc32]}, where the checksum covers sequence, type and
+ * payload. A torn record at the end of the last segment (crash while writing) is detected by length and checksum.
+ * <p>
+ * If writing or forcing fails, the log is failed for good: the records not written are kept but never reported as
+ * durable, the segment is truncated to the last complete write if possible, and every further append or sync throws.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+final class WriteAheadLog implements Closeable {
+    static final byte SAVE = 1;
+    static final byte REMOVE = 2;
+    /** A batch of records written atomically: {@code ([byte type][int length][payload])*}. */
+    static final byte BATCH = 3;
+
+    static final String SEGMENT_PREFIX = "wal-";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    /** length, sequence and type. */
+    static final int HEADER_SIZE = 4 + 8 + 1;
+    /** the checksum. */
+    static final int TRAILER_SIZE = 4;
+
+    private static final int MAX_RECORD_SIZE = 1 << 30;
+    private static final long MAP_WINDOW = 256L << 20;
+
+    private final Path directory;
+
+    private final Object appendLock = new Object();
+    /** guarded by appendLock. */
+    private byte[] pending = new byte[64 << 10];
+    /** guarded by appendLock. */
+    private int pendingSize;
+    /** guarded by appendLock. */
+    private long lastSequence;
+    /** guarded by appendLock. */
+    private final CRC32 appendChecksum = new CRC32();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    /** guarded by flushLock. */
+    private byte[] spare = new byte[64 << 10];
+    /** guarded by flushLock. */
+    private FileChannel channel;
+    /** The size of the current segment after the last successful flush. Guarded by flushLock. */
+    private long channelSize;
+
+    /** The error that failed the log. Set while holding the appendLock. */
+    private volatile PersistenceStoreException failure;
+
+    private volatile long durableSequence;
+
+
+    /**
+     * Opens a new segment for records starting with the given sequence.
+     *
+     * @param directory    the directory of the journal.
+     * @param nextSequence the sequence of the first record to append.
+     */
+    WriteAheadLog(final Path directory, final long nextSequence) {
+        this.directory = directory;
+        this.lastSequence = nextSequence - 1;
+        this.durableSequence = nextSequence - 1;
+        this.openSegment(nextSequence);
+    }
+
+
+    /**
+     * Buffers a record. It is not durable before {@link #sync(long)} has been called with its sequence.
+     *
+     * @param type    the record type.
+     * @param payload the payload of the record.
+     * @return the sequence of the record.
+     */
+    long append(final byte type, final byte[] payload) {
+        synchronized (this.appendLock) {
+            this.checkWritable();
+
+            final long sequence = ++this.lastSequence;
+            this.pendingSize = writeRecord(this.ensurePending(HEADER_SIZE + payload.length + TRAILER_SIZE),
+                    this.pendingSize, sequence, type, payload, this.appendChecksum);
+            return sequence;
+        }
+    }
+
+    /**
+     * @return the sequence of the last appended record.
+     */
+    long lastSequence() {
+        synchronized (this.appendLock) {
+            return this.lastSequence;
+        }
+    }
+
+    /**
+     * @throws PersistenceStoreException if writing the log failed before.
+     */
+    void checkWritable() {
+        final PersistenceStoreException failed = this.failure;
+        if (failed != null) {
+            throw new PersistenceStoreException("Journal has failed in " + this.directory, failed);
+        }
+    }
+
+    /**
+     * Blocks until the record with the given sequence (and all before it) have been forced to disk.
+     *
+     * @param sequence the sequence that has to be durable.
+     * @throws PersistenceStoreException if the record can't be written or writing the log failed before.
+     */
+    void sync(final long sequence) {
+        if (this.durableSequence >= sequence) {
+            return;
+        }
+
+        this.flushLock.lock();
+        try {
+            if (this.durableSequence < sequence) {
+                this.flush();
+            }
+        } finally {
+            this.flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes all buffered records into the current segment and starts a new one.
+     *
+     * @return the sequence the new segment starts with. All records before are in older segments.
+     */
+    long roll() {
+        this.flushLock.lock();
+        try {
+            final long last = this.flush();
+
+            try {
+                this.channel.close();
+            } catch (final IOException e) {
+                throw new PersistenceStoreException("Can't close journal segment", e);
+            }
+            this.openSegment(last + 1);
+
+            return last + 1;
+        } finally {
+            this.flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        this.flushLock.lock();
+        try {
+            if (this.failure == null) {
+                this.flush();
+            }
+            this.channel.close();
+        } catch (final IOException e) {
+            throw new PersistenceStoreException("Can't close journal segment", e);
+        } finally {
+            this.flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes and forces everything buffered. Must be called while holding the flush lock. Appenders may continue
+     * meanwhile, they fill the spare buffer.
+     *
+     * @return the sequence of the last record written.
+     * @throws PersistenceStoreException if the records can't be written. The log is failed afterward.
+     */
+    private long flush() {
+        final byte[] data;
+        final int size;
+        final long last;
+
+        synchronized (this.appendLock) {
+            this.checkWritable();
+
+            data = this.pending;
+            size = this.pendingSize;
+            last = this.lastSequence;
+
+            this.pending = this.spare;
+            this.pendingSize = 0;
+        }
+
+        if (size > 0) {
+            try {
+                final ByteBuffer buffer = ByteBuffer.wrap(data, 0, size);
+                while (buffer.hasRemaining()) {
+                    this.channel.write(buffer);
+                }
+                this.channel.force(false);
+            } catch (final IOException e) {
+                throw this.fail(data, size, e);
+            }
+            this.channelSize += size;
+        }
+
+        this.spare = data;
+        this.durableSequence = last;
+        return last;
+    }
+
+    /**
+     * Fails the log after a write error. The records not written are put back in front of the buffer, so they are
+     * never lost silently, and a partial write is cut off the segment if the file system still allows it.
+     *
+     * @param data  the records that could not be written.
+     * @param size  the size of the records.
+     * @param cause the write error.
+     * @return the exception to throw.
+     */
+    private PersistenceStoreException fail(final byte[] data, final int size, final IOException cause) {
+        final PersistenceStoreException result = new PersistenceStoreException("Can't write journal", cause);
+
+        synchronized (this.appendLock) {
+            final byte[] kept = new byte[Math.max(data.length, size + this.pendingSize)];
+            System.arraycopy(data, 0, kept, 0, size);
+            System.arraycopy(this.pending, 0, kept, size, this.pendingSize);
+
+            this.spare = this.pending;
+            this.pending = kept;
+            this.pendingSize += size;
+            this.failure = result;
+        }
+
+        try {
+            this.channel.truncate(this.channelSize);
+        } catch (final IOException e) {
+            log.error("Can't remove partially written records from journal. directory={}, size={}",
+                    this.directory, this.channelSize, e);
+        }
+
+        log.error("Journal failed, rejecting all further changes. directory={}", this.directory, cause);
+        return result;
+    }
+
+    private byte[] ensurePending(final int additional) {
+        if (this.pendingSize + additional > this.pending.length) {
+            final byte[] grown = new byte[Math.max(this.pending.length * 2, this.pendingSize + additional)];
+            System.arraycopy(this.pending, 0, grown, 0, this.pendingSize);
+            this.pending = grown;
+        }
+
+        return this.pending;
+    }
+
+    private void openSegment(final long firstSequence) {
+        try {
+            this.channel = FileChannel.open(
+                    segmentPath(this.directory, firstSequence),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND
+            );
+            this.channelSize = this.channel.size();
+        } catch (final IOException e) {
+            throw new PersistenceStoreException("Can't open journal segment in " + this.directory, e);
+        }
+    }
+
+
+    /**
+     * Encodes a record into the buffer.
+     *
+     * @param buffer   the buffer to write to (has to be large enough).
+     * @param offset   the position to write the record to.
+     * @param sequence the sequence of the record.
+     * @param type     the type of the record.
+     * @param payload  the payload.
+     * @param checksum the checksum calculator to use.
+     * @return the position after the record.
+     */
+    static int writeRecord(
+            final byte[] buffer, final int offset,
+            final long sequence, final byte type, final byte[] payload,
+            final CRC32 checksum
+    ) {
+        final ByteBuffer target = ByteBuffer.wrap(buffer, offset, HEADER_SIZE + payload.length + TRAILER_SIZE);
+        target.putInt(payload.length).putLong(sequence).put(type).put(payload);
+
+        checksum.reset();
+        checksum.update(buffer, offset + 4, 8 + 1 + payload.length);
+        target.putInt((int) checksum.getValue());
+
+        return target.position();
+    }
+
+    /**
+     * Reads the records of a file via memory mapping.
+     *
+     * @param file    the file to read.
+     * @param handler the handler for every valid record.
+     * @return the position after the last valid record (the file size if the file is complete).
+     * @throws IOException if the file can't be read.
+     */
+    static long readRecords(final Path file, final RecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final CRC32 checksum = new CRC32();
+
+            MappedByteBuffer window = null;
+            long windowStart = 0;
+            long position = 0;
+
+            while (position + HEADER_SIZE + TRAILER_SIZE <= size) {
+                if (window == null || position + HEADER_SIZE > windowStart + window.limit()) {
+                    windowStart = position;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position));
+                }
+
+                final int length = window.getInt((int) (position - windowStart));
+                final long recordSize = HEADER_SIZE + (long) length + TRAILER_SIZE;
+                if (length < 0 || length > MAX_RECORD_SIZE || position + recordSize > size) {
+                    break;
+                }
+
+                if (position + recordSize > windowStart + window.limit()) {
+                    windowStart = position;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                            Math.min(Math.max(MAP_WINDOW, recordSize), size - position));
+                }
+
+                final int at = (int) (position - windowStart);
+                checksum.reset();
+                checksum.update(window.slice(at + 4, 8 + 1 + length));
+                if ((int) checksum.getValue() != window.getInt(at + HEADER_SIZE + length)) {
+                    break;
+                }
+
+                final byte[] payload = new byte[length];
+                window.get(at + HEADER_SIZE, payload);
+                handler.handle(window.getLong(at + 4), window.get(at + 12), payload);
+
+                position += recordSize;
+            }
+
+            return position;
+        }
+    }
+
+    /**
+     * @param directory the directory of the journal.
+     * @return the segments of the journal sorted by their first sequence.
+     * @throws IOException if the directory can't be read.
+     */
+    static List<Long> listSegments(final Path directory) throws IOException {
+        return listSequences(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    }
+
+    static List<Long> listSequences(final Path directory, final String prefix, final String suffix) throws IOException {
+        final ArrayList<Long> result = new ArrayList<>();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(prefix) && n.endsWith(suffix))
+                    .forEach(n -> result.add(Long.parseLong(n.substring(prefix.length(), n.length() - suffix.length()))));
+        }
+
+        result.sort(Long::compare);
+        return result;
+    }
+
+    static Path segmentPath(final Path directory, final long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    static byte[] toBytes(final UUID uid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uid.getMostSignificantBits())
+                .putLong(uid.getLeastSignificantBits())
+                .array();
+    }
+
+    static UUID toUuid(final byte[] data) {
+        final ByteBuffer buffer = ByteBuffer.wrap(data);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+
+    /**
+     * Receives the records read from a journal or snapshot.
+     */
+    @FunctionalInterface
+    interface RecordHandler {
+        void handle(long sequence, byte type, byte[] payload);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.user;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.api.user.UserData;
+import lombok.ToString;
+
+/**
+ * IssuerSubjectIndex -- the hash index of the users by the issuer and subject of their OIDC login.
+ * <p>
+ * The stores update the index while holding the write lock of the user, so changes of the same user are ordered. If
+ * several users share issuer and subject, all of them are indexed and the one saved last is found. The uids of a key
+ * are kept as an immutable list that is replaced on every change, so lookups don't take a lock.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+final class IssuerSubjectIndex {
+    /** The uids of the users per login, the one saved last at the end. */
+    private final ConcurrentHashMap<Key, List<UUID>> byKey = new ConcurrentHashMap<>(16);
+    private final ConcurrentHashMap<UUID, Key> byUid = new ConcurrentHashMap<>(16);
+
+
+    /**
+     * @param issuer  the issuer of the token.
+     * @param subject the subject of the token.
+     * @param users   loads a user by uid.
+     * @return the user saved last with this issuer and subject or an empty {@link Optional}.
+     */
+    Optional<User> find(final String issuer, final String subject, final Function<UUID, Optional<User>> users) {
+        if (issuer == null || subject == null) {
+            return Optional.empty();
+        }
+
+        final Key key = new Key(issuer, subject);
+        final List<UUID> uids = this.byKey.getOrDefault(key, List.of());
+        for (int i = uids.size() - 1; i >= 0; i--) {
+            // the user may have been changed after the lookup, so the login is checked again.
+            final Optional<User> result = users.apply(uids.get(i)).filter(u -> key.equals(key(u)));
+            if (result.isPresent()) {
+                return result;
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * @param user the user saved.
+     */
+    void update(final User user) {
+        final Key key = key(user);
+        final Key old = key != null ? this.byUid.put(user.getUid(), key) : this.byUid.remove(user.getUid());
+
+        if (old != null && !old.equals(key)) {
+            this.unindex(old, user.getUid());
+        }
+        if (key != null) {
+            this.byKey.compute(key, (k, uids) -> {
+                final ArrayList<UUID> result = new ArrayList<>(uids != null ? uids.size() + 1 : 1);
+                if (uids != null) {
+                    uids.stream().filter(uid -> !uid.equals(user.getUid())).forEach(result::add);
+                }
+                result.add(user.getUid());
+                return List.copyOf(result);
+            });
+        }
+    }
+
+    /**
+     * @param uid the uid of the user removed.
+     */
+    void remove(final UUID uid) {
+        final Key old = this.byUid.remove(uid);
+
+        if (old != null) {
+            this.unindex(old, uid);
+        }
+    }
+
+    private void unindex(final Key key, final UUID uid) {
+        this.byKey.computeIfPresent(key, (k, uids) -> {
+            final List<UUID> result = uids.stream().filter(u -> !u.equals(uid)).toList();
+            return result.isEmpty() ? null : result;
+        });
+    }
+
+    private static Key key(final User user) {
+        if (user.getSpec() == null) {
+            return null;
+        }
+
+        final String issuer = user.getSpec().getProperty(UserData.ISSUER).orElse(null);
+        final String subject = user.getSpec().getProperty(UserData.SUBJECT).orElse(null);
+
+        return issuer != null && subject != null ? new Key(issuer, subject) : null;
+    }
+
+
+    /**
+     * The key of the index.
+     *
+     * @param issuer  the issuer of the login.
+     * @param subject the subject of the login.
+     */
+    private record Key(String issuer, String subject) {}
+}
@@ -17,6 +17,9 @@
 
 package de.kaiserpfalzedv.commons.core.user;
 
+import java.util.Optional;
+
+import de.kaiserpfalzedv.commons.api.user.LoginStore;
 import de.kaiserpfalzedv.commons.api.user.User;
 import de.kaiserpfalzedv.commons.api.user.UserStoreService;
 import de.kaiserpfalzedv.commons.core.store.GenericStoreService;
@@ -26,7 +29,7 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Alternative;
 
 /**
- * MemoryUserStore --
+ * MemoryUserStore -- keeps the users in memory, indexed by the issuer and subject of their OIDC login, too.
  *
  * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
  * @since 2.0.0  2021-05-24
@@ -34,5 +37,42 @@ import jakarta.enterprise.inject.Alternative;
 @ApplicationScoped
 @Alternative
 @Priority(100)
-public class MemoryUserStore extends GenericStoreService<User> implements UserStoreService {
+public class MemoryUserStore extends GenericStoreService<User> implements UserStoreService, LoginStore {
+    private final IssuerSubjectIndex logins = new IssuerSubjectIndex();
+
+
+    public MemoryUserStore() {
+        super(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * @param generations the number of older generations to keep per user.
+     * @since 4.2.0
+     */
+    public MemoryUserStore(final int generations) {
+        super(DEFAULT_CONCURRENCY_LEVEL, UserImpl.class, generations);
+    }
+
+    @Override
+    public Optional<User> findByIssuerAndSubject(final String issuer, final String subject) {
+        return this.logins.find(issuer, subject, this::findByUid);
+    }
+
+    @Override
+    protected void afterSave(final User stored, final User saved) {
+        if (stored != null && !stored.getUid().equals(saved.getUid())) {
+            this.logins.remove(stored.getUid());
+        }
+        this.logins.update(saved);
+    }
+
+    @Override
+    protected void afterLoad(final User stored, final User loaded) {
+        this.afterSave(stored, loaded);
+    }
+
+    @Override
+    protected void afterRemove(final User removed) {
+        this.logins.remove(removed.getUid());
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.user;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import de.kaiserpfalzedv.commons.api.user.LoginStore;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.api.user.UserStoreService;
+import de.kaiserpfalzedv.commons.core.store.JacksonResourceCodec;
+import de.kaiserpfalzedv.commons.core.store.OffHeapStoreService;
+
+/**
+ * OffHeapUserStore -- keeps the users serialized outside the java heap. The index of the OIDC logins (issuer and
+ * subject) is kept on the heap.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public class OffHeapUserStore extends OffHeapStoreService<User> implements UserStoreService, LoginStore {
+    private final IssuerSubjectIndex logins = new IssuerSubjectIndex();
+
+
+    public OffHeapUserStore() {
+        super(new JacksonResourceCodec<>(UserImpl.class));
+    }
+
+    /**
+     * @param slabSize     the size of the memory slabs allocated outside the heap.
+     * @param hotCacheSize the number of decoded users to keep on the heap. 0 disables the cache.
+     */
+    public OffHeapUserStore(final int slabSize, final long hotCacheSize) {
+        super(new JacksonResourceCodec<>(UserImpl.class), slabSize, hotCacheSize);
+    }
+
+
+    @Override
+    public Optional<User> findByIssuerAndSubject(final String issuer, final String subject) {
+        return this.logins.find(issuer, subject, this::findByUid);
+    }
+
+    @Override
+    protected void afterSave(final User saved) {
+        this.logins.update(saved);
+    }
+
+    @Override
+    protected void afterRemove(final UUID uid) {
+        this.logins.remove(uid);
+    }
+}
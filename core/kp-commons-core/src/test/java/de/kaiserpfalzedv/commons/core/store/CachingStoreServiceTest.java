@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * CachingStoreServiceTest -- checks the caching decorator for stores.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class CachingStoreServiceTest extends AbstractTestBase {
+    private static final String NAMESPACE = "caching";
+
+    private final CountingStore backend = new CountingStore();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CachingStoreService<User> sut = new CachingStoreService<>(
+            this.backend, "users", 100, Duration.ofMinutes(5), this.registry
+    );
+
+
+    public CachingStoreServiceTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldServeSecondLookupFromCacheWhenResourceHasBeenLoaded() {
+        this.startTest("cache-hit");
+
+        final User user = this.backend.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+
+        this.sut.findByUid(user.getUid());
+        this.sut.findByUid(user.getUid());
+        this.sut.findByNameSpaceAndName(NAMESPACE, "a");
+        this.sut.findByNameSpaceAndName(NAMESPACE, "a");
+
+        assertEquals(2, this.backend.lookups.get());
+        assertEquals(2.0, this.registry.get("cache.gets").tags("cache", "users", "result", "hit").functionCounters()
+                .stream().mapToDouble(c -> c.count()).sum());
+        assertEquals(2.0, this.registry.get("cache.gets").tags("cache", "users", "result", "miss").functionCounters()
+                .stream().mapToDouble(c -> c.count()).sum());
+    }
+
+    @Test
+    void shouldReturnSavedGenerationWhenResourceIsUpdated() {
+        this.startTest("write-through");
+
+        final User saved = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        final User updated = this.sut.save(saved);
+
+        assertEquals(1, this.sut.findByUid(saved.getUid()).orElseThrow().getGeneration());
+        assertEquals(updated, this.sut.findByNameSpaceAndName(NAMESPACE, "a").orElseThrow());
+        assertEquals(0, this.backend.lookups.get());
+    }
+
+    @Test
+    void shouldKeepOptimisticLockingWhenCachedVersionIsOutdated() {
+        this.startTest("optimistic-locking");
+
+        final User saved = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        this.sut.save(this.sut.save(saved));
+
+        assertThrows(OptimisticLockStoreException.class, () -> this.sut.save(saved));
+        assertEquals(2, this.sut.findByUid(saved.getUid()).orElseThrow().getGeneration());
+    }
+
+    @Test
+    void shouldNotReturnResourceWhenRemoved() {
+        this.startTest("invalidate-on-remove");
+
+        final User saved = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        this.sut.findByNameSpaceAndName(NAMESPACE, "a");
+
+        this.sut.remove(saved.getUid());
+
+        assertFalse(this.sut.findByNameSpaceAndName(NAMESPACE, "a").isPresent());
+        assertFalse(this.sut.findByUid(saved.getUid()).isPresent());
+    }
+
+
+    @Test
+    void shouldNotReturnResourceByUidWhenCachedByUidAndRemovedByName() {
+        this.startTest("invalidate-uid-on-remove-by-name");
+
+        final User saved = this.backend.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        this.sut.findByUid(saved.getUid());
+
+        this.sut.remove(NAMESPACE, "a");
+
+        assertFalse(this.sut.findByUid(saved.getUid()).isPresent());
+        assertFalse(this.sut.findByNameSpaceAndName(NAMESPACE, "a").isPresent());
+    }
+
+    @Test
+    void shouldNotReturnResourceByNameWhenCachedByNameAndRemovedByUid() {
+        this.startTest("invalidate-name-on-remove-by-uid");
+
+        final User saved = this.backend.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        this.sut.findByNameSpaceAndName(NAMESPACE, "a");
+
+        this.sut.remove(saved.getUid());
+
+        assertFalse(this.sut.findByNameSpaceAndName(NAMESPACE, "a").isPresent());
+        assertFalse(this.sut.findByUid(saved.getUid()).isPresent());
+    }
+
+    @Test
+    void shouldNotReturnResourceByNameWhenCachedByNameAndRemovedInBatch() {
+        this.startTest("invalidate-name-on-remove-all");
+
+        final User saved = this.backend.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        this.sut.findByNameSpaceAndName(NAMESPACE, "a");
+
+        this.sut.removeAll(List.of(saved.getUid()));
+
+        assertFalse(this.sut.findByNameSpaceAndName(NAMESPACE, "a").isPresent());
+    }
+
+
+    private static class CountingStore extends MemoryUserStore {
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        @Override
+        public Optional<User> findByUid(final UUID uid) {
+            this.lookups.incrementAndGet();
+            return super.findByUid(uid);
+        }
+
+        @Override
+        public Optional<User> findByNameSpaceAndName(final String nameSpace, final String name) {
+            this.lookups.incrementAndGet();
+            return super.findByNameSpaceAndName(nameSpace, name);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.resources.HasName;
+import de.kaiserpfalzedv.commons.api.store.StoreSnapshot;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * GenericStoreServiceCompactionTest -- checks the tombstones of the memory store and their purging.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class GenericStoreServiceCompactionTest extends AbstractTestBase {
+    private static final String NAMESPACE = "compaction";
+    private static final OffsetDateTime FUTURE = OffsetDateTime.now().plusDays(1);
+
+    private final MemoryUserStore sut = new MemoryUserStore();
+
+
+    public GenericStoreServiceCompactionTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldHideResourceButKeepTombstoneWhenRemoved() {
+        this.startTest("hide-removed");
+
+        this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        final User removed = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "b"));
+        this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "c"));
+
+        this.sut.remove(removed);
+
+        assertFalse(this.sut.findByNameSpaceAndName(NAMESPACE, "b").isPresent());
+        assertFalse(this.sut.findByUid(removed.getUid()).isPresent());
+        assertTrue(this.sut.findBySelector(LabelSelectorImpl.parse("")).stream().noneMatch(removed::equals));
+        assertEquals(2, this.sut.countByNameSpace(NAMESPACE));
+        assertEquals(1, this.sut.countTombstones());
+
+        final PagedResult<User> result = this.sut.findAllByNameSpace(NAMESPACE, PagingImpl.builder().build());
+        assertEquals(List.of("a", "c"), result.getData().stream().map(HasName::getName).toList());
+        assertEquals(2, result.getPaging().getTotal());
+    }
+
+    @Test
+    void shouldSkipTombstonesWhenPagingPastThem() {
+        this.startTest("page-past-tombstones");
+
+        final ArrayList<String> live = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final String name = String.format("user-%03d", i);
+            final User user = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, name));
+
+            if (i % 3 == 0) {
+                this.sut.remove(user.getUid());
+            } else {
+                live.add(name);
+            }
+        }
+
+        for (int start = 0; start < live.size(); start += 7) {
+            final PagedResult<User> result = this.sut.findAllByNameSpace(
+                    NAMESPACE, PagingImpl.builder().start(start).size(7).build()
+            );
+
+            assertEquals(
+                    live.subList(start, Math.min(start + 7, live.size())),
+                    result.getData().stream().map(HasName::getName).toList()
+            );
+            assertEquals(live.size(), result.getPaging().getTotal());
+        }
+    }
+
+    @Test
+    void shouldSkipRunsOfTombstonesWhenPaging() {
+        this.startTest("page-past-tombstone-runs");
+
+        final ArrayList<String> live = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final String name = String.format("user-%03d", i);
+            final User user = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, name));
+
+            if (i < 40 || (i >= 60 && i < 120) || i % 7 == 0 || i >= 190) {
+                this.sut.remove(user.getUid());
+            } else {
+                live.add(name);
+            }
+        }
+
+        for (int start = 0; start < live.size(); start++) {
+            final PagedResult<User> result = this.sut.findAllByNameSpace(
+                    NAMESPACE, PagingImpl.builder().start(start).size(9).build()
+            );
+
+            assertEquals(
+                    live.subList(start, Math.min(start + 9, live.size())),
+                    result.getData().stream().map(HasName::getName).toList()
+            );
+        }
+    }
+
+    @Test
+    void shouldPurgeTombstonesInChunksWhenCompacted() {
+        this.startTest("purge-in-chunks");
+
+        this.saveAndRemove(25);
+
+        assertEquals(10, this.sut.compact(FUTURE, 10));
+        assertEquals(15, this.sut.countTombstones());
+
+        try (StoreCompactor compactor = new StoreCompactor(this.sut, Duration.ofMinutes(1), Duration.ZERO, 10)) {
+            assertEquals(15, compactor.compact());
+        }
+
+        assertEquals(0, this.sut.countTombstones());
+        assertEquals(0, this.sut.countByNameSpace(NAMESPACE));
+        assertTrue(this.sut.findBySelector(LabelSelectorImpl.parse("")).isEmpty());
+    }
+
+    @Test
+    void shouldKeepTombstonesWhenYoungerThanRetention() {
+        this.startTest("keep-young-tombstones");
+
+        this.saveAndRemove(5);
+
+        assertEquals(0, this.sut.compact(OffsetDateTime.now().minusHours(1), 10));
+        assertEquals(5, this.sut.countTombstones());
+    }
+
+    @Test
+    void shouldPurgeOldestTombstonesFirstWhenCompacted() throws InterruptedException {
+        this.startTest("purge-oldest-first");
+
+        final User first = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "z"));
+        final User second = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        final User third = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "m"));
+        this.sut.remove(first);
+        this.sut.remove(second);
+        Thread.sleep(5);
+        final OffsetDateTime cutoff = OffsetDateTime.now();
+        Thread.sleep(5);
+        this.sut.remove(third);
+
+        assertEquals(1, this.sut.compact(FUTURE, 1));
+        assertEquals(1, this.sut.compact(cutoff, 10));
+        assertEquals(1, this.sut.countTombstones());
+        assertEquals(1, this.sut.compact(FUTURE, 10));
+        assertEquals(0, this.sut.countTombstones());
+    }
+
+    @Test
+    void shouldReplaceTombstoneWhenNameIsSavedAgain() {
+        this.startTest("replace-tombstone");
+
+        final User removed = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        this.sut.remove(removed);
+
+        final User added = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+
+        assertEquals(0, added.getGeneration());
+        assertEquals(added, this.sut.findByNameSpaceAndName(NAMESPACE, "a").orElseThrow());
+        assertFalse(this.sut.findByUid(removed.getUid()).isPresent());
+        assertEquals(0, this.sut.countTombstones());
+        assertEquals(0, this.sut.compact(FUTURE, 10));
+    }
+
+    @Test
+    void shouldSeeRemovedResourceInOldSnapshotWhenTombstoneIsPurged() {
+        this.startTest("snapshot-after-purge");
+
+        final User removed = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+
+        try (StoreSnapshot<User> snapshot = this.sut.snapshot()) {
+            this.sut.remove(removed);
+            this.sut.compact(FUTURE, 10);
+
+            assertEquals(removed, snapshot.findByUid(removed.getUid()).orElseThrow());
+            assertEquals(removed, snapshot.findByNameSpaceAndName(NAMESPACE, "a").orElseThrow());
+        }
+    }
+
+    @Test
+    void shouldPurgeTombstonesWhenCompactorIsScheduled() throws InterruptedException {
+        this.startTest("scheduled-compaction");
+
+        this.saveAndRemove(5);
+
+        try (StoreCompactor compactor = new StoreCompactor(this.sut, Duration.ofMillis(10), Duration.ZERO, 2).start()) {
+            final long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (this.sut.countTombstones() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            log.trace("Compactor: {}", compactor);
+        }
+
+        assertEquals(0, this.sut.countTombstones());
+    }
+
+
+    private void saveAndRemove(final int count) {
+        IntStream.range(0, count).forEach(i -> this.sut.remove(
+                this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "user-" + i)).getUid()
+        ));
+    }
+}
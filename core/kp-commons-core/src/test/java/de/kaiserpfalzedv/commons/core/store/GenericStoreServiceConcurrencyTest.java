@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+import de.kaiserpfalzedv.commons.core.user.UserDataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * GenericStoreServiceConcurrencyTest -- checks that the store keeps its indexes consistent under contention.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class GenericStoreServiceConcurrencyTest extends AbstractTestBase {
+    private static final String NAMESPACE = "concurrency";
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+
+    private final MemoryUserStore sut = new MemoryUserStore();
+
+    private ExecutorService executor;
+
+
+    public GenericStoreServiceConcurrencyTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @AfterEach
+    void shutdownExecutor() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8, 16, 32, 64})
+    void shouldStoreAllResourcesWhenManyThreadsWriteDistinctKeys(final int threads) throws Exception {
+        this.startTest("parallel-distinct-writes", threads);
+
+        this.runConcurrently(threads, t -> () -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                this.sut.save(createUser("user-" + t + "-" + i, UUID.randomUUID(), 0));
+            }
+            return null;
+        });
+
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                final User stored = this.sut.findByNameSpaceAndName(NAMESPACE, "user-" + t + "-" + i).orElseThrow();
+
+                assertEquals(stored, this.sut.findByUid(stored.getUid()).orElseThrow());
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 8, 32})
+    void shouldLoseNoUpdateWhenManyThreadsWriteTheSameKey(final int threads) throws Exception {
+        this.startTest("parallel-same-key-writes", threads);
+
+        final UUID uid = UUID.randomUUID();
+        this.sut.save(createUser("hot", uid, 0));
+
+        final AtomicInteger conflicts = new AtomicInteger();
+        final int updatesPerThread = 200;
+
+        this.runConcurrently(threads, t -> () -> {
+            int done = 0;
+            while (done < updatesPerThread) {
+                final User current = this.sut.findByUid(uid).orElseThrow();
+
+                try {
+                    this.sut.save(current);
+                    done++;
+                } catch (final OptimisticLockStoreException e) {
+                    conflicts.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        log.info("Same key writes finished. threads={}, conflicts={}", threads, conflicts.get());
+
+        assertEquals(threads * updatesPerThread, this.sut.findByUid(uid).orElseThrow().getGeneration());
+        assertEquals(
+                this.sut.findByUid(uid).orElseThrow(),
+                this.sut.findByNameSpaceAndName(NAMESPACE, "hot").orElseThrow()
+        );
+    }
+
+    @Test
+    void shouldKeepIndexesConsistentWhenSavesAndRemovesInterleave() throws Exception {
+        this.startTest("parallel-save-and-remove");
+
+        final int threads = 32;
+        final int keys = 64;
+        final UUID[] uids = new UUID[keys];
+        for (int i = 0; i < keys; i++) {
+            uids[i] = UUID.randomUUID();
+        }
+
+        this.runConcurrently(threads, t -> () -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                final int k = (t * 7 + i) % keys;
+
+                switch (i % 4) {
+                    case 0 -> this.sut.remove(uids[k]);
+                    case 1 -> this.sut.remove(NAMESPACE, "key-" + k);
+                    default -> {
+                        try {
+                            final User current = this.sut.findByUid(uids[k]).orElse(null);
+                            this.sut.save(current != null ? current : createUser("key-" + k, uids[k], 0));
+                        } catch (final OptimisticLockStoreException e) {
+                            // expected under contention.
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+
+        for (int k = 0; k < keys; k++) {
+            final boolean byName = this.sut.findByNameSpaceAndName(NAMESPACE, "key-" + k).isPresent();
+            final boolean byUid = this.sut.findByUid(uids[k]).isPresent();
+
+            assertEquals(byName, byUid, "Both indexes have to agree on key-" + k);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 8, 32})
+    void shouldNotDeadlockWhenBatchesAndSingleWritesOverlap(final int threads) throws Exception {
+        this.startTest("parallel-batches", threads);
+
+        final int keys = 256;
+        final int batches = 200;
+
+        this.runConcurrently(threads, t -> () -> {
+            for (int i = 0; i < batches; i++) {
+                final List<User> batch = new ArrayList<>();
+                for (int k = 0; k < 16; k++) {
+                    batch.add(createUser("batch-" + ((t * 31 + i * 17 + k * 13) % keys), UUID.randomUUID(), 0));
+                }
+
+                try {
+                    if (i % 3 == 0) {
+                        this.sut.save(batch.get(0));
+                    } else if (i % 3 == 1) {
+                        this.sut.saveAll(batch);
+                    } else {
+                        this.sut.removeAll(batch.stream().map(User::getUid).toList());
+                        this.sut.remove(NAMESPACE, batch.get(1).getName());
+                    }
+                } catch (final OptimisticLockStoreException e) {
+                    // expected under contention.
+                }
+            }
+            return null;
+        });
+
+        for (int k = 0; k < keys; k++) {
+            final User byName = this.sut.findByNameSpaceAndName(NAMESPACE, "batch-" + k).orElse(null);
+
+            if (byName != null) {
+                assertEquals(byName, this.sut.findByUid(byName.getUid()).orElseThrow());
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1, 1", "2, 2", "3, 4", "4, 4", "5, 8", "16, 16", "17, 32"})
+    void shouldRoundUpTheNumberOfLockStripesToAPowerOfTwo(final int concurrencyLevel, final int expected) {
+        this.startTest("lock-stripes", concurrencyLevel);
+
+        final GenericStoreService<User> store = new GenericStoreService<>(concurrencyLevel) {};
+        final Set<ReentrantLock> stripes = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < 1_000; i++) {
+            stripes.add(store.lockFor(NAMESPACE, "stripe-" + i));
+        }
+
+        assertEquals(expected, stripes.size());
+    }
+
+    @Test
+    void shouldNotBlockWritesToOtherStripesWhileAStripeIsLocked() throws Exception {
+        this.startTest("independent-stripes");
+
+        final ReentrantLock held = this.sut.lockFor(NAMESPACE, "held");
+        final String blocked = findName(name -> this.sut.lockFor(NAMESPACE, name) == held);
+        final String free = findName(name -> this.sut.lockFor(NAMESPACE, name) != held);
+
+        final CountDownLatch blockedSaved = new CountDownLatch(1);
+        final CountDownLatch freeSaved = new CountDownLatch(1);
+        this.executor = Executors.newFixedThreadPool(2);
+
+        held.lock();
+        try {
+            this.executor.submit(() -> {
+                this.sut.save(createUser(blocked, UUID.randomUUID(), 0));
+                blockedSaved.countDown();
+            });
+            this.executor.submit(() -> {
+                this.sut.save(createUser(free, UUID.randomUUID(), 0));
+                freeSaved.countDown();
+            });
+
+            assertTrue(freeSaved.await(10, TimeUnit.SECONDS), "The write to another stripe has to pass the lock");
+            assertFalse(blockedSaved.await(100, TimeUnit.MILLISECONDS), "The write to the locked stripe has to wait");
+        } finally {
+            held.unlock();
+        }
+
+        assertTrue(blockedSaved.await(10, TimeUnit.SECONDS), "The write has to pass after the lock is released");
+        assertTrue(this.sut.findByNameSpaceAndName(NAMESPACE, blocked).isPresent());
+        assertTrue(this.sut.findByNameSpaceAndName(NAMESPACE, free).isPresent());
+    }
+
+
+    private void runConcurrently(final int threads, final Task task) throws Exception {
+        this.executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Void>> results = new ArrayList<>(threads);
+
+        for (int t = 0; t < threads; t++) {
+            final Callable<Void> work = task.create(t);
+            results.add(this.executor.submit(() -> {
+                start.await();
+                return work.call();
+            }));
+        }
+
+        start.countDown();
+        for (final Future<Void> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    private static String findName(final Predicate<String> condition) {
+        return IntStream.range(0, 1_000)
+                .mapToObj(i -> "name-" + i)
+                .filter(condition)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static User createUser(final String name, final UUID uid, final int generation) {
+        return UserImpl.builder()
+                .metadata(
+                        MetadataImpl.of(User.KIND, User.API_VERSION, NAMESPACE, name)
+                                .uid(uid)
+                                .generation(generation)
+                                .build()
+                )
+                .spec(UserDataImpl.builder().name(name).build())
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        Callable<Void> create(int thread);
+    }
+}
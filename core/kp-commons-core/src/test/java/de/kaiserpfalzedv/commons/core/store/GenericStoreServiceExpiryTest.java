@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import de.kaiserpfalzedv.commons.api.store.ExpiringStore;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserDataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * GenericStoreServiceExpiryTest -- checks the expiry of resources.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class GenericStoreServiceExpiryTest extends AbstractTestBase {
+    private static final String NAMESPACE = "expiry";
+    private static final OffsetDateTime NOW = OffsetDateTime.now();
+
+    private final AtomicInteger batches = new AtomicInteger();
+    private final GenericStoreService<User> sut = new GenericStoreService<>() {
+        @Override
+        protected void afterRemoveAll(final List<User> removed) {
+            GenericStoreServiceExpiryTest.this.batches.incrementAndGet();
+        }
+    };
+
+
+    public GenericStoreServiceExpiryTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldRemoveResourcesInOneBatchWhenAnnotatedExpiryPassed() {
+        this.startTest("expire-by-annotation");
+
+        this.sut.save(createUser("session-1", NOW.plusMinutes(1)));
+        this.sut.save(createUser("session-2", NOW.plusMinutes(2)));
+        this.sut.save(createUser("session-3", NOW.plusHours(1)));
+        this.sut.save(createUser("permanent", null));
+
+        assertEquals(0, this.sut.expire(NOW, 10));
+        assertEquals(3, this.sut.countExpiring());
+
+        assertEquals(2, this.sut.expire(NOW.plusMinutes(5), 10));
+        assertEquals(1, this.batches.get());
+        assertFalse(this.sut.findByNameSpaceAndName(NAMESPACE, "session-1").isPresent());
+        assertFalse(this.sut.findByNameSpaceAndName(NAMESPACE, "session-2").isPresent());
+        assertTrue(this.sut.findByNameSpaceAndName(NAMESPACE, "session-3").isPresent());
+        assertEquals(2, this.sut.countByNameSpace(NAMESPACE));
+        assertEquals(1, this.sut.countExpiring());
+    }
+
+    @Test
+    void shouldUseNewExpiryWhenSetByApi() {
+        this.startTest("expire-by-api");
+
+        final User token = this.sut.save(createUser("token", NOW.plusMinutes(1)));
+        final User other = this.sut.save(createUser("other", null));
+
+        assertTrue(this.sut.expireAt(token.getUid(), NOW.plusHours(1)));
+        assertTrue(this.sut.expireAt(other.getUid(), NOW.plusMinutes(1)));
+        assertFalse(this.sut.expireAt(UUID.randomUUID(), NOW));
+
+        assertEquals(1, this.sut.expire(NOW.plusMinutes(5), 10));
+        assertTrue(this.sut.findByUid(token.getUid()).isPresent());
+        assertFalse(this.sut.findByUid(other.getUid()).isPresent());
+
+        assertTrue(this.sut.expireAt(token.getUid(), null));
+        assertEquals(0, this.sut.expire(NOW.plusDays(1), 10));
+        assertEquals(0, this.sut.countExpiring());
+    }
+
+    @Test
+    void shouldKeepResourceWhenSavedAgainWithoutExpiry() {
+        this.startTest("expire-annotation-removed");
+
+        final User session = this.sut.save(createUser("session", NOW.plusMinutes(1)));
+        this.sut.save(UserImpl.builder()
+                .metadata(MetadataImpl.of(User.KIND, User.API_VERSION, NAMESPACE, "session")
+                        .uid(session.getUid())
+                        .generation(session.getGeneration())
+                        .build())
+                .spec(session.getSpec())
+                .build());
+
+        assertEquals(0, this.sut.countExpiring());
+        assertEquals(0, this.sut.expire(NOW.plusMinutes(5), 10));
+        assertTrue(this.sut.findByUid(session.getUid()).isPresent());
+    }
+
+    @Test
+    void shouldForgetExpiryWhenResourceIsRemoved() {
+        this.startTest("expire-removed");
+
+        final User session = this.sut.save(createUser("session", NOW.plusMinutes(1)));
+        this.sut.remove(session);
+
+        assertEquals(0, this.sut.countExpiring());
+        assertEquals(0, this.sut.expire(NOW.plusDays(1), 10));
+    }
+
+    @Test
+    void shouldRemoveInBatchesWhenMoreThanLimitExpired() {
+        this.startTest("expire-in-batches");
+
+        for (int i = 0; i < 25; i++) {
+            this.sut.save(createUser("session-" + i, NOW.plusSeconds(i)));
+        }
+
+        try (StoreExpirer expirer = new StoreExpirer(this.sut, Duration.ofMinutes(1), 10)) {
+            assertEquals(0, expirer.expire());
+        }
+
+        assertEquals(10, this.sut.expire(NOW.plusMinutes(1), 10));
+        assertEquals(15, this.sut.expire(NOW.plusMinutes(1), 100));
+        assertEquals(0, this.sut.countByNameSpace(NAMESPACE));
+    }
+
+    @Test
+    void shouldIgnoreAnnotationWhenNotATimestamp() {
+        this.startTest("expire-invalid-annotation");
+
+        this.sut.save(UserImpl.builder()
+                .metadata(MetadataImpl.of(User.KIND, User.API_VERSION, NAMESPACE, "invalid")
+                        .uid(UUID.randomUUID())
+                        .annotations(Map.of(ExpiringStore.EXPIRES_ANNOTATION, "tomorrow"))
+                        .build())
+                .spec(UserDataImpl.builder().name("invalid").build())
+                .build());
+
+        assertEquals(0, this.sut.countExpiring());
+    }
+
+
+    private static User createUser(final String name, final OffsetDateTime expires) {
+        return UserImpl.builder()
+                .metadata(MetadataImpl.of(User.KIND, User.API_VERSION, NAMESPACE, name)
+                        .uid(UUID.randomUUID())
+                        .annotations(expires != null ? Map.of(ExpiringStore.EXPIRES_ANNOTATION, expires.toString()) : Map.of())
+                        .build())
+                .spec(UserDataImpl.builder().name(name).build())
+                .build();
+    }
+}
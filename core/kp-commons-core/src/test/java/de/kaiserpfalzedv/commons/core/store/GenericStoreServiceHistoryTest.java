@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+import de.kaiserpfalzedv.commons.core.user.UserDataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * GenericStoreServiceHistoryTest -- checks the older generations kept by the store.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class GenericStoreServiceHistoryTest extends AbstractTestBase {
+    private static final String NAMESPACE = "history";
+    private static final String STEP = "step";
+
+
+    public GenericStoreServiceHistoryTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldReturnOlderGenerationsWhenKept() {
+        this.startTest("older-generations");
+
+        final MemoryUserStore sut = new MemoryUserStore(5);
+        final User initial = sut.save(createUser("a"));
+        final User second = sut.save(step(initial, "1"));
+        final User third = sut.save(step(second, "2"));
+
+        assertEquals(initial, sut.findByUidAndGeneration(initial.getUid(), 0).orElseThrow());
+        assertEquals(second, sut.findByUidAndGeneration(initial.getUid(), 1).orElseThrow());
+        assertEquals(third, sut.findByUidAndGeneration(initial.getUid(), 2).orElseThrow());
+        assertFalse(sut.findByUidAndGeneration(initial.getUid(), 3).isPresent());
+    }
+
+    @Test
+    void shouldDropOldestGenerationWhenDepthIsExceeded() {
+        this.startTest("bounded-history");
+
+        final MemoryUserStore sut = new MemoryUserStore(2);
+        User current = sut.save(createUser("a"));
+        for (int i = 1; i <= 5; i++) {
+            current = sut.save(step(current, String.valueOf(i)));
+        }
+
+        assertFalse(sut.findByUidAndGeneration(current.getUid(), 2).isPresent());
+        assertEquals("3", step(sut.findByUidAndGeneration(current.getUid(), 3).orElseThrow()));
+        assertEquals("4", step(sut.findByUidAndGeneration(current.getUid(), 4).orElseThrow()));
+        assertEquals(current, sut.findByUidAndGeneration(current.getUid(), 5).orElseThrow());
+    }
+
+    @Test
+    void shouldListGenerationsNewestFirstWhenPaging() {
+        this.startTest("paged-history");
+
+        final MemoryUserStore sut = new MemoryUserStore(10);
+        User current = sut.save(createUser("a"));
+        for (int i = 1; i <= 6; i++) {
+            current = sut.save(step(current, String.valueOf(i)));
+        }
+
+        final PagedResult<User> result = sut.findHistoryByUid(current.getUid(), PagingImpl.builder().start(2).size(3).build());
+
+        assertEquals(7, result.getPaging().getTotal());
+        assertEquals(3, result.getPaging().getCount());
+        assertEquals(List.of(4L, 3L, 2L), result.getData().stream().map(u -> (long) u.getGeneration()).toList());
+        assertEquals(List.of("4", "3", "2"), result.getData().stream().map(GenericStoreServiceHistoryTest::step).toList());
+    }
+
+    @Test
+    void shouldForgetGenerationsWhenRemoved() {
+        this.startTest("removed-history");
+
+        final MemoryUserStore sut = new MemoryUserStore(5);
+        final User initial = sut.save(createUser("a"));
+        sut.save(step(initial, "1"));
+
+        sut.remove(initial.getUid());
+        final User recreated = sut.save(createUser("a", initial.getUid()));
+
+        assertFalse(sut.findByUidAndGeneration(initial.getUid(), 1).isPresent());
+        assertEquals(recreated, sut.findByUidAndGeneration(initial.getUid(), 0).orElseThrow());
+        assertEquals(1, sut.findHistoryByUid(initial.getUid(), PagingImpl.builder().start(0).size(10).build()).getPaging().getTotal());
+    }
+
+    @Test
+    void shouldKeepOnlyTheCurrentGenerationWhenNoHistoryIsKept() {
+        this.startTest("no-history");
+
+        final MemoryUserStore sut = new MemoryUserStore();
+        final User initial = sut.save(createUser("a"));
+        final User changed = sut.save(initial);
+
+        assertFalse(sut.findByUidAndGeneration(initial.getUid(), 0).isPresent());
+        assertEquals(changed, sut.findByUidAndGeneration(initial.getUid(), 1).orElseThrow());
+
+        final PagedResult<User> history = sut.findHistoryByUid(initial.getUid(), PagingImpl.builder().start(0).size(10).build());
+        assertEquals(1, history.getPaging().getTotal());
+        assertEquals(List.of(changed), history.getData());
+    }
+
+    @Test
+    void shouldKeepOnlyChangedFieldsWhenDiffing() {
+        this.startTest("structural-delta");
+
+        final ObjectMapper mapper = JacksonResourceCodec.defaultMapper();
+        final User initial = createUser("a");
+        final User changed = step(initial, "1");
+
+        final GenerationHistory.Change change = GenerationHistory.diff(mapper.valueToTree(changed), mapper.valueToTree(initial));
+
+        final GenerationHistory.Fields fields = assertInstanceOf(GenerationHistory.Fields.class, change);
+        assertEquals(List.of("spec"), List.copyOf(fields.fields().keySet()));
+        assertEquals(
+                mapper.valueToTree(initial),
+                GenerationHistory.apply(mapper.valueToTree(changed), change)
+        );
+    }
+
+
+    private static User createUser(final String name) {
+        return createUser(name, UUID.randomUUID());
+    }
+
+    private static User createUser(final String name, final UUID uid) {
+        return UserImpl.builder()
+                .metadata(MetadataImpl.of(User.KIND, User.API_VERSION, NAMESPACE, name).uid(uid).build())
+                .spec(UserDataImpl.builder().name(name).build())
+                .build();
+    }
+
+    private static User step(final User user, final String step) {
+        final HashMap<String, String> properties = new HashMap<>(user.getSpec().getProperties());
+        properties.put(STEP, step);
+
+        return UserImpl.builder()
+                .metadata(user.getMetadata())
+                .spec(((UserDataImpl) user.getSpec()).toBuilder().properties(properties).build())
+                .build();
+    }
+
+    private static String step(final User user) {
+        return user.getSpec().getProperty(STEP).orElse(null);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import de.kaiserpfalzedv.commons.api.resources.Pointer;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+import de.kaiserpfalzedv.commons.core.resources.PointerImpl;
+import de.kaiserpfalzedv.commons.core.user.UserDataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * GenericStoreServiceOwnerTest -- checks the owner index and the cascading removal.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class GenericStoreServiceOwnerTest extends AbstractTestBase {
+    private static final String NAMESPACE = "owner";
+
+    private final AtomicInteger batches = new AtomicInteger();
+    private final GenericStoreService<User> sut = new GenericStoreService<>() {
+        @Override
+        protected void afterRemoveAll(final List<User> removed) {
+            GenericStoreServiceOwnerTest.this.batches.incrementAndGet();
+        }
+    };
+
+
+    public GenericStoreServiceOwnerTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldReturnDirectChildrenWhenQueryingByOwner() {
+        this.startTest("find-by-owner");
+
+        final User root = this.sut.save(createUser("root", null));
+        this.sut.save(createUser("a", root));
+        final User b = this.sut.save(createUser("b", root));
+        this.sut.save(createUser("b-1", b));
+        this.sut.save(createUser("other", null));
+
+        assertEquals(Set.of("a", "b"), names(this.sut.findByOwner(root)));
+        assertEquals(Set.of("b-1"), names(this.sut.findByOwner(pointer("b"))));
+        assertEquals(Set.of(), names(this.sut.findByOwner(pointer("missing"))));
+    }
+
+    @Test
+    void shouldMoveChildWhenOwnerChanges() {
+        this.startTest("owner-changed");
+
+        final User first = this.sut.save(createUser("first", null));
+        final User second = this.sut.save(createUser("second", null));
+        final User child = this.sut.save(createUser("child", first));
+
+        this.sut.save(UserImpl.builder()
+                .metadata(((MetadataImpl) child.getMetadata()).toBuilder().owner(pointer("second")).build())
+                .spec(child.getSpec())
+                .build());
+
+        assertEquals(Set.of(), names(this.sut.findByOwner(first)));
+        assertEquals(Set.of("child"), names(this.sut.findByOwner(second)));
+    }
+
+    @Test
+    void shouldRemoveWholeSubtreeInOneBatchWhenRemovingCascading() {
+        this.startTest("remove-cascading");
+
+        final User root = this.sut.save(createUser("root", null));
+        final User a = this.sut.save(createUser("a", root));
+        final User b = this.sut.save(createUser("b", root));
+        this.sut.save(createUser("a-1", a));
+        this.sut.save(createUser("a-2", a));
+        this.sut.save(createUser("b-1", b));
+        final User other = this.sut.save(createUser("other", null));
+        this.sut.save(createUser("other-1", other));
+
+        final List<User> removed = this.sut.removeCascading(root.getUid());
+
+        assertEquals(Set.of("root", "a", "b", "a-1", "a-2", "b-1"), names(removed));
+        assertEquals(1, this.batches.get());
+        assertEquals(2, this.sut.countByNameSpace(NAMESPACE));
+        assertTrue(this.sut.findByNameSpaceAndName(NAMESPACE, "other-1").isPresent());
+        assertFalse(this.sut.findByNameSpaceAndName(NAMESPACE, "a-2").isPresent());
+        assertEquals(Set.of(), names(this.sut.findByOwner(a)));
+    }
+
+    @Test
+    void shouldStopWhenOwnershipIsCyclic() {
+        this.startTest("cyclic-owners");
+
+        this.sut.save(createUser("x", pointer("y")));
+        final User y = this.sut.save(createUser("y", pointer("x")));
+
+        assertEquals(Set.of("x", "y"), names(this.sut.removeCascading(y.getUid())));
+        assertEquals(0, this.sut.countByNameSpace(NAMESPACE));
+    }
+
+    @Test
+    void shouldRemoveNothingWhenUidIsUnknown() {
+        this.startTest("remove-cascading-unknown");
+
+        assertEquals(List.of(), this.sut.removeCascading(UUID.randomUUID()));
+        assertEquals(0, this.batches.get());
+    }
+
+
+    private static User createUser(final String name, final Pointer owner) {
+        return UserImpl.builder()
+                .metadata(
+                        MetadataImpl.of(User.KIND, User.API_VERSION, NAMESPACE, name)
+                                .uid(UUID.randomUUID())
+                                .owner(owner != null ? pointer(owner.getName()) : null)
+                                .build()
+                )
+                .spec(UserDataImpl.builder().name(name).build())
+                .build();
+    }
+
+    private static PointerImpl pointer(final String name) {
+        return PointerImpl.builder().kind(User.KIND).apiVersion(User.API_VERSION).nameSpace(NAMESPACE).name(name).build();
+    }
+
+    private static Set<String> names(final List<User> users) {
+        return users.stream().map(User::getName).collect(Collectors.toSet());
+    }
+}
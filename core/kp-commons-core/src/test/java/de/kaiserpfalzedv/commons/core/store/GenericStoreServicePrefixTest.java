@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import de.kaiserpfalzedv.commons.api.store.StoreService;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+import de.kaiserpfalzedv.commons.core.user.OffHeapUserStore;
+import de.kaiserpfalzedv.commons.core.user.UserDataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * GenericStoreServicePrefixTest -- checks the search by name prefix.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class GenericStoreServicePrefixTest extends AbstractTestBase {
+    private static final String NAMESPACE = "prefix";
+    private static final List<String> NAMES = List.of("al", "alice", "alina", "alpha", "bert", "bob", "carla");
+
+
+    public GenericStoreServicePrefixTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldReturnMatchingNamesInOrderWhenSearchingByPrefix() {
+        this.startTest("prefix-match");
+
+        final GenericStoreService<User> sut = fill(new GenericStoreService<>() {});
+
+        assertEquals(List.of("al", "alice", "alina", "alpha"), names(sut.findByNameSpaceAndNamePrefix(NAMESPACE, "al", 10)));
+        assertEquals(List.of("alice", "alina"), names(sut.findByNameSpaceAndNamePrefix(NAMESPACE, "ali", 10)));
+        assertEquals(List.of("bob"), names(sut.findByNameSpaceAndNamePrefix(NAMESPACE, "bob", 10)));
+        assertEquals(List.of(), names(sut.findByNameSpaceAndNamePrefix(NAMESPACE, "d", 10)));
+    }
+
+    @Test
+    void shouldStopAtLimitWhenMoreNamesMatch() {
+        this.startTest("prefix-limit");
+
+        final GenericStoreService<User> sut = fill(new GenericStoreService<>() {});
+
+        assertEquals(List.of("al", "alice"), names(sut.findByNameSpaceAndNamePrefix(NAMESPACE, "al", 2)));
+        assertEquals(NAMES.subList(0, 5), names(sut.findByNameSpaceAndNamePrefix(NAMESPACE, "", 5)));
+        assertEquals(List.of(), names(sut.findByNameSpaceAndNamePrefix(NAMESPACE, "al", 0)));
+    }
+
+    @Test
+    void shouldSkipRemovedNamesWhenSearchingByPrefix() {
+        this.startTest("prefix-removed");
+
+        final GenericStoreService<User> sut = fill(new GenericStoreService<>() {});
+        sut.remove(NAMESPACE, "al");
+        sut.remove(NAMESPACE, "alina");
+
+        assertEquals(List.of("alice", "alpha"), names(sut.findByNameSpaceAndNamePrefix(NAMESPACE, "al", 2)));
+    }
+
+    @Test
+    void shouldReturnEmptyListWhenNameSpaceIsUnknown() {
+        this.startTest("prefix-unknown-namespace");
+
+        final GenericStoreService<User> sut = fill(new GenericStoreService<>() {});
+
+        assertEquals(List.of(), sut.findByNameSpaceAndNamePrefix("unknown", "al", 10));
+    }
+
+    @Test
+    void shouldReturnMatchingNamesWhenStoredOffHeap() {
+        this.startTest("prefix-off-heap");
+
+        final OffHeapUserStore sut = fill(new OffHeapUserStore());
+        sut.remove(NAMESPACE, "alice");
+
+        assertEquals(List.of("al", "alina", "alpha"), names(sut.findByNameSpaceAndNamePrefix(NAMESPACE, "al", 10)));
+        assertEquals(List.of("bert"), names(sut.findByNameSpaceAndNamePrefix(NAMESPACE, "b", 1)));
+    }
+
+
+    private static <S extends StoreService<User>> S fill(final S store) {
+        NAMES.forEach(name -> store.save(UserImpl.builder()
+                .metadata(MetadataImpl.of(User.KIND, User.API_VERSION, NAMESPACE, name).uid(UUID.randomUUID()).build())
+                .spec(UserDataImpl.builder().name(name).build())
+                .build()));
+
+        return store;
+    }
+
+    private static List<String> names(final List<User> users) {
+        return users.stream().map(User::getName).collect(Collectors.toList());
+    }
+}
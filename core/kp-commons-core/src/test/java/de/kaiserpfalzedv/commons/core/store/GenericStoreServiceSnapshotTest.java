@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import de.kaiserpfalzedv.commons.api.store.StoreSnapshot;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * GenericStoreServiceSnapshotTest -- checks the consistent multi-key reads of the memory store.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class GenericStoreServiceSnapshotTest extends AbstractTestBase {
+    private static final String NAMESPACE = "snapshot";
+
+    private final MemoryUserStore sut = new MemoryUserStore();
+
+
+    public GenericStoreServiceSnapshotTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldReturnPinnedVersionWhenResourcesChangeAfterSnapshot() {
+        this.startTest("pinned-version");
+
+        final User changed = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "changed"));
+        final User removed = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "removed"));
+
+        try (StoreSnapshot<User> snapshot = this.sut.snapshot()) {
+            this.sut.save(changed);
+            this.sut.remove(removed.getUid());
+            final User added = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "added"));
+
+            assertEquals(changed, snapshot.findByUid(changed.getUid()).orElseThrow());
+            assertEquals(changed, snapshot.findByNameSpaceAndName(NAMESPACE, "changed").orElseThrow());
+            assertEquals(removed, snapshot.findByNameSpaceAndName(NAMESPACE, "removed").orElseThrow());
+            assertFalse(snapshot.findByUid(added.getUid()).isPresent());
+            assertFalse(snapshot.findByNameSpaceAndName(NAMESPACE, "added").isPresent());
+
+            assertEquals(1, this.sut.findByUid(changed.getUid()).orElseThrow().getGeneration());
+        }
+    }
+
+    @Test
+    void shouldSeeEachSnapshotAtItsOwnVersionWhenSeveralAreOpen() {
+        this.startTest("several-snapshots");
+
+        final User v0 = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        final StoreSnapshot<User> first = this.sut.snapshot();
+        final User v1 = this.sut.save(v0);
+        final StoreSnapshot<User> second = this.sut.snapshot();
+        this.sut.save(v1);
+
+        first.close();
+        assertEquals(v1, second.findByUid(v0.getUid()).orElseThrow());
+        second.close();
+
+        assertThrows(IllegalStateException.class, () -> second.findByUid(v0.getUid()));
+    }
+
+    @Test
+    void shouldNeverSeeHalfOfABatchWhenWritersRunConcurrently() throws Exception {
+        this.startTest("consistent-batches");
+
+        List<User> current = this.sut.saveAll(List.of(
+                GenericStoreServiceTest.createUser(NAMESPACE, "left"),
+                GenericStoreServiceTest.createUser(NAMESPACE, "right")
+        ));
+        final AtomicBoolean running = new AtomicBoolean(true);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final List<User> initial = current;
+            final Future<Integer> writer = executor.submit(() -> {
+                List<User> pair = initial;
+                int writes = 0;
+                while (running.get()) {
+                    pair = this.sut.saveAll(pair);
+                    writes++;
+                }
+                return writes;
+            });
+
+            final Future<Integer> reader = executor.submit(() -> {
+                int reads = 0;
+                for (int i = 0; i < 2_000; i++) {
+                    try (StoreSnapshot<User> snapshot = this.sut.snapshot()) {
+                        final User left = snapshot.findByNameSpaceAndName(NAMESPACE, "left").orElseThrow();
+                        final User right = snapshot.findByUid(initial.get(1).getUid()).orElseThrow();
+
+                        assertEquals(left.getGeneration(), right.getGeneration(), "Snapshot saw half of a batch");
+                        reads++;
+                    }
+                }
+                return reads;
+            });
+
+            assertEquals(2_000, reader.get());
+            running.set(false);
+            assertTrue(writer.get() > 0);
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.resources.HasName;
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+import de.kaiserpfalzedv.commons.core.user.UserDataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * GenericStoreServiceTest -- checks the queries and batch operations of the memory store.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class GenericStoreServiceTest extends AbstractTestBase {
+    private static final String NAMESPACE = "queries";
+
+    private final MemoryUserStore sut = new MemoryUserStore();
+
+
+    public GenericStoreServiceTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldReturnSortedPageWhenNameSpaceIsListed() {
+        this.startTest("list-namespace-page");
+
+        for (int i = 99; i >= 0; i--) {
+            this.sut.save(createUser(NAMESPACE, String.format("user-%03d", i)));
+        }
+        this.sut.save(createUser("other", "user-000"));
+
+        final PagedResult<User> result = this.sut.findAllByNameSpace(
+                NAMESPACE, PagingImpl.builder().start(95).size(10).build()
+        );
+
+        assertEquals(
+                List.of("user-095", "user-096", "user-097", "user-098", "user-099"),
+                result.getData().stream().map(HasName::getName).toList()
+        );
+        assertEquals(95, result.getPaging().getStart());
+        assertEquals(10, result.getPaging().getSize());
+        assertEquals(5, result.getPaging().getCount());
+        assertEquals(100, result.getPaging().getTotal());
+        assertEquals(100, this.sut.countByNameSpace(NAMESPACE));
+    }
+
+    @Test
+    void shouldReturnEmptyPageWhenNameSpaceIsUnknown() {
+        this.startTest("list-unknown-namespace");
+
+        final PagedResult<User> result = this.sut.findAllByNameSpace("unknown", PagingImpl.builder().build());
+
+        assertTrue(result.getData().isEmpty());
+        assertEquals(0, result.getPaging().getTotal());
+        assertEquals(0, this.sut.countByNameSpace("unknown"));
+    }
+
+    @Test
+    void shouldNotListResourceAnymoreWhenRemoved() {
+        this.startTest("list-after-remove");
+
+        final User removed = createUser(NAMESPACE, "a");
+        this.sut.save(removed);
+        this.sut.save(createUser(NAMESPACE, "b"));
+        this.sut.remove(removed.getUid());
+
+        final PagedResult<User> result = this.sut.findAllByNameSpace(NAMESPACE, PagingImpl.builder().build());
+
+        assertEquals(List.of("b"), result.getData().stream().map(HasName::getName).toList());
+        assertEquals(1, result.getPaging().getTotal());
+    }
+
+    @Test
+    void shouldSelectResourcesByLabelsWhenSelectorCombinesRequirements() {
+        this.startTest("select-by-labels");
+
+        this.sut.save(createUser(NAMESPACE, "a", Map.of("tier", "backend", "env", "prod")));
+        this.sut.save(createUser(NAMESPACE, "b", Map.of("tier", "backend", "env", "test", "legacy", "true")));
+        this.sut.save(createUser(NAMESPACE, "c", Map.of("tier", "frontend", "env", "prod")));
+        this.sut.save(createUser("other", "d", Map.of("tier", "backend", "env", "prod")));
+
+        assertEquals(Set.of("a", "b", "d"), names(this.sut.findBySelector(LabelSelectorImpl.parse("tier=backend"))));
+        assertEquals(Set.of("a", "c"), names(this.sut.findByNameSpaceAndSelector(NAMESPACE, LabelSelectorImpl.parse("env in (prod)"))));
+        assertEquals(Set.of("a"), names(this.sut.findByNameSpaceAndSelector(NAMESPACE, LabelSelectorImpl.parse("tier==backend,!legacy"))));
+        assertEquals(Set.of("b"), names(this.sut.findBySelector(LabelSelectorImpl.parse("legacy"))));
+        assertEquals(Set.of("b"), names(this.sut.findByNameSpaceAndSelector(NAMESPACE, LabelSelectorImpl.parse("env notin (prod),tier in (backend)"))));
+        assertEquals(Set.of("c"), names(this.sut.findBySelector(LabelSelectorImpl.parse("tier!=backend,env=prod"))));
+        assertTrue(this.sut.findBySelector(LabelSelectorImpl.parse("tier=unknown")).isEmpty());
+        assertEquals(4, this.sut.findBySelector(LabelSelectorImpl.parse("")).size());
+    }
+
+    @Test
+    void shouldUpdateLabelIndexWhenResourceIsChangedOrRemoved() {
+        this.startTest("label-index-maintenance");
+
+        final User original = this.sut.save(createUser(NAMESPACE, "a", Map.of("state", "new")));
+        final User changed = this.sut.save(((UserImpl) original).toBuilder()
+                .metadata(((MetadataImpl) original.getMetadata()).toBuilder().labels(Map.of("state", "done")).build())
+                .build());
+
+        assertTrue(this.sut.findBySelector(LabelSelectorImpl.parse("state=new")).isEmpty());
+        assertEquals(Set.of("a"), names(this.sut.findBySelector(LabelSelectorImpl.parse("state=done"))));
+
+        this.sut.remove(changed.getUid());
+
+        assertTrue(this.sut.findBySelector(LabelSelectorImpl.parse("state")).isEmpty());
+    }
+
+    @Test
+    void shouldSaveAllResourcesWhenBatchIsValid() {
+        this.startTest("save-batch");
+
+        final User existing = this.sut.save(createUser(NAMESPACE, "a"));
+
+        final List<User> result = this.sut.saveAll(List.of(existing, createUser(NAMESPACE, "b"), createUser("other", "c")));
+
+        assertEquals(List.of(1, 0, 0), result.stream().map(User::getGeneration).toList());
+        assertEquals(result.get(0), this.sut.findByUid(existing.getUid()).orElseThrow());
+        assertEquals(2, this.sut.countByNameSpace(NAMESPACE));
+        assertEquals(result.get(2), this.sut.findByNameSpaceAndName("other", "c").orElseThrow());
+    }
+
+    @Test
+    void shouldSaveNothingWhenOneResourceOfBatchIsOutdated() {
+        this.startTest("save-batch-all-or-nothing");
+
+        final User outdated = this.sut.save(createUser(NAMESPACE, "a"));
+        final User current = this.sut.save(outdated);
+        final User added = createUser(NAMESPACE, "b");
+
+        assertThrows(OptimisticLockStoreException.class, () -> this.sut.saveAll(List.of(added, outdated)));
+
+        assertFalse(this.sut.findByUid(added.getUid()).isPresent());
+        assertEquals(current, this.sut.findByNameSpaceAndName(NAMESPACE, "a").orElseThrow());
+    }
+
+    @Test
+    void shouldCheckLaterEntryAgainstEarlierOneWhenBatchContainsResourceTwice() {
+        this.startTest("save-batch-duplicate");
+
+        final User user = createUser(NAMESPACE, "a");
+
+        assertThrows(OptimisticLockStoreException.class, () -> this.sut.saveAll(List.of(user, user, user)));
+        assertFalse(this.sut.findByUid(user.getUid()).isPresent());
+
+        final List<User> result = this.sut.saveAll(List.of(user, user));
+        assertEquals(List.of(0, 1), result.stream().map(User::getGeneration).toList());
+        assertEquals(1, this.sut.findByUid(user.getUid()).orElseThrow().getGeneration());
+    }
+
+    @Test
+    void shouldRemoveAllResourcesWhenBatchIsRemoved() {
+        this.startTest("remove-batch");
+
+        final List<User> saved = this.sut.saveAll(List.of(
+                createUser(NAMESPACE, "a", Map.of("tier", "backend")),
+                createUser(NAMESPACE, "b", Map.of("tier", "backend")),
+                createUser(NAMESPACE, "c")
+        ));
+
+        this.sut.removeAll(List.of(saved.get(0).getUid(), saved.get(1).getUid(), UUID.randomUUID()));
+
+        assertEquals(Set.of("c"), names(this.sut.findAllByNameSpace(NAMESPACE, PagingImpl.builder().build()).getData()));
+        assertTrue(this.sut.findBySelector(LabelSelectorImpl.parse("tier=backend")).isEmpty());
+        assertFalse(this.sut.findByUid(saved.get(0).getUid()).isPresent());
+    }
+
+
+    private static Set<String> names(final List<User> users) {
+        return users.stream().map(HasName::getName).collect(Collectors.toSet());
+    }
+
+    static User createUser(final String nameSpace, final String name) {
+        return createUser(nameSpace, name, Map.of());
+    }
+
+    static User createUser(final String nameSpace, final String name, final Map<String, String> labels) {
+        return UserImpl.builder()
+                .metadata(
+                        MetadataImpl.of(User.KIND, User.API_VERSION, nameSpace, name)
+                                .uid(UUID.randomUUID())
+                                .labels(labels)
+                                .build()
+                )
+                .spec(UserDataImpl.builder().name(name).build())
+                .build();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import de.kaiserpfalzedv.commons.api.events.EventBus;
+import de.kaiserpfalzedv.commons.api.store.StoreEvent;
+import de.kaiserpfalzedv.commons.api.store.StoreEventType;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * GenericStoreServiceWatchTest -- checks the change events of the memory store and the event bus bridge.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class GenericStoreServiceWatchTest extends AbstractTestBase {
+    private static final String NAMESPACE = "watch";
+
+    private final MemoryUserStore sut = new MemoryUserStore();
+
+
+    public GenericStoreServiceWatchTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldEmitAddedModifiedAndDeletedWhenResourceChanges() throws InterruptedException {
+        this.startTest("watch-lifecycle");
+
+        final Collector collector = new Collector();
+        this.sut.watch(NAMESPACE).subscribe(collector);
+
+        final User added = this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        this.sut.save(GenericStoreServiceTest.createUser("other", "b"));
+        final User modified = this.sut.save(added);
+        this.sut.remove(modified.getUid());
+
+        final StoreEvent<User> first = collector.next();
+        final StoreEvent<User> second = collector.next();
+        final StoreEvent<User> third = collector.next();
+
+        assertEquals(StoreEventType.ADDED, first.getType());
+        assertEquals(0, first.getGeneration());
+        assertEquals(StoreEventType.MODIFIED, second.getType());
+        assertEquals(1, second.getGeneration());
+        assertEquals(StoreEventType.DELETED, third.getType());
+        assertEquals(modified, third.getResource());
+        assertEquals(List.of(1L, 3L, 4L), List.of(first.getRevision(), second.getRevision(), third.getRevision()));
+        assertNull(collector.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void shouldEmitEventPerResourceWhenBatchIsSaved() throws InterruptedException {
+        this.startTest("watch-batch");
+
+        final Collector collector = new Collector();
+        this.sut.watch().subscribe(collector);
+
+        this.sut.saveAll(List.of(
+                GenericStoreServiceTest.createUser(NAMESPACE, "a"),
+                GenericStoreServiceTest.createUser(NAMESPACE, "b")
+        ));
+
+        assertEquals("a", collector.next().getResource().getName());
+        assertEquals("b", collector.next().getResource().getName());
+    }
+
+    @Test
+    void shouldDeliverOnGivenExecutorWhenStoreIsCreatedWithOne() {
+        this.startTest("watch-executor");
+
+        final GenericStoreService<User> store = new GenericStoreService<>(4, null, 0, Runnable::run) {};
+        final Collector collector = new Collector();
+        store.watch().subscribe(collector);
+
+        store.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+
+        // delivered on the calling thread before save returns.
+        assertEquals("a", collector.events.remove().getResource().getName());
+    }
+
+    @Test
+    void shouldPostEventsToBusWhenBridgeIsConnected() throws InterruptedException {
+        this.startTest("event-bus-bridge");
+
+        final BlockingQueue<Object> posted = new LinkedBlockingQueue<>();
+        final EventBus bus = new EventBus() {
+            @Override
+            public void register(final Object listener) {}
+
+            @Override
+            public void unregister(final Object listener) {}
+
+            @Override
+            public void post(final Object event) {
+                posted.add(event);
+            }
+        };
+
+        try (StoreEventBusBridge<User> bridge = new StoreEventBusBridge<>(this.sut, NAMESPACE, bus)) {
+            this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+
+            final Object event = posted.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event);
+            assertEquals(StoreEventType.ADDED, ((StoreEvent<?>) event).getType());
+        }
+
+        this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "b"));
+        assertNull(posted.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+
+    private static class Collector implements Flow.Subscriber<StoreEvent<User>> {
+        private final BlockingQueue<StoreEvent<User>> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(final StoreEvent<User> item) {
+            this.events.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            log.error("Watch failed.", throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            // not used by the store.
+        }
+
+        StoreEvent<User> next() throws InterruptedException {
+            final StoreEvent<User> result = this.events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(result, "Expected a store event");
+            return result;
+        }
+    }
+}
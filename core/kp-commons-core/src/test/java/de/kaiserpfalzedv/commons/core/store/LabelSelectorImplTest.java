@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * LabelSelectorImplTest -- checks parsing and matching of label selectors.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+class LabelSelectorImplTest {
+    @Test
+    void shouldParseAllOperatorsWhenGivenKubernetesSyntax() {
+        final LabelSelectorImpl result = LabelSelectorImpl.parse("a=1, b==2,c!=3,d in (4, 5),e notin (6),f,!g");
+
+        assertEquals(
+                List.of(
+                        LabelSelectorRequirementImpl.equal("a", "1"),
+                        LabelSelectorRequirementImpl.equal("b", "2"),
+                        LabelSelectorRequirementImpl.notEqual("c", "3"),
+                        LabelSelectorRequirementImpl.in("d", "4", "5"),
+                        LabelSelectorRequirementImpl.notIn("e", "6"),
+                        LabelSelectorRequirementImpl.exists("f"),
+                        LabelSelectorRequirementImpl.doesNotExist("g")
+                ),
+                result.getRequirements()
+        );
+    }
+
+    @Test
+    void shouldMatchWhenLabelsFulfillAllRequirements() {
+        final LabelSelectorImpl sut = LabelSelectorImpl.parse("tier in (backend,db),env!=prod,!legacy");
+
+        assertTrue(sut.matches(Map.of("tier", "db")));
+        assertTrue(sut.matches(Map.of("tier", "backend", "env", "test")));
+        assertFalse(sut.matches(Map.of("tier", "backend", "env", "prod")));
+        assertFalse(sut.matches(Map.of("tier", "db", "legacy", "yes")));
+        assertFalse(sut.matches(Map.of()));
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentExceptionWhenKeyIsMissing() {
+        assertThrows(IllegalArgumentException.class, () -> LabelSelectorImpl.parse("=value"));
+        assertThrows(IllegalArgumentException.class, () -> LabelSelectorImpl.parse("!"));
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.store.PersistenceStoreException;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * LogStoreServiceTest -- checks the durable log store and its recovery.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class LogStoreServiceTest extends AbstractTestBase {
+    private static final String NAMESPACE = "log";
+
+    @TempDir
+    Path directory;
+
+
+    public LogStoreServiceTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldRecoverResourcesWhenStoreIsReopened() {
+        this.startTest("recover-log");
+
+        final User initial;
+        final User saved;
+        final User removed;
+        try (LogStoreService<User> sut = this.open(0)) {
+            initial = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a", Map.of("tier", "backend")));
+            saved = sut.save(initial);
+            removed = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "b"));
+            sut.remove(removed.getUid());
+        }
+
+        try (LogStoreService<User> sut = this.open(0)) {
+            assertEquals(saved, sut.findByUid(saved.getUid()).orElseThrow());
+            assertEquals(1, sut.findByNameSpaceAndName(NAMESPACE, "a").orElseThrow().getGeneration());
+            assertFalse(sut.findByUid(removed.getUid()).isPresent());
+            assertEquals(1, sut.findBySelector(LabelSelectorImpl.parse("tier=backend")).size());
+
+            assertThrows(OptimisticLockStoreException.class, () -> sut.save(initial));
+        }
+    }
+
+    @Test
+    void shouldRecoverFromSnapshotAndLogTailWhenSnapshotHasBeenWritten() throws IOException {
+        this.startTest("recover-snapshot");
+
+        final User first;
+        final User second;
+        try (LogStoreService<User> sut = this.open(0)) {
+            first = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+            sut.checkpoint();
+            second = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "b"));
+            sut.remove(first.getUid());
+        }
+
+        assertEquals(1, WriteAheadLog.listSequences(this.directory, LogStoreService.SNAPSHOT_PREFIX, LogStoreService.SNAPSHOT_SUFFIX).size());
+        assertEquals(1, WriteAheadLog.listSegments(this.directory).size());
+
+        try (LogStoreService<User> sut = this.open(0)) {
+            assertFalse(sut.findByUid(first.getUid()).isPresent());
+            assertEquals(second, sut.findByUid(second.getUid()).orElseThrow());
+            assertEquals(1, sut.countByNameSpace(NAMESPACE));
+        }
+    }
+
+    @Test
+    void shouldRecoverBatchesWhenStoreIsReopened() {
+        this.startTest("recover-batch");
+
+        final List<User> saved;
+        try (LogStoreService<User> sut = this.open(0)) {
+            saved = sut.saveAll(List.of(
+                    GenericStoreServiceTest.createUser(NAMESPACE, "a"),
+                    GenericStoreServiceTest.createUser(NAMESPACE, "b"),
+                    GenericStoreServiceTest.createUser(NAMESPACE, "c")
+            ));
+            sut.removeAll(List.of(saved.get(1).getUid()));
+        }
+
+        try (LogStoreService<User> sut = this.open(0)) {
+            assertEquals(saved.get(0), sut.findByUid(saved.get(0).getUid()).orElseThrow());
+            assertFalse(sut.findByUid(saved.get(1).getUid()).isPresent());
+            assertEquals(2, sut.countByNameSpace(NAMESPACE));
+        }
+    }
+
+    @Test
+    void shouldDropTornRecordWhenLogEndsWithPartialWrite() throws IOException {
+        this.startTest("torn-tail");
+
+        final User saved;
+        try (LogStoreService<User> sut = this.open(0)) {
+            saved = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+            sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "b"));
+        }
+
+        final Path segment = WriteAheadLog.segmentPath(this.directory, WriteAheadLog.listSegments(this.directory).get(0));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (LogStoreService<User> sut = this.open(0)) {
+            assertEquals(saved, sut.findByUid(saved.getUid()).orElseThrow());
+            assertFalse(sut.findByNameSpaceAndName(NAMESPACE, "b").isPresent());
+
+            sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "c"));
+        }
+
+        try (LogStoreService<User> sut = this.open(0)) {
+            assertEquals(2, sut.countByNameSpace(NAMESPACE));
+        }
+    }
+
+    @Test
+    void shouldPersistAllWritesWhenWritersRunConcurrently() throws Exception {
+        this.startTest("group-commit");
+
+        final int threads = 8;
+        final int writes = 50;
+
+        try (LogStoreService<User> sut = this.open(100)) {
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<?>> results = new ArrayList<>();
+
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < writes; i++) {
+                        sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "user-" + thread + "-" + i));
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (final Future<?> result : results) {
+                result.get();
+            }
+            executor.shutdown();
+        }
+
+        try (LogStoreService<User> sut = this.open(0)) {
+            assertEquals(threads * writes, sut.countByNameSpace(NAMESPACE));
+        }
+        assertFalse(Files.list(this.directory).anyMatch(f -> f.toString().endsWith(".tmp")));
+    }
+
+    @Test
+    void shouldRejectChangesWhenJournalCannotBeWritten() throws ReflectiveOperationException, IOException {
+        this.startTest("failed-journal");
+
+        final User durable;
+        final User lost = GenericStoreServiceTest.createUser(NAMESPACE, "lost");
+        try (LogStoreService<User> sut = this.open(0)) {
+            durable = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "durable"));
+
+            channelOf(sut).close();
+
+            assertThrows(PersistenceStoreException.class, () -> sut.save(lost));
+            assertFalse(sut.findByUid(lost.getUid()).isPresent());
+            assertThrows(PersistenceStoreException.class, () -> sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "c")));
+            assertFalse(sut.findByNameSpaceAndName(NAMESPACE, "c").isPresent());
+        }
+
+        try (LogStoreService<User> sut = this.open(0)) {
+            assertEquals(durable, sut.findByUid(durable.getUid()).orElseThrow());
+            assertFalse(sut.findByUid(lost.getUid()).isPresent());
+        }
+    }
+
+    @Test
+    void shouldCallSubclassHookWhenStoreIsOpened() {
+        this.startTest("recover-into-subclass");
+
+        final User saved;
+        try (LogStoreService<User> sut = this.open(0)) {
+            saved = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        }
+
+        try (RecordingStore sut = new RecordingStore(this.directory)) {
+            sut.open();
+
+            assertEquals(List.of(saved.getUid()), sut.loaded);
+        }
+    }
+
+
+    private static FileChannel channelOf(final LogStoreService<User> store) throws ReflectiveOperationException {
+        final Field journal = LogStoreService.class.getDeclaredField("journal");
+        journal.setAccessible(true);
+        final Field channel = WriteAheadLog.class.getDeclaredField("channel");
+        channel.setAccessible(true);
+
+        return (FileChannel) channel.get(journal.get(store));
+    }
+
+    private LogStoreService<User> open(final long snapshotInterval) {
+        return new LogStoreService<>(this.directory, new JacksonResourceCodec<User>(UserImpl.class), snapshotInterval).open();
+    }
+
+
+    /**
+     * A subclass with its own state filled by the load hook.
+     */
+    private static class RecordingStore extends LogStoreService<User> {
+        private final List<UUID> loaded = new ArrayList<>();
+
+        RecordingStore(final Path directory) {
+            super(directory, new JacksonResourceCodec<User>(UserImpl.class), 0);
+        }
+
+        @Override
+        protected void afterLoad(final User stored, final User loaded) {
+            this.loaded.add(loaded.getUid());
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.resources.HasName;
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
+import de.kaiserpfalzedv.commons.core.user.OffHeapUserStore;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * OffHeapStoreServiceTest -- checks the store keeping its resources outside the heap.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class OffHeapStoreServiceTest extends AbstractTestBase {
+    private static final String NAMESPACE = "off-heap";
+    private static final int SMALL_SLAB = 4096;
+
+
+    public OffHeapStoreServiceTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldReturnDecodedResourceWhenSaved() {
+        this.startTest("save-and-find");
+
+        final OffHeapUserStore sut = new OffHeapUserStore();
+        final User saved = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a", Map.of("tier", "backend")));
+
+        assertEquals(saved, sut.findByUid(saved.getUid()).orElseThrow());
+        assertEquals(saved, sut.findByNameSpaceAndName(NAMESPACE, "a").orElseThrow());
+        assertFalse(sut.findByNameSpaceAndName("other", "a").isPresent());
+        assertTrue(sut.getLiveBytes() > 0);
+    }
+
+    @Test
+    void shouldIncreaseGenerationAndRejectOutdatedResourceWhenUpdated() {
+        this.startTest("optimistic-locking");
+
+        final OffHeapUserStore sut = new OffHeapUserStore();
+        final User initial = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        final User updated = sut.save(initial);
+
+        assertEquals(1, updated.getGeneration());
+        assertEquals(1, sut.findByUid(initial.getUid()).orElseThrow().getGeneration());
+        assertThrows(OptimisticLockStoreException.class, () -> sut.save(initial));
+    }
+
+    @Test
+    void shouldReturnSortedPageWhenNameSpaceIsListed() {
+        this.startTest("list-namespace-page");
+
+        final OffHeapUserStore sut = new OffHeapUserStore();
+        for (int i = 29; i >= 0; i--) {
+            sut.save(GenericStoreServiceTest.createUser(NAMESPACE, String.format("user-%02d", i)));
+        }
+
+        final PagedResult<User> result = sut.findAllByNameSpace(NAMESPACE, PagingImpl.builder().start(25).size(10).build());
+
+        assertEquals(
+                List.of("user-25", "user-26", "user-27", "user-28", "user-29"),
+                result.getData().stream().map(HasName::getName).toList()
+        );
+        assertEquals(30, result.getPaging().getTotal());
+        assertEquals(30, sut.countByNameSpace(NAMESPACE));
+    }
+
+    @Test
+    void shouldSaveNothingWhenOneResourceOfBatchIsOutdated() {
+        this.startTest("batch-all-or-nothing");
+
+        final OffHeapUserStore sut = new OffHeapUserStore();
+        final User outdated = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        sut.save(outdated);
+
+        assertThrows(OptimisticLockStoreException.class, () -> sut.saveAll(List.of(
+                GenericStoreServiceTest.createUser(NAMESPACE, "b"),
+                outdated
+        )));
+
+        assertFalse(sut.findByNameSpaceAndName(NAMESPACE, "b").isPresent());
+        assertEquals(1, sut.countByNameSpace(NAMESPACE));
+    }
+
+    @Test
+    void shouldFreeMemoryWhenResourcesAreRemoved() {
+        this.startTest("remove");
+
+        final OffHeapUserStore sut = new OffHeapUserStore();
+        final User a = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        final User b = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "b"));
+        final User c = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "c"));
+
+        sut.remove(a.getUid());
+        sut.remove(NAMESPACE, "b");
+        sut.removeAll(List.of(c.getUid()));
+
+        assertFalse(sut.findByUid(a.getUid()).isPresent());
+        assertFalse(sut.findByUid(b.getUid()).isPresent());
+        assertFalse(sut.findByNameSpaceAndName(NAMESPACE, "c").isPresent());
+        assertEquals(0, sut.countByNameSpace(NAMESPACE));
+        assertEquals(0, sut.getLiveBytes());
+    }
+
+    @Test
+    void shouldRecycleSlabsWhenResourceIsUpdatedOften() {
+        this.startTest("recycle-slabs");
+
+        final OffHeapUserStore sut = new OffHeapUserStore(SMALL_SLAB, 0);
+        User user = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        for (int i = 0; i < 1_000; i++) {
+            user = sut.save(user);
+        }
+
+        assertEquals(1_000, sut.findByUid(user.getUid()).orElseThrow().getGeneration());
+        assertTrue(sut.getOffHeapBytes() <= 2 * SMALL_SLAB, "Slabs have not been recycled: " + sut.getOffHeapBytes());
+    }
+
+    @Test
+    void shouldStoreResourceWhenLargerThanSlab() {
+        this.startTest("oversized-record");
+
+        final OffHeapUserStore sut = new OffHeapUserStore(64, 0);
+        final User saved = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+        sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "b"));
+
+        assertEquals(saved, sut.findByUid(saved.getUid()).orElseThrow());
+
+        sut.remove(saved);
+        sut.remove(NAMESPACE, "b");
+        sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "c"));
+
+        assertTrue(sut.findByNameSpaceAndName(NAMESPACE, "c").isPresent());
+    }
+
+    @Test
+    void shouldServeSecondReadFromHotCacheWhenEnabled() {
+        this.startTest("hot-cache");
+
+        final OffHeapUserStore sut = new OffHeapUserStore(SMALL_SLAB, 10);
+        final User saved = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+
+        assertSame(saved, sut.findByUid(saved.getUid()).orElseThrow());
+
+        final User updated = sut.save(saved);
+        assertSame(updated, sut.findByNameSpaceAndName(NAMESPACE, "a").orElseThrow());
+    }
+
+    @Test
+    void shouldNeverReturnTornResourceWhenSlabsAreRecycledConcurrently() throws Exception {
+        this.startTest("concurrent-recycling");
+
+        final OffHeapUserStore sut = new OffHeapUserStore(SMALL_SLAB, 0);
+        final ArrayList<User> users = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            users.add(sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "user-" + i)));
+        }
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final Future<?> writer = executor.submit(() -> {
+                final ArrayList<User> current = new ArrayList<>(users);
+                for (int i = 0; i < 20_000; i++) {
+                    final int k = i % current.size();
+                    current.set(k, sut.save(current.get(k)));
+                }
+                running.set(false);
+            });
+
+            final ArrayList<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(executor.submit(() -> {
+                    int reads = 0;
+                    while (running.get()) {
+                        final User user = users.get(reads % users.size());
+                        final User read = sut.findByUid(user.getUid()).orElseThrow();
+
+                        assertEquals(user.getName(), read.getName());
+                        reads++;
+                    }
+                    return reads;
+                }));
+            }
+
+            writer.get(60, TimeUnit.SECONDS);
+            for (final Future<Integer> reader : readers) {
+                assertNotNull(reader.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * RankedTreeMapTest -- compares the tree with the JDK implementation of a sorted map.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+class RankedTreeMapTest {
+    @Test
+    void shouldBehaveLikeATreeMapWhenRandomlyChanged() {
+        final Random random = new Random(42);
+        final TreeMap<Integer, Integer> expected = new TreeMap<>();
+        RankedTreeMap<Integer, Integer> sut = RankedTreeMap.empty();
+
+        for (int i = 0; i < 20_000; i++) {
+            final int key = random.nextInt(2_000);
+
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                sut = sut.remove(key);
+            } else {
+                expected.put(key, i);
+                sut = sut.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), sut.size());
+        assertEquals(new ArrayList<>(expected.values()), sut.slice(0, Integer.MAX_VALUE));
+        for (int key = 0; key < 2_000; key++) {
+            assertEquals(expected.get(key), sut.get(key));
+            assertEquals(expected.headMap(key).size(), sut.rank(key));
+        }
+    }
+
+    @Test
+    void shouldReturnTheRequestedSliceWhenStartIsInTheMiddle() {
+        RankedTreeMap<Integer, Integer> sut = RankedTreeMap.empty();
+        for (int i = 99; i >= 0; i--) {
+            sut = sut.put(i, i);
+        }
+
+        assertEquals(List.of(40, 41, 42, 43, 44), sut.slice(40, 5));
+        assertEquals(List.of(98, 99), sut.slice(98, 5));
+        assertTrue(sut.slice(100, 5).isEmpty());
+    }
+
+    @Test
+    void shouldKeepTheOldVersionUnchangedWhenChanged() {
+        final RankedTreeMap<String, String> old = RankedTreeMap.<String, String>empty().put("a", "1");
+
+        final RankedTreeMap<String, String> changed = old.put("b", "2").remove("a");
+
+        assertEquals("1", old.get("a"));
+        assertNull(old.get("b"));
+        assertNull(changed.get("a"));
+        assertEquals(1, old.size());
+        assertSame(old, old.remove("not-there"));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import de.kaiserpfalzedv.commons.api.resources.HasName;
+import de.kaiserpfalzedv.commons.api.store.BatchStore;
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ShardedStoreServiceTest -- checks the routing to the shards and the merging of their results.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class ShardedStoreServiceTest extends AbstractTestBase {
+    private static final String NAMESPACE = "sharded";
+
+    private final Set<String> writers = ConcurrentHashMap.newKeySet();
+    private final ShardedStoreService<User> sut = new ShardedStoreService<>(4, () -> new GenericStoreService<User>(1) {
+        @Override
+        protected void afterSave(final User stored, final User saved) {
+            ShardedStoreServiceTest.this.writers.add(Thread.currentThread().getName());
+        }
+    });
+
+
+    public ShardedStoreServiceTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @AfterEach
+    void close() {
+        this.sut.close();
+    }
+
+    @Test
+    void shouldSaveOnShardWritersWhenSavingManyResources() {
+        this.startTest("shard-writers");
+
+        final List<User> saved = this.saveUsers(100);
+
+        assertEquals(4, this.sut.getShardCount());
+        assertTrue(this.writers.size() > 1);
+        assertTrue(this.writers.stream().allMatch(n -> n.startsWith("store-shard-")));
+        for (final User user : saved) {
+            assertEquals(user, this.sut.findByUid(user.getUid()).orElseThrow());
+            assertEquals(user, this.sut.findByNameSpaceAndName(NAMESPACE, user.getName()).orElseThrow());
+        }
+        assertEquals(100, this.sut.countByNameSpace(NAMESPACE));
+    }
+
+    @Test
+    void shouldMergePagesInNameOrderWhenListingNameSpace() {
+        this.startTest("merge-pages");
+
+        this.saveUsers(50);
+        final ArrayList<String> expected = new ArrayList<>(IntStream.range(0, 50).mapToObj(ShardedStoreServiceTest::name).toList());
+
+        for (int start = 0; start < 50; start += 7) {
+            final var result = this.sut.findAllByNameSpace(NAMESPACE, PagingImpl.builder().start(start).size(7).build());
+
+            assertEquals(expected.subList(start, Math.min(start + 7, 50)), result.getData().stream().map(HasName::getName).toList());
+            assertEquals(50, result.getPaging().getTotal());
+        }
+
+        assertEquals(List.of("user-010", "user-011", "user-012"),
+                this.sut.findByNameSpaceAndNamePrefix(NAMESPACE, "user-01", 3).stream().map(HasName::getName).toList());
+    }
+
+    @Test
+    void shouldReturnResultsInInputOrderWhenBatchSpansShards() {
+        this.startTest("batch-order");
+
+        final List<User> input = IntStream.range(0, 20).mapToObj(i -> GenericStoreServiceTest.createUser(NAMESPACE, name(i))).toList();
+
+        final List<User> saved = this.sut.saveAll(input);
+
+        assertEquals(input.stream().map(User::getUid).toList(), saved.stream().map(User::getUid).toList());
+    }
+
+    @Test
+    void shouldUpdateOnOwningShardWhenUpdatingByUid() {
+        this.startTest("update-by-uid");
+
+        final User user = this.saveUsers(1).get(0);
+
+        final User updated = this.sut.update(user.getUid(), user.getGeneration(), u -> u).orElseThrow();
+
+        assertEquals(user.getGeneration() + 1, updated.getGeneration());
+        assertThrows(OptimisticLockStoreException.class, () -> this.sut.update(user.getUid(), user.getGeneration(), u -> u));
+    }
+
+    @Test
+    void shouldRemoveFromAllShardsWhenRemovingBatch() {
+        this.startTest("remove-batch");
+
+        final List<User> saved = this.saveUsers(30);
+
+        this.sut.removeAll(saved.subList(0, 20).stream().map(User::getUid).toList());
+        this.sut.remove(NAMESPACE, name(25));
+
+        assertEquals(9, this.sut.countByNameSpace(NAMESPACE));
+        assertFalse(this.sut.findByUid(saved.get(0).getUid()).isPresent());
+        assertFalse(this.sut.findByNameSpaceAndName(NAMESPACE, name(25)).isPresent());
+        assertTrue(this.sut.findByUid(saved.get(29).getUid()).isPresent());
+    }
+
+    @Test
+    void shouldFindByUidWhenShardsAreFilledByTheFactory() {
+        this.startTest("prefilled-shards");
+
+        final List<User> stored = new ArrayList<>();
+        try (ShardedStoreService<User> prefilled = new ShardedStoreService<>(3, () -> {
+            final GenericStoreService<User> store = new GenericStoreService<>(1) {};
+            stored.add(store.save(GenericStoreServiceTest.createUser(NAMESPACE, name(stored.size()))));
+            return store;
+        })) {
+            for (final User user : stored) {
+                assertEquals(user, prefilled.findByUid(user.getUid()).orElseThrow());
+            }
+
+            prefilled.remove(stored.get(0).getUid());
+            assertFalse(prefilled.findByUid(stored.get(0).getUid()).isPresent());
+        }
+    }
+
+    @Test
+    void shouldNotOfferAtomicBatchesWhenShardsCommitIndependently() {
+        this.startTest("no-batch-store");
+
+        assertFalse(BatchStore.class.isInstance(this.sut));
+    }
+
+
+    private List<User> saveUsers(final int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> this.sut.save(GenericStoreServiceTest.createUser(NAMESPACE, name(i))))
+                .toList();
+    }
+
+    private static String name(final int i) {
+        return String.format("user-%03d", i);
+    }
+}
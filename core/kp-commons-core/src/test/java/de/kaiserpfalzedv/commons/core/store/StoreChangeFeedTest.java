@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.kaiserpfalzedv.commons.api.store.StoreEvent;
+import de.kaiserpfalzedv.commons.api.store.StoreEventType;
+import de.kaiserpfalzedv.commons.api.store.WatchExpiredStoreException;
+import de.kaiserpfalzedv.commons.api.store.WatchOverflowStoreException;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * StoreChangeFeedTest -- checks buffering, demand and resuming of watches.
+ * <p>
+ * The feed delivers on the calling thread here, so every expectation can be checked right after publishing.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class StoreChangeFeedTest extends AbstractTestBase {
+    private static final String NAMESPACE = "feed";
+
+    private final StoreChangeFeed<User> sut = new StoreChangeFeed<>(Runnable::run, 2, 4);
+
+
+    public StoreChangeFeedTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldDeliverOnlyRequestedEventsWhenDemandIsLimited() {
+        this.startTest("demand");
+
+        final Recorder recorder = new Recorder(1);
+        this.sut.publisher(null, -1).subscribe(recorder);
+
+        this.publish("a");
+        this.publish("b");
+        assertEquals(List.of(1L), recorder.revisions());
+
+        recorder.subscription.request(5);
+        assertEquals(List.of(1L, 2L), recorder.revisions());
+    }
+
+    @Test
+    void shouldFailWithOverflowWhenSubscriberDoesNotRequest() {
+        this.startTest("overflow");
+
+        final Recorder recorder = new Recorder(0);
+        this.sut.publisher(null, -1).subscribe(recorder);
+
+        this.publish("a");
+        this.publish("b");
+        this.publish("c");
+        this.publish("d");
+
+        recorder.subscription.request(10);
+
+        assertEquals(List.of(1L, 2L), recorder.revisions());
+        final WatchOverflowStoreException overflow = assertInstanceOf(WatchOverflowStoreException.class, recorder.error);
+        assertEquals(2L, overflow.getRevision());
+    }
+
+    @Test
+    void shouldReplayMissedEventsWhenResumingAfterRevision() {
+        this.startTest("resume");
+
+        this.sut.publisher(null, -1).subscribe(new Recorder(0)); // activates the feed.
+        this.publish("a");
+        this.publish("b");
+        this.publish("c");
+
+        final Recorder recorder = new Recorder(Long.MAX_VALUE);
+        this.sut.publisher(null, 1).subscribe(recorder);
+        this.publish("d");
+
+        assertEquals(List.of(2L, 3L, 4L), recorder.revisions());
+        assertNull(recorder.error);
+    }
+
+    @Test
+    void shouldFailWithExpiredWhenRevisionIsNoLongerInHistory() {
+        this.startTest("expired");
+
+        this.sut.publisher(null, -1).subscribe(new Recorder(0));
+        for (int i = 0; i < 6; i++) {
+            this.publish("user-" + i);
+        }
+
+        final Recorder recorder = new Recorder(Long.MAX_VALUE);
+        this.sut.publisher(null, 1).subscribe(recorder);
+
+        assertTrue(recorder.events.isEmpty());
+        assertInstanceOf(WatchExpiredStoreException.class, recorder.error);
+    }
+
+    @Test
+    void shouldFailWithExpiredWhenResumingAfterLastWatchHasBeenCancelled() {
+        this.startTest("resume-after-idle");
+
+        final Recorder first = new Recorder(Long.MAX_VALUE);
+        this.sut.publisher(null, -1).subscribe(first);
+        this.publish("a");
+        first.subscription.cancel();
+
+        this.publish("b"); // nobody watches, not recorded.
+
+        final Recorder resumed = new Recorder(Long.MAX_VALUE);
+        this.sut.publisher(null, 1).subscribe(resumed);
+        assertInstanceOf(WatchExpiredStoreException.class, resumed.error);
+
+        final Recorder next = new Recorder(Long.MAX_VALUE);
+        this.sut.publisher(null, -1).subscribe(next);
+        this.publish("c");
+
+        assertEquals(List.of(1L), first.revisions());
+        assertEquals(List.of("c"), next.events.stream().map(e -> e.getResource().getName()).toList());
+    }
+
+    @Test
+    void shouldDeliverInRevisionOrderWhenPublishedConcurrently() throws InterruptedException {
+        this.startTest("concurrent-publish");
+
+        final StoreChangeFeed<User> feed = new StoreChangeFeed<>(Runnable::run, 4096, 4096);
+        final Recorder recorder = new Recorder(Long.MAX_VALUE);
+        feed.publisher(null, -1).subscribe(recorder);
+
+        final Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            final int thread = t;
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    feed.publish(StoreEventType.ADDED, GenericStoreServiceTest.createUser(NAMESPACE, "user-" + thread + "-" + i));
+                }
+            });
+            writers[t].start();
+        }
+        for (final Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(LongStream.rangeClosed(1, 2000).boxed().toList(), recorder.revisions());
+        assertNull(recorder.error);
+    }
+
+    @Test
+    void shouldDeliverOnlyMatchingNameSpaceWhenWatchIsFiltered() {
+        this.startTest("namespace-filter");
+
+        final Recorder recorder = new Recorder(Long.MAX_VALUE);
+        this.sut.publisher(NAMESPACE, -1).subscribe(recorder);
+
+        this.publish("a");
+        this.sut.publish(StoreEventType.ADDED, GenericStoreServiceTest.createUser("other", "b"));
+        this.publish("c");
+
+        assertEquals(List.of(1L, 3L), recorder.revisions());
+    }
+
+
+    private void publish(final String name) {
+        this.sut.publish(StoreEventType.ADDED, GenericStoreServiceTest.createUser(NAMESPACE, name));
+    }
+
+
+    private static class Recorder implements Flow.Subscriber<StoreEvent<User>> {
+        private final long initialDemand;
+        private final List<StoreEvent<User>> events = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private Throwable error;
+
+        Recorder(final long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (this.initialDemand > 0) {
+                subscription.request(this.initialDemand);
+            }
+        }
+
+        @Override
+        public void onNext(final StoreEvent<User> item) {
+            this.events.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            this.error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            // not used by the feed.
+        }
+
+        List<Long> revisions() {
+            return this.events.stream().map(StoreEvent::getRevision).toList();
+        }
+    }
+}
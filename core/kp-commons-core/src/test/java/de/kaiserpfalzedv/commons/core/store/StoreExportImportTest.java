@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import de.kaiserpfalzedv.commons.api.store.ListableStore;
+import de.kaiserpfalzedv.commons.api.store.PersistenceStoreException;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+import de.kaiserpfalzedv.commons.core.user.OffHeapUserStore;
+import de.kaiserpfalzedv.commons.core.user.UserDataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * StoreExportImportTest -- checks moving stores via NDJSON.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class StoreExportImportTest extends AbstractTestBase {
+    private static final JacksonResourceCodec<User> CODEC = new JacksonResourceCodec<>(UserImpl.class);
+
+
+    public StoreExportImportTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldCopyAllNameSpacesWhenExportedAndImported() throws IOException {
+        this.startTest("round-trip");
+
+        final MemoryUserStore source = new MemoryUserStore();
+        for (int i = 0; i < 2_500; i++) {
+            source.save(createUser("namespace-" + (i % 3), "user-" + i));
+        }
+        source.remove("namespace-0", "user-0");
+
+        final byte[] exported = export(source);
+
+        final OffHeapUserStore target = new OffHeapUserStore();
+        try (StoreImporter<User> sut = new StoreImporter<>(target, CODEC, 100, 3)) {
+            assertEquals(2_499, sut.importFrom(Channels.newChannel(new ByteArrayInputStream(exported))));
+        }
+
+        assertEquals(List.of("namespace-0", "namespace-1", "namespace-2"), target.findAllNameSpaces());
+        for (final String nameSpace : source.findAllNameSpaces()) {
+            assertEquals(source.countByNameSpace(nameSpace), target.countByNameSpace(nameSpace));
+        }
+        final User sample = source.findByNameSpaceAndName("namespace-1", "user-1").orElseThrow();
+        assertEquals(sample, target.findByUid(sample.getUid()).orElseThrow());
+        assertFalse(target.findByNameSpaceAndName("namespace-0", "user-0").isPresent());
+    }
+
+    @Test
+    void shouldReadLinesLargerThanTheBufferWhenImporting() throws IOException {
+        this.startTest("large-lines");
+
+        final HashMap<String, String> properties = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            properties.put("property-" + i, "value-" + UUID.randomUUID());
+        }
+        final User large = UserImpl.builder()
+                .metadata(MetadataImpl.of(User.KIND, User.API_VERSION, "large", "user").uid(UUID.randomUUID()).build())
+                .spec(UserDataImpl.builder().name("user").properties(properties).build())
+                .build();
+
+        final MemoryUserStore source = new MemoryUserStore();
+        source.save(large);
+        source.save(createUser("large", "other"));
+
+        final byte[] exported = export(source);
+        assertTrue(exported.length > StoreImporter.BUFFER_SIZE);
+
+        final MemoryUserStore target = new MemoryUserStore();
+        try (StoreImporter<User> sut = new StoreImporter<>(target, CODEC)) {
+            assertEquals(2, sut.importFrom(Channels.newChannel(new ByteArrayInputStream(exported))));
+        }
+
+        assertEquals(large, target.findByUid(large.getUid()).orElseThrow());
+    }
+
+    @Test
+    void shouldSkipEmptyLinesWhenImporting() throws IOException {
+        this.startTest("empty-lines");
+
+        final User user = createUser("crlf", "user");
+        final byte[] input = ("\r\n" + new String(CODEC.encode(user), StandardCharsets.UTF_8) + "\r\n\n")
+                .getBytes(StandardCharsets.UTF_8);
+
+        final MemoryUserStore target = new MemoryUserStore();
+        try (StoreImporter<User> sut = new StoreImporter<>(target, CODEC)) {
+            assertEquals(1, sut.importFrom(Channels.newChannel(new ByteArrayInputStream(input))));
+        }
+
+        assertEquals(user, target.findByUid(user.getUid()).orElseThrow());
+    }
+
+    @Test
+    void shouldReportLineNumberWhenLineIsInvalid() {
+        this.startTest("invalid-line");
+
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            input.append(new String(CODEC.encode(createUser("invalid", "user-" + i)), StandardCharsets.UTF_8)).append('\n');
+        }
+        input.append("{\"kind\":\"User\"\n");
+
+        final MemoryUserStore target = new MemoryUserStore();
+        try (StoreImporter<User> sut = new StoreImporter<>(target, CODEC, 4, 2)) {
+            final PersistenceStoreException result = assertThrows(
+                    PersistenceStoreException.class,
+                    () -> sut.importFrom(Channels.newChannel(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8))))
+            );
+
+            assertTrue(result.getMessage().contains("line 11"), result.getMessage());
+        }
+    }
+
+
+    private static byte[] export(final ListableStore<User> store) throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        new StoreExporter<>(store, CODEC, 100).exportTo(Channels.newChannel(result));
+
+        return result.toByteArray();
+    }
+
+    private static User createUser(final String nameSpace, final String name) {
+        return UserImpl.builder()
+                .metadata(MetadataImpl.of(User.KIND, User.API_VERSION, nameSpace, name).uid(UUID.randomUUID()).build())
+                .spec(UserDataImpl.builder().name(name).build())
+                .build();
+    }
+}
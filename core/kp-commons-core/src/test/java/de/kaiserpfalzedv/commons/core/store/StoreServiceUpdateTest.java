@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.store.StoreService;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+import de.kaiserpfalzedv.commons.core.user.OffHeapUserStore;
+import de.kaiserpfalzedv.commons.core.user.UserDataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * StoreServiceUpdateTest -- checks the compare-and-set updates of the stores.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class StoreServiceUpdateTest extends AbstractTestBase {
+    private static final String NAMESPACE = "update";
+    private static final String COUNTER = "counter";
+
+
+    public StoreServiceUpdateTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    static Stream<Arguments> stores() {
+        return Stream.concat(atomicStores(), Stream.of(
+                Arguments.of("default", (Supplier<StoreService<User>>) () -> new PlainStore(new MemoryUserStore()))
+        ));
+    }
+
+    static Stream<Arguments> atomicStores() {
+        return Stream.of(
+                Arguments.of("memory", (Supplier<StoreService<User>>) MemoryUserStore::new),
+                Arguments.of("off-heap", (Supplier<StoreService<User>>) OffHeapUserStore::new),
+                Arguments.of("caching", (Supplier<StoreService<User>>) () -> new CachingStoreService<>(
+                        new MemoryUserStore(), "users", 100, Duration.ofMinutes(5), null
+                ))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void shouldSaveChangedResourceWhenGenerationMatches(final String variant, final Supplier<StoreService<User>> factory) {
+        this.startTest("update-matching-generation", variant);
+
+        final StoreService<User> sut = factory.get();
+        final User saved = sut.save(createUser("a"));
+
+        final User result = sut.update(saved.getUid(), 0, StoreServiceUpdateTest::increment).orElseThrow();
+
+        assertEquals(1, result.getGeneration());
+        assertEquals(1, counter(result));
+        assertEquals(result, sut.findByUid(saved.getUid()).orElseThrow());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void shouldNotCallUpdaterWhenGenerationDiffers(final String variant, final Supplier<StoreService<User>> factory) {
+        this.startTest("update-outdated-generation", variant);
+
+        final StoreService<User> sut = factory.get();
+        final User saved = sut.save(sut.save(createUser("a")));
+        final AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(OptimisticLockStoreException.class, () -> sut.update(saved.getUid(), 0, u -> {
+            calls.incrementAndGet();
+            return u;
+        }));
+
+        assertEquals(0, calls.get());
+        assertEquals(1, sut.findByUid(saved.getUid()).orElseThrow().getGeneration());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void shouldReturnEmptyWhenUidIsUnknown(final String variant, final Supplier<StoreService<User>> factory) {
+        this.startTest("update-unknown", variant);
+
+        final StoreService<User> sut = factory.get();
+
+        assertFalse(sut.update(UUID.randomUUID(), 0, StoreServiceUpdateTest::increment).isPresent());
+        assertFalse(sut.compute(UUID.randomUUID(), StoreServiceUpdateTest::increment).isPresent());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void shouldRejectUpdaterWhenItRenamesTheResource(final String variant, final Supplier<StoreService<User>> factory) {
+        this.startTest("update-rename", variant);
+
+        final StoreService<User> sut = factory.get();
+        final User saved = sut.save(createUser("a"));
+
+        assertThrows(IllegalArgumentException.class, () -> sut.compute(saved.getUid(), u -> createUser("b")));
+        assertFalse(sut.findByNameSpaceAndName(NAMESPACE, "b").isPresent());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("atomicStores")
+    void shouldLoseNoIncrementWhenComputedConcurrently(final String variant, final Supplier<StoreService<User>> factory) throws Exception {
+        this.startTest("compute-concurrently", variant);
+
+        final int threads = 8;
+        final int increments = 500;
+        final StoreService<User> sut = factory.get();
+        final UUID uid = sut.save(createUser("hot")).getUid();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final ArrayList<Future<?>> results = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < increments; i++) {
+                        sut.compute(uid, StoreServiceUpdateTest::increment);
+                    }
+                }));
+            }
+
+            for (final Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final User result = sut.findByUid(uid).orElseThrow();
+        assertEquals(threads * increments, counter(result));
+        assertEquals(threads * increments, result.getGeneration());
+    }
+
+
+    private static User createUser(final String name) {
+        return UserImpl.builder()
+                .metadata(
+                        MetadataImpl.of(User.KIND, User.API_VERSION, NAMESPACE, name)
+                                .uid(UUID.randomUUID())
+                                .build()
+                )
+                .spec(UserDataImpl.builder().name(name).build())
+                .build();
+    }
+
+    private static User increment(final User user) {
+        final HashMap<String, String> properties = new HashMap<>(user.getSpec().getProperties());
+        properties.merge(COUNTER, "1", (a, b) -> String.valueOf(Long.parseLong(a) + 1));
+
+        return UserImpl.builder()
+                .metadata(user.getMetadata())
+                .spec(((UserDataImpl) user.getSpec()).toBuilder().properties(properties).build())
+                .build();
+    }
+
+    private static long counter(final User user) {
+        return Long.parseLong(user.getSpec().getProperty(COUNTER).orElse("0"));
+    }
+
+
+    /**
+     * A store using the default implementations of update and compute.
+     */
+    private record PlainStore(StoreService<User> delegate) implements StoreService<User> {
+        @Override
+        public Optional<User> findByNameSpaceAndName(final String nameSpace, final String name) {
+            return this.delegate.findByNameSpaceAndName(nameSpace, name);
+        }
+
+        @Override
+        public Optional<User> findByUid(final UUID uid) {
+            return this.delegate.findByUid(uid);
+        }
+
+        @Override
+        public User save(final User object) {
+            return this.delegate.save(object);
+        }
+
+        @Override
+        public void remove(final User object) {
+            this.delegate.remove(object);
+        }
+
+        @Override
+        public void remove(final String nameSpace, final String name) {
+            this.delegate.remove(nameSpace, name);
+        }
+
+        @Override
+        public void remove(final UUID uid) {
+            this.delegate.remove(uid);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.api.user.UserData;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+import de.kaiserpfalzedv.commons.core.user.UserDataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * StoreWarmStartTest -- checks filling stores from the warm start file.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class StoreWarmStartTest extends AbstractTestBase {
+    private static final JacksonResourceCodec<User> CODEC = new JacksonResourceCodec<>(UserImpl.class);
+    private static final String ISSUER = "https://sso.kaiserpfalz-edv.de/realms/test";
+
+    @TempDir
+    Path directory;
+
+
+    public StoreWarmStartTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldRestoreAllIndexesWhenLoadingWrittenFile() {
+        this.startTest("round-trip");
+
+        final Path file = this.directory.resolve("users.warm");
+        final MemoryUserStore source = new MemoryUserStore();
+        for (int i = 0; i < 10_000; i++) {
+            source.save(createUser("namespace-" + (i % 4), "user-" + i));
+        }
+        final OffsetDateTime before = OffsetDateTime.now().minusSeconds(1);
+
+        try (StoreWarmStart<User> sut = new StoreWarmStart<>(source, file, CODEC)) {
+            assertEquals(10_000, sut.write());
+        }
+
+        final MemoryUserStore target = new MemoryUserStore();
+        final Optional<OffsetDateTime> written;
+        try (StoreWarmStart<User> sut = new StoreWarmStart<>(target, file, CODEC)) {
+            written = sut.load();
+        }
+
+        assertTrue(written.orElseThrow().isAfter(before));
+        assertEquals(List.of("namespace-0", "namespace-1", "namespace-2", "namespace-3"), target.findAllNameSpaces());
+        assertEquals(2_500, target.countByNameSpace("namespace-1"));
+
+        final User sample = source.findByNameSpaceAndName("namespace-1", "user-5").orElseThrow();
+        assertEquals(sample, target.findByUid(sample.getUid()).orElseThrow());
+        assertEquals(sample, target.findByNameSpaceAndName("namespace-1", "user-5").orElseThrow());
+        assertEquals(sample, target.findByIssuerAndSubject(ISSUER, "user-5").orElseThrow());
+        assertEquals(10_000, target.findBySelector(LabelSelectorImpl.parse("app=test")).size());
+    }
+
+    @Test
+    void shouldStartEmptyWhenFileIsMissing() {
+        this.startTest("missing-file");
+
+        final MemoryUserStore target = new MemoryUserStore();
+        try (StoreWarmStart<User> sut = new StoreWarmStart<>(target, this.directory.resolve("missing.warm"), CODEC)) {
+            assertFalse(sut.load().isPresent());
+        }
+
+        assertEquals(List.of(), target.findAllNameSpaces());
+    }
+
+    @Test
+    void shouldStartEmptyWhenFileIsTruncated() throws IOException {
+        this.startTest("truncated-file");
+
+        final Path file = this.directory.resolve("users.warm");
+        final MemoryUserStore source = new MemoryUserStore();
+        for (int i = 0; i < 100; i++) {
+            source.save(createUser("namespace", "user-" + i));
+        }
+        new StoreWarmStart<>(source, file, CODEC).write();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 10);
+        }
+
+        final MemoryUserStore target = new MemoryUserStore();
+        assertFalse(new StoreWarmStart<>(target, file, CODEC).load().isPresent());
+        assertEquals(0, target.countByNameSpace("namespace"));
+    }
+
+    @Test
+    void shouldApplyChangesWhenCatchingUp() {
+        this.startTest("catch-up");
+
+        final Path file = this.directory.resolve("users.warm");
+        final MemoryUserStore source = new MemoryUserStore();
+        final User kept = source.save(createUser("namespace", "kept"));
+        final User removed = source.save(createUser("namespace", "removed"));
+        final User changed = source.save(createUser("namespace", "changed"));
+        new StoreWarmStart<>(source, file, CODEC).write();
+
+        final User newer = source.save(changed);
+        final User added = createUser("namespace", "added");
+
+        final MemoryUserStore target = new MemoryUserStore();
+        try (StoreWarmStart<User> sut = new StoreWarmStart<>(target, file, CODEC)) {
+            sut.load();
+            sut.catchUp(List.of(newer, added), List.of(removed.getUid()));
+        }
+
+        assertEquals(kept, target.findByUid(kept.getUid()).orElseThrow());
+        assertEquals(1, target.findByUid(changed.getUid()).orElseThrow().getGeneration());
+        assertTrue(target.findByUid(added.getUid()).isPresent());
+        assertFalse(target.findByUid(removed.getUid()).isPresent());
+    }
+
+    @Test
+    void shouldWriteFileWhenClosedAfterLoading() {
+        this.startTest("write-on-close");
+
+        final Path file = this.directory.resolve("users.warm");
+        final MemoryUserStore store = new MemoryUserStore();
+
+        try (StoreWarmStart<User> sut = new StoreWarmStart<>(store, file, CODEC)) {
+            sut.load();
+            store.save(createUser("namespace", "user"));
+        }
+
+        final MemoryUserStore target = new MemoryUserStore();
+        new StoreWarmStart<>(target, file, CODEC).load();
+        assertEquals(1, target.countByNameSpace("namespace"));
+    }
+
+    @Test
+    void shouldNotWriteFileWhenClosedBeforeLoading() {
+        this.startTest("no-write-on-close");
+
+        final Path file = this.directory.resolve("users.warm");
+
+        new StoreWarmStart<>(new MemoryUserStore(), file, CODEC).close();
+
+        assertFalse(Files.exists(file));
+    }
+
+
+    private static User createUser(final String nameSpace, final String name) {
+        return UserImpl.builder()
+                .metadata(
+                        MetadataImpl.of(User.KIND, User.API_VERSION, nameSpace, name)
+                                .uid(UUID.randomUUID())
+                                .labels(Map.of("app", "test"))
+                                .build()
+                )
+                .spec(UserDataImpl.builder()
+                        .name(name)
+                        .properties(Map.of(UserData.ISSUER, ISSUER, UserData.SUBJECT, name))
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.data.Paging;
+import de.kaiserpfalzedv.commons.api.store.BatchStore;
+import de.kaiserpfalzedv.commons.api.store.ListableStore;
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.store.PersistenceStoreException;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
+import de.kaiserpfalzedv.commons.core.user.UserDataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TieredStoreServiceTest -- checks the read-through and write-behind of the tiered store.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class TieredStoreServiceTest extends AbstractTestBase {
+    private static final String NAMESPACE = "tiered";
+
+    @TempDir
+    Path directory;
+
+    private final Backend backend = new Backend();
+
+
+    public TieredStoreServiceTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldReadThroughOnceWhenMissingInMemory() {
+        this.startTest("read-through");
+
+        final User stored = this.backend.save(GenericStoreServiceTest.createUser(NAMESPACE, "stored"));
+
+        try (TieredStoreService<User> sut = this.createStore(100)) {
+            assertEquals(Optional.of(stored), sut.findByUid(stored.getUid()));
+            assertEquals(Optional.of(stored), sut.findByNameSpaceAndName(NAMESPACE, "stored"));
+            assertEquals(Optional.of(stored), sut.findByUid(stored.getUid()));
+            assertEquals(1, this.backend.reads.get());
+
+            assertFalse(sut.findByUid(UUID.randomUUID()).isPresent());
+        }
+    }
+
+    @Test
+    void shouldWriteLatestGenerationOnlyWhenSavedRepeatedly() {
+        this.startTest("coalesce");
+
+        try (TieredStoreService<User> sut = this.createStore(100)) {
+            User user = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "user"));
+            for (int i = 0; i < 5; i++) {
+                user = sut.save(rename(user, "name-" + i));
+            }
+            assertEquals(0, this.backend.writes.get());
+            assertEquals(1, sut.countQueued());
+
+            assertTrue(sut.flush());
+            assertEquals(1, this.backend.writes.get());
+            assertEquals("name-4", this.backend.findByUid(user.getUid()).orElseThrow().getSpec().getName());
+
+            // the backend counts one generation per write, the memory store one per save.
+            user = sut.save(rename(user, "name-5"));
+            assertTrue(sut.flush());
+            assertEquals("name-5", this.backend.findByUid(user.getUid()).orElseThrow().getSpec().getName());
+            assertEquals(2, this.backend.writes.get());
+        }
+    }
+
+    @Test
+    void shouldNotReadRemovedResourceAgainWhenRemovalIsQueued() {
+        this.startTest("remove");
+
+        final User stored = this.backend.save(GenericStoreServiceTest.createUser(NAMESPACE, "stored"));
+
+        try (TieredStoreService<User> sut = this.createStore(100)) {
+            sut.remove(stored.getUid());
+
+            assertFalse(sut.findByUid(stored.getUid()).isPresent());
+            assertFalse(sut.findByNameSpaceAndName(NAMESPACE, "stored").isPresent());
+            assertTrue(this.backend.findByUid(stored.getUid()).isPresent());
+
+            assertTrue(sut.flush());
+            assertFalse(this.backend.findByUid(stored.getUid()).isPresent());
+        }
+    }
+
+    @Test
+    void shouldAnswerQueriesWithMemoryGenerationsWhenChangesAreQueued() {
+        this.startTest("query");
+
+        try (TieredStoreService<User> sut = this.createStore(100)) {
+            User user = sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "a"));
+            user = sut.save(rename(user, "changed"));
+            sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "b"));
+
+            final PagedResult<User> result = sut.findAllByNameSpace(NAMESPACE, PagingImpl.builder().build());
+
+            assertEquals(2, result.getPaging().getTotal());
+            assertEquals(user, result.getData().get(0));
+            assertEquals(0, sut.countQueued());
+            assertEquals(2, sut.countByNameSpace(NAMESPACE));
+        }
+    }
+
+    @Test
+    void shouldOverflowToDiskWhenQueueIsFull() throws IOException {
+        this.startTest("overflow");
+
+        try (TieredStoreService<User> sut = this.createStore(2)) {
+            for (int i = 0; i < 10; i++) {
+                sut.save(GenericStoreServiceTest.createUser(NAMESPACE, "user-" + i));
+            }
+            assertEquals(2, sut.countQueued());
+            assertFalse(WriteAheadLog.listSegments(this.directory).isEmpty());
+
+            assertTrue(sut.flush());
+            assertEquals(10, this.backend.countByNameSpace(NAMESPACE));
+        }
+    }
+
+    @Test
+    void shouldWriteChangesLeftOnDiskWhenCreatedAgain() {
+        this.startTest("recover");
+
+        this.backend.down = true;
+        final TieredStoreService<User> crashed = this.createStore(2);
+        for (int i = 0; i < 5; i++) {
+            crashed.save(GenericStoreServiceTest.createUser(NAMESPACE, "user-" + i));
+        }
+        assertFalse(crashed.flush());
+        crashed.close();
+        assertEquals(0, this.backend.countByNameSpace(NAMESPACE));
+
+        try {
+            this.createStore(2).close();
+        } catch (final PersistenceStoreException e) {
+            log.debug("Backend still down: {}", e.getMessage());
+        }
+
+        this.backend.down = false;
+        try (TieredStoreService<User> sut = this.createStore(2)) {
+            assertEquals(5, this.backend.countByNameSpace(NAMESPACE));
+            assertTrue(sut.findByNameSpaceAndName(NAMESPACE, "user-4").isPresent());
+        }
+    }
+
+    @Test
+    void shouldWriteChangesLeftOnDiskWhenBackendCountsGenerationsDifferently() {
+        this.startTest("recover-stored");
+
+        final TieredStoreService<User> crashed = this.createStore(1);
+        User user = crashed.save(GenericStoreServiceTest.createUser(NAMESPACE, "user"));
+        assertTrue(crashed.flush());
+
+        this.backend.down = true;
+        crashed.save(GenericStoreServiceTest.createUser(NAMESPACE, "queued"));
+        for (int i = 0; i < 3; i++) {
+            user = crashed.save(rename(user, "name-" + i));
+        }
+        assertFalse(crashed.flush());
+        crashed.close();
+
+        // the new store does not know the generations of the backend yet.
+        this.backend.down = false;
+        try (TieredStoreService<User> sut = this.createStore(1)) {
+            assertEquals("name-2", this.backend.findByUid(user.getUid()).orElseThrow().getSpec().getName());
+            assertTrue(this.backend.findByNameSpaceAndName(NAMESPACE, "queued").isPresent());
+        }
+    }
+
+
+    private TieredStoreService<User> createStore(final int capacity) {
+        return new TieredStoreService<>(
+                new GenericStoreService<>() {}, this.backend, UserImpl.class, this.directory,
+                capacity, 100, Duration.ofMinutes(1)
+        );
+    }
+
+    private static User rename(final User user, final String name) {
+        return UserImpl.builder()
+                .metadata(user.getMetadata())
+                .spec(UserDataImpl.builder().name(name).build())
+                .build();
+    }
+
+
+    /**
+     * A backend counting its calls. Like a database it only saves a resource with the generation stored exactly.
+     */
+    private static final class Backend implements BatchStore<User>, ListableStore<User> {
+        private final GenericStoreService<User> data = new GenericStoreService<>() {};
+        private final AtomicInteger reads = new AtomicInteger();
+        private final AtomicInteger writes = new AtomicInteger();
+        private volatile boolean down;
+
+        @Override
+        public Optional<User> findByNameSpaceAndName(final String nameSpace, final String name) {
+            this.reads.incrementAndGet();
+            return this.data.findByNameSpaceAndName(nameSpace, name);
+        }
+
+        @Override
+        public Optional<User> findByUid(final UUID uid) {
+            this.reads.incrementAndGet();
+            return this.data.findByUid(uid);
+        }
+
+        @Override
+        public List<String> findAllNameSpaces() {
+            return this.data.findAllNameSpaces();
+        }
+
+        @Override
+        public PagedResult<User> findAllByNameSpace(final String nameSpace, final Paging paging) {
+            return this.data.findAllByNameSpace(nameSpace, paging);
+        }
+
+        @Override
+        public List<User> findByNameSpaceAndNamePrefix(final String nameSpace, final String prefix, final int limit) {
+            return this.data.findByNameSpaceAndNamePrefix(nameSpace, prefix, limit);
+        }
+
+        @Override
+        public long countByNameSpace(final String nameSpace) {
+            return this.data.countByNameSpace(nameSpace);
+        }
+
+        @Override
+        public User save(final User object) {
+            return this.saveAll(List.of(object)).get(0);
+        }
+
+        @Override
+        public List<User> saveAll(final Collection<User> objects) {
+            this.check();
+            for (final User object : objects) {
+                this.data.findByUid(object.getUid()).ifPresent(stored -> {
+                    if (!stored.getGeneration().equals(object.getGeneration())) {
+                        throw new OptimisticLockStoreException(stored.getGeneration(), object.getGeneration());
+                    }
+                });
+            }
+
+            this.writes.incrementAndGet();
+            return this.data.saveAll(objects);
+        }
+
+        @Override
+        public void remove(final User object) {
+            this.removeAll(List.of(object.getUid()));
+        }
+
+        @Override
+        public void remove(final String nameSpace, final String name) {
+            this.data.findByNameSpaceAndName(nameSpace, name).ifPresent(this::remove);
+        }
+
+        @Override
+        public void remove(final UUID uid) {
+            this.removeAll(List.of(uid));
+        }
+
+        @Override
+        public void removeAll(final Collection<UUID> uids) {
+            this.check();
+            this.writes.incrementAndGet();
+            this.data.removeAll(uids);
+        }
+
+        private void check() {
+            if (this.down) {
+                throw new PersistenceStoreException("backend is down");
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * TimingWheelTest -- compares the wheel with a plain map of expiry times.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+class TimingWheelTest {
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void shouldExpireLikeAPlainMapWhenRandomlyChanged() {
+        final Random random = new Random(42);
+        final HashMap<Integer, Long> expected = new HashMap<>();
+        final TimingWheel<Integer> sut = new TimingWheel<>(Duration.ofMillis(10), START);
+
+        long now = START;
+        for (int i = 0; i < 20_000; i++) {
+            final int key = random.nextInt(500);
+
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    // up to some days ahead, so every level of the wheel is used.
+                    final long expires = now + (long) Math.pow(10, random.nextInt(9)) * random.nextInt(10);
+                    // rounded up to the tick, but never due within the current tick.
+                    expected.put(key, Math.max(roundUp(expires), (Math.floorDiv(now, 10) + 1) * 10));
+                    sut.schedule(key, expires);
+                }
+                case 1 -> assertEquals(expected.remove(key) != null, sut.cancel(key));
+                default -> {
+                    now += (long) Math.pow(10, random.nextInt(8));
+
+                    final long limit = now;
+                    final Set<Integer> due = expected.entrySet().stream()
+                            .filter(e -> e.getValue() <= limit)
+                            .map(Map.Entry::getKey)
+                            .collect(Collectors.toSet());
+
+                    assertEquals(due, new HashSet<>(sut.advance(now, Integer.MAX_VALUE)), "tick " + i);
+                    due.forEach(expected::remove);
+                }
+            }
+
+            assertEquals(expected.size(), sut.size());
+        }
+    }
+
+    @Test
+    void shouldNeverExpireEarlyWhenTimeIsWithinATick() {
+        final TimingWheel<String> sut = new TimingWheel<>(Duration.ofSeconds(1), START);
+
+        sut.schedule("a", START + 1_500);
+
+        assertEquals(List.of(), sut.advance(START + 1_999, 10));
+        assertEquals(List.of("a"), sut.advance(START + 2_000, 10));
+    }
+
+    @Test
+    void shouldReturnRestWithNextCallWhenMoreThanLimitExpired() {
+        final TimingWheel<Integer> sut = new TimingWheel<>(Duration.ofSeconds(1), START);
+        for (int i = 0; i < 25; i++) {
+            sut.schedule(i, START + 1_000L * i);
+        }
+
+        assertEquals(10, sut.advance(START + 100_000, 10).size());
+        assertEquals(10, sut.advance(START + 100_000, 10).size());
+        assertEquals(5, sut.advance(START + 100_000, 10).size());
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    void shouldExpireRightAwayWhenScheduledInThePast() {
+        final TimingWheel<String> sut = new TimingWheel<>(Duration.ofSeconds(1), START);
+        sut.advance(START + 60_000, 10);
+
+        sut.schedule("late", START);
+
+        assertTrue(sut.contains("late"));
+        assertEquals(List.of("late"), sut.advance(START + 61_000, 10));
+        assertFalse(sut.contains("late"));
+    }
+
+    private static long roundUp(final long expires) {
+        return -Math.floorDiv(-expires, 10) * 10;
+    }
+}
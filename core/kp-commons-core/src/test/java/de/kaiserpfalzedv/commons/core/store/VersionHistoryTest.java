@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * VersionHistoryTest -- checks the recording and collection of old versions.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class VersionHistoryTest extends AbstractTestBase {
+    private final VersionHistory<String> sut = new VersionHistory<>(4);
+
+
+    public VersionHistoryTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldNotRecordWhenNoSnapshotIsOpen() {
+        this.startTest("untracked");
+
+        final long commit = this.sut.begin(0);
+        this.sut.record("key", commit, "old");
+        this.sut.end(0);
+
+        assertEquals(VersionHistory.UNTRACKED, commit);
+        assertEquals(0, this.sut.size());
+    }
+
+    @Test
+    void shouldDropRecordsWhenNoSnapshotNeedsThem() {
+        this.startTest("collect");
+
+        final VersionHistory.Pin first = this.sut.pin();
+        this.write("key", "v0");
+        final VersionHistory.Pin second = this.sut.pin();
+        this.write("key", "v1");
+
+        assertEquals("v0", this.sut.read("key", "v2", first.version()));
+        assertEquals("v1", this.sut.read("key", "v2", second.version()));
+
+        this.sut.release(first);
+        assertEquals(1, this.sut.size());
+        assertEquals("v1", this.sut.read("key", "v2", second.version()));
+
+        this.sut.release(second);
+        assertEquals(0, this.sut.size());
+    }
+
+    @Test
+    void shouldReturnValueBeforeFirstChangeWhenKeyChangedTwiceInOneCommit() {
+        this.startTest("batch-commit");
+
+        final VersionHistory.Pin pin = this.sut.pin();
+
+        final long commit = this.sut.begin(1);
+        this.sut.record("key", commit, null);
+        this.sut.record("key", commit, "intermediate");
+        this.sut.end(1);
+
+        assertNull(this.sut.read("key", "final", pin.version()));
+        this.sut.release(pin);
+    }
+
+
+    private void write(final String key, final String previous) {
+        final long commit = this.sut.begin(2);
+        this.sut.record(key, commit, previous);
+        this.sut.end(2);
+    }
+}
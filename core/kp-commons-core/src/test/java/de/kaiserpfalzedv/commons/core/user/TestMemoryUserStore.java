@@ -168,6 +168,28 @@ public class TestMemoryUserStore extends AbstractTestBase {
         assertEquals(OTHER, result.get());
     }
 
+    @Test
+    void shouldKeepResourcesApartWhenNameSpaceAndNameConcatenateToTheSameString() {
+        this.startTest("no-composite-key-collision");
+
+        final User first = createUser("a-b", "c");
+        final User second = createUser("a", "b-c");
+
+        this.sut.save(first);
+        this.sut.save(second);
+
+        assertEquals(first.getUid(), this.sut.findByNameSpaceAndName("a-b", "c").orElseThrow().getUid());
+        assertEquals(second.getUid(), this.sut.findByNameSpaceAndName("a", "b-c").orElseThrow().getUid());
+        assertEquals(0, this.sut.findByUid(second.getUid()).orElseThrow().getGeneration());
+    }
+
+    private static User createUser(final String nameSpace, final String name) {
+        return UserImpl.builder()
+                .metadata(MetadataImpl.of(User.KIND, User.API_VERSION, nameSpace, name).build())
+                .spec(UserDataImpl.builder().name(name).build())
+                .build();
+    }
+
     @Test
     public void shouldDeleteByNameWhenTheDataExists() {
         this.startTest("delete-existing-by-name");
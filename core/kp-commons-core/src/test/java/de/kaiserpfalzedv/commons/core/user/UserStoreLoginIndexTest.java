@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.core.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import de.kaiserpfalzedv.commons.api.store.BatchStore;
+import de.kaiserpfalzedv.commons.api.user.LoginStore;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.api.user.UserData;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * UserStoreLoginIndexTest -- checks the lookup of users by the issuer and subject of their OIDC login.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class UserStoreLoginIndexTest extends AbstractTestBase {
+    private static final String NAMESPACE = "logins";
+    private static final String ISSUER = "https://sso.kaiserpfalz-edv.de/realms/test";
+
+
+    public UserStoreLoginIndexTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    static Stream<Arguments> stores() {
+        return Stream.of(
+                Arguments.of("memory", (Supplier<LoginStore>) MemoryUserStore::new),
+                Arguments.of("off-heap", (Supplier<LoginStore>) OffHeapUserStore::new)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void shouldFindUserWhenIssuerAndSubjectMatch(final String variant, final Supplier<LoginStore> factory) {
+        this.startTest("find-login", variant);
+
+        final LoginStore sut = factory.get();
+        final User saved = sut.save(createUser("a", ISSUER, "subject-a"));
+        sut.save(createUser("b", ISSUER, "subject-b"));
+        sut.save(createUser("c", null, null));
+
+        assertEquals(saved, sut.findByIssuerAndSubject(ISSUER, "subject-a").orElseThrow());
+        assertFalse(sut.findByIssuerAndSubject(ISSUER, "subject-c").isPresent());
+        assertFalse(sut.findByIssuerAndSubject("https://other", "subject-a").isPresent());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void shouldFollowSubjectWhenUserIsChanged(final String variant, final Supplier<LoginStore> factory) {
+        this.startTest("change-login", variant);
+
+        final LoginStore sut = factory.get();
+        final User saved = sut.save(createUser("a", ISSUER, "old"));
+
+        final User changed = sut.save(UserImpl.builder()
+                .metadata(saved.getMetadata())
+                .spec(loginData("a", ISSUER, "new"))
+                .build());
+
+        assertFalse(sut.findByIssuerAndSubject(ISSUER, "old").isPresent());
+        assertEquals(changed, sut.findByIssuerAndSubject(ISSUER, "new").orElseThrow());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void shouldNotFindUserWhenRemoved(final String variant, final Supplier<LoginStore> factory) {
+        this.startTest("remove-login", variant);
+
+        final LoginStore sut = factory.get();
+        final User a = sut.save(createUser("a", ISSUER, "subject-a"));
+        final User b = sut.save(createUser("b", ISSUER, "subject-b"));
+
+        sut.remove(a.getUid());
+        ((BatchStore<User>) sut).removeAll(List.of(b.getUid()));
+
+        assertFalse(sut.findByIssuerAndSubject(ISSUER, "subject-a").isPresent());
+        assertFalse(sut.findByIssuerAndSubject(ISSUER, "subject-b").isPresent());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void shouldFindOtherUserWhenLastSavedUserWithSameLoginIsRemoved(final String variant, final Supplier<LoginStore> factory) {
+        this.startTest("shared-login", variant);
+
+        final LoginStore sut = factory.get();
+        final User first = sut.save(createUser("a", ISSUER, "shared"));
+        final User second = sut.save(createUser("b", ISSUER, "shared"));
+
+        assertEquals(second, sut.findByIssuerAndSubject(ISSUER, "shared").orElseThrow());
+
+        sut.remove(second.getUid());
+
+        assertEquals(first, sut.findByIssuerAndSubject(ISSUER, "shared").orElseThrow());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void shouldNotFindUserWhenIssuerOrSubjectIsNull(final String variant, final Supplier<LoginStore> factory) {
+        this.startTest("null-login", variant);
+
+        final LoginStore sut = factory.get();
+        sut.save(createUser("a", ISSUER, "subject-a"));
+
+        assertFalse(sut.findByIssuerAndSubject(null, "subject-a").isPresent());
+        assertFalse(sut.findByIssuerAndSubject(ISSUER, null).isPresent());
+    }
+
+
+    private static User createUser(final String name, final String issuer, final String subject) {
+        return UserImpl.builder()
+                .metadata(
+                        MetadataImpl.of(User.KIND, User.API_VERSION, NAMESPACE, name)
+                                .uid(UUID.randomUUID())
+                                .build()
+                )
+                .spec(loginData(name, issuer, subject))
+                .build();
+    }
+
+    private static UserDataImpl loginData(final String name, final String issuer, final String subject) {
+        final HashMap<String, String> properties = new HashMap<>();
+        if (issuer != null) {
+            properties.put(UserData.ISSUER, issuer);
+            properties.put(UserData.SUBJECT, subject);
+        }
+
+        return UserDataImpl.builder().name(name).properties(properties).build();
+    }
+}
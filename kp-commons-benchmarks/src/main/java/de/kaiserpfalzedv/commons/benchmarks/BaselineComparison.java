@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Getter;
+
+/**
+ * BaselineComparison -- compares two JMH result files in the JSON format.
+ * <p>
+ * Benchmarks are matched by name, mode and parameters. A benchmark has regressed when its score is worse than the
+ * baseline by more than the threshold (in percent) <em>and</em> the difference is larger than the sum of both score
+ * errors. The second condition keeps noisy benchmarks from failing the comparison. "Worse" depends on the mode: in
+ * throughput mode a lower score is worse, in all time based modes a higher one.
+ * <p>
+ * Benchmarks that are only in one of the files are listed, but never count as regressions.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Getter
+public final class BaselineComparison {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** The threshold in percent a score may be worse than the baseline. */
+    private final double threshold;
+
+    /** All benchmarks found in both files. */
+    private final List<Difference> differences;
+
+    /** The keys of the benchmarks only found in the result. */
+    private final List<String> added;
+
+    /** The keys of the benchmarks only found in the baseline. */
+    private final List<String> missing;
+
+
+    private BaselineComparison(
+            final double threshold,
+            final List<Difference> differences,
+            final List<String> added,
+            final List<String> missing
+    ) {
+        this.threshold = threshold;
+        this.differences = Collections.unmodifiableList(differences);
+        this.added = Collections.unmodifiableList(added);
+        this.missing = Collections.unmodifiableList(missing);
+    }
+
+
+    /**
+     * Reads both files and compares them.
+     *
+     * @param result    the JSON result file of the current run.
+     * @param baseline  the stored JSON result file to compare with.
+     * @param threshold the threshold in percent a score may be worse than the baseline.
+     * @return the comparison.
+     * @throws IOException if one of the files can't be read.
+     */
+    public static BaselineComparison compare(final Path result, final Path baseline, final double threshold) throws IOException {
+        return compare(MAPPER.readTree(result.toFile()), MAPPER.readTree(baseline.toFile()), threshold);
+    }
+
+    /**
+     * Compares two parsed result files.
+     *
+     * @param result    the JSON result of the current run.
+     * @param baseline  the stored JSON result to compare with.
+     * @param threshold the threshold in percent a score may be worse than the baseline.
+     * @return the comparison.
+     */
+    public static BaselineComparison compare(final JsonNode result, final JsonNode baseline, final double threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("The threshold must not be negative. threshold=" + threshold);
+        }
+
+        final Map<String, JsonNode> current = index(result);
+        final Map<String, JsonNode> stored = index(baseline);
+
+        final ArrayList<Difference> differences = new ArrayList<>();
+        final ArrayList<String> added = new ArrayList<>();
+
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            final JsonNode base = stored.remove(entry.getKey());
+
+            if (base == null) {
+                added.add(entry.getKey());
+                continue;
+            }
+
+            final JsonNode metric = entry.getValue().path("primaryMetric");
+            final JsonNode baseMetric = base.path("primaryMetric");
+
+            differences.add(new Difference(
+                    entry.getKey(),
+                    entry.getValue().path("mode").asText(),
+                    metric.path("scoreUnit").asText(),
+                    baseMetric.path("score").asDouble(),
+                    error(baseMetric),
+                    metric.path("score").asDouble(),
+                    error(metric)
+            ));
+        }
+
+        return new BaselineComparison(threshold, differences, added, new ArrayList<>(stored.keySet()));
+    }
+
+    private static Map<String, JsonNode> index(final JsonNode results) {
+        final LinkedHashMap<String, JsonNode> result = new LinkedHashMap<>();
+
+        for (JsonNode benchmark : results) {
+            result.put(key(benchmark), benchmark);
+        }
+
+        return result;
+    }
+
+    private static String key(final JsonNode benchmark) {
+        final StringBuilder result = new StringBuilder(benchmark.path("benchmark").asText())
+                .append(" (").append(benchmark.path("mode").asText()).append(')');
+
+        final TreeMap<String, String> params = new TreeMap<>();
+        for (Map.Entry<String, JsonNode> param : benchmark.path("params").properties()) {
+            params.put(param.getKey(), param.getValue().asText());
+        }
+
+        params.forEach((name, value) -> result.append(' ').append(name).append('=').append(value));
+
+        return result.toString();
+    }
+
+    private static double error(final JsonNode metric) {
+        final double result = metric.path("scoreError").asDouble(0d);
+
+        return Double.isNaN(result) ? 0d : result;
+    }
+
+
+    /**
+     * @return the benchmarks that regressed beyond the threshold.
+     */
+    public List<Difference> getRegressions() {
+        return this.differences.stream()
+                .filter(d -> d.isRegression(this.threshold))
+                .toList();
+    }
+
+    /**
+     * @return true if at least one benchmark regressed beyond the threshold.
+     */
+    public boolean hasRegressions() {
+        return this.differences.stream().anyMatch(d -> d.isRegression(this.threshold));
+    }
+
+
+    /**
+     * The scores of one benchmark in the baseline and the current result.
+     *
+     * @param key           benchmark name, mode and parameters.
+     * @param mode          the JMH mode ({@code thrpt}, {@code avgt}, {@code sample} or {@code ss}).
+     * @param unit          the unit of the scores.
+     * @param baseline      the score of the baseline.
+     * @param baselineError the score error of the baseline.
+     * @param score         the score of the current result.
+     * @param scoreError    the score error of the current result.
+     */
+    public record Difference(
+            String key,
+            String mode,
+            String unit,
+            double baseline,
+            double baselineError,
+            double score,
+            double scoreError
+    ) {
+        /**
+         * @return the change in percent, positive values are worse than the baseline.
+         */
+        public double change() {
+            if (this.baseline == 0d) {
+                return 0d;
+            }
+
+            final double result = (this.score - this.baseline) / this.baseline * 100d;
+
+            return "thrpt".equals(this.mode) ? -result : result;
+        }
+
+        /**
+         * @param threshold the threshold in percent a score may be worse than the baseline.
+         * @return true if the score is worse than the threshold allows and the difference is not noise.
+         */
+        public boolean isRegression(final double threshold) {
+            return change() > threshold && Math.abs(this.score - this.baseline) > this.scoreError + this.baselineError;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * BenchmarkRunner -- the main class of {@code benchmarks.jar}.
+ * <p>
+ * Runs the JMH suites and writes the results as JSON. If a baseline is given, the results are compared with it and
+ * the runner exits with {@value #EXIT_REGRESSION} when a benchmark regressed (see {@link BaselineComparison}).
+ * <pre>
+ * java -jar target/benchmarks.jar [--result FILE] [--baseline FILE] [--threshold PERCENT] [--compare-only] [JMH options]
+ * </pre>
+ * <dl>
+ *     <dt>{@code --result FILE}</dt><dd>the JSON result file (default: {@value #DEFAULT_RESULT}).</dd>
+ *     <dt>{@code --baseline FILE}</dt><dd>a JSON result file of an earlier run to compare with.</dd>
+ *     <dt>{@code --threshold PERCENT}</dt><dd>how much worse a score may get (default: {@value #DEFAULT_THRESHOLD}).</dd>
+ *     <dt>{@code --compare-only}</dt><dd>compare an existing result file without running the benchmarks.</dd>
+ * </dl>
+ * All other arguments are passed to JMH, e.g. a benchmark regex like {@code GenericStoreService} or {@code -f 2}.
+ * A baseline is stored by copying the result file of a run on the reference machine.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public final class BenchmarkRunner {
+    static final String DEFAULT_RESULT = "target/jmh-result.json";
+    static final double DEFAULT_THRESHOLD = 10d;
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_REGRESSION = 1;
+    static final int EXIT_USAGE = 2;
+
+    private Path result = Path.of(DEFAULT_RESULT);
+    private Path baseline;
+    private double threshold = DEFAULT_THRESHOLD;
+    private boolean compareOnly = false;
+    private final List<String> jmhArguments = new ArrayList<>();
+
+
+    private BenchmarkRunner() {}
+
+
+    public static void main(final String[] args) throws IOException, RunnerException {
+        System.exit(new BenchmarkRunner().run(args));
+    }
+
+    int run(final String[] args) throws IOException, RunnerException {
+        try {
+            this.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("usage: java -jar benchmarks.jar [--result FILE] [--baseline FILE] [--threshold PERCENT] [--compare-only] [JMH options]");
+            return EXIT_USAGE;
+        }
+
+        if (!this.compareOnly) {
+            final CommandLineOptions jmh;
+            try {
+                jmh = new CommandLineOptions(this.jmhArguments.toArray(String[]::new));
+            } catch (CommandLineOptionException e) {
+                System.err.println(e.getMessage());
+                return EXIT_USAGE;
+            }
+
+            new Runner(new OptionsBuilder()
+                    .parent(jmh)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(this.result.toString())
+                    .build()
+            ).run();
+        }
+
+        if (this.baseline == null) {
+            return EXIT_OK;
+        }
+
+        final BaselineComparison comparison = BaselineComparison.compare(this.result, this.baseline, this.threshold);
+        report(comparison);
+
+        return comparison.hasRegressions() ? EXIT_REGRESSION : EXIT_OK;
+    }
+
+    private void parse(final String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--result" -> this.result = Path.of(value(args, ++i, "--result"));
+                case "--baseline" -> this.baseline = Path.of(value(args, ++i, "--baseline"));
+                case "--threshold" -> {
+                    try {
+                        this.threshold = Double.parseDouble(value(args, ++i, "--threshold"));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("The threshold must be a number. threshold=" + args[i]);
+                    }
+                }
+                case "--compare-only" -> this.compareOnly = true;
+                default -> this.jmhArguments.add(args[i]);
+            }
+        }
+
+        if (this.compareOnly && this.baseline == null) {
+            throw new IllegalArgumentException("--compare-only needs a --baseline.");
+        }
+    }
+
+    private static String value(final String[] args, final int index, final String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(option + " needs a value.");
+        }
+
+        return args[index];
+    }
+
+    private static void report(final BaselineComparison comparison) {
+        System.out.printf(Locale.ROOT, "%nComparison with the baseline (threshold %.1f%%):%n", comparison.getThreshold());
+
+        for (BaselineComparison.Difference difference : comparison.getDifferences()) {
+            System.out.printf(Locale.ROOT, "%-12s %+8.2f%%  %14.3f -> %14.3f %-8s %s%n",
+                    difference.isRegression(comparison.getThreshold()) ? "REGRESSION" : "ok",
+                    difference.change(),
+                    difference.baseline(), difference.score(), difference.unit(),
+                    difference.key()
+            );
+        }
+
+        comparison.getAdded().forEach(key -> System.out.printf(Locale.ROOT, "%-12s %s%n", "new", key));
+        comparison.getMissing().forEach(key -> System.out.printf(Locale.ROOT, "%-12s %s%n", "missing", key));
+
+        System.out.printf(Locale.ROOT, "%d of %d benchmarks regressed.%n",
+                comparison.getRegressions().size(), comparison.getDifferences().size());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks.data;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.kaiserpfalzedv.commons.api.data.Paging;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
+
+/**
+ * PagingBenchmark -- the navigation of {@link PagingImpl}.
+ * <p>
+ * The page sits in the middle of 10.000 elements so no navigation ends at the borders.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PagingBenchmark {
+    private Paging paging;
+
+
+    @Setup
+    public void setup() {
+        this.paging = PagingImpl.builder().start(5_000).size(20).count(20).total(10_000).build();
+    }
+
+
+    @Benchmark
+    public Paging firstPage() {
+        return this.paging.firstPage();
+    }
+
+    @Benchmark
+    public Paging previousPage() {
+        return this.paging.previousPage();
+    }
+
+    @Benchmark
+    public Paging nextPage() {
+        return this.paging.nextPage();
+    }
+
+    @Benchmark
+    public Paging lastPage() {
+        return this.paging.lastPage();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks.dnb;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.kaiserpfalzedv.services.dnb.marcxml.MarcConverter;
+import de.kaiserpfalzedv.services.dnb.model.Book;
+
+/**
+ * MarcConverterBenchmark -- {@link MarcConverter#convert(String)} of a MARC21 answer of the DNB.
+ * <p>
+ * The answer is the one the tests of {@code kp-commons-dnb-lookup} use ({@code lex-arcana.marc21.xml}).
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarcConverterBenchmark {
+    private MarcConverter converter;
+    private String xml;
+
+
+    @Setup
+    public void setup() throws IOException {
+        this.converter = new MarcConverter();
+
+        try (InputStream is = MarcConverterBenchmark.class.getClassLoader().getResourceAsStream("lex-arcana.marc21.xml")) {
+            if (is == null) {
+                throw new IOException("The MARC21 fixture 'lex-arcana.marc21.xml' is missing.");
+            }
+
+            this.xml = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+
+    @Benchmark
+    public List<Book> convert() {
+        return this.converter.convert(this.xml);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks.i18n;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.kaiserpfalzedv.commons.core.i18n.ResourceBundleTranslator;
+
+/**
+ * TranslatorBenchmark -- {@link ResourceBundleTranslator#getTranslation(String, Locale, Object...)} with loaded
+ * bundles.
+ * <p>
+ * The bundles are loaded in the setup, so the benchmarks measure the bundle lookup and the message formatting, not
+ * the class path scan.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranslatorBenchmark {
+    private ResourceBundleTranslator translator;
+
+
+    @Setup
+    public void setup() {
+        this.translator = new ResourceBundleTranslator("benchmark-messages");
+
+        this.translator.getTranslation("benchmark.no-params", Locale.GERMAN);
+        this.translator.getTranslation("benchmark.no-params", Locale.ENGLISH);
+    }
+
+
+    @Benchmark
+    public String withoutParameters() {
+        return this.translator.getTranslation("benchmark.no-params", Locale.GERMAN);
+    }
+
+    @Benchmark
+    public String withParameters() {
+        return this.translator.getTranslation("benchmark.with-params", Locale.ENGLISH, "first", 2);
+    }
+}
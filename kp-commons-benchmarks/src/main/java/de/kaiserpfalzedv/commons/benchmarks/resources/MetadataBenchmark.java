@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks.resources;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+
+/**
+ * MetadataBenchmark -- the copies of {@link MetadataImpl} every save of a store makes.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetadataBenchmark {
+    private static final OffsetDateTime DELETED = OffsetDateTime.parse("2026-10-18T00:00:00Z");
+
+    private MetadataImpl metadata;
+
+
+    @Setup
+    public void setup() {
+        this.metadata = MetadataImpl.of(User.KIND, User.API_VERSION, "benchmark", "metadata")
+                .uid(UUID.randomUUID())
+                .labels(Map.of("tier", "backend", "env", "prod"))
+                .annotations(Map.of("description", "a resource for the benchmark"))
+                .build();
+    }
+
+
+    @Benchmark
+    public MetadataImpl increaseGeneration() {
+        return this.metadata.increaseGeneration();
+    }
+
+    @Benchmark
+    public MetadataImpl toBuilder() {
+        return this.metadata.toBuilder().build();
+    }
+
+    @Benchmark
+    public MetadataImpl toBuilderWithChange() {
+        return this.metadata.toBuilder().deleted(DELETED).build();
+    }
+}
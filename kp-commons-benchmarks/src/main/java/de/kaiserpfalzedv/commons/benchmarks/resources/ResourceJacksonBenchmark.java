@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks.resources;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+import de.kaiserpfalzedv.commons.core.resources.ResourceImpl;
+import de.kaiserpfalzedv.commons.core.store.JacksonResourceCodec;
+import de.kaiserpfalzedv.commons.core.user.UserDataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+
+/**
+ * ResourceJacksonBenchmark -- Jackson round-trips of a {@link ResourceImpl}.
+ * <p>
+ * The resource is a {@link UserImpl}, the mapper the one the stores use ({@link JacksonResourceCodec#defaultMapper()}).
+ * Reader and writer are prepared in the setup as a production caller would do it.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceJacksonBenchmark {
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private UserImpl resource;
+    private byte[] json;
+
+
+    @Setup
+    public void setup() throws IOException {
+        final ObjectMapper mapper = JacksonResourceCodec.defaultMapper();
+
+        this.writer = mapper.writerFor(UserImpl.class);
+        this.reader = mapper.readerFor(UserImpl.class);
+
+        this.resource = UserImpl.builder()
+                .metadata(
+                        MetadataImpl.of(User.KIND, User.API_VERSION, "benchmark", "jackson")
+                                .uid(UUID.randomUUID())
+                                .labels(Map.of("tier", "backend", "env", "prod"))
+                                .annotations(Map.of("description", "a resource for the benchmark"))
+                                .build()
+                )
+                .spec(UserDataImpl.builder().name("jackson").build())
+                .build();
+
+        this.json = this.writer.writeValueAsBytes(this.resource);
+    }
+
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return this.writer.writeValueAsBytes(this.resource);
+    }
+
+    @Benchmark
+    public UserImpl deserialize() throws IOException {
+        return this.reader.readValue(this.json);
+    }
+
+    @Benchmark
+    public UserImpl roundTrip() throws IOException {
+        return this.reader.readValue(this.writer.writeValueAsBytes(this.resource));
+    }
+}
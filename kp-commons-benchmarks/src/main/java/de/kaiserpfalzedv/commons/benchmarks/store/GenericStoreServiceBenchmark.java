@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks.store;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.store.LabelSelector;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
+import de.kaiserpfalzedv.commons.core.store.GenericStoreService;
+import de.kaiserpfalzedv.commons.core.store.LabelSelectorImpl;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+
+/**
+ * GenericStoreServiceBenchmark -- the read and write paths of the in-memory store.
+ * <p>
+ * The store is filled with {@link #size} users spread over ten namespaces. Every tenth user carries the label
+ * {@code tier=backend} for the selector benchmark. The lookups pick a random user per invocation to keep the
+ * branch predictor and the caches honest.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenericStoreServiceBenchmark {
+    private static final int NAMESPACES = 10;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private GenericStoreService<User> store;
+    private UUID[] uids;
+    private String[] nameSpaces;
+    private String[] names;
+    private LabelSelector selector;
+
+
+    @Setup
+    public void setup() {
+        this.store = new MemoryUserStore();
+        this.uids = new UUID[this.size];
+        this.nameSpaces = new String[this.size];
+        this.names = new String[this.size];
+
+        for (int i = 0; i < this.size; i++) {
+            this.nameSpaces[i] = "namespace-" + (i % NAMESPACES);
+            this.names[i] = "user-" + i;
+
+            final User user = this.store.save(StoreFixtures.createUser(
+                    this.nameSpaces[i], this.names[i],
+                    i % 10 == 0 ? Map.of("tier", "backend") : Map.of("tier", "frontend")
+            ));
+
+            this.uids[i] = user.getUid();
+        }
+
+        this.selector = LabelSelectorImpl.parse("tier=backend");
+    }
+
+
+    @Benchmark
+    public Optional<User> findByUid() {
+        return this.store.findByUid(this.uids[ThreadLocalRandom.current().nextInt(this.size)]);
+    }
+
+    @Benchmark
+    public Optional<User> findByNameSpaceAndName() {
+        final int i = ThreadLocalRandom.current().nextInt(this.size);
+
+        return this.store.findByNameSpaceAndName(this.nameSpaces[i], this.names[i]);
+    }
+
+    @Benchmark
+    public PagedResult<User> findAllByNameSpace() {
+        final int i = ThreadLocalRandom.current().nextInt(this.size);
+
+        return this.store.findAllByNameSpace(this.nameSpaces[i], PagingImpl.builder().start(i / NAMESPACES).size(20).build());
+    }
+
+    /**
+     * Completes a name with two characters missing (e.g. {@code user-123} for {@code user-12345}). Run it with
+     * {@code -p size=1000000} for a large store.
+     */
+    @Benchmark
+    public List<User> findByNameSpaceAndNamePrefix() {
+        final int i = ThreadLocalRandom.current().nextInt(this.size);
+        final String prefix = this.names[i].substring(0, Math.max(this.names[i].length() - 2, 0));
+
+        return this.store.findByNameSpaceAndNamePrefix(this.nameSpaces[i], prefix, 10);
+    }
+
+    @Benchmark
+    public List<User> findBySelector() {
+        return this.store.findByNameSpaceAndSelector(this.nameSpaces[ThreadLocalRandom.current().nextInt(NAMESPACES)], this.selector);
+    }
+
+    @Benchmark
+    public User save() {
+        final UUID uid = this.uids[ThreadLocalRandom.current().nextInt(this.size)];
+
+        return this.store.save(this.store.findByUid(uid).orElseThrow());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks.store;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.kaiserpfalzedv.commons.api.store.StoreService;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.store.OffHeapStoreService;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+import de.kaiserpfalzedv.commons.core.user.OffHeapUserStore;
+
+/**
+ * OffHeapStoreBenchmark -- compares the in-memory store with the off-heap store.
+ * <p>
+ * The setup fills the store with {@link #size} users and prints the heap retained per user, measured after a full
+ * collection. The benchmarks measure the cost of decoding on every read. Run it with {@code -prof gc} to compare the
+ * allocation rate and the collection counts and times of the variants:
+ * <pre>
+ * java -jar target/benchmarks.jar OffHeapStoreBenchmark -prof gc
+ * </pre>
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class OffHeapStoreBenchmark {
+    private static final int NAMESPACES = 10;
+    private static final int HOT_CACHE_SIZE = 10_000;
+
+    @Param({"memory", "off-heap", "off-heap-cached"})
+    public String variant;
+
+    @Param({"100000"})
+    public int size;
+
+    private StoreService<User> store;
+    private UUID[] uids;
+
+
+    @Setup
+    public void setup() {
+        final long before = usedHeap();
+
+        this.store = switch (this.variant) {
+            case "memory" -> new MemoryUserStore();
+            case "off-heap" -> new OffHeapUserStore();
+            case "off-heap-cached" -> new OffHeapUserStore(OffHeapStoreService.DEFAULT_SLAB_SIZE, HOT_CACHE_SIZE);
+            default -> throw new IllegalArgumentException("Unknown variant: " + this.variant);
+        };
+
+        this.uids = new UUID[this.size];
+        for (int i = 0; i < this.size; i++) {
+            this.uids[i] = this.store.save(StoreFixtures.createUser("namespace-" + (i % NAMESPACES), "user-" + i)).getUid();
+        }
+
+        final long retained = usedHeap() - before;
+        System.out.printf("%n%s: retained heap %d bytes (%d bytes per user)%s%n",
+                this.variant, retained, retained / this.size,
+                this.store instanceof OffHeapStoreService<?> offHeap
+                        ? String.format(", off-heap %d bytes (%d bytes per user)", offHeap.getOffHeapBytes(), offHeap.getLiveBytes() / this.size)
+                        : ""
+        );
+    }
+
+
+    @Benchmark
+    public Optional<User> findByUid() {
+        return this.store.findByUid(this.uids[ThreadLocalRandom.current().nextInt(this.size)]);
+    }
+
+    @Benchmark
+    public User save() {
+        final UUID uid = this.uids[ThreadLocalRandom.current().nextInt(this.size)];
+
+        return this.store.save(this.store.findByUid(uid).orElseThrow());
+    }
+
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
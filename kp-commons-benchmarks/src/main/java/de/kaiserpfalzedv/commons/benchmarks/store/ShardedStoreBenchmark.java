@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks.store;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.store.StoreService;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.store.GenericStoreService;
+import de.kaiserpfalzedv.commons.core.store.ShardedStoreService;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+
+/**
+ * ShardedStoreBenchmark -- compares concurrent writers on the striped memory store with the sharded store.
+ * <p>
+ * All threads save random resources out of {@value #RESOURCES}, with one read per save. The {@code striped} store
+ * locks per stripe on the caller threads, the {@code sharded} store hands every save to the writer of its shard.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class ShardedStoreBenchmark {
+    static final int RESOURCES = 10_000;
+
+    @Param({"striped", "sharded"})
+    public String type;
+
+    private StoreService<User> store;
+    private AtomicReferenceArray<User> current;
+
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        this.store = "sharded".equals(this.type)
+                ? new ShardedStoreService<User>(() -> new GenericStoreService<User>(1) {})
+                : new MemoryUserStore();
+
+        this.current = new AtomicReferenceArray<>(RESOURCES);
+        for (int i = 0; i < RESOURCES; i++) {
+            this.current.set(i, this.store.save(StoreFixtures.createUser("benchmark", "user-" + i)));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (this.store instanceof ShardedStoreService<User> sharded) {
+            sharded.close();
+        }
+    }
+
+
+    @Benchmark
+    public User save() {
+        final int i = ThreadLocalRandom.current().nextInt(RESOURCES);
+
+        try {
+            final User saved = this.store.save(this.store.findByUid(this.current.get(i).getUid()).orElseThrow());
+            this.current.set(i, saved);
+            return saved;
+        } catch (final OptimisticLockStoreException e) {
+            // another thread saved the same resource in between.
+            return null;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks.store;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.store.GenericStoreService;
+import de.kaiserpfalzedv.commons.core.store.JacksonResourceCodec;
+import de.kaiserpfalzedv.commons.core.store.LogStoreService;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+
+/**
+ * StoreBatchBenchmark -- compares the cost per resource of single saves with batch saves.
+ * <p>
+ * Both benchmarks update the same {@value #BATCH_SIZE} resources, so every save passes the lookup, the optimistic
+ * locking and the index updates. The scores are per resource. The {@code memory} store shows the overhead of the
+ * batch itself, the {@code log} store the saving of writing one record and one fsync per batch.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StoreBatchBenchmark {
+    static final int BATCH_SIZE = 100;
+
+    @Param({"memory", "log"})
+    public String type;
+
+    private GenericStoreService<User> store;
+    private Path directory;
+    private User[] current;
+
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        if ("log".equals(this.type)) {
+            this.directory = Files.createTempDirectory("store-benchmark");
+            this.store = new LogStoreService<>(this.directory, new JacksonResourceCodec<User>(UserImpl.class), 0).open();
+        } else {
+            this.store = new MemoryUserStore();
+        }
+
+        this.current = new User[BATCH_SIZE];
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            this.current[i] = this.store.save(StoreFixtures.createUser("benchmark", "user-" + i));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (this.store instanceof LogStoreService<User> log) {
+            log.close();
+
+            try (Stream<Path> files = Files.walk(this.directory)) {
+                for (final Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public User[] singleSaves() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            this.current[i] = this.store.save(this.current[i]);
+        }
+
+        return this.current;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public User[] batchSave() {
+        final List<User> saved = this.store.saveAll(Arrays.asList(this.current));
+
+        return saved.toArray(this.current);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks.store;
+
+import java.util.Map;
+import java.util.UUID;
+
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserDataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+
+/**
+ * StoreFixtures -- the resources the store benchmarks work on.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+final class StoreFixtures {
+    private StoreFixtures() {}
+
+    static User createUser(final String nameSpace, final String name) {
+        return createUser(nameSpace, name, Map.of());
+    }
+
+    static User createUser(final String nameSpace, final String name, final Map<String, String> labels) {
+        return UserImpl.builder()
+                .metadata(
+                        MetadataImpl.of(User.KIND, User.API_VERSION, nameSpace, name)
+                                .uid(UUID.randomUUID())
+                                .labels(labels)
+                                .build()
+                )
+                .spec(UserDataImpl.builder().name(name).build())
+                .build();
+    }
+}
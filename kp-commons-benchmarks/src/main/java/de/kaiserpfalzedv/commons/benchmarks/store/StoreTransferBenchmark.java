@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks.store;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.store.JacksonResourceCodec;
+import de.kaiserpfalzedv.commons.core.store.StoreExporter;
+import de.kaiserpfalzedv.commons.core.store.StoreImporter;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+
+/**
+ * StoreTransferBenchmark -- measures moving users between stores via an NDJSON file.
+ * <p>
+ * The scores are per user. Multiplied by ten million they give the time needed to move a large store, e.g. 5 us per
+ * user are less than a minute.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@OperationsPerInvocation(StoreTransferBenchmark.SIZE)
+public class StoreTransferBenchmark {
+    static final int SIZE = 200_000;
+    private static final int NAMESPACES = 10;
+    private static final JacksonResourceCodec<User> CODEC = new JacksonResourceCodec<>(UserImpl.class);
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private MemoryUserStore source;
+    private MemoryUserStore target;
+    private Path file;
+
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        this.source = new MemoryUserStore();
+        for (int i = 0; i < SIZE; i++) {
+            this.source.save(StoreFixtures.createUser("namespace-" + (i % NAMESPACES), "user-" + i));
+        }
+
+        this.file = Files.createTempFile("store-transfer", ".ndjson");
+        this.exportSource();
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        this.target = new MemoryUserStore();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+
+    @Benchmark
+    public long exportSource() throws IOException {
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return new StoreExporter<>(this.source, CODEC).exportTo(channel);
+        }
+    }
+
+    @Benchmark
+    public long importTarget() throws IOException {
+        try (
+                FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ);
+                StoreImporter<User> importer = new StoreImporter<>(this.target, CODEC, StoreImporter.DEFAULT_BATCH_SIZE, this.parallelism)
+        ) {
+            return importer.importFrom(channel);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks.store;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.kaiserpfalzedv.commons.api.store.StoreService;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.store.JacksonResourceCodec;
+import de.kaiserpfalzedv.commons.core.store.LogStoreService;
+import de.kaiserpfalzedv.commons.core.store.TieredStoreService;
+import de.kaiserpfalzedv.commons.core.user.MemoryUserStore;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+
+/**
+ * TieredStoreBenchmark -- compares saving to a durable store directly with saving via the write-behind tier.
+ * <p>
+ * The {@link LogStoreService} stands in for a database: every save is forced to disk before it returns, like a
+ * commit. The {@code tiered} store acknowledges the save from memory and writes the latest generation of the
+ * {@value #RESOURCES} resources saved round-robin in batches to the same kind of store.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TieredStoreBenchmark {
+    static final int RESOURCES = 1_000;
+
+    @Param({"direct", "tiered"})
+    public String type;
+
+    private LogStoreService<User> backend;
+    private StoreService<User> store;
+    private Path directory;
+    private User[] current;
+    private int next;
+
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("store-benchmark");
+        this.backend = new LogStoreService<>(this.directory.resolve("backend"), new JacksonResourceCodec<User>(UserImpl.class), 0).open();
+
+        this.store = "tiered".equals(this.type)
+                ? new TieredStoreService<>(new MemoryUserStore(), this.backend, UserImpl.class, this.directory.resolve("overflow")).start()
+                : this.backend;
+
+        this.current = new User[RESOURCES];
+        for (int i = 0; i < RESOURCES; i++) {
+            this.current[i] = this.store.save(StoreFixtures.createUser("benchmark", "user-" + i));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (this.store instanceof TieredStoreService<User> tiered) {
+            tiered.close();
+        }
+        this.backend.close();
+
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+
+    @Benchmark
+    public User save() {
+        final int i = this.next;
+        this.next = (i + 1) % RESOURCES;
+
+        this.current[i] = this.store.save(this.current[i]);
+        return this.current[i];
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.kaiserpfalzedv.commons.test.AbstractTestBase;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * BaselineComparisonTest -- checks the detection of regressions in JMH results.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@Slf4j
+public class BaselineComparisonTest extends AbstractTestBase {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+
+    public BaselineComparisonTest() {
+        this.setTestSuite(this.getClass().getSimpleName());
+        this.setLog(log);
+    }
+
+    @Test
+    void shouldFlagRegressionWhenAverageTimeGrowsBeyondThreshold() {
+        this.startTest("avgt-regression");
+
+        final BaselineComparison result = BaselineComparison.compare(
+                results(benchmark("a.B.save", "avgt", 120, 1, "type", "memory")),
+                results(benchmark("a.B.save", "avgt", 100, 1, "type", "memory")),
+                10
+        );
+
+        assertTrue(result.hasRegressions());
+        assertEquals(20d, result.getRegressions().get(0).change(), 0.001);
+    }
+
+    @Test
+    void shouldNotFlagWhenAverageTimeShrinks() {
+        this.startTest("avgt-improvement");
+
+        final BaselineComparison result = BaselineComparison.compare(
+                results(benchmark("a.B.save", "avgt", 50, 1)),
+                results(benchmark("a.B.save", "avgt", 100, 1)),
+                10
+        );
+
+        assertFalse(result.hasRegressions());
+        assertEquals(-50d, result.getDifferences().get(0).change(), 0.001);
+    }
+
+    @Test
+    void shouldFlagRegressionWhenThroughputDrops() {
+        this.startTest("thrpt-regression");
+
+        final BaselineComparison result = BaselineComparison.compare(
+                results(benchmark("a.B.save", "thrpt", 80, 1)),
+                results(benchmark("a.B.save", "thrpt", 100, 1)),
+                10
+        );
+
+        assertTrue(result.hasRegressions());
+    }
+
+    @Test
+    void shouldNotFlagWhenDifferenceIsWithinScoreErrors() {
+        this.startTest("noise");
+
+        final BaselineComparison result = BaselineComparison.compare(
+                results(benchmark("a.B.save", "avgt", 120, 15)),
+                results(benchmark("a.B.save", "avgt", 100, 10)),
+                10
+        );
+
+        assertFalse(result.hasRegressions());
+    }
+
+    @Test
+    void shouldMatchBenchmarksByParametersWhenNamesAreEqual() {
+        this.startTest("params");
+
+        final BaselineComparison result = BaselineComparison.compare(
+                results(
+                        benchmark("a.B.save", "avgt", 100, 1, "type", "memory"),
+                        benchmark("a.B.save", "avgt", 500, 1, "type", "log")
+                ),
+                results(
+                        benchmark("a.B.save", "avgt", 500, 1, "type", "log"),
+                        benchmark("a.B.save", "avgt", 100, 1, "type", "memory")
+                ),
+                10
+        );
+
+        assertFalse(result.hasRegressions());
+        assertEquals(2, result.getDifferences().size());
+    }
+
+    @Test
+    void shouldListUnmatchedBenchmarksWithoutFlaggingThem() {
+        this.startTest("unmatched");
+
+        final BaselineComparison result = BaselineComparison.compare(
+                results(benchmark("a.B.added", "avgt", 100, 1)),
+                results(benchmark("a.B.removed", "avgt", 100, 1)),
+                10
+        );
+
+        assertFalse(result.hasRegressions());
+        assertEquals(List.of("a.B.added (avgt)"), result.getAdded());
+        assertEquals(List.of("a.B.removed (avgt)"), result.getMissing());
+    }
+
+    @Test
+    void shouldThrowWhenThresholdIsNegative() {
+        this.startTest("negative-threshold");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BaselineComparison.compare(results(), results(), -1));
+    }
+
+
+    private static JsonNode results(final String... benchmarks) {
+        try {
+            return MAPPER.readTree("[" + String.join(",", benchmarks) + "]");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String benchmark(final String name, final String mode, final double score, final double error, final String... params) {
+        final StringBuilder json = new StringBuilder("{\"benchmark\":\"").append(name)
+                .append("\",\"mode\":\"").append(mode).append("\",\"params\":{");
+
+        for (int i = 0; i < params.length; i += 2) {
+            json.append(i == 0 ? "" : ",").append('"').append(params[i]).append("\":\"").append(params[i + 1]).append('"');
+        }
+
+        return json.append("},\"primaryMetric\":{\"score\":").append(score)
+                .append(",\"scoreError\":").append(error)
+                .append(",\"scoreUnit\":\"ns/op\"}}")
+                .toString();
+    }
+}
@@ -0,0 +1,483 @@
+/*
+ * Copyright (c) 2024-2025. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.guava.events;
+
+
+import com.google.common.eventbus.DeadEvent;
+import com.google.common.eventbus.Subscribe;
+import de.kaiserpfalzedv.commons.api.events.EventBus;
+import lombok.extern.slf4j.XSlf4j;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * EventBus delivering the events asynchronously.
+ *
+ * <p>{@link #post(Object)} only queues the event for every subscriber and returns, so a slow subscriber does not add
+ * to the latency of the caller. Subscribers are found by the {@link Subscribe} annotation like with the Guava
+ * EventBus, and events nobody subscribed to are posted again as {@link DeadEvent}.</p>
+ *
+ * <p>Every registered listener has its own bounded queue, drained by one task at a time. So a listener receives the
+ * events in the order they were posted and never concurrently. The tasks run on virtual threads if the JVM offers
+ * them, otherwise on a cached pool of daemon threads.</p>
+ *
+ * <p>Exceptions thrown by a subscriber are logged. Errors are passed on to the thread delivering the event, the events
+ * queued behind it are still delivered.</p>
+ *
+ * <p>When the queue of a listener is full, its {@link OverflowPolicy} decides what happens with the next event.
+ * Events posted by a listener to itself are always queued, a full queue would block it forever otherwise.</p>
+ *
+ * <p>This bus is not imported by {@link EnableGuavaEventBus}, define it as bean to use it instead of the
+ * {@link LoggingEventBus}.</p>
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@XSlf4j
+public class AsyncEventBus implements EventBus, Closeable {
+  /** The default size of the queue of a listener. */
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  private final int capacity;
+  private final OverflowPolicy policy;
+
+  private final Executor executor;
+  /** The executor created by this bus, shut down on {@link #close()}. */
+  private final ExecutorService ownExecutor;
+
+  private final CopyOnWriteArrayList<Mailbox> mailboxes = new CopyOnWriteArrayList<>();
+  private final AtomicLong dropped = new AtomicLong();
+  private volatile boolean closed;
+
+
+  public AsyncEventBus() {
+    this(DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+  }
+
+  /**
+   * @param capacity the default size of the queue of a listener.
+   * @param policy   the default handling of events for a listener with a full queue.
+   */
+  public AsyncEventBus(final int capacity, final OverflowPolicy policy) {
+    this(capacity, policy, null);
+  }
+
+  /**
+   * @param capacity the default size of the queue of a listener.
+   * @param policy   the default handling of events for a listener with a full queue.
+   * @param executor the executor to drain the queues. It is not shut down by this bus. If {@code null}, virtual
+   *                 threads or a cached thread pool are used.
+   */
+  public AsyncEventBus(final int capacity, final OverflowPolicy policy, final Executor executor) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The capacity must be positive. capacity=" + capacity);
+    }
+
+    this.capacity = capacity;
+    this.policy = policy;
+
+    if (executor != null) {
+      this.executor = executor;
+      this.ownExecutor = null;
+    } else {
+      this.ownExecutor = createExecutor();
+      this.executor = this.ownExecutor;
+    }
+  }
+
+  /**
+   * Uses virtual threads if the JVM provides them. The method is looked up reflectively, so the bus also runs on
+   * Java 17.
+   *
+   * @return an executor starting a new (virtual) thread if needed.
+   */
+  private static ExecutorService createExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      log.debug("No virtual threads available, using a cached thread pool. message={}", e.getMessage());
+    }
+
+    return Executors.newCachedThreadPool(r -> {
+      final Thread result = new Thread(r, "async-event-bus");
+      result.setDaemon(true);
+      return result;
+    });
+  }
+
+
+  @Override
+  public void register(final Object listener) {
+    register(listener, this.capacity, this.policy);
+  }
+
+  /**
+   * Registers the listener with its own queue bounds.
+   *
+   * @param listener the listener to register.
+   * @param capacity the size of the queue of the listener.
+   * @param policy   the handling of events when the queue of the listener is full.
+   */
+  public void register(final Object listener, final int capacity, final OverflowPolicy policy) {
+    log.entry(listener, capacity, policy);
+
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The capacity must be positive. capacity=" + capacity);
+    }
+
+    final List<Method> methods = subscriberMethods(listener.getClass());
+    if (methods.isEmpty()) {
+      log.debug("Listener has no methods annotated with @Subscribe, ignored. listener={}", listener);
+      log.exit(listener);
+      return;
+    }
+
+    synchronized (this.mailboxes) {
+      if (find(listener) == null) {
+        this.mailboxes.add(new Mailbox(listener, methods, capacity, policy));
+        log.debug("Registered subscriber. subscriber={}, capacity={}, policy={}", listener, capacity, policy);
+      }
+    }
+
+    log.exit(listener);
+  }
+
+  /**
+   * Events already queued for the listener are still delivered.
+   *
+   * @param listener the listener to unregister.
+   */
+  @Override
+  public void unregister(final Object listener) {
+    log.entry(listener);
+
+    synchronized (this.mailboxes) {
+      final Mailbox mailbox = find(listener);
+
+      if (mailbox != null) {
+        this.mailboxes.remove(mailbox);
+        log.debug("Unregistered subscriber. subscriber={}", listener);
+      } else {
+        log.debug("Unregistering subscriber failed. subscriber={}", listener);
+      }
+    }
+
+    log.exit(listener);
+  }
+
+  private Mailbox find(final Object listener) {
+    for (final Mailbox mailbox : this.mailboxes) {
+      if (mailbox.listener == listener) {
+        return mailbox;
+      }
+    }
+
+    return null;
+  }
+
+  private static List<Method> subscriberMethods(final Class<?> type) {
+    final ArrayList<Method> result = new ArrayList<>();
+
+    for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+      for (final Method method : c.getDeclaredMethods()) {
+        if (method.isAnnotationPresent(Subscribe.class) && !method.isSynthetic()) {
+          if (method.getParameterCount() != 1 || method.getParameterTypes()[0].isPrimitive()) {
+            throw new IllegalArgumentException("A subscriber method needs exactly one non-primitive parameter. method=" + method);
+          }
+
+          method.setAccessible(true);
+          result.add(method);
+        }
+      }
+    }
+
+    return result;
+  }
+
+
+  @Override
+  public void post(final Object event) {
+    log.entry(event);
+
+    if (this.closed) {
+      this.dropped.incrementAndGet();
+      log.warn("Event bus is closed, event dropped. event={}", event);
+      log.exit(event);
+      return;
+    }
+
+    boolean delivered = false;
+    for (final Mailbox mailbox : this.mailboxes) {
+      delivered |= mailbox.offer(event);
+    }
+
+    if (!delivered) {
+      if (event instanceof DeadEvent dead) {
+        log.error("Event has not been processed by any subscriber. event={}", dead.getEvent());
+      } else {
+        post(new DeadEvent(this, event));
+      }
+    }
+
+    log.exit(event);
+  }
+
+  /**
+   * @return the number of events dropped because the queue of a listener was full or the bus has been closed.
+   */
+  public long getDroppedEvents() {
+    return this.dropped.get();
+  }
+
+  /**
+   * Stops accepting events. The events already queued are still delivered; posters blocked on a full queue drop
+   * their event.
+   */
+  @Override
+  public void close() {
+    log.entry();
+
+    this.closed = true;
+    for (final Mailbox mailbox : this.mailboxes) {
+      mailbox.wake();
+    }
+
+    if (this.ownExecutor != null) {
+      this.ownExecutor.shutdown();
+    }
+
+    log.exit();
+  }
+
+
+  /**
+   * What to do with an event for a listener whose queue is full.
+   */
+  public enum OverflowPolicy {
+    /** The caller waits until there is room in the queue. */
+    BLOCK,
+    /** The event is dropped for this listener. */
+    DROP,
+    /**
+     * The caller delivers the events queued for this listener and its own event on its thread. It waits for the task
+     * currently delivering to hand over after the event it is busy with, so the order is kept.
+     */
+    CALLER_RUNS
+  }
+
+
+  /**
+   * The queue of a listener. At most one thread delivers its events at any time: either a task on the executor or a
+   * caller taking over because of {@link OverflowPolicy#CALLER_RUNS}.
+   */
+  private final class Mailbox {
+    private final Object listener;
+    private final List<Method> methods;
+    private final ConcurrentHashMap<Class<?>, Method[]> byEventType = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final OverflowPolicy policy;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = this.lock.newCondition();
+    private final ArrayDeque<Object> queue;
+    /** The number of events queued so far, so a caller knows when its own event has been delivered. */
+    private long queued;
+    private long delivered;
+    /** A task has been submitted or a thread is delivering. */
+    private boolean scheduled;
+    private Thread drainer;
+    /** The number of callers waiting to take over delivering. */
+    private int takeOvers;
+
+
+    private Mailbox(final Object listener, final List<Method> methods, final int capacity, final OverflowPolicy policy) {
+      this.listener = listener;
+      this.methods = methods;
+      this.capacity = capacity;
+      this.policy = policy;
+      this.queue = new ArrayDeque<>(Math.min(capacity, 64));
+    }
+
+    /**
+     * @param event the event posted.
+     * @return {@code true} if the listener subscribed to this event.
+     */
+    private boolean offer(final Object event) {
+      if (handlers(event.getClass()).length == 0) {
+        return false;
+      }
+
+      boolean submit = false;
+      long runUntil = -1;
+
+      this.lock.lock();
+      try {
+        final Thread current = Thread.currentThread();
+
+        if (this.queue.size() >= this.capacity && current != this.drainer) {
+          switch (this.policy) {
+            case DROP -> {
+              dropped.incrementAndGet();
+              log.warn("Queue of subscriber is full, event dropped. subscriber={}, event={}", this.listener, event);
+              return true;
+            }
+            case BLOCK -> {
+              while (this.queue.size() >= this.capacity && !closed) {
+                this.changed.awaitUninterruptibly();
+              }
+              if (closed) {
+                dropped.incrementAndGet();
+                log.warn("Event bus is closed, event dropped. subscriber={}, event={}", this.listener, event);
+                return true;
+              }
+            }
+            case CALLER_RUNS -> {
+              this.queue.add(event);
+              runUntil = ++this.queued;
+
+              this.takeOvers++;
+              while (this.scheduled) {
+                this.changed.awaitUninterruptibly();
+              }
+              this.takeOvers--;
+              this.scheduled = true;
+            }
+          }
+        }
+
+        if (runUntil < 0) {
+          this.queue.add(event);
+          this.queued++;
+
+          if (!this.scheduled) {
+            this.scheduled = true;
+            submit = true;
+          }
+        }
+      } finally {
+        this.lock.unlock();
+      }
+
+      if (runUntil >= 0) {
+        drain(runUntil);
+      } else if (submit) {
+        submit();
+      }
+
+      return true;
+    }
+
+    private void submit() {
+      try {
+        executor.execute(() -> drain(-1));
+      } catch (RejectedExecutionException e) {
+        log.debug("Executor rejected delivery, delivering on the caller. subscriber={}", this.listener);
+        drain(-1);
+      }
+    }
+
+    /**
+     * Delivers the queued events. Must only be called after setting {@link #scheduled}. If a subscriber throws an
+     * {@link Error}, the mailbox is released before the error is passed on, and the events left are delivered by a
+     * new task.
+     *
+     * @param until the number of the last event to deliver for a caller or {@code -1} for a task on the executor.
+     */
+    private void drain(final long until) {
+      this.lock.lock();
+      try {
+        this.drainer = Thread.currentThread();
+
+        while (true) {
+          final boolean done = until >= 0 ? this.delivered >= until : this.takeOvers > 0;
+          final Object event = done ? null : this.queue.poll();
+
+          if (event == null) {
+            break;
+          }
+          this.changed.signalAll();
+
+          this.lock.unlock();
+          try {
+            deliver(event);
+          } finally {
+            this.lock.lock();
+            this.delivered++;
+          }
+        }
+      } finally {
+        this.drainer = null;
+        this.scheduled = this.takeOvers == 0 && !this.queue.isEmpty();
+        final boolean resubmit = this.scheduled;
+        this.changed.signalAll();
+        this.lock.unlock();
+
+        if (resubmit) {
+          submit();
+        }
+      }
+    }
+
+    private void deliver(final Object event) {
+      for (final Method method : handlers(event.getClass())) {
+        try {
+          method.invoke(this.listener, event);
+        } catch (InvocationTargetException e) {
+          if (e.getCause() instanceof Error error) {
+            throw error;
+          }
+          log.error("Subscriber failed to process event. subscriber={}, method={}, event={}",
+              this.listener, method.getName(), event, e.getCause());
+        } catch (IllegalAccessException | RuntimeException e) {
+          log.error("Subscriber could not be called. subscriber={}, method={}, event={}",
+              this.listener, method.getName(), event, e);
+        }
+      }
+    }
+
+    private Method[] handlers(final Class<?> type) {
+      return this.byEventType.computeIfAbsent(type, t -> this.methods.stream()
+          .filter(m -> m.getParameterTypes()[0].isAssignableFrom(t))
+          .toArray(Method[]::new));
+    }
+
+    private void wake() {
+      this.lock.lock();
+      try {
+        this.changed.signalAll();
+      } finally {
+        this.lock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2024-2025. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.guava.events;
+
+
+import com.google.common.eventbus.DeadEvent;
+import com.google.common.eventbus.Subscribe;
+import de.kaiserpfalzedv.commons.guava.events.AsyncEventBus.OverflowPolicy;
+import lombok.extern.slf4j.XSlf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@XSlf4j
+public class AsyncEventBusTest {
+  private static final long TIMEOUT = 5;
+
+  private AsyncEventBus sut;
+
+  @AfterEach
+  public void tearDown() {
+    if (sut != null) {
+      sut.close();
+    }
+  }
+
+  @Test
+  public void shouldDeliverEventsInOrderWhenPostedToOneSubscriber() throws InterruptedException {
+    log.entry();
+
+    sut = new AsyncEventBus(16, OverflowPolicy.BLOCK);
+    Recorder recorder = new Recorder(1000);
+    sut.register(recorder);
+
+    for (int i = 0; i < 1000; i++) {
+      sut.post(i);
+    }
+
+    Assertions.assertTrue(recorder.await());
+    Assertions.assertEquals(numbers(1000), recorder.getEvents());
+
+    log.exit();
+  }
+
+  @Test
+  public void shouldReturnFromPostWhenSubscriberIsSlow() throws InterruptedException {
+    log.entry();
+
+    sut = new AsyncEventBus();
+    Recorder recorder = new Recorder(1);
+    recorder.block();
+    sut.register(recorder);
+
+    sut.post(0);
+
+    Assertions.assertTrue(recorder.getEvents().isEmpty());
+    recorder.release();
+    Assertions.assertTrue(recorder.await());
+
+    log.exit();
+  }
+
+  @Test
+  public void shouldDropEventsWhenQueueIsFullAndPolicyIsDrop() throws InterruptedException {
+    log.entry();
+
+    sut = new AsyncEventBus();
+    Recorder recorder = new Recorder(3);
+    recorder.block();
+    sut.register(recorder, 2, OverflowPolicy.DROP);
+
+    sut.post(0);
+    recorder.awaitBlocked();
+    for (int i = 1; i < 5; i++) {
+      sut.post(i);
+    }
+    recorder.release();
+
+    Assertions.assertTrue(recorder.await());
+    Assertions.assertEquals(List.of(0, 1, 2), recorder.getEvents());
+    Assertions.assertEquals(2, sut.getDroppedEvents());
+
+    log.exit();
+  }
+
+  @Test
+  public void shouldBlockPosterWhenQueueIsFullAndPolicyIsBlock() throws InterruptedException {
+    log.entry();
+
+    sut = new AsyncEventBus();
+    Recorder recorder = new Recorder(4);
+    recorder.block();
+    sut.register(recorder, 2, OverflowPolicy.BLOCK);
+
+    sut.post(0);
+    recorder.awaitBlocked();
+    sut.post(1);
+    sut.post(2);
+
+    Thread poster = new Thread(() -> sut.post(3));
+    poster.start();
+    awaitState(poster, Thread.State.WAITING);
+
+    recorder.release();
+    poster.join(TimeUnit.SECONDS.toMillis(TIMEOUT));
+
+    Assertions.assertTrue(recorder.await());
+    Assertions.assertEquals(numbers(4), recorder.getEvents());
+    Assertions.assertEquals(0, sut.getDroppedEvents());
+
+    log.exit();
+  }
+
+  @Test
+  public void shouldDeliverOnCallerWhenQueueIsFullAndPolicyIsCallerRuns() throws InterruptedException {
+    log.entry();
+
+    sut = new AsyncEventBus();
+    Recorder recorder = new Recorder(4);
+    recorder.block();
+    sut.register(recorder, 2, OverflowPolicy.CALLER_RUNS);
+
+    sut.post(0);
+    recorder.awaitBlocked();
+    sut.post(1);
+    sut.post(2);
+
+    Thread poster = new Thread(() -> sut.post(3), "caller");
+    poster.start();
+    awaitState(poster, Thread.State.WAITING);
+
+    recorder.release();
+    poster.join(TimeUnit.SECONDS.toMillis(TIMEOUT));
+
+    Assertions.assertTrue(recorder.await());
+    Assertions.assertEquals(numbers(4), recorder.getEvents());
+    Assertions.assertEquals("caller", recorder.getThreads().get(3));
+
+    log.exit();
+  }
+
+  @Test
+  public void shouldPostDeadEventWhenNoSubscriberReceivesTheEvent() throws InterruptedException {
+    log.entry();
+
+    sut = new AsyncEventBus();
+    DeadEventRecorder recorder = new DeadEventRecorder();
+    sut.register(recorder);
+
+    TestEvent event = new TestEvent(UUID.randomUUID());
+    sut.post(event);
+
+    Assertions.assertTrue(recorder.latch.await(TIMEOUT, TimeUnit.SECONDS));
+    Assertions.assertSame(event, recorder.event);
+
+    log.exit();
+  }
+
+  @Test
+  public void shouldStopDeliveringWhenListenerIsUnregistered() throws InterruptedException {
+    log.entry();
+
+    sut = new AsyncEventBus();
+    TestEvent event = new TestEvent(UUID.randomUUID());
+    TestEventListener listener = new TestEventListener(event);
+    DeadEventRecorder dead = new DeadEventRecorder();
+    sut.register(listener);
+    sut.register(listener);
+    sut.register(dead);
+
+    sut.unregister(listener);
+    sut.post(event);
+
+    Assertions.assertTrue(dead.latch.await(TIMEOUT, TimeUnit.SECONDS));
+    Assertions.assertFalse(listener.checkEventReceived());
+
+    log.exit();
+  }
+
+
+  @Test
+  public void shouldKeepDeliveringWhenSubscriberThrowsError() throws InterruptedException {
+    log.entry();
+
+    sut = new AsyncEventBus();
+    FailingRecorder recorder = new FailingRecorder(2);
+    sut.register(recorder);
+
+    sut.post(0);
+    Assertions.assertTrue(recorder.failed.await(TIMEOUT, TimeUnit.SECONDS));
+    sut.post(1);
+    sut.post(2);
+
+    Assertions.assertTrue(recorder.await());
+    Assertions.assertEquals(List.of(1, 2), recorder.getEvents());
+
+    log.exit();
+  }
+
+  private static List<Integer> numbers(final int count) {
+    ArrayList<Integer> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      result.add(i);
+    }
+    return result;
+  }
+
+  private static void awaitState(final Thread thread, final Thread.State state) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT);
+    while (thread.getState() != state && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    Assertions.assertEquals(state, thread.getState());
+  }
+
+
+  /**
+   * Records the numbers received and the threads delivering them. Can be blocked in the first event.
+   */
+  public static class Recorder {
+    private final List<Integer> events = new ArrayList<>();
+    private final List<String> threads = new ArrayList<>();
+    private final CountDownLatch received;
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private CountDownLatch gate = new CountDownLatch(0);
+
+    public Recorder(final int expected) {
+      received = new CountDownLatch(expected);
+    }
+
+    void block() {
+      gate = new CountDownLatch(1);
+    }
+
+    void release() {
+      gate.countDown();
+    }
+
+    void awaitBlocked() throws InterruptedException {
+      Assertions.assertTrue(blocked.await(TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    boolean await() throws InterruptedException {
+      return received.await(TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    synchronized List<Integer> getEvents() {
+      return new ArrayList<>(events);
+    }
+
+    synchronized List<String> getThreads() {
+      return new ArrayList<>(threads);
+    }
+
+    @Subscribe
+    public void receive(final Integer event) throws InterruptedException {
+      blocked.countDown();
+      gate.await(TIMEOUT, TimeUnit.SECONDS);
+
+      synchronized (this) {
+        events.add(event);
+        threads.add(Thread.currentThread().getName());
+      }
+      received.countDown();
+    }
+  }
+
+  /**
+   * Throws an {@link Error} on the first event and records the numbers received afterward.
+   */
+  public static class FailingRecorder {
+    private final List<Integer> events = new ArrayList<>();
+    private final CountDownLatch failed = new CountDownLatch(1);
+    private final CountDownLatch received;
+
+    public FailingRecorder(final int expected) {
+      received = new CountDownLatch(expected);
+    }
+
+    boolean await() throws InterruptedException {
+      return received.await(TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    synchronized List<Integer> getEvents() {
+      return new ArrayList<>(events);
+    }
+
+    @Subscribe
+    public void receive(final Integer event) {
+      if (failed.getCount() > 0) {
+        failed.countDown();
+        throw new AssertionError("subscriber failed on " + event);
+      }
+
+      synchronized (this) {
+        events.add(event);
+      }
+      received.countDown();
+    }
+  }
+
+  public static class DeadEventRecorder {
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private volatile Object event;
+
+    @Subscribe
+    public void receive(final DeadEvent dead) {
+      event = dead.getEvent();
+      latch.countDown();
+    }
+  }
+}
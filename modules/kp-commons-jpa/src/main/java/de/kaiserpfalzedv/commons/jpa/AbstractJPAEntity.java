@@ -21,8 +21,7 @@ import java.io.Serializable;
 import java.time.OffsetDateTime;
 import java.util.Objects;
 
-import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.generator.EventType;
 
 import de.kaiserpfalzedv.commons.api.resources.HasId;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -61,11 +60,11 @@ public abstract class AbstractJPAEntity<T extends Serializable> implements HasId
     @Builder.Default
     protected Integer version = 0;
 
-    @CreationTimestamp
+    @Timestamp
     @Column(name = "CREATED", nullable = false, insertable = true, updatable = false)
     protected OffsetDateTime created;
 
-    @UpdateTimestamp
+    @Timestamp(event = {EventType.INSERT, EventType.UPDATE})
     @Column(name = "MODIFIED", nullable = true, insertable = false, updatable = true)
     protected OffsetDateTime modified;
 
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2022-2026. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.jpa;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.ValueGenerationType;
+import org.hibernate.generator.EventType;
+
+/**
+ * Timestamp -- stamps the annotated {@link java.time.OffsetDateTime} with the current time on the given events.
+ * <p>
+ * Unlike {@link org.hibernate.annotations.CreationTimestamp} an already set value is kept on insert, so imported
+ * entities keep their original timestamps. On update the value is always stamped.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ValueGenerationType(generatedBy = TimestampGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface Timestamp {
+    /**
+     * @return The events the timestamp is generated on.
+     */
+    EventType[] event() default {EventType.INSERT};
+}
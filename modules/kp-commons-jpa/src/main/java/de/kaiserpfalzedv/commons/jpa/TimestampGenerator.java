@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2022-2026. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.jpa;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+/**
+ * TimestampGenerator -- generates the values of {@link Timestamp} annotated attributes.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public class TimestampGenerator implements BeforeExecutionGenerator {
+    private final EnumSet<EventType> events;
+
+    public TimestampGenerator(final Timestamp annotation) {
+        this.events = EnumSet.copyOf(List.of(annotation.event()));
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return this.events;
+    }
+
+    @Override
+    public Object generate(
+            final SharedSessionContractImplementor session,
+            final Object owner,
+            final Object currentValue,
+            final EventType eventType
+    ) {
+        if (eventType == EventType.INSERT && currentValue != null) {
+            return currentValue;
+        }
+
+        return OffsetDateTime.now(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,496 @@
+/*
+ * Copyright (c) 2022-2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.jpa.store;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.hibernate.Session;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.data.Paging;
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.BatchStore;
+import de.kaiserpfalzedv.commons.api.store.DuplicateStoreException;
+import de.kaiserpfalzedv.commons.api.store.ListableStore;
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.store.PersistenceStoreException;
+import de.kaiserpfalzedv.commons.api.store.StoreService;
+import de.kaiserpfalzedv.commons.core.data.PagedResultImpl;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
+import de.kaiserpfalzedv.commons.core.store.JacksonResourceCodec;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.constraints.NotNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JpaStoreService -- a {@link StoreService} that keeps the resources as {@link ResourceJPAEntity} in a database.
+ * <p>
+ * Every call runs in its own resource local transaction of the given {@link EntityManagerFactory}, so the persistence
+ * unit has to use {@code RESOURCE_LOCAL} transactions. A JTA managed persistence unit is not supported: the store
+ * neither joins a running JTA transaction nor may it begin one of its own. The generation of
+ * a resource is the {@code @Version} of its entity, so an existing resource is only saved when the generation
+ * matches the stored one exactly. Concurrent changes are detected by Hibernate on commit.
+ * <p>
+ * {@link #saveAll(Collection)} reads the stored entities of a batch with one query per namespace and flushes once at
+ * the commit. To send the inserts and updates as JDBC batches the persistence unit should set:
+ * <pre>
+ * hibernate.order_inserts=true
+ * hibernate.order_updates=true
+ * hibernate.jdbc.batch_versioned_data=true
+ * </pre>
+ * The JDBC batch size is set per session to the batch size of the store. {@link #findByUid(UUID)} loads by natural
+ * id, so it is served by the second level cache when the persistence unit enables it, e.g. with
+ * {@code hibernate.cache.use_second_level_cache=true} and {@code hibernate.cache.region.factory_class=jcache}.
+ *
+ * @param <T> The resource type to be stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@Slf4j
+public class JpaStoreService<T extends Resource<?>> implements BatchStore<T>, ListableStore<T> {
+    /** The default JDBC batch size of {@link #saveAll(Collection)} and {@link #removeAll(Collection)}. */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final EntityManagerFactory factory;
+    private final ObjectMapper mapper;
+    private final Class<? extends T> type;
+    private final int batchSize;
+
+    @ToString.Include
+    private final String kind;
+
+
+    /**
+     * @param factory the entity manager factory of a persistence unit containing {@link ResourceJPAEntity}.
+     * @param kind    the kind of the stored resources.
+     * @param type    the class of the stored resources (used to read the resources).
+     */
+    public JpaStoreService(@NotNull final EntityManagerFactory factory, @NotNull final String kind, @NotNull final Class<? extends T> type) {
+        this(factory, kind, type, JacksonResourceCodec.defaultMapper(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param factory   the entity manager factory of a persistence unit containing {@link ResourceJPAEntity}.
+     * @param kind      the kind of the stored resources.
+     * @param type      the class of the stored resources (used to read the resources).
+     * @param mapper    the mapper for the JSON columns.
+     * @param batchSize the JDBC batch size for batch saves and removals.
+     */
+    public JpaStoreService(
+            @NotNull final EntityManagerFactory factory,
+            @NotNull final String kind,
+            @NotNull final Class<? extends T> type,
+            @NotNull final ObjectMapper mapper,
+            final int batchSize
+    ) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be at least 1. batchSize=" + batchSize);
+        }
+
+        this.factory = factory;
+        this.kind = kind;
+        this.type = type;
+        this.mapper = mapper;
+        this.batchSize = batchSize;
+    }
+
+
+    @Override
+    public Optional<T> findByNameSpaceAndName(final String nameSpace, final String name) {
+        return this.read(em -> this.findEntity(em, nameSpace, name).map(this::toResource));
+    }
+
+    @Override
+    public Optional<T> findByUid(final UUID uid) {
+        return this.read(em -> this.findEntity(em, uid).map(this::toResource));
+    }
+
+    @Override
+    public List<String> findAllNameSpaces() {
+        return this.read(em -> em.createQuery(
+                        "SELECT DISTINCT e.nameSpace FROM ResourceJPAEntity e WHERE e.kind = :kind ORDER BY e.nameSpace",
+                        String.class)
+                .setParameter("kind", this.kind)
+                .getResultList());
+    }
+
+    @Override
+    public PagedResult<T> findAllByNameSpace(final String nameSpace, final Paging paging) {
+        return this.read(em -> {
+            final long total = this.count(em, nameSpace);
+
+            final List<T> data = em.createQuery(
+                            "SELECT e FROM ResourceJPAEntity e WHERE e.kind = :kind AND e.nameSpace = :nameSpace ORDER BY e.name",
+                            ResourceJPAEntity.class)
+                    .setParameter("kind", this.kind)
+                    .setParameter("nameSpace", nameSpace)
+                    .setFirstResult((int) Math.min(paging.getStart(), Integer.MAX_VALUE))
+                    .setMaxResults((int) Math.min(paging.getSize(), Integer.MAX_VALUE))
+                    .getResultStream()
+                    .map(this::toResource)
+                    .toList();
+
+            return PagedResultImpl.<T>builder()
+                    .paging(PagingImpl.builder()
+                            .start(paging.getStart())
+                            .size(paging.getSize())
+                            .count(data.size())
+                            .total(total)
+                            .build())
+                    .data(data)
+                    .build();
+        });
+    }
+
+    @Override
+    public List<T> findByNameSpaceAndNamePrefix(final String nameSpace, final String prefix, final int limit) {
+        return this.read(em -> em.createQuery(
+                        "SELECT e FROM ResourceJPAEntity e WHERE e.kind = :kind AND e.nameSpace = :nameSpace"
+                                + " AND e.name LIKE :prefix ESCAPE '\\' ORDER BY e.name",
+                        ResourceJPAEntity.class)
+                .setParameter("kind", this.kind)
+                .setParameter("nameSpace", nameSpace)
+                .setParameter("prefix", prefix.replaceAll("[\\\\%_]", "\\\\$0") + "%")
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(this::toResource)
+                .toList());
+    }
+
+    @Override
+    public long countByNameSpace(final String nameSpace) {
+        return this.read(em -> this.count(em, nameSpace));
+    }
+
+
+    @Override
+    public T save(final T object) throws OptimisticLockStoreException, DuplicateStoreException {
+        return this.saveAll(List.of(object)).get(0);
+    }
+
+    @Override
+    public List<T> saveAll(final Collection<T> objects) throws OptimisticLockStoreException, DuplicateStoreException {
+        if (objects.isEmpty()) {
+            return List.of();
+        }
+
+        final List<T> input = List.copyOf(objects);
+        log.trace("Saving batch: kind={}, size={}", this.kind, input.size());
+
+        try {
+            return this.write(em -> {
+                final Map<List<String>, ResourceJPAEntity> stored = this.findEntities(em, input);
+                final HashMap<List<String>, T> planned = new HashMap<>(input.size() * 2);
+                final ArrayList<T> result = new ArrayList<>(input.size());
+
+                for (final T object : input) {
+                    final List<String> key = List.of(object.getNameSpace(), object.getName());
+                    final ResourceJPAEntity entity = stored.get(key);
+
+                    if (planned.containsKey(key)) {
+                        // the same resource twice in one batch needs the version of the first change.
+                        em.flush();
+                    }
+
+                    if (entity == null) {
+                        final ResourceJPAEntity created = this.toEntity(object, ResourceJPAEntity.builder().build());
+                        created.setVersion(object.getGeneration());
+                        em.persist(created);
+
+                        stored.put(key, created);
+                        result.add(object);
+                    } else {
+                        this.checkStored(entity, object);
+
+                        this.toEntity(object, entity);
+                        // the update stamps the modification time anyway. Clearing it marks the entity as changed, so
+                        // Hibernate increases the version even if the resource is saved unchanged.
+                        entity.setModified(null);
+
+                        @SuppressWarnings("unchecked")
+                        final T data = (T) object.increaseGeneration();
+                        result.add(data);
+                    }
+
+                    planned.put(key, object);
+                }
+
+                return result;
+            });
+        } catch (final PersistenceException e) {
+            throw this.translate(e, input);
+        }
+    }
+
+    private void checkStored(final ResourceJPAEntity stored, final T object) {
+        if (!stored.getUid().equals(object.getUid())) {
+            throw new DuplicateStoreException(this.toResource(stored).toPointer(), object.toPointer());
+        }
+
+        if (!stored.getVersion().equals(object.getGeneration())) {
+            throw new OptimisticLockStoreException(stored.getVersion(), object.getGeneration() + 1L);
+        }
+    }
+
+    /**
+     * Reads the stored data to report why a batch failed on flush or commit.
+     */
+    private RuntimeException translate(final PersistenceException cause, final List<T> objects) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof final OptimisticLockException e && e.getEntity() instanceof final ResourceJPAEntity entity) {
+                final long stored = this.read(em -> this.findEntity(em, entity.getUid()).map(ResourceJPAEntity::getVersion).orElse(-1));
+
+                return (RuntimeException) new OptimisticLockStoreException(stored, entity.getVersion() + 1L).initCause(cause);
+            }
+        }
+
+        for (final T object : objects) {
+            final Optional<T> stored = this.findByUid(object.getUid());
+
+            if (stored.isPresent()
+                    && (!stored.get().getNameSpace().equals(object.getNameSpace()) || !stored.get().getName().equals(object.getName()))) {
+                return (RuntimeException) new DuplicateStoreException(stored.get().toPointer(), object.toPointer()).initCause(cause);
+            }
+        }
+
+        return new PersistenceStoreException("Can't save resources of kind " + this.kind, cause);
+    }
+
+
+    @Override
+    public void remove(final T object) {
+        this.remove(object.getNameSpace(), object.getName());
+    }
+
+    @Override
+    public void remove(final String nameSpace, final String name) {
+        this.write(em -> {
+            this.findEntity(em, nameSpace, name).ifPresent(em::remove);
+            return null;
+        });
+    }
+
+    @Override
+    public void remove(final UUID uid) {
+        this.removeAll(List.of(uid));
+    }
+
+    @Override
+    public void removeAll(final Collection<UUID> uids) {
+        if (uids.isEmpty()) {
+            return;
+        }
+
+        final List<UUID> input = List.copyOf(uids);
+        this.write(em -> {
+            for (int i = 0; i < input.size(); i += this.batchSize) {
+                em.createQuery("SELECT e FROM ResourceJPAEntity e WHERE e.kind = :kind AND e.uid IN :uids", ResourceJPAEntity.class)
+                        .setParameter("kind", this.kind)
+                        .setParameter("uids", input.subList(i, Math.min(i + this.batchSize, input.size())))
+                        .getResultList()
+                        .forEach(em::remove);
+            }
+
+            return null;
+        });
+    }
+
+
+    private Optional<ResourceJPAEntity> findEntity(final EntityManager em, final UUID uid) {
+        return em.unwrap(Session.class)
+                .bySimpleNaturalId(ResourceJPAEntity.class)
+                .loadOptional(uid)
+                .filter(e -> this.kind.equals(e.getKind()));
+    }
+
+    private Optional<ResourceJPAEntity> findEntity(final EntityManager em, final String nameSpace, final String name) {
+        return em.createQuery(
+                        "SELECT e FROM ResourceJPAEntity e WHERE e.kind = :kind AND e.nameSpace = :nameSpace AND e.name = :name",
+                        ResourceJPAEntity.class)
+                .setParameter("kind", this.kind)
+                .setParameter("nameSpace", nameSpace)
+                .setParameter("name", name)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * Loads the stored entities of a batch with one query per namespace and {@link #batchSize} names.
+     */
+    private Map<List<String>, ResourceJPAEntity> findEntities(final EntityManager em, final List<T> objects) {
+        final LinkedHashMap<String, List<String>> names = new LinkedHashMap<>();
+        objects.forEach(o -> names.computeIfAbsent(o.getNameSpace(), ns -> new ArrayList<>()).add(o.getName()));
+
+        final HashMap<List<String>, ResourceJPAEntity> result = new HashMap<>(objects.size() * 2);
+        names.forEach((nameSpace, list) -> {
+            for (int i = 0; i < list.size(); i += this.batchSize) {
+                em.createQuery(
+                                "SELECT e FROM ResourceJPAEntity e WHERE e.kind = :kind AND e.nameSpace = :nameSpace AND e.name IN :names",
+                                ResourceJPAEntity.class)
+                        .setParameter("kind", this.kind)
+                        .setParameter("nameSpace", nameSpace)
+                        .setParameter("names", list.subList(i, Math.min(i + this.batchSize, list.size())))
+                        .getResultList()
+                        .forEach(e -> result.put(List.of(e.getNameSpace(), e.getName()), e));
+            }
+        });
+
+        return result;
+    }
+
+    private long count(final EntityManager em, final String nameSpace) {
+        return em.createQuery(
+                        "SELECT COUNT(e) FROM ResourceJPAEntity e WHERE e.kind = :kind AND e.nameSpace = :nameSpace",
+                        Long.class)
+                .setParameter("kind", this.kind)
+                .setParameter("nameSpace", nameSpace)
+                .getSingleResult();
+    }
+
+
+    private <R> R read(final Function<EntityManager, R> work) {
+        final EntityManager em = this.factory.createEntityManager();
+        try {
+            em.unwrap(Session.class).setDefaultReadOnly(true);
+
+            return work.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    private <R> R write(final Function<EntityManager, R> work) {
+        final EntityManager em = this.factory.createEntityManager();
+        final EntityTransaction transaction = em.getTransaction();
+        try {
+            em.unwrap(Session.class).setJdbcBatchSize(this.batchSize);
+
+            transaction.begin();
+            final R result = work.apply(em);
+            transaction.commit();
+
+            return result;
+        } catch (final RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+
+    private ResourceJPAEntity toEntity(final T object, final ResourceJPAEntity entity) {
+        final JsonNode tree = this.mapper.valueToTree(object);
+        final JsonNode metadata = tree.path("metadata");
+
+        entity.setUid(object.getUid());
+        entity.setKind(object.getKind());
+        entity.setApiVersion(object.getApiVersion());
+        entity.setNameSpace(object.getNameSpace());
+        entity.setName(object.getName());
+        entity.setCreated(object.getMetadata().getCreated());
+        entity.setModified(object.getMetadata().getModified());
+        entity.setDeleted(object.getMetadata().getDeletionTimestamp().orElse(null));
+        entity.setOwner(this.toJson(metadata.get("owner")));
+        entity.setLabels(this.toJson(metadata.get("labels")));
+        entity.setAnnotations(this.toJson(metadata.get("annotations")));
+        entity.setSpec(this.toJson(tree.get("spec")));
+        entity.setStatus(this.toJson(tree.get("status")));
+
+        return entity;
+    }
+
+    private String toJson(final JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+
+        try {
+            return this.mapper.writeValueAsString(node);
+        } catch (final JsonProcessingException e) {
+            throw new PersistenceStoreException("Can't encode resource data of type " + this.type.getName(), e);
+        }
+    }
+
+    private T toResource(final ResourceJPAEntity entity) {
+        try {
+            final ObjectNode identity = this.mapper.createObjectNode()
+                    .put("kind", entity.getKind())
+                    .put("apiVersion", entity.getApiVersion())
+                    .put("nameSpace", entity.getNameSpace())
+                    .put("name", entity.getName());
+
+            final ObjectNode metadata = this.mapper.createObjectNode();
+            metadata.set("identity", identity);
+            metadata.put("uid", entity.getUid().toString());
+            metadata.put("generation", entity.getVersion());
+
+            this.setTimestamp(metadata, "created", entity.getCreated());
+            this.setTimestamp(metadata, "modified", entity.getModified());
+            this.setTimestamp(metadata, "deleted", entity.getDeleted());
+
+            this.setJson(metadata, "owner", entity.getOwner());
+            this.setJson(metadata, "labels", entity.getLabels());
+            this.setJson(metadata, "annotations", entity.getAnnotations());
+
+            final ObjectNode resource = this.mapper.createObjectNode();
+            resource.set("metadata", metadata);
+            this.setJson(resource, "spec", entity.getSpec());
+            this.setJson(resource, "status", entity.getStatus());
+
+            return this.mapper.treeToValue(resource, this.type);
+        } catch (final JsonProcessingException e) {
+            throw new PersistenceStoreException("Can't decode resource of type " + this.type.getName(), e);
+        }
+    }
+
+    private void setTimestamp(final ObjectNode node, final String field, final OffsetDateTime timestamp) {
+        if (timestamp != null) {
+            node.set(field, this.mapper.valueToTree(timestamp));
+        }
+    }
+
+    private void setJson(final ObjectNode node, final String field, final String json) throws JsonProcessingException {
+        if (json != null) {
+            node.set(field, this.mapper.readTree(json));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2022-2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.jpa.store;
+
+import java.util.UUID;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.type.SqlTypes;
+
+import de.kaiserpfalzedv.commons.jpa.AbstractJPAEntity;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.AttributeOverride;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * ResourceJPAEntity -- the row of a resource stored by the {@link JpaStoreService}.
+ * <p>
+ * All kinds share the table {@code KP_RESOURCES}. The metadata is kept in columns, owner, labels, annotations, spec
+ * and status as JSON. The generation of the resource is the {@link #version} of the entity. The uid is the natural
+ * id, so lookups by uid are served by the second level cache when it is enabled.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@SuppressFBWarnings(value = "CT_CONSTRUCTOR_THROW", justification = "lombok provided superbuilder constructor.")
+@Entity
+@Table(
+        name = "KP_RESOURCES",
+        uniqueConstraints = @UniqueConstraint(name = "KP_RESOURCES_NAME_UK", columnNames = {"KIND", "NAMESPACE", "NAME"}),
+        indexes = @Index(name = "KP_RESOURCES_UID_IDX", columnList = "UID", unique = true)
+)
+@AttributeOverride(name = "modified", column = @Column(name = "MODIFIED", nullable = true, insertable = true, updatable = true))
+@AttributeOverride(name = "deleted", column = @Column(name = "DELETED", nullable = true, insertable = true, updatable = true))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
+@SuperBuilder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString(callSuper = true, onlyExplicitlyIncluded = true)
+public class ResourceJPAEntity extends AbstractJPAEntity<UUID> {
+    @NaturalId
+    @ToString.Include
+    @Column(name = "UID", nullable = false, updatable = false)
+    private UUID uid;
+
+    @ToString.Include
+    @Column(name = "KIND", length = 100, nullable = false)
+    private String kind;
+
+    @Column(name = "API_VERSION", length = 100, nullable = false)
+    private String apiVersion;
+
+    @ToString.Include
+    @Column(name = "NAMESPACE", length = 100, nullable = false)
+    private String nameSpace;
+
+    @ToString.Include
+    @Column(name = "NAME", length = 100, nullable = false)
+    private String name;
+
+    @Nullable
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(name = "OWNER")
+    private String owner;
+
+    @Nullable
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(name = "LABELS")
+    private String labels;
+
+    @Nullable
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(name = "ANNOTATIONS")
+    private String annotations;
+
+    @Nullable
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(name = "SPEC")
+    private String spec;
+
+    @Nullable
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(name = "STATUS")
+    private String status;
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2022-2023. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.jpa.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.kaiserpfalzedv.commons.api.data.PagedResult;
+import de.kaiserpfalzedv.commons.api.store.DuplicateStoreException;
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.data.PagingImpl;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserDataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import lombok.extern.slf4j.XSlf4j;
+
+/**
+ * Tests the {@link JpaStoreService} against an in-memory H2 database.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@XSlf4j
+class JpaStoreServiceTest {
+    private static EntityManagerFactory factory;
+
+    private String nameSpace;
+    private JpaStoreService<User> sut;
+
+
+    @BeforeAll
+    static void setUpFactory() {
+        factory = Persistence.createEntityManagerFactory("store-test");
+    }
+
+    @AfterAll
+    static void tearDownFactory() {
+        factory.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.nameSpace = "test-" + UUID.randomUUID();
+        this.sut = new JpaStoreService<>(factory, User.KIND, UserImpl.class);
+        statistics().clear();
+    }
+
+
+    @Test
+    void shouldKeepTheTimestampsWhenTheResourceIsReadBack() {
+        log.entry();
+
+        final OffsetDateTime created = OffsetDateTime.parse("2024-01-02T03:04:05.123456Z");
+        final OffsetDateTime modified = OffsetDateTime.parse("2025-06-07T08:09:10.654321Z");
+        final User user = UserImpl.builder()
+                .metadata(
+                        MetadataImpl.of(User.KIND, User.API_VERSION, this.nameSpace, "user")
+                                .uid(UUID.randomUUID())
+                                .created(created)
+                                .modified(modified)
+                                .build()
+                )
+                .spec(UserDataImpl.builder().name("user").build())
+                .build();
+
+        this.sut.save(user);
+        final User read = this.sut.findByUid(user.getUid()).orElseThrow();
+
+        assertTrue(created.isEqual(read.getMetadata().getCreated()), () -> "created: " + read.getMetadata().getCreated());
+        assertTrue(modified.isEqual(read.getMetadata().getModified()), () -> "modified: " + read.getMetadata().getModified());
+
+        final User changed = UserImpl.builder()
+                .metadata(((MetadataImpl) read.getMetadata()).toBuilder().build())
+                .spec(UserDataImpl.builder().name("changed").build())
+                .build();
+        this.sut.save(changed);
+        final User reread = this.sut.findByUid(user.getUid()).orElseThrow();
+
+        assertEquals(1, reread.getGeneration());
+        assertTrue(created.isEqual(reread.getMetadata().getCreated()), () -> "created: " + reread.getMetadata().getCreated());
+        assertTrue(reread.getMetadata().getModified().isAfter(modified), () -> "modified: " + reread.getMetadata().getModified());
+
+        log.exit();
+    }
+
+    @Test
+    void shouldReadTheResourceWhenItHasBeenSaved() {
+        log.entry();
+
+        final User user = createUser(this.nameSpace, "user", Map.of("tier", "backend"));
+
+        assertEquals(user, this.sut.save(user));
+
+        final User stored = this.sut.findByNameSpaceAndName(this.nameSpace, "user").orElseThrow();
+        assertEquals(user, stored);
+        assertEquals(Map.of("tier", "backend"), stored.getMetadata().getLabels());
+        assertEquals("user", stored.getSpec().getName());
+        assertEquals(0, stored.getGeneration());
+
+        log.exit();
+    }
+
+    @Test
+    void shouldIncreaseTheVersionWhenAnExistingResourceIsSaved() {
+        log.entry();
+
+        final User user = this.sut.save(createUser(this.nameSpace, "user"));
+
+        assertEquals(1, this.sut.save(user).getGeneration());
+        assertEquals(1, this.sut.findByUid(user.getUid()).orElseThrow().getGeneration());
+
+        log.exit();
+    }
+
+    @Test
+    void shouldIncreaseTheVersionWhenAnUnchangedResourceIsSaved() {
+        log.entry();
+
+        // timestamps the database keeps exactly, so saving the resource again changes no column.
+        final OffsetDateTime stamp = OffsetDateTime.parse("2024-01-02T03:04:05.123456Z");
+        final User user = this.sut.save(UserImpl.builder()
+                .metadata(
+                        MetadataImpl.of(User.KIND, User.API_VERSION, this.nameSpace, "user")
+                                .uid(UUID.randomUUID())
+                                .created(stamp)
+                                .modified(stamp)
+                                .build()
+                )
+                .spec(UserDataImpl.builder().name("user").build())
+                .build());
+
+        final User saved = this.sut.saveAll(List.of(user)).get(0);
+
+        assertEquals(1, saved.getGeneration());
+        assertEquals(1, this.sut.findByUid(user.getUid()).orElseThrow().getGeneration());
+        assertEquals(2, this.sut.save(saved).getGeneration());
+        assertEquals(2, this.sut.findByUid(user.getUid()).orElseThrow().getGeneration());
+
+        log.exit();
+    }
+
+    @Test
+    void shouldThrowOptimisticLockWhenTheGenerationIsStale() {
+        log.entry();
+
+        final User initial = this.sut.save(createUser(this.nameSpace, "user"));
+        this.sut.save(initial);
+
+        assertThrows(OptimisticLockStoreException.class, () -> this.sut.save(initial));
+        assertEquals(1, this.sut.findByUid(initial.getUid()).orElseThrow().getGeneration());
+
+        log.exit();
+    }
+
+    @Test
+    void shouldThrowDuplicateWhenTheUidBelongsToAnotherResource() {
+        log.entry();
+
+        final User user = this.sut.save(createUser(this.nameSpace, "user"));
+        final User other = UserImpl.builder()
+                .metadata(MetadataImpl.of(User.KIND, User.API_VERSION, this.nameSpace, "other").uid(user.getUid()).build())
+                .spec(UserDataImpl.builder().name("other").build())
+                .build();
+
+        assertThrows(DuplicateStoreException.class, () -> this.sut.save(other));
+
+        log.exit();
+    }
+
+    @Test
+    void shouldSaveTheBatchWithOneQueryAndOneFlushWhenSavingAll() {
+        log.entry();
+
+        final ArrayList<User> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            users.add(createUser(this.nameSpace, "user-" + i));
+        }
+
+        final List<User> created = this.sut.saveAll(users);
+        statistics().clear();
+
+        final List<User> updated = this.sut.saveAll(created);
+
+        assertEquals(1, statistics().getQueryExecutionCount());
+        assertEquals(1, statistics().getFlushCount());
+        assertEquals(50, statistics().getEntityUpdateCount());
+        assertTrue(updated.stream().allMatch(u -> u.getGeneration() == 1));
+        assertEquals(50, this.sut.countByNameSpace(this.nameSpace));
+
+        log.exit();
+    }
+
+    @Test
+    void shouldLeaveTheStoreUntouchedWhenOneResourceOfTheBatchIsStale() {
+        log.entry();
+
+        final User first = this.sut.save(createUser(this.nameSpace, "first"));
+        final User second = this.sut.save(createUser(this.nameSpace, "second"));
+        this.sut.save(second);
+
+        assertThrows(OptimisticLockStoreException.class, () -> this.sut.saveAll(List.of(first, second)));
+        assertEquals(0, this.sut.findByUid(first.getUid()).orElseThrow().getGeneration());
+
+        log.exit();
+    }
+
+    @Test
+    void shouldServeFindByUidFromTheSecondLevelCacheWhenLoadedBefore() {
+        log.entry();
+
+        final User user = this.sut.save(createUser(this.nameSpace, "cached"));
+        this.sut.findByUid(user.getUid());
+        statistics().clear();
+
+        assertEquals(user, this.sut.findByUid(user.getUid()).orElseThrow());
+        assertEquals(0, statistics().getPrepareStatementCount());
+        assertTrue(statistics().getSecondLevelCacheHitCount() > 0);
+
+        log.exit();
+    }
+
+    @Test
+    void shouldPageByNameWhenListingTheNameSpace() {
+        log.entry();
+
+        final ArrayList<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            users.add(createUser(this.nameSpace, "user-" + i));
+        }
+        this.sut.saveAll(users);
+
+        final PagedResult<User> page = this.sut.findAllByNameSpace(this.nameSpace, PagingImpl.builder().start(2).size(2).build());
+
+        assertEquals(List.of("user-2", "user-3"), page.getData().stream().map(User::getName).toList());
+        assertEquals(5, page.getPaging().getTotal());
+
+        log.exit();
+    }
+
+    @Test
+    void shouldMatchThePrefixLiterallyWhenSearchingByNamePrefix() {
+        log.entry();
+
+        this.sut.saveAll(List.of(
+                createUser(this.nameSpace, "user_1"),
+                createUser(this.nameSpace, "user_2"),
+                createUser(this.nameSpace, "userx3")
+        ));
+
+        assertEquals(List.of("user_1", "user_2"),
+                this.sut.findByNameSpaceAndNamePrefix(this.nameSpace, "user_", 10).stream().map(User::getName).toList());
+        assertEquals(List.of("user_1"),
+                this.sut.findByNameSpaceAndNamePrefix(this.nameSpace, "", 1).stream().map(User::getName).toList());
+        assertTrue(this.sut.findAllNameSpaces().contains(this.nameSpace));
+
+        log.exit();
+    }
+
+    @Test
+    void shouldRemoveTheResourcesWhenRemovedByNameOrUid() {
+        log.entry();
+
+        final User first = this.sut.save(createUser(this.nameSpace, "first"));
+        final User second = this.sut.save(createUser(this.nameSpace, "second"));
+        final User third = this.sut.save(createUser(this.nameSpace, "third"));
+
+        this.sut.remove(this.nameSpace, "first");
+        this.sut.removeAll(List.of(second.getUid(), third.getUid()));
+
+        assertFalse(this.sut.findByUid(first.getUid()).isPresent());
+        assertFalse(this.sut.findByUid(second.getUid()).isPresent());
+        assertEquals(0, this.sut.countByNameSpace(this.nameSpace));
+
+        log.exit();
+    }
+
+
+    private static Statistics statistics() {
+        return factory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static User createUser(final String nameSpace, final String name) {
+        return createUser(nameSpace, name, Map.of());
+    }
+
+    private static User createUser(final String nameSpace, final String name, final Map<String, String> labels) {
+        return UserImpl.builder()
+                .metadata(
+                        MetadataImpl.of(User.KIND, User.API_VERSION, nameSpace, name)
+                                .uid(UUID.randomUUID())
+                                .labels(labels)
+                                .build()
+                )
+                .spec(UserDataImpl.builder().name(name).build())
+                .build();
+    }
+}
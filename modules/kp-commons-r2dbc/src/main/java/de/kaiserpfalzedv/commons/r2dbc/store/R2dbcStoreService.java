@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2025. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.r2dbc.store;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.DuplicateStoreException;
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.store.PersistenceStoreException;
+import de.kaiserpfalzedv.commons.core.store.JacksonResourceCodec;
+import io.r2dbc.spi.Row;
+import jakarta.validation.constraints.NotNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2dbcStoreService -- a {@link ReactiveStoreService} on top of a R2DBC {@link DatabaseClient}.
+ * <p>
+ * Every store uses one table. The metadata of the resources is kept in columns (kind, api version, namespace, name,
+ * uid, generation, creation, modification and deletion timestamp), owner, labels, annotations, spec and status as JSON. The table is
+ * created with {@link #createTable()} or by the schema management of the application with the same layout.
+ * <p>
+ * Saving does not read before it writes: an existing resource is changed with an
+ * {@code UPDATE ... WHERE NAMESPACE = ? AND NAME = ? AND GENERATION = ?}. If no row matches, the resource is
+ * inserted. Only if the insert violates a constraint the stored resource is read to report the right error.
+ * Different from the in-memory stores, the generation of an existing resource has to match exactly.
+ *
+ * @param <T> The resource type to be stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@Slf4j
+public class R2dbcStoreService<T extends Resource<?>> implements ReactiveStoreService<T> {
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private static final String COLUMNS
+            = "UID, NAMESPACE, NAME, KIND, API_VERSION, GENERATION, OWNER, CREATED, MODIFIED, DELETED, LABELS, ANNOTATIONS, "
+            + "SPEC, STATUS";
+
+    private final DatabaseClient client;
+    private final ObjectMapper mapper;
+    private final Class<? extends T> type;
+
+    @ToString.Include
+    private final String table;
+
+    private final String selectByName;
+    private final String selectByUid;
+    private final String selectAll;
+    private final String selectAllByNameSpace;
+    private final String countByNameSpace;
+    private final String insert;
+    private final String update;
+    private final String deleteByName;
+    private final String deleteByUid;
+
+
+    /**
+     * @param client the database client to use.
+     * @param table  the table of this store.
+     * @param type   the class of the stored resources (used to read the resources).
+     */
+    public R2dbcStoreService(@NotNull final DatabaseClient client, @NotNull final String table, @NotNull final Class<? extends T> type) {
+        this(client, table, type, JacksonResourceCodec.defaultMapper());
+    }
+
+    /**
+     * @param client the database client to use.
+     * @param table  the table of this store.
+     * @param type   the class of the stored resources (used to read the resources).
+     * @param mapper the mapper for the JSON columns.
+     */
+    public R2dbcStoreService(
+            @NotNull final DatabaseClient client,
+            @NotNull final String table,
+            @NotNull final Class<? extends T> type,
+            @NotNull final ObjectMapper mapper
+    ) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid table name: " + table);
+        }
+
+        this.client = client;
+        this.table = table;
+        this.type = type;
+        this.mapper = mapper;
+
+        this.selectByName = "SELECT " + COLUMNS + " FROM " + table + " WHERE NAMESPACE = :nameSpace AND NAME = :name";
+        this.selectByUid = "SELECT " + COLUMNS + " FROM " + table + " WHERE UID = :uid";
+        this.selectAll = "SELECT " + COLUMNS + " FROM " + table + " ORDER BY NAMESPACE, NAME";
+        this.selectAllByNameSpace = "SELECT " + COLUMNS + " FROM " + table + " WHERE NAMESPACE = :nameSpace ORDER BY NAME";
+        this.countByNameSpace = "SELECT COUNT(*) FROM " + table + " WHERE NAMESPACE = :nameSpace";
+        this.insert = "INSERT INTO " + table + " (" + COLUMNS + ") VALUES "
+                + "(:uid, :nameSpace, :name, :kind, :apiVersion, :generation, :owner, :created, :modified, :deleted, :labels, "
+                + ":annotations, :spec, :status)";
+        this.update = "UPDATE " + table + " SET UID = :uid, KIND = :kind, API_VERSION = :apiVersion, GENERATION = :generation, "
+                + "OWNER = :owner, CREATED = :created, MODIFIED = :modified, DELETED = :deleted, LABELS = :labels, ANNOTATIONS = :annotations, SPEC = :spec, STATUS = :status "
+                + "WHERE NAMESPACE = :nameSpace AND NAME = :name AND GENERATION = :expected";
+        this.deleteByName = "DELETE FROM " + table + " WHERE NAMESPACE = :nameSpace AND NAME = :name";
+        this.deleteByUid = "DELETE FROM " + table + " WHERE UID = :uid";
+    }
+
+
+    /**
+     * Creates the table of this store if it does not exist. The DDL works with H2 and PostgreSQL.
+     *
+     * @return completes when the table exists.
+     */
+    public Mono<Void> createTable() {
+        return this.client.sql("CREATE TABLE IF NOT EXISTS " + this.table + " ("
+                + "UID UUID NOT NULL UNIQUE, "
+                + "NAMESPACE VARCHAR(255) NOT NULL, "
+                + "NAME VARCHAR(255) NOT NULL, "
+                + "KIND VARCHAR(255) NOT NULL, "
+                + "API_VERSION VARCHAR(255) NOT NULL, "
+                + "GENERATION INTEGER NOT NULL, "
+                + "OWNER VARCHAR, "
+                + "CREATED TIMESTAMP WITH TIME ZONE, "
+                + "MODIFIED TIMESTAMP WITH TIME ZONE, "
+                + "DELETED TIMESTAMP WITH TIME ZONE, "
+                + "LABELS VARCHAR, "
+                + "ANNOTATIONS VARCHAR, "
+                + "SPEC VARCHAR, "
+                + "STATUS VARCHAR, "
+                + "PRIMARY KEY (NAMESPACE, NAME))"
+        ).then();
+    }
+
+
+    @Override
+    public Mono<T> findByNameSpaceAndName(final String nameSpace, final String name) {
+        return this.client.sql(this.selectByName)
+                .bind("nameSpace", nameSpace)
+                .bind("name", name)
+                .map((row, meta) -> this.toResource(row))
+                .one();
+    }
+
+    @Override
+    public Mono<T> findByUid(final UUID uid) {
+        return this.client.sql(this.selectByUid)
+                .bind("uid", uid)
+                .map((row, meta) -> this.toResource(row))
+                .one();
+    }
+
+    @Override
+    public Flux<T> findAll() {
+        return this.client.sql(this.selectAll)
+                .map((row, meta) -> this.toResource(row))
+                .all();
+    }
+
+    @Override
+    public Flux<T> findAllByNameSpace(final String nameSpace) {
+        return this.client.sql(this.selectAllByNameSpace)
+                .bind("nameSpace", nameSpace)
+                .map((row, meta) -> this.toResource(row))
+                .all();
+    }
+
+    @Override
+    public Mono<Long> countByNameSpace(final String nameSpace) {
+        return this.client.sql(this.countByNameSpace)
+                .bind("nameSpace", nameSpace)
+                .map((row, meta) -> row.get(0, Long.class))
+                .one();
+    }
+
+
+    @Override
+    public Mono<T> save(final T object) {
+        return Mono.defer(() -> {
+            log.trace("Saving: {}", object);
+
+            @SuppressWarnings("unchecked")
+            final T data = (T) object.increaseGeneration();
+
+            return this.bind(this.client.sql(this.update), data)
+                    .bind("expected", object.getGeneration())
+                    .fetch().rowsUpdated()
+                    .flatMap(updated -> updated > 0
+                            ? Mono.just(data)
+                            : this.bind(this.client.sql(this.insert), object).fetch().rowsUpdated().thenReturn(object)
+                    )
+                    .onErrorResume(DataIntegrityViolationException.class, e -> this.conflict(object, e));
+        });
+    }
+
+    /**
+     * Reads the stored resources to report why the resource could not be saved. If the conflicting resource has
+     * been removed in the meantime, the save is tried again.
+     */
+    private Mono<T> conflict(final T object, final DataIntegrityViolationException cause) {
+        log.debug("Save failed, checking stored data. resource={}, error='{}'", object.getSelfLink(), cause.getMessage());
+
+        final Mono<T> sameUid = this.findByUid(object.getUid())
+                .filter(stored -> !stored.getNameSpace().equals(object.getNameSpace()) || !stored.getName().equals(object.getName()))
+                .<T>flatMap(stored -> Mono.error(new DuplicateStoreException(stored.toPointer(), object.toPointer())));
+
+        final Mono<T> sameName = this.findByNameSpaceAndName(object.getNameSpace(), object.getName())
+                .<T>flatMap(stored -> Mono.error(new OptimisticLockStoreException(stored.getGeneration(), object.getGeneration() + 1)));
+
+        return sameUid
+                .switchIfEmpty(sameName)
+                .switchIfEmpty(Mono.defer(() -> this.save(object)));
+    }
+
+    @Override
+    public Mono<Void> remove(final T object) {
+        return this.remove(object.getNameSpace(), object.getName());
+    }
+
+    @Override
+    public Mono<Void> remove(final String nameSpace, final String name) {
+        return this.client.sql(this.deleteByName)
+                .bind("nameSpace", nameSpace)
+                .bind("name", name)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> remove(final UUID uid) {
+        return this.client.sql(this.deleteByUid)
+                .bind("uid", uid)
+                .then();
+    }
+
+
+    private DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, final T object) {
+        final JsonNode tree = this.mapper.valueToTree(object);
+        final JsonNode metadata = tree.path("metadata");
+
+        spec = spec
+                .bind("uid", object.getUid())
+                .bind("nameSpace", object.getNameSpace())
+                .bind("name", object.getName())
+                .bind("kind", object.getKind())
+                .bind("apiVersion", object.getApiVersion())
+                .bind("generation", object.getGeneration());
+
+        spec = bind(spec, "created", object.getMetadata().getCreated(), OffsetDateTime.class);
+        spec = bind(spec, "modified", object.getMetadata().getModified(), OffsetDateTime.class);
+        spec = bind(spec, "deleted", object.getMetadata().getDeletionTimestamp().orElse(null), OffsetDateTime.class);
+        spec = bind(spec, "owner", this.toJson(metadata.get("owner")), String.class);
+        spec = bind(spec, "labels", this.toJson(metadata.get("labels")), String.class);
+        spec = bind(spec, "annotations", this.toJson(metadata.get("annotations")), String.class);
+        spec = bind(spec, "spec", this.toJson(tree.get("spec")), String.class);
+        return bind(spec, "status", this.toJson(tree.get("status")), String.class);
+    }
+
+    private static <V> DatabaseClient.GenericExecuteSpec bind(
+            final DatabaseClient.GenericExecuteSpec spec,
+            final String name,
+            final V value,
+            final Class<V> type
+    ) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
+    private String toJson(final JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+
+        try {
+            return this.mapper.writeValueAsString(node);
+        } catch (final JsonProcessingException e) {
+            throw new PersistenceStoreException("Can't encode resource data of type " + this.type.getName(), e);
+        }
+    }
+
+    private T toResource(final Row row) {
+        try {
+            final ObjectNode identity = this.mapper.createObjectNode()
+                    .put("kind", row.get("KIND", String.class))
+                    .put("apiVersion", row.get("API_VERSION", String.class))
+                    .put("nameSpace", row.get("NAMESPACE", String.class))
+                    .put("name", row.get("NAME", String.class));
+
+            final ObjectNode metadata = this.mapper.createObjectNode();
+            metadata.set("identity", identity);
+            metadata.put("uid", String.valueOf(row.get("UID", UUID.class)));
+            metadata.put("generation", row.get("GENERATION", Integer.class));
+
+            this.setTimestamp(metadata, "created", row.get("CREATED", OffsetDateTime.class));
+            this.setTimestamp(metadata, "modified", row.get("MODIFIED", OffsetDateTime.class));
+            this.setTimestamp(metadata, "deleted", row.get("DELETED", OffsetDateTime.class));
+
+            this.setJson(metadata, "owner", row.get("OWNER", String.class));
+            this.setJson(metadata, "labels", row.get("LABELS", String.class));
+            this.setJson(metadata, "annotations", row.get("ANNOTATIONS", String.class));
+
+            final ObjectNode resource = this.mapper.createObjectNode();
+            resource.set("metadata", metadata);
+            this.setJson(resource, "spec", row.get("SPEC", String.class));
+            this.setJson(resource, "status", row.get("STATUS", String.class));
+
+            return this.mapper.treeToValue(resource, this.type);
+        } catch (final JsonProcessingException e) {
+            throw new PersistenceStoreException("Can't decode resource of type " + this.type.getName(), e);
+        }
+    }
+
+    private void setTimestamp(final ObjectNode node, final String field, final OffsetDateTime timestamp) {
+        if (timestamp != null) {
+            node.set(field, this.mapper.valueToTree(timestamp));
+        }
+    }
+
+    private void setJson(final ObjectNode node, final String field, final String json) throws JsonProcessingException {
+        if (json != null) {
+            node.set(field, this.mapper.readTree(json));
+        }
+    }
+}
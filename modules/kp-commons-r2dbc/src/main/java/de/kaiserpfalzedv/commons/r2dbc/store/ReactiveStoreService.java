@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2025. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.r2dbc.store;
+
+import java.util.UUID;
+
+import de.kaiserpfalzedv.commons.api.resources.Resource;
+import de.kaiserpfalzedv.commons.api.store.DuplicateStoreException;
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ReactiveStoreService -- the non-blocking counterpart of
+ * {@link de.kaiserpfalzedv.commons.api.store.StoreService}.
+ * <p>
+ * Nothing happens until the returned publishers are subscribed. Errors like
+ * {@link OptimisticLockStoreException} are signalled through the publishers, not thrown.
+ *
+ * @param <T> The resource type to be stored.
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+public interface ReactiveStoreService<T extends Resource<?>> {
+    /**
+     * @param nameSpace the namespace of the resource.
+     * @param name      the name of the resource.
+     * @return the resource or an empty mono.
+     */
+    Mono<T> findByNameSpaceAndName(final String nameSpace, final String name);
+
+    /**
+     * @param uid the unique id of the resource.
+     * @return the resource or an empty mono.
+     */
+    Mono<T> findByUid(final UUID uid);
+
+    /**
+     * Streams all resources of the store ordered by namespace and name. The resources are read as the subscriber
+     * requests them.
+     *
+     * @return all resources of the store.
+     */
+    Flux<T> findAll();
+
+    /**
+     * Streams all resources of a namespace ordered by name. The resources are read as the subscriber requests them.
+     *
+     * @param nameSpace the namespace to read.
+     * @return all resources of the namespace.
+     */
+    Flux<T> findAllByNameSpace(final String nameSpace);
+
+    /**
+     * @param nameSpace the namespace to count.
+     * @return the number of resources in the namespace.
+     */
+    Mono<Long> countByNameSpace(final String nameSpace);
+
+    /**
+     * Saves the resource. A new resource is stored with its generation, an existing one only if the stored
+     * generation matches the generation of the object. It is then stored with the next generation.
+     *
+     * @param object the resource to save.
+     * @return the saved resource, or an error with {@link OptimisticLockStoreException} if the stored generation does
+     *         not match or {@link DuplicateStoreException} if another resource already has the uid.
+     */
+    Mono<T> save(final T object);
+
+    /**
+     * @param object the resource to remove.
+     * @return completes when the resource is removed.
+     */
+    Mono<Void> remove(final T object);
+
+    /**
+     * @param nameSpace the namespace of the resource to remove.
+     * @param name      the name of the resource to remove.
+     * @return completes when the resource is removed.
+     */
+    Mono<Void> remove(final String nameSpace, final String name);
+
+    /**
+     * @param uid the unique id of the resource to remove.
+     * @return completes when the resource is removed.
+     */
+    Mono<Void> remove(final UUID uid);
+}
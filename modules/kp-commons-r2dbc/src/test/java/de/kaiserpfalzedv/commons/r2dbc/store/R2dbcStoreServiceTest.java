@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2025. Roland T. Lichti, Kaiserpfalz EDV-Service.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.r2dbc.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import de.kaiserpfalzedv.commons.api.store.DuplicateStoreException;
+import de.kaiserpfalzedv.commons.api.store.OptimisticLockStoreException;
+import de.kaiserpfalzedv.commons.api.user.User;
+import de.kaiserpfalzedv.commons.core.resources.MetadataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserDataImpl;
+import de.kaiserpfalzedv.commons.core.user.UserImpl;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.h2.H2ConnectionOption;
+import lombok.extern.slf4j.XSlf4j;
+import reactor.test.StepVerifier;
+
+/**
+ * Tests the {@link R2dbcStoreService} against an in-memory H2 database.
+ *
+ * @author klenkes74 {@literal <rlichti@kaiserpfalz-edv.de>}
+ * @since 4.2.0  2026-10-18
+ */
+@XSlf4j
+class R2dbcStoreServiceTest {
+    private static final String NAMESPACE = "test";
+
+    private R2dbcStoreService<User> sut;
+
+
+    @BeforeEach
+    void setUp() {
+        final H2ConnectionFactory factory = new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .inMemory("store-" + UUID.randomUUID())
+                .property(H2ConnectionOption.DB_CLOSE_DELAY, "-1")
+                .build());
+
+        this.sut = new R2dbcStoreService<>(DatabaseClient.create(factory), "USERS", UserImpl.class);
+        this.sut.createTable().block();
+    }
+
+
+    @Test
+    void shouldReadTheResourceWhenItHasBeenSaved() {
+        log.entry();
+
+        final User user = createUser(NAMESPACE, "user", Map.of("tier", "backend"));
+
+        StepVerifier.create(this.sut.save(user)).expectNext(user).verifyComplete();
+
+        final User byName = this.sut.findByNameSpaceAndName(NAMESPACE, "user").block();
+        final User byUid = this.sut.findByUid(user.getUid()).block();
+
+        assertEquals(user, byName);
+        assertEquals(user, byUid);
+        assertEquals(Map.of("tier", "backend"), byName.getMetadata().getLabels());
+        assertEquals("user", byName.getSpec().getName());
+        assertEquals(0, byName.getGeneration());
+
+        log.exit();
+    }
+
+    @Test
+    void shouldKeepTheTimestampsWhenTheResourceIsReadBack() {
+        log.entry();
+
+        final OffsetDateTime created = OffsetDateTime.parse("2024-01-02T03:04:05.123456+01:00");
+        final OffsetDateTime modified = OffsetDateTime.parse("2025-06-07T08:09:10.654321+02:00");
+        final User user = UserImpl.builder()
+                .metadata(
+                        MetadataImpl.of(User.KIND, User.API_VERSION, NAMESPACE, "user")
+                                .uid(UUID.randomUUID())
+                                .created(created)
+                                .modified(modified)
+                                .build()
+                )
+                .spec(UserDataImpl.builder().name("user").build())
+                .build();
+
+        this.sut.save(user).block();
+        final User read = this.sut.findByUid(user.getUid()).block();
+
+        assertTrue(created.isEqual(read.getMetadata().getCreated()), () -> "created: " + read.getMetadata().getCreated());
+        assertTrue(modified.isEqual(read.getMetadata().getModified()), () -> "modified: " + read.getMetadata().getModified());
+
+        final User updated = this.sut.save(read).block();
+        final User reread = this.sut.findByUid(user.getUid()).block();
+
+        assertEquals(1, updated.getGeneration());
+        assertTrue(created.isEqual(reread.getMetadata().getCreated()), () -> "created: " + reread.getMetadata().getCreated());
+
+        log.exit();
+    }
+
+    @Test
+    void shouldIncreaseTheGenerationWhenAnExistingResourceIsSaved() {
+        log.entry();
+
+        final User user = this.sut.save(createUser(NAMESPACE, "user")).block();
+
+        final User saved = this.sut.save(user).block();
+
+        assertEquals(1, saved.getGeneration());
+        assertEquals(1, this.sut.findByUid(user.getUid()).block().getGeneration());
+
+        log.exit();
+    }
+
+    @Test
+    void shouldFailWithOptimisticLockWhenTheGenerationIsStale() {
+        log.entry();
+
+        final User initial = this.sut.save(createUser(NAMESPACE, "user")).block();
+        this.sut.save(initial).block();
+
+        StepVerifier.create(this.sut.save(initial))
+                .expectError(OptimisticLockStoreException.class)
+                .verify();
+        assertEquals(1, this.sut.findByUid(initial.getUid()).block().getGeneration());
+
+        log.exit();
+    }
+
+    @Test
+    void shouldFailWithDuplicateWhenTheUidBelongsToAnotherResource() {
+        log.entry();
+
+        final User user = this.sut.save(createUser(NAMESPACE, "user")).block();
+        final User other = UserImpl.builder()
+                .metadata(MetadataImpl.of(User.KIND, User.API_VERSION, NAMESPACE, "other").uid(user.getUid()).build())
+                .spec(UserDataImpl.builder().name("other").build())
+                .build();
+
+        StepVerifier.create(this.sut.save(other))
+                .expectError(DuplicateStoreException.class)
+                .verify();
+
+        log.exit();
+    }
+
+    @Test
+    void shouldStreamTheNameSpaceWhenTheSubscriberRequestsInSteps() {
+        log.entry();
+
+        for (int i = 0; i < 5; i++) {
+            this.sut.save(createUser(NAMESPACE, "user-" + i)).block();
+        }
+        this.sut.save(createUser("other", "user-0")).block();
+
+        StepVerifier.create(this.sut.findAllByNameSpace(NAMESPACE).map(User::getName), 0)
+                .thenRequest(2)
+                .expectNext("user-0", "user-1")
+                .thenRequest(3)
+                .expectNext("user-2", "user-3", "user-4")
+                .verifyComplete();
+
+        StepVerifier.create(this.sut.countByNameSpace(NAMESPACE)).expectNext(5L).verifyComplete();
+        StepVerifier.create(this.sut.findAll()).expectNextCount(6).verifyComplete();
+
+        log.exit();
+    }
+
+    @Test
+    void shouldRemoveTheResourceWhenRemovedByNameOrUid() {
+        log.entry();
+
+        final User first = this.sut.save(createUser(NAMESPACE, "first")).block();
+        final User second = this.sut.save(createUser(NAMESPACE, "second")).block();
+
+        this.sut.remove(NAMESPACE, "first").block();
+        this.sut.remove(second.getUid()).block();
+
+        StepVerifier.create(this.sut.findByUid(first.getUid())).verifyComplete();
+        StepVerifier.create(this.sut.findByNameSpaceAndName(NAMESPACE, "second")).verifyComplete();
+
+        log.exit();
+    }
+
+
+    private static User createUser(final String nameSpace, final String name) {
+        return createUser(nameSpace, name, Map.of());
+    }
+
+    private static User createUser(final String nameSpace, final String name, final Map<String, String> labels) {
+        return UserImpl.builder()
+                .metadata(
+                        MetadataImpl.of(User.KIND, User.API_VERSION, nameSpace, name)
+                                .uid(UUID.randomUUID())
+                                .labels(labels)
+                                .build()
+                )
+                .spec(UserDataImpl.builder().name(name).build())
+                .build();
+    }
+}